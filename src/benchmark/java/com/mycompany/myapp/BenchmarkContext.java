@@ -0,0 +1,32 @@
+package com.mycompany.myapp;
+
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/**
+ * JMH state running the application against the embedded H2 database of the test configuration, once per benchmark
+ * fork, for the benchmarks which need beans wired with a database.
+ */
+@State(Scope.Benchmark)
+public class BenchmarkContext {
+
+    private ConfigurableApplicationContext context;
+
+    @Setup
+    public void start() {
+        context = new SpringApplicationBuilder(JApp1App.class).properties("server.port=0", "spring.main.banner-mode=off").run();
+    }
+
+    @TearDown
+    public void stop() {
+        context.close();
+    }
+
+    public <T> T getBean(Class<T> type) {
+        return context.getBean(type);
+    }
+}
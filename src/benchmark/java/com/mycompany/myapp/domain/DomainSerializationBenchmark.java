@@ -0,0 +1,119 @@
+package com.mycompany.myapp.domain;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.datatype.hibernate5.Hibernate5Module;
+import com.fasterxml.jackson.datatype.jdk8.Jdk8Module;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.mycompany.myapp.domain.enumeration.CategoryStatus;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Serialization of pages of products and of categories with their products, with the Jackson modules of
+ * {@link com.mycompany.myapp.config.JacksonConfiguration}, in each of the formats the API negotiates: JSON, and the
+ * binary Smile and CBOR. The size of the payloads of each format is printed once per fork.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DomainSerializationBenchmark {
+
+    @Param({ "20", "100" })
+    private int size;
+
+    @Param({ "json", "smile", "cbor" })
+    private String format;
+
+    private ObjectMapper objectMapper;
+
+    private List<Product> products;
+
+    private Category category;
+
+    @Setup
+    public void setup() throws Exception {
+        objectMapper =
+            new ObjectMapper(factory(format))
+                .registerModule(new JavaTimeModule())
+                .registerModule(new Jdk8Module())
+                .registerModule(new Hibernate5Module())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+        Category parent = category(1L);
+        category = category(2L).parent(parent);
+        products = new ArrayList<>(size);
+        for (long id = 1; id <= size; id++) {
+            Product product = new Product()
+                .id(id)
+                .title("Product " + id)
+                .keywords("benchmark, product, " + id)
+                .description("A product used to benchmark the serialization of the catalog, number " + id)
+                .rating((int) (id % 5))
+                .dateAdded(LocalDate.of(2021, 1, 1).plusDays(id))
+                .dateModified(LocalDate.of(2021, 6, 1).plusDays(id));
+            product.addCategory(category);
+            product.addCategory(parent);
+            products.add(product);
+        }
+        System.out.printf(
+            Locale.ROOT,
+            "%n%s payloads: %d bytes for %d products, %d bytes for a category with its products%n",
+            format,
+            serializeProducts().length,
+            size,
+            serializeCategoryWithProducts().length
+        );
+    }
+
+    private static JsonFactory factory(String format) {
+        switch (format) {
+            case "smile":
+                return new SmileFactory();
+            case "cbor":
+                return new CBORFactory();
+            default:
+                return new JsonFactory();
+        }
+    }
+
+    private static Category category(Long id) {
+        return new Category()
+            .id(id)
+            .description("Category " + id)
+            .sortOrder(id.intValue())
+            .dateAdded(LocalDate.of(2020, 1, 1))
+            .dateModified(LocalDate.of(2021, 1, 1))
+            .status(CategoryStatus.AVAILABLE);
+    }
+
+    @Benchmark
+    public byte[] serializeProducts() throws Exception {
+        return objectMapper.writeValueAsBytes(products);
+    }
+
+    @Benchmark
+    public byte[] serializeCategoryWithProducts() throws Exception {
+        return objectMapper.writeValueAsBytes(category);
+    }
+}
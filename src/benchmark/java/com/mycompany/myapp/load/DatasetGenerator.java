@@ -0,0 +1,406 @@
+package com.mycompany.myapp.load;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import javax.sql.DataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Generates a large, reproducible catalog straight into the database with JDBC batches: a category tree of a given
+ * depth and fan-out, products linked to one to three categories, and customers with a variable number of addresses.
+ * <p>
+ * The schema must exist, i.e. the application must have run its Liquibase changelog once. The generated rows take a
+ * new range of ids, reserved by moving {@code sequence_generator} past it, so it should run while the application is
+ * idle. The same seed always produces the same rows.
+ * <p>
+ * Run it against an external database with
+ * {@code ./mvnw -Pdev,benchmark -DskipTests test-compile exec:exec@dataset -Ddataset.args="--jdbc-url=... --products=1000000"}.
+ */
+public class DatasetGenerator {
+
+    private static final Logger log = LoggerFactory.getLogger(DatasetGenerator.class);
+
+    private static final int BATCH_SIZE = 1000;
+
+    private static final int COMMIT_INTERVAL = 20000;
+
+    private static final String[] WORDS = {
+        "alpine", "amber", "arctic", "atlas", "aurora", "basalt", "bamboo", "breeze", "canyon", "cedar", "cobalt", "comet",
+        "coral", "crystal", "delta", "dune", "echo", "ember", "fjord", "flint", "forest", "galaxy", "glacier", "granite",
+        "harbor", "horizon", "indigo", "island", "jade", "jasper", "lagoon", "lunar", "maple", "meadow", "nebula", "nova",
+        "oasis", "onyx", "orbit", "pebble", "pine", "prairie", "quartz", "raven", "ridge", "river", "sierra", "solar",
+        "summit", "tundra", "valley", "velvet", "willow", "zenith",
+    };
+
+    private static final String[] KINDS = {
+        "phone", "laptop", "camera", "speaker", "headphones", "watch", "tablet", "monitor", "keyboard", "router", "lamp",
+        "chair", "desk", "backpack", "bottle", "jacket", "shoes", "tent", "bike", "drone",
+    };
+
+    private static final String[] FIRST_NAMES = {
+        "Ada", "Alan", "Barbara", "Claude", "Edsger", "Frances", "Grace", "Guido", "James", "John", "Ken", "Linus",
+        "Margaret", "Niklaus", "Radia", "Tim", "Barbara", "Donald", "Leslie", "Sophie",
+    };
+
+    private static final String[] LAST_NAMES = {
+        "Lovelace", "Turing", "Liskov", "Shannon", "Dijkstra", "Allen", "Hopper", "Rossum", "Gosling", "Backus",
+        "Thompson", "Torvalds", "Hamilton", "Wirth", "Perlman", "Berners-Lee", "Knuth", "Lamport", "Wilson", "Ritchie",
+    };
+
+    private static final String[] CITIES = {
+        "Paris", "Berlin", "Madrid", "Rome", "Lisbon", "Vienna", "Dublin", "Oslo", "Prague", "Warsaw",
+    };
+
+    private static final String[] COUNTRIES = { "FR", "DE", "ES", "IT", "PT", "AT", "IE", "NO", "CZ", "PL" };
+
+    private static final String[] STATUSES = { "AVAILABLE", "AVAILABLE", "AVAILABLE", "RESTRICTED", "DISABLED" };
+
+    private static final LocalDate EPOCH = LocalDate.of(2015, 1, 1);
+
+    private final Settings settings;
+
+    private final SplittableRandom random;
+
+    public DatasetGenerator(Settings settings) {
+        this.settings = settings;
+        this.random = new SplittableRandom(settings.seed);
+    }
+
+    public static void main(String[] args) throws SQLException {
+        Map<String, String> options = LoadTest.parseOptions(args);
+        String url = options.get("jdbc-url");
+        if (url == null) {
+            throw new IllegalArgumentException("--jdbc-url is required");
+        }
+        try (Connection connection = DriverManager.getConnection(url, options.get("jdbc-user"), options.get("jdbc-password"))) {
+            new DatasetGenerator(Settings.of(options)).generate(connection);
+        }
+    }
+
+    /**
+     * Generate the dataset with a connection of the data source.
+     *
+     * @param dataSource the data source of the application.
+     * @return the ranges of the generated ids.
+     * @throws SQLException if the rows cannot be inserted.
+     */
+    public Dataset generate(DataSource dataSource) throws SQLException {
+        try (Connection connection = dataSource.getConnection()) {
+            return generate(connection);
+        }
+    }
+
+    /**
+     * Generate the dataset.
+     *
+     * @param connection the connection to the database.
+     * @return the ranges of the generated ids.
+     * @throws SQLException if the rows cannot be inserted.
+     */
+    public Dataset generate(Connection connection) throws SQLException {
+        long start = System.nanoTime();
+        connection.setAutoCommit(false);
+        long categoryCount = 0;
+        for (long level = 1, width = 1; level <= settings.categoryDepth; level++) {
+            width *= settings.categoryFanout;
+            categoryCount += width;
+        }
+        long addressCount = settings.customers * settings.addressesPerCustomer;
+        long total = categoryCount + settings.products + settings.customers + addressCount * 2;
+        long firstId = reserveIds(connection, total);
+
+        Dataset dataset = new Dataset();
+        long nextId = firstId;
+        dataset.firstCategoryId = nextId;
+        nextId = insertCategories(connection, nextId);
+        dataset.lastCategoryId = nextId - 1;
+        dataset.firstProductId = nextId;
+        nextId = insertProducts(connection, nextId, dataset.firstCategoryId, dataset.lastCategoryId);
+        dataset.lastProductId = nextId - 1;
+        dataset.firstCustomerId = nextId;
+        nextId = insertCustomers(connection, nextId);
+        dataset.lastCustomerId = nextId - 1;
+        insertAddresses(connection, nextId, dataset.firstCustomerId, dataset.lastCustomerId);
+        connection.commit();
+
+        log.info(
+            "Generated {} categories, {} products and {} customers with their addresses in {} s",
+            dataset.lastCategoryId - dataset.firstCategoryId + 1,
+            dataset.lastProductId - dataset.firstProductId + 1,
+            dataset.lastCustomerId - dataset.firstCustomerId + 1,
+            (System.nanoTime() - start) / 1_000_000_000
+        );
+        return dataset;
+    }
+
+    /**
+     * Reserve a range of ids past the ones already in use, and move the sequence past it: with the pooled optimizer,
+     * the application uses the block of 50 ids below each value of the sequence.
+     */
+    private long reserveIds(Connection connection, long count) throws SQLException {
+        long firstId;
+        try (Statement statement = connection.createStatement()) {
+            firstId = nextSequenceValue(statement) + 1;
+            for (String table : new String[] { "category", "product", "customer", "address" }) {
+                firstId = Math.max(firstId, queryLong(statement, "select max(id) from " + table) + 1);
+            }
+            statement.execute("alter sequence sequence_generator restart with " + (firstId + count + 100));
+        }
+        connection.commit();
+        return firstId;
+    }
+
+    private static long nextSequenceValue(Statement statement) throws SQLException {
+        try {
+            return queryLong(statement, "select nextval('sequence_generator')");
+        } catch (SQLException e) {
+            // not PostgreSQL: H2 and the SQL standard
+            return queryLong(statement, "select next value for sequence_generator");
+        }
+    }
+
+    private static long queryLong(Statement statement, String query) throws SQLException {
+        try (ResultSet resultSet = statement.executeQuery(query)) {
+            resultSet.next();
+            return resultSet.getLong(1);
+        }
+    }
+
+    private long insertCategories(Connection connection, long firstId) throws SQLException {
+        String sql =
+            "insert into category (id, description, sort_order, date_added, date_modified, status, parent_id) values (?, ?, ?, ?, ?, ?, ?)";
+        long nextId = firstId;
+        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+            // breadth first, so the parents are inserted before their children
+            List<Long> parents = new ArrayList<>();
+            parents.add(null);
+            for (int level = 1; level <= settings.categoryDepth; level++) {
+                List<Long> children = new ArrayList<>(parents.size() * settings.categoryFanout);
+                for (Long parentId : parents) {
+                    for (int i = 0; i < settings.categoryFanout; i++) {
+                        long id = nextId++;
+                        LocalDate added = randomDate();
+                        statement.setLong(1, id);
+                        statement.setString(2, capitalize(word()) + " " + word() + " " + level + "." + (i + 1));
+                        statement.setInt(3, i + 1);
+                        statement.setObject(4, added);
+                        statement.setObject(5, added.plusDays(random.nextInt(365)));
+                        statement.setString(6, STATUSES[random.nextInt(STATUSES.length)]);
+                        if (parentId == null) {
+                            statement.setNull(7, Types.BIGINT);
+                        } else {
+                            statement.setLong(7, parentId);
+                        }
+                        addBatch(connection, statement, id - firstId + 1);
+                        children.add(id);
+                    }
+                }
+                parents = children;
+            }
+            statement.executeBatch();
+        }
+        return nextId;
+    }
+
+    private long insertProducts(Connection connection, long firstId, long firstCategoryId, long lastCategoryId) throws SQLException {
+        String productSql =
+            "insert into product (id, title, keywords, description, rating, date_added, date_modified) values (?, ?, ?, ?, ?, ?, ?)";
+        String linkSql = "insert into rel_category__product (category_id, product_id) values (?, ?)";
+        long categories = lastCategoryId - firstCategoryId + 1;
+        long nextId = firstId;
+        try (
+            PreparedStatement products = connection.prepareStatement(productSql);
+            PreparedStatement links = connection.prepareStatement(linkSql)
+        ) {
+            for (long n = 1; n <= settings.products; n++) {
+                long id = nextId++;
+                String kind = KINDS[random.nextInt(KINDS.length)];
+                String title = capitalize(word()) + " " + word() + " " + kind + " " + n;
+                LocalDate added = randomDate();
+                products.setLong(1, id);
+                products.setString(2, title);
+                products.setString(3, kind + ", " + word() + ", " + word());
+                products.setString(4, "The " + title + " is a " + word() + " " + kind + " for " + word() + " and " + word() + " lovers.");
+                if (random.nextInt(10) == 0) {
+                    products.setNull(5, Types.INTEGER);
+                } else {
+                    products.setInt(5, 1 + random.nextInt(5));
+                }
+                products.setObject(6, added);
+                products.setObject(7, added.plusDays(random.nextInt(365)));
+                products.addBatch();
+
+                int linkCount = 1 + random.nextInt(3);
+                long firstLink = firstCategoryId + random.nextLong(categories);
+                for (int i = 0; i < linkCount && i < categories; i++) {
+                    // consecutive categories, so a product is never linked twice to the same one
+                    links.setLong(1, firstCategoryId + (firstLink - firstCategoryId + i) % categories);
+                    links.setLong(2, id);
+                    links.addBatch();
+                }
+                if (n % BATCH_SIZE == 0) {
+                    products.executeBatch();
+                    links.executeBatch();
+                }
+                if (n % COMMIT_INTERVAL == 0) {
+                    connection.commit();
+                    log.info("Generated {} products", n);
+                }
+            }
+            products.executeBatch();
+            links.executeBatch();
+        }
+        return nextId;
+    }
+
+    private long insertCustomers(Connection connection, long firstId) throws SQLException {
+        String sql = "insert into customer (id, first_name, last_name, email, telephone) values (?, ?, ?, ?, ?)";
+        long nextId = firstId;
+        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+            for (long n = 1; n <= settings.customers; n++) {
+                long id = nextId++;
+                String firstName = FIRST_NAMES[random.nextInt(FIRST_NAMES.length)];
+                String lastName = LAST_NAMES[random.nextInt(LAST_NAMES.length)];
+                statement.setLong(1, id);
+                statement.setString(2, firstName);
+                statement.setString(3, lastName);
+                statement.setString(4, (firstName + "." + lastName + "." + n + "@example.com").toLowerCase());
+                statement.setString(5, String.format("+33 6 %08d", random.nextInt(100_000_000)));
+                addBatch(connection, statement, n);
+            }
+            statement.executeBatch();
+        }
+        return nextId;
+    }
+
+    private long insertAddresses(Connection connection, long firstId, long firstCustomerId, long lastCustomerId) throws SQLException {
+        String sql = "insert into address (id, address_1, address_2, city, postcode, country, customer_id) values (?, ?, ?, ?, ?, ?, ?)";
+        long nextId = firstId;
+        long n = 0;
+        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+            for (long customerId = firstCustomerId; customerId <= lastCustomerId; customerId++) {
+                // between none and twice the average number of addresses
+                long addresses = random.nextLong(settings.addressesPerCustomer * 2 + 1);
+                for (long i = 0; i < addresses; i++) {
+                    int city = random.nextInt(CITIES.length);
+                    statement.setLong(1, nextId++);
+                    statement.setString(2, (1 + random.nextInt(200)) + " " + capitalize(word()) + " street");
+                    statement.setString(3, random.nextInt(4) == 0 ? "Building " + (char) ('A' + random.nextInt(6)) : null);
+                    statement.setString(4, CITIES[city]);
+                    statement.setString(5, String.format("%05d", random.nextInt(100_000)));
+                    statement.setString(6, COUNTRIES[city]);
+                    statement.setLong(7, customerId);
+                    addBatch(connection, statement, ++n);
+                }
+            }
+            statement.executeBatch();
+        }
+        return nextId;
+    }
+
+    private void addBatch(Connection connection, PreparedStatement statement, long count) throws SQLException {
+        statement.addBatch();
+        if (count % BATCH_SIZE == 0) {
+            statement.executeBatch();
+        }
+        if (count % COMMIT_INTERVAL == 0) {
+            connection.commit();
+        }
+    }
+
+    private String word() {
+        return WORDS[random.nextInt(WORDS.length)];
+    }
+
+    private LocalDate randomDate() {
+        return EPOCH.plusDays(random.nextInt(2500));
+    }
+
+    private static String capitalize(String word) {
+        return Character.toUpperCase(word.charAt(0)) + word.substring(1);
+    }
+
+    /**
+     * Size of the generated dataset, from the {@code --products}, {@code --category-depth},
+     * {@code --category-fanout}, {@code --customers}, {@code --addresses-per-customer} and {@code --seed} options.
+     */
+    public static class Settings {
+
+        private long products = 100_000;
+
+        private int categoryDepth = 5;
+
+        private int categoryFanout = 5;
+
+        private long customers = 20_000;
+
+        private long addressesPerCustomer = 3;
+
+        private long seed = 42;
+
+        public static Settings of(Map<String, String> options) {
+            Settings settings = new Settings();
+            settings.products = Long.parseLong(options.getOrDefault("products", String.valueOf(settings.products)));
+            settings.categoryDepth = Integer.parseInt(options.getOrDefault("category-depth", String.valueOf(settings.categoryDepth)));
+            settings.categoryFanout = Integer.parseInt(options.getOrDefault("category-fanout", String.valueOf(settings.categoryFanout)));
+            settings.customers = Long.parseLong(options.getOrDefault("customers", String.valueOf(settings.customers)));
+            settings.addressesPerCustomer =
+                Long.parseLong(options.getOrDefault("addresses-per-customer", String.valueOf(settings.addressesPerCustomer)));
+            settings.seed = Long.parseLong(options.getOrDefault("seed", String.valueOf(settings.seed)));
+            return settings;
+        }
+    }
+
+    /**
+     * Ranges of the ids of the generated rows.
+     */
+    public static class Dataset {
+
+        private long firstCategoryId;
+
+        private long lastCategoryId;
+
+        private long firstProductId;
+
+        private long lastProductId;
+
+        private long firstCustomerId;
+
+        private long lastCustomerId;
+
+        public long getFirstCategoryId() {
+            return firstCategoryId;
+        }
+
+        public long getLastCategoryId() {
+            return lastCategoryId;
+        }
+
+        public long getFirstProductId() {
+            return firstProductId;
+        }
+
+        public long getLastProductId() {
+            return lastProductId;
+        }
+
+        public long getFirstCustomerId() {
+            return firstCustomerId;
+        }
+
+        public long getLastCustomerId() {
+            return lastCustomerId;
+        }
+    }
+}
@@ -0,0 +1,383 @@
+package com.mycompany.myapp.load;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mycompany.myapp.JApp1App;
+import com.mycompany.myapp.service.CategoryHierarchyService;
+import com.mycompany.myapp.service.ProductSearchService;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+import javax.sql.DataSource;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/**
+ * Closed-loop load test of the REST resources: each worker thread sends a request, waits for the response, and sends
+ * the next one, picking the scenario at random with its weight. After a warm-up, the latency of every request is
+ * recorded, and the throughput and the p50/p99/max latencies of each scenario are reported.
+ * <p>
+ * Without {@code --base-url}, the application is started in this JVM against the embedded H2 database of the test
+ * configuration, and filled by the {@link DatasetGenerator}. With {@code --base-url}, an application already running,
+ * e.g. on a local PostgreSQL database, is tested; its database is filled first if {@code --jdbc-url} is given.
+ * <p>
+ * Options: {@code --threads} (16), {@code --warmup} (10 seconds), {@code --duration} (60 seconds), {@code --username}
+ * and {@code --password} (admin), and the options of {@link DatasetGenerator.Settings}.
+ */
+public class LoadTest {
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(30);
+
+    private final HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(10)).build();
+
+    private final String baseUrl;
+
+    private final Map<String, String> options;
+
+    private final List<Scenario> scenarios = new ArrayList<>();
+
+    private String token;
+
+    public LoadTest(String baseUrl, Map<String, String> options) {
+        this.baseUrl = baseUrl;
+        this.options = options;
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = parseOptions(args);
+        String baseUrl = options.get("base-url");
+        ConfigurableApplicationContext context = null;
+        if (baseUrl == null) {
+            context = new SpringApplicationBuilder(JApp1App.class).properties("server.port=0", "spring.main.banner-mode=off").run();
+            baseUrl = "http://localhost:" + ((WebServerApplicationContext) context).getWebServer().getPort();
+            new DatasetGenerator(DatasetGenerator.Settings.of(options)).generate(context.getBean(DataSource.class));
+            // the in-memory indexes were built when the application started, before the dataset was generated
+            context.getBean(ProductSearchService.class).reindex();
+            context.getBean(CategoryHierarchyService.class).reload();
+        } else if (options.containsKey("jdbc-url")) {
+            try (
+                Connection connection = DriverManager.getConnection(
+                    options.get("jdbc-url"),
+                    options.get("jdbc-user"),
+                    options.get("jdbc-password")
+                )
+            ) {
+                new DatasetGenerator(DatasetGenerator.Settings.of(options)).generate(connection);
+            }
+        }
+        try {
+            new LoadTest(baseUrl, options).run();
+        } finally {
+            if (context != null) {
+                context.close();
+            }
+        }
+    }
+
+    /**
+     * Parse {@code --name=value} arguments.
+     *
+     * @param args the command line arguments.
+     * @return the values by name.
+     */
+    static Map<String, String> parseOptions(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || arg.indexOf('=') < 0) {
+                throw new IllegalArgumentException("Expected --name=value, got: " + arg);
+            }
+            options.put(arg.substring(2, arg.indexOf('=')), arg.substring(arg.indexOf('=') + 1));
+        }
+        return options;
+    }
+
+    public void run() throws Exception {
+        int threads = Integer.parseInt(options.getOrDefault("threads", "16"));
+        long warmup = Long.parseLong(options.getOrDefault("warmup", "10"));
+        long duration = Long.parseLong(options.getOrDefault("duration", "60"));
+        String username = options.getOrDefault("username", "admin");
+        String password = options.getOrDefault("password", "admin");
+
+        token = authenticate(username, password);
+        long[] productIds = idRange("products");
+        long[] categoryIds = idRange("categories");
+        String credentials = credentials(username, password);
+
+        scenarios.add(
+            new Scenario(
+                "list products by criteria",
+                30,
+                random ->
+                    get(
+                        "/api/products?title.contains=" +
+                        DatasetWords.pick(random) +
+                        "&rating.greaterThanOrEqual=" +
+                        (1 + random.nextInt(5)) +
+                        "&page=" +
+                        random.nextInt(5) +
+                        "&size=20&sort=id,asc"
+                    )
+            )
+        );
+        scenarios.add(
+            new Scenario(
+                "list categories by parent",
+                10,
+                random -> get("/api/categories?parentId.equals=" + between(random, categoryIds) + "&size=20")
+            )
+        );
+        scenarios.add(new Scenario("count products", 15, random -> get("/api/products/count?rating.equals=" + (1 + random.nextInt(5)))));
+        scenarios.add(new Scenario("get product", 30, random -> get("/api/products/" + between(random, productIds))));
+        scenarios.add(
+            new Scenario(
+                "patch product",
+                10,
+                random -> {
+                    long id = between(random, productIds);
+                    String patch = "{\"id\":" + id + ",\"rating\":" + (1 + random.nextInt(5)) + "}";
+                    return request("/api/products/" + id)
+                        .header("Content-Type", "application/merge-patch+json")
+                        .method("PATCH", HttpRequest.BodyPublishers.ofString(patch))
+                        .build();
+                }
+            )
+        );
+        scenarios.add(
+            new Scenario(
+                "authenticate",
+                5,
+                random ->
+                    HttpRequest
+                        .newBuilder(URI.create(baseUrl + "/api/authenticate"))
+                        .timeout(REQUEST_TIMEOUT)
+                        .header("Content-Type", "application/json")
+                        .POST(HttpRequest.BodyPublishers.ofString(credentials))
+                        .build()
+            )
+        );
+
+        System.out.printf(Locale.ROOT, "Warming up %s for %d s with %d threads%n", baseUrl, warmup, threads);
+        drive(threads, warmup, false);
+        System.out.printf(Locale.ROOT, "Measuring for %d s%n", duration);
+        long elapsed = drive(threads, duration, true);
+        report(elapsed);
+    }
+
+    /**
+     * Run the workers for the given duration.
+     *
+     * @return the elapsed time, in nanoseconds.
+     */
+    private long drive(int threads, long seconds, boolean record) throws Exception {
+        scenarios.forEach(Scenario::reset);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        long start = System.nanoTime();
+        long deadline = start + Duration.ofSeconds(seconds).toNanos();
+        try {
+            List<Future<?>> workers = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                SplittableRandom random = new SplittableRandom(i);
+                workers.add(executor.submit(() -> work(random, deadline, record)));
+            }
+            for (Future<?> worker : workers) {
+                worker.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        return System.nanoTime() - start;
+    }
+
+    private Void work(SplittableRandom random, long deadline, boolean record) throws InterruptedException {
+        int totalWeight = scenarios.stream().mapToInt(scenario -> scenario.weight).sum();
+        while (System.nanoTime() < deadline) {
+            int pick = random.nextInt(totalWeight);
+            Scenario scenario = scenarios.get(0);
+            for (Scenario candidate : scenarios) {
+                pick -= candidate.weight;
+                if (pick < 0) {
+                    scenario = candidate;
+                    break;
+                }
+            }
+            HttpRequest request = scenario.requests.apply(random);
+            long start = System.nanoTime();
+            boolean success;
+            try {
+                HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                success = response.statusCode() / 100 == 2;
+            } catch (IOException e) {
+                success = false;
+            }
+            if (record) {
+                scenario.record(System.nanoTime() - start, success);
+            }
+        }
+        return null;
+    }
+
+    private void report(long elapsed) {
+        double seconds = elapsed / 1e9;
+        System.out.printf(
+            Locale.ROOT,
+            "%n%-28s %10s %8s %12s %10s %10s %10s%n",
+            "scenario",
+            "requests",
+            "errors",
+            "req/s",
+            "p50 (ms)",
+            "p99 (ms)",
+            "max (ms)"
+        );
+        long requests = 0;
+        for (Scenario scenario : scenarios) {
+            long[] latencies = scenario.latencies();
+            requests += latencies.length;
+            System.out.printf(
+                Locale.ROOT,
+                "%-28s %10d %8d %12.1f %10.2f %10.2f %10.2f%n",
+                scenario.name,
+                latencies.length,
+                scenario.errors(),
+                latencies.length / seconds,
+                percentile(latencies, 0.50),
+                percentile(latencies, 0.99),
+                percentile(latencies, 1.0)
+            );
+        }
+        System.out.printf(Locale.ROOT, "%-28s %10d %8s %12.1f%n", "total", requests, "", requests / seconds);
+    }
+
+    private static double percentile(long[] sortedLatencies, double percentile) {
+        if (sortedLatencies.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(percentile * sortedLatencies.length) - 1;
+        return sortedLatencies[Math.max(0, index)] / 1e6;
+    }
+
+    private String authenticate(String username, String password) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest
+            .newBuilder(URI.create(baseUrl + "/api/authenticate"))
+            .timeout(REQUEST_TIMEOUT)
+            .header("Content-Type", "application/json")
+            .POST(HttpRequest.BodyPublishers.ofString(credentials(username, password)))
+            .build();
+        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException("Cannot authenticate as " + username + ": " + response.statusCode());
+        }
+        return OBJECT_MAPPER.readTree(response.body()).get("id_token").asText();
+    }
+
+    private static String credentials(String username, String password) throws IOException {
+        return OBJECT_MAPPER.writeValueAsString(Map.of("username", username, "password", password));
+    }
+
+    /**
+     * @return the lowest and highest ids of the entities.
+     */
+    private long[] idRange(String resource) throws IOException, InterruptedException {
+        long[] range = new long[2];
+        String[] directions = { "asc", "desc" };
+        for (int i = 0; i < 2; i++) {
+            HttpRequest request = get("/api/" + resource + "?size=1&sort=id," + directions[i]);
+            HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+            JsonNode page = OBJECT_MAPPER.readTree(response.body());
+            if (response.statusCode() != 200 || page.size() == 0) {
+                throw new IllegalStateException("No " + resource + " to test with");
+            }
+            range[i] = page.get(0).get("id").asLong();
+        }
+        return range;
+    }
+
+    private static long between(SplittableRandom random, long[] range) {
+        return range[0] + random.nextLong(range[1] - range[0] + 1);
+    }
+
+    private HttpRequest get(String path) {
+        return request(path).GET().build();
+    }
+
+    private HttpRequest.Builder request(String path) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path)).timeout(REQUEST_TIMEOUT).header("Authorization", "Bearer " + token);
+    }
+
+    /**
+     * The words of the titles generated by the {@link DatasetGenerator}, to filter on.
+     */
+    private static final class DatasetWords {
+
+        private static final String[] WORDS = { "phone", "laptop", "camera", "alpine", "cedar", "river", "summit", "nova" };
+
+        static String pick(SplittableRandom random) {
+            return WORDS[random.nextInt(WORDS.length)];
+        }
+    }
+
+    private static final class Scenario {
+
+        private final String name;
+
+        private final int weight;
+
+        private final Function<SplittableRandom, HttpRequest> requests;
+
+        private long[] latencies = new long[1024];
+
+        private int count;
+
+        private long errors;
+
+        Scenario(String name, int weight, Function<SplittableRandom, HttpRequest> requests) {
+            this.name = name;
+            this.weight = weight;
+            this.requests = requests;
+        }
+
+        synchronized void reset() {
+            count = 0;
+            errors = 0;
+        }
+
+        synchronized void record(long latency, boolean success) {
+            if (count == latencies.length) {
+                latencies = Arrays.copyOf(latencies, count * 2);
+            }
+            latencies[count++] = latency;
+            if (!success) {
+                errors++;
+            }
+        }
+
+        synchronized long[] latencies() {
+            long[] sorted = Arrays.copyOf(latencies, count);
+            Arrays.sort(sorted);
+            return sorted;
+        }
+
+        synchronized long errors() {
+            return errors;
+        }
+    }
+}
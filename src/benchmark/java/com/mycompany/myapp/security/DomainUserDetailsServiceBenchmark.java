@@ -0,0 +1,44 @@
+package com.mycompany.myapp.security;
+
+import com.mycompany.myapp.BenchmarkContext;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.core.userdetails.UserDetails;
+
+/**
+ * Loading of the users on authentication, by login and by email, against the embedded H2 database.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DomainUserDetailsServiceBenchmark {
+
+    private DomainUserDetailsService userDetailsService;
+
+    @Setup
+    public void setup(BenchmarkContext context) {
+        userDetailsService = context.getBean(DomainUserDetailsService.class);
+    }
+
+    @Benchmark
+    public UserDetails loadUserByLogin() {
+        return userDetailsService.loadUserByUsername("admin");
+    }
+
+    @Benchmark
+    public UserDetails loadUserByEmail() {
+        return userDetailsService.loadUserByUsername("admin@localhost");
+    }
+}
@@ -0,0 +1,111 @@
+package com.mycompany.myapp.service;
+
+import com.mycompany.myapp.BenchmarkContext;
+import com.mycompany.myapp.domain.Category;
+import com.mycompany.myapp.domain.Product;
+import com.mycompany.myapp.domain.enumeration.CategoryStatus;
+import com.mycompany.myapp.service.criteria.CategoryCriteria;
+import com.mycompany.myapp.service.criteria.ProductCriteria;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import tech.jhipster.service.filter.IntegerFilter;
+import tech.jhipster.service.filter.LocalDateFilter;
+import tech.jhipster.service.filter.LongFilter;
+import tech.jhipster.service.filter.StringFilter;
+
+/**
+ * Conversion of the criteria of the list endpoints to {@link javax.persistence.criteria.Predicate}s, with the
+ * criteria builder of the application.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class QueryServiceSpecificationBenchmark {
+
+    private EntityManager entityManager;
+
+    private CriteriaBuilder cb;
+
+    private ProductQueryService productQueryService;
+
+    private CategoryQueryService categoryQueryService;
+
+    private ProductCriteria productCriteria;
+
+    private CategoryCriteria categoryCriteria;
+
+    @Setup
+    public void setup(BenchmarkContext context) {
+        entityManager = context.getBean(EntityManagerFactory.class).createEntityManager();
+        cb = entityManager.getCriteriaBuilder();
+        // only the specification builders are used, which need neither the repositories nor a transaction
+        productQueryService = new ProductQueryService(null, entityManager, null, null, null);
+        categoryQueryService = new CategoryQueryService(null, entityManager, null, null, null);
+
+        productCriteria = new ProductCriteria();
+        StringFilter title = new StringFilter();
+        title.setContains("phone");
+        productCriteria.setTitle(title);
+        IntegerFilter rating = new IntegerFilter();
+        rating.setGreaterThanOrEqual(3);
+        productCriteria.setRating(rating);
+        LocalDateFilter dateAdded = new LocalDateFilter();
+        dateAdded.setGreaterThan(LocalDate.of(2020, 1, 1));
+        productCriteria.setDateAdded(dateAdded);
+        LongFilter categoryId = new LongFilter();
+        categoryId.setIn(List.of(1001L, 1002L, 1003L));
+        productCriteria.setCategoryId(categoryId);
+        productCriteria.setDistinct(true);
+
+        categoryCriteria = new CategoryCriteria();
+        StringFilter description = new StringFilter();
+        description.setContains("home");
+        categoryCriteria.setDescription(description);
+        CategoryCriteria.CategoryStatusFilter status = new CategoryCriteria.CategoryStatusFilter();
+        status.setEquals(CategoryStatus.AVAILABLE);
+        categoryCriteria.setStatus(status);
+        LongFilter parentId = new LongFilter();
+        parentId.setEquals(1001L);
+        categoryCriteria.setParentId(parentId);
+    }
+
+    @TearDown
+    public void tearDown() {
+        entityManager.close();
+    }
+
+    @Benchmark
+    public Predicate productSpecification() {
+        CriteriaQuery<Product> query = cb.createQuery(Product.class);
+        Root<Product> root = query.from(Product.class);
+        return productQueryService.createSpecification(productCriteria).toPredicate(root, query, cb);
+    }
+
+    @Benchmark
+    public Predicate categorySpecification() {
+        CriteriaQuery<Category> query = cb.createQuery(Category.class);
+        Root<Category> root = query.from(Category.class);
+        return categoryQueryService.createSpecification(categoryCriteria).toPredicate(root, query, cb);
+    }
+}
@@ -0,0 +1,134 @@
+package com.mycompany.myapp.cache;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Predicate;
+
+/**
+ * Bounded map evicting its least recently used entries, shared by the caches of the application.
+ * <p>
+ * The keys are spread by hash over segments, each an access-ordered {@link LinkedHashMap} guarded by its own lock, so
+ * that concurrent lookups of different keys rarely wait for each other. Each segment holds an equal share of the
+ * entries and evicts its least recently used one once full, so the eviction order is only exact within a segment: a
+ * cache of less than {@value #MIN_SEGMENT_SIZE} entries per segment has fewer segments, down to a single one.
+ *
+ * @param <K> the type of the keys.
+ * @param <V> the type of the values.
+ */
+public final class LruCache<K, V> {
+
+    static final int MAX_SEGMENTS = 16;
+
+    static final int MIN_SEGMENT_SIZE = 64;
+
+    private final Segment<K, V>[] segments;
+
+    /**
+     * @param maxEntries the maximum number of entries, none are kept when {@code 0} or less.
+     */
+    @SuppressWarnings("unchecked")
+    public LruCache(int maxEntries) {
+        int count = Math.max(1, Math.min(MAX_SEGMENTS, maxEntries / MIN_SEGMENT_SIZE));
+        segments = new Segment[count];
+        for (int i = 0; i < count; i++) {
+            // the first segments hold the remainder of the division
+            segments[i] = new Segment<>(maxEntries / count + (i < maxEntries % count ? 1 : 0));
+        }
+    }
+
+    /**
+     * @param key the key.
+     * @return the value of the key, now the most recently used, or {@code null} if there is none.
+     */
+    public V get(K key) {
+        Segment<K, V> segment = segment(key);
+        synchronized (segment) {
+            return segment.get(key);
+        }
+    }
+
+    /**
+     * Map the key to the value, evicting the least recently used entry of its segment once full.
+     *
+     * @param key the key.
+     * @param value the value.
+     */
+    public void put(K key, V value) {
+        Segment<K, V> segment = segment(key);
+        synchronized (segment) {
+            segment.put(key, value);
+        }
+    }
+
+    /**
+     * Remove the key, if it is still mapped to the value.
+     *
+     * @param key the key.
+     * @param value the value.
+     */
+    public void remove(K key, V value) {
+        Segment<K, V> segment = segment(key);
+        synchronized (segment) {
+            segment.remove(key, value);
+        }
+    }
+
+    /**
+     * Remove the entries whose value matches the predicate, one segment at a time.
+     *
+     * @param predicate the predicate of the values to remove.
+     */
+    public void removeIf(Predicate<? super V> predicate) {
+        for (Segment<K, V> segment : segments) {
+            synchronized (segment) {
+                segment.values().removeIf(predicate);
+            }
+        }
+    }
+
+    /**
+     * Remove all the entries.
+     */
+    public void clear() {
+        for (Segment<K, V> segment : segments) {
+            synchronized (segment) {
+                segment.clear();
+            }
+        }
+    }
+
+    /**
+     * @return the number of entries.
+     */
+    public int size() {
+        int size = 0;
+        for (Segment<K, V> segment : segments) {
+            synchronized (segment) {
+                size += segment.size();
+            }
+        }
+        return size;
+    }
+
+    private Segment<K, V> segment(K key) {
+        int hash = Objects.hashCode(key);
+        // spread the high bits, like HashMap
+        return segments[Math.floorMod(hash ^ (hash >>> 16), segments.length)];
+    }
+
+    private static final class Segment<K, V> extends LinkedHashMap<K, V> {
+
+        private final int maxEntries;
+
+        Segment(int maxEntries) {
+            super(16, 0.75f, true);
+            this.maxEntries = maxEntries;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+            return size() > maxEntries;
+        }
+    }
+}
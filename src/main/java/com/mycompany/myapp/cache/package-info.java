@@ -0,0 +1,4 @@
+/**
+ * In-memory caches shared by the layers of the application.
+ */
+package com.mycompany.myapp.cache;
@@ -1,6 +1,12 @@
 package com.mycompany.myapp.config;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
 
 /**
  * Properties specific to J App 1.
@@ -9,4 +15,739 @@ import org.springframework.boot.context.properties.ConfigurationProperties;
  * See {@link tech.jhipster.config.JHipsterProperties} for a good example.
  */
 @ConfigurationProperties(prefix = "application", ignoreUnknownFields = false)
-public class ApplicationProperties {}
+public class ApplicationProperties {
+
+    private final Security security = new Security();
+
+    private final Cache cache = new Cache();
+
+    private final BulkImport bulkImport = new BulkImport();
+
+    private final Timing timing = new Timing();
+
+    private final VirtualThreads virtualThreads = new VirtualThreads();
+
+    private final Datasource datasource = new Datasource();
+
+    private final Count count = new Count();
+
+    private final QueryCache queryCache = new QueryCache();
+
+    private final MailOutbox mailOutbox = new MailOutbox();
+
+    private final ResponseCache responseCache = new ResponseCache();
+
+    private final ChangeStream changeStream = new ChangeStream();
+
+    private final ConditionalGet conditionalGet = new ConditionalGet();
+
+    public Security getSecurity() {
+        return security;
+    }
+
+    public Cache getCache() {
+        return cache;
+    }
+
+    public BulkImport getBulkImport() {
+        return bulkImport;
+    }
+
+    public Timing getTiming() {
+        return timing;
+    }
+
+    public VirtualThreads getVirtualThreads() {
+        return virtualThreads;
+    }
+
+    public Datasource getDatasource() {
+        return datasource;
+    }
+
+    public Count getCount() {
+        return count;
+    }
+
+    public QueryCache getQueryCache() {
+        return queryCache;
+    }
+
+    public MailOutbox getMailOutbox() {
+        return mailOutbox;
+    }
+
+    public ResponseCache getResponseCache() {
+        return responseCache;
+    }
+
+    public ChangeStream getChangeStream() {
+        return changeStream;
+    }
+
+    public ConditionalGet getConditionalGet() {
+        return conditionalGet;
+    }
+
+    public static class Security {
+
+        private final TokenCache tokenCache = new TokenCache();
+
+        private final Password password = new Password();
+
+        private final Authentication authentication = new Authentication();
+
+        public TokenCache getTokenCache() {
+            return tokenCache;
+        }
+
+        public Password getPassword() {
+            return password;
+        }
+
+        public Authentication getAuthentication() {
+            return authentication;
+        }
+
+        /**
+         * Hashing of the passwords, see {@code ThrottledPasswordEncoder}.
+         */
+        public static class Password {
+
+            private int bcryptStrength = 10;
+
+            public int getBcryptStrength() {
+                return bcryptStrength;
+            }
+
+            public void setBcryptStrength(int bcryptStrength) {
+                this.bcryptStrength = bcryptStrength;
+            }
+        }
+
+        /**
+         * Bounded pool the passwords are hashed and checked on, so a burst of logins cannot take all the CPU.
+         */
+        public static class Authentication {
+
+            private int threads = Runtime.getRuntime().availableProcessors();
+
+            private int queueCapacity = 100;
+
+            private Duration maxWait = Duration.ofSeconds(5);
+
+            public int getThreads() {
+                return threads;
+            }
+
+            public void setThreads(int threads) {
+                this.threads = threads;
+            }
+
+            public int getQueueCapacity() {
+                return queueCapacity;
+            }
+
+            public void setQueueCapacity(int queueCapacity) {
+                this.queueCapacity = queueCapacity;
+            }
+
+            public Duration getMaxWait() {
+                return maxWait;
+            }
+
+            public void setMaxWait(Duration maxWait) {
+                this.maxWait = maxWait;
+            }
+        }
+
+        /**
+         * Cache of the verified JWT tokens, so a token presented again is not parsed and verified again.
+         */
+        public static class TokenCache {
+
+            private boolean enabled = true;
+
+            private int maxEntries = 10000;
+
+            public boolean isEnabled() {
+                return enabled;
+            }
+
+            public void setEnabled(boolean enabled) {
+                this.enabled = enabled;
+            }
+
+            public int getMaxEntries() {
+                return maxEntries;
+            }
+
+            public void setMaxEntries(int maxEntries) {
+                this.maxEntries = maxEntries;
+            }
+        }
+    }
+
+    /**
+     * Sizing and tiering of the Ehcache regions, on top of the {@code jhipster.cache.ehcache} defaults.
+     */
+    public static class Cache {
+
+        private String diskPath;
+
+        private final Map<String, Region> regions = new HashMap<>();
+
+        public String getDiskPath() {
+            return diskPath;
+        }
+
+        public void setDiskPath(String diskPath) {
+            this.diskPath = diskPath;
+        }
+
+        public Map<String, Region> getRegions() {
+            return regions;
+        }
+
+        /**
+         * Tiers of a cache region: heap (sized in entries or bytes), then optionally off-heap and disk (sized in bytes).
+         */
+        public static class Region {
+
+            private Long heapEntries;
+
+            private DataSize heapSize;
+
+            private DataSize offHeapSize;
+
+            private DataSize diskSize;
+
+            private boolean diskPersistent = false;
+
+            private Long timeToLiveSeconds;
+
+            public Long getHeapEntries() {
+                return heapEntries;
+            }
+
+            public void setHeapEntries(Long heapEntries) {
+                this.heapEntries = heapEntries;
+            }
+
+            public DataSize getHeapSize() {
+                return heapSize;
+            }
+
+            public void setHeapSize(DataSize heapSize) {
+                this.heapSize = heapSize;
+            }
+
+            public DataSize getOffHeapSize() {
+                return offHeapSize;
+            }
+
+            public void setOffHeapSize(DataSize offHeapSize) {
+                this.offHeapSize = offHeapSize;
+            }
+
+            public DataSize getDiskSize() {
+                return diskSize;
+            }
+
+            public void setDiskSize(DataSize diskSize) {
+                this.diskSize = diskSize;
+            }
+
+            public boolean isDiskPersistent() {
+                return diskPersistent;
+            }
+
+            public void setDiskPersistent(boolean diskPersistent) {
+                this.diskPersistent = diskPersistent;
+            }
+
+            public Long getTimeToLiveSeconds() {
+                return timeToLiveSeconds;
+            }
+
+            public void setTimeToLiveSeconds(Long timeToLiveSeconds) {
+                this.timeToLiveSeconds = timeToLiveSeconds;
+            }
+        }
+    }
+
+    /**
+     * Bulk import of products and categories: rows are flushed every {@code hibernate.jdbc.batch_size} rows and
+     * committed every {@code commitInterval} rows.
+     */
+    public static class BulkImport {
+
+        private int commitInterval = 1000;
+
+        private int maxReportedErrors = 100;
+
+        public int getCommitInterval() {
+            return commitInterval;
+        }
+
+        public void setCommitInterval(int commitInterval) {
+            this.commitInterval = commitInterval;
+        }
+
+        public int getMaxReportedErrors() {
+            return maxReportedErrors;
+        }
+
+        public void setMaxReportedErrors(int maxReportedErrors) {
+            this.maxReportedErrors = maxReportedErrors;
+        }
+    }
+
+    /**
+     * Timing of the repository, service and REST methods: a sampled share of the calls is recorded in the
+     * {@code application.method} timers, and the calls slower than {@code slowThreshold} are logged.
+     */
+    public static class Timing {
+
+        private boolean enabled = true;
+
+        private double sampleRate = 1.0;
+
+        private Duration slowThreshold = Duration.ofMillis(500);
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public double getSampleRate() {
+            return sampleRate;
+        }
+
+        public void setSampleRate(double sampleRate) {
+            this.sampleRate = sampleRate;
+        }
+
+        public Duration getSlowThreshold() {
+            return slowThreshold;
+        }
+
+        public void setSlowThreshold(Duration slowThreshold) {
+            this.slowThreshold = slowThreshold;
+        }
+    }
+
+    /**
+     * Virtual threads (Java 21 or later) for the servlet requests and the {@code @Async} and {@code @Scheduled}
+     * tasks. The number of requests and of {@code @Async} tasks running at once is bounded, so that they do not all
+     * wait on the database connection pool.
+     */
+    public static class VirtualThreads {
+
+        private boolean enabled = false;
+
+        private int maxConcurrentRequests = 200;
+
+        private int maxConcurrentTasks = 50;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public int getMaxConcurrentRequests() {
+            return maxConcurrentRequests;
+        }
+
+        public void setMaxConcurrentRequests(int maxConcurrentRequests) {
+            this.maxConcurrentRequests = maxConcurrentRequests;
+        }
+
+        public int getMaxConcurrentTasks() {
+            return maxConcurrentTasks;
+        }
+
+        public void setMaxConcurrentTasks(int maxConcurrentTasks) {
+            this.maxConcurrentTasks = maxConcurrentTasks;
+        }
+    }
+
+    /**
+     * Read replicas receiving the read-only transactions, see {@code ReplicaRoutingDataSource}.
+     */
+    public static class Datasource {
+
+        private final List<Replica> replicas = new ArrayList<>();
+
+        private Duration maxLag = Duration.ofSeconds(10);
+
+        private Duration lagCheckInterval = Duration.ofSeconds(5);
+
+        private String lagQuery =
+            "select case when pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() then 0" +
+            " else extract(epoch from now() - pg_last_xact_replay_timestamp()) end";
+
+        public List<Replica> getReplicas() {
+            return replicas;
+        }
+
+        public Duration getMaxLag() {
+            return maxLag;
+        }
+
+        public void setMaxLag(Duration maxLag) {
+            this.maxLag = maxLag;
+        }
+
+        public Duration getLagCheckInterval() {
+            return lagCheckInterval;
+        }
+
+        public void setLagCheckInterval(Duration lagCheckInterval) {
+            this.lagCheckInterval = lagCheckInterval;
+        }
+
+        public String getLagQuery() {
+            return lagQuery;
+        }
+
+        public void setLagQuery(String lagQuery) {
+            this.lagQuery = lagQuery;
+        }
+
+        public static class Replica {
+
+            private String url;
+
+            private String username;
+
+            private String password;
+
+            private int maximumPoolSize = 10;
+
+            public String getUrl() {
+                return url;
+            }
+
+            public void setUrl(String url) {
+                this.url = url;
+            }
+
+            public String getUsername() {
+                return username;
+            }
+
+            public void setUsername(String username) {
+                this.username = username;
+            }
+
+            public String getPassword() {
+                return password;
+            }
+
+            public void setPassword(String password) {
+                this.password = password;
+            }
+
+            public int getMaximumPoolSize() {
+                return maximumPoolSize;
+            }
+
+            public void setMaximumPoolSize(int maximumPoolSize) {
+                this.maximumPoolSize = maximumPoolSize;
+            }
+        }
+    }
+
+    /**
+     * Cache of the counts of the entities matching criteria, see {@code CountCache}.
+     */
+    public static class Count {
+
+        private Duration ttl = Duration.ofSeconds(10);
+
+        private int maxEntries = 10000;
+
+        private long estimateThreshold = 100000;
+
+        public Duration getTtl() {
+            return ttl;
+        }
+
+        public void setTtl(Duration ttl) {
+            this.ttl = ttl;
+        }
+
+        public int getMaxEntries() {
+            return maxEntries;
+        }
+
+        public void setMaxEntries(int maxEntries) {
+            this.maxEntries = maxEntries;
+        }
+
+        public long getEstimateThreshold() {
+            return estimateThreshold;
+        }
+
+        public void setEstimateThreshold(long estimateThreshold) {
+            this.estimateThreshold = estimateThreshold;
+        }
+    }
+
+    /**
+     * Cache of the pages of entities matching criteria, see {@code QueryResultCache}.
+     */
+    public static class QueryCache {
+
+        private boolean enabled = true;
+
+        private Duration ttl = Duration.ofMinutes(5);
+
+        private int maxEntries = 10000;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public Duration getTtl() {
+            return ttl;
+        }
+
+        public void setTtl(Duration ttl) {
+            this.ttl = ttl;
+        }
+
+        public int getMaxEntries() {
+            return maxEntries;
+        }
+
+        public void setMaxEntries(int maxEntries) {
+            this.maxEntries = maxEntries;
+        }
+    }
+
+    /**
+     * Sending of the emails saved in the outbox, see {@code MailOutboxDispatcher}.
+     */
+    public static class MailOutbox {
+
+        private boolean enabled = true;
+
+        private Duration pollInterval = Duration.ofSeconds(5);
+
+        private int batchSize = 50;
+
+        private int maxAttempts = 10;
+
+        private Duration initialBackoff = Duration.ofSeconds(30);
+
+        private Duration maxBackoff = Duration.ofHours(1);
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public Duration getPollInterval() {
+            return pollInterval;
+        }
+
+        public void setPollInterval(Duration pollInterval) {
+            this.pollInterval = pollInterval;
+        }
+
+        public int getBatchSize() {
+            return batchSize;
+        }
+
+        public void setBatchSize(int batchSize) {
+            this.batchSize = batchSize;
+        }
+
+        public int getMaxAttempts() {
+            return maxAttempts;
+        }
+
+        public void setMaxAttempts(int maxAttempts) {
+            this.maxAttempts = maxAttempts;
+        }
+
+        public Duration getInitialBackoff() {
+            return initialBackoff;
+        }
+
+        public void setInitialBackoff(Duration initialBackoff) {
+            this.initialBackoff = initialBackoff;
+        }
+
+        public Duration getMaxBackoff() {
+            return maxBackoff;
+        }
+
+        public void setMaxBackoff(Duration maxBackoff) {
+            this.maxBackoff = maxBackoff;
+        }
+    }
+
+    /**
+     * Cache of the serialized responses of the catalog reads, see {@code ResponseCacheFilter}.
+     */
+    public static class ResponseCache {
+
+        private boolean enabled = true;
+
+        private Duration ttl = Duration.ofMinutes(1);
+
+        private int maxEntries = 1000;
+
+        private DataSize maxBodySize = DataSize.ofKilobytes(256);
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public Duration getTtl() {
+            return ttl;
+        }
+
+        public void setTtl(Duration ttl) {
+            this.ttl = ttl;
+        }
+
+        public int getMaxEntries() {
+            return maxEntries;
+        }
+
+        public void setMaxEntries(int maxEntries) {
+            this.maxEntries = maxEntries;
+        }
+
+        public DataSize getMaxBodySize() {
+            return maxBodySize;
+        }
+
+        public void setMaxBodySize(DataSize maxBodySize) {
+            this.maxBodySize = maxBodySize;
+        }
+    }
+
+    /**
+     * Stream of the committed writes of the catalog and customer entities, see {@code ChangeStreamService}.
+     */
+    public static class ChangeStream {
+
+        private boolean enabled = true;
+
+        private int bufferSize = 10000;
+
+        private int batchSize = 500;
+
+        private int maxSubscribers = 16;
+
+        private Duration heartbeat = Duration.ofSeconds(15);
+
+        private Duration timeout = Duration.ofMinutes(30);
+
+        private Duration retention = Duration.ofDays(7);
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public int getBufferSize() {
+            return bufferSize;
+        }
+
+        public void setBufferSize(int bufferSize) {
+            this.bufferSize = bufferSize;
+        }
+
+        public int getBatchSize() {
+            return batchSize;
+        }
+
+        public void setBatchSize(int batchSize) {
+            this.batchSize = batchSize;
+        }
+
+        public int getMaxSubscribers() {
+            return maxSubscribers;
+        }
+
+        public void setMaxSubscribers(int maxSubscribers) {
+            this.maxSubscribers = maxSubscribers;
+        }
+
+        public Duration getHeartbeat() {
+            return heartbeat;
+        }
+
+        public void setHeartbeat(Duration heartbeat) {
+            this.heartbeat = heartbeat;
+        }
+
+        public Duration getTimeout() {
+            return timeout;
+        }
+
+        public void setTimeout(Duration timeout) {
+            this.timeout = timeout;
+        }
+
+        public Duration getRetention() {
+            return retention;
+        }
+
+        public void setRetention(Duration retention) {
+            this.retention = retention;
+        }
+    }
+
+    /**
+     * Revisions of the tables tagging the listings, see {@code TableChangeCounter}.
+     */
+    public static class ConditionalGet {
+
+        private Duration refreshInterval = Duration.ofSeconds(5);
+
+        private Duration window = Duration.ofMinutes(5);
+
+        public Duration getRefreshInterval() {
+            return refreshInterval;
+        }
+
+        public void setRefreshInterval(Duration refreshInterval) {
+            this.refreshInterval = refreshInterval;
+        }
+
+        public Duration getWindow() {
+            return window;
+        }
+
+        public void setWindow(Duration window) {
+            this.window = window;
+        }
+    }
+}
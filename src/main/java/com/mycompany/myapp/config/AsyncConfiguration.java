@@ -1,17 +1,23 @@
 package com.mycompany.myapp.config;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.Optional;
 import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadFactory;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.aop.interceptor.AsyncUncaughtExceptionHandler;
 import org.springframework.aop.interceptor.SimpleAsyncUncaughtExceptionHandler;
 import org.springframework.boot.autoconfigure.task.TaskExecutionProperties;
+import org.springframework.boot.autoconfigure.task.TaskSchedulingProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.scheduling.annotation.AsyncConfigurer;
 import org.springframework.scheduling.annotation.EnableAsync;
 import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.concurrent.ConcurrentTaskExecutor;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
 import tech.jhipster.async.ExceptionHandlingAsyncTaskExecutor;
 
 @Configuration
@@ -23,24 +29,115 @@ public class AsyncConfiguration implements AsyncConfigurer {
 
     private final TaskExecutionProperties taskExecutionProperties;
 
-    public AsyncConfiguration(TaskExecutionProperties taskExecutionProperties) {
+    private final TaskSchedulingProperties taskSchedulingProperties;
+
+    private final ApplicationProperties applicationProperties;
+
+    private final MeterRegistry meterRegistry;
+
+    public AsyncConfiguration(
+        TaskExecutionProperties taskExecutionProperties,
+        TaskSchedulingProperties taskSchedulingProperties,
+        ApplicationProperties applicationProperties,
+        MeterRegistry meterRegistry
+    ) {
         this.taskExecutionProperties = taskExecutionProperties;
+        this.taskSchedulingProperties = taskSchedulingProperties;
+        this.applicationProperties = applicationProperties;
+        this.meterRegistry = meterRegistry;
     }
 
     @Override
     @Bean(name = "taskExecutor")
     public Executor getAsyncExecutor() {
+        Optional<ThreadFactory> virtualThreads = virtualThreadFactory(taskExecutionProperties.getThreadNamePrefix());
+        if (virtualThreads.isPresent()) {
+            int maxConcurrency = applicationProperties.getVirtualThreads().getMaxConcurrentTasks();
+            log.debug("Creating Async Task Executor on virtual threads, {} tasks at most", maxConcurrency);
+            ExecutorMeters meters = new ExecutorMeters(meterRegistry, "task", true);
+            return new ExceptionHandlingAsyncTaskExecutor(
+                new ConcurrentTaskExecutor(new VirtualThreadExecutor(virtualThreads.get(), maxConcurrency, meters))
+            );
+        }
         log.debug("Creating Async Task Executor");
         ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
         executor.setCorePoolSize(taskExecutionProperties.getPool().getCoreSize());
         executor.setMaxPoolSize(taskExecutionProperties.getPool().getMaxSize());
         executor.setQueueCapacity(taskExecutionProperties.getPool().getQueueCapacity());
         executor.setThreadNamePrefix(taskExecutionProperties.getThreadNamePrefix());
+        executor.setTaskDecorator(new ExecutorMeters(meterRegistry, "task", false));
         return new ExceptionHandlingAsyncTaskExecutor(executor);
     }
 
+    @Bean
+    public ThreadPoolTaskScheduler taskScheduler() {
+        ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler();
+        scheduler.setPoolSize(taskSchedulingProperties.getPool().getSize());
+        scheduler.setThreadNamePrefix(taskSchedulingProperties.getThreadNamePrefix());
+        virtualThreadFactory(taskSchedulingProperties.getThreadNamePrefix()).ifPresent(scheduler::setThreadFactory);
+        return scheduler;
+    }
+
+    /**
+     * Bounded pool the passwords are hashed and checked on, see {@code ThrottledPasswordEncoder}. Hashing is CPU bound,
+     * so it stays on platform threads, one per core by default, even when virtual threads are enabled.
+     *
+     * @return the executor, which rejects the tasks once its queue is full.
+     */
+    @Bean(name = "authenticationExecutor")
+    public ThreadPoolTaskExecutor authenticationExecutor() {
+        ApplicationProperties.Security.Authentication properties = applicationProperties.getSecurity().getAuthentication();
+        log.debug("Creating Authentication Executor, {} threads", properties.getThreads());
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(properties.getThreads());
+        executor.setMaxPoolSize(properties.getThreads());
+        executor.setQueueCapacity(properties.getQueueCapacity());
+        executor.setThreadNamePrefix("authentication-");
+        ExecutorMeters meters = new ExecutorMeters(meterRegistry, "authentication", false);
+        executor.setTaskDecorator(meters);
+        executor.initialize();
+        meters.bindPool(executor.getThreadPoolExecutor());
+        return executor;
+    }
+
+    /**
+     * Pool the subscribers of the change stream are served on, see {@code ChangeStreamResource}: each subscriber holds
+     * a thread for the life of its connection, mostly waiting for the next changes, so virtual threads are used when
+     * they are enabled.
+     *
+     * @return the executor, which rejects the subscribers beyond {@code application.change-stream.max-subscribers}.
+     */
+    @Bean(name = "changeStreamExecutor")
+    public ThreadPoolTaskExecutor changeStreamExecutor() {
+        int maxSubscribers = applicationProperties.getChangeStream().getMaxSubscribers();
+        log.debug("Creating Change Stream Executor, {} subscribers at most", maxSubscribers);
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(maxSubscribers);
+        executor.setMaxPoolSize(maxSubscribers);
+        executor.setQueueCapacity(0);
+        executor.setThreadNamePrefix("change-stream-");
+        Optional<ThreadFactory> virtualThreads = virtualThreadFactory("change-stream-");
+        virtualThreads.ifPresent(executor::setThreadFactory);
+        ExecutorMeters meters = new ExecutorMeters(meterRegistry, "change-stream", virtualThreads.isPresent());
+        executor.setTaskDecorator(meters);
+        executor.initialize();
+        meters.bindPool(executor.getThreadPoolExecutor());
+        return executor;
+    }
+
     @Override
     public AsyncUncaughtExceptionHandler getAsyncUncaughtExceptionHandler() {
         return new SimpleAsyncUncaughtExceptionHandler();
     }
+
+    private Optional<ThreadFactory> virtualThreadFactory(String namePrefix) {
+        if (!applicationProperties.getVirtualThreads().isEnabled()) {
+            return Optional.empty();
+        }
+        Optional<ThreadFactory> factory = VirtualThreadSupport.factory(namePrefix);
+        if (factory.isEmpty()) {
+            log.warn("Virtual threads are enabled but not supported by this Java runtime, using platform threads");
+        }
+        return factory;
+    }
 }
@@ -1,11 +1,19 @@
 package com.mycompany.myapp.config;
 
+import java.io.File;
 import java.time.Duration;
+import javax.cache.Caching;
 import org.ehcache.config.builders.*;
+import org.ehcache.config.units.EntryUnit;
+import org.ehcache.config.units.MemoryUnit;
+import org.ehcache.core.config.DefaultConfiguration;
+import org.ehcache.impl.config.persistence.DefaultPersistenceConfiguration;
 import org.ehcache.jsr107.Eh107Configuration;
+import org.ehcache.jsr107.EhcacheCachingProvider;
 import org.hibernate.cache.jcache.ConfigSettings;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.autoconfigure.cache.JCacheManagerCustomizer;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
 import org.springframework.boot.info.BuildProperties;
 import org.springframework.boot.info.GitProperties;
@@ -21,18 +29,39 @@ public class CacheConfiguration {
 
     private GitProperties gitProperties;
     private BuildProperties buildProperties;
-    private final javax.cache.configuration.Configuration<Object, Object> jcacheConfiguration;
+    private final JHipsterProperties.Cache.Ehcache ehcache;
+    private final ApplicationProperties.Cache cacheProperties;
 
-    public CacheConfiguration(JHipsterProperties jHipsterProperties) {
-        JHipsterProperties.Cache.Ehcache ehcache = jHipsterProperties.getCache().getEhcache();
+    public CacheConfiguration(JHipsterProperties jHipsterProperties, ApplicationProperties applicationProperties) {
+        this.ehcache = jHipsterProperties.getCache().getEhcache();
+        this.cacheProperties = applicationProperties.getCache();
 
-        jcacheConfiguration =
-            Eh107Configuration.fromEhcacheCacheConfiguration(
-                CacheConfigurationBuilder
-                    .newCacheConfigurationBuilder(Object.class, Object.class, ResourcePoolsBuilder.heap(ehcache.getMaxEntries()))
-                    .withExpiry(ExpiryPolicyBuilder.timeToLiveExpiration(Duration.ofSeconds(ehcache.getTimeToLiveSeconds())))
-                    .build()
-            );
+        cacheProperties
+            .getRegions()
+            .forEach((cacheName, region) -> {
+                if (region.getDiskSize() != null && cacheProperties.getDiskPath() == null) {
+                    throw new IllegalStateException(
+                        "Cache region " + cacheName + " has a disk tier, but application.cache.disk-path is not set"
+                    );
+                }
+            });
+    }
+
+    /**
+     * Cache manager with a persistence directory, needed as soon as a region has a disk tier.
+     * Without it, Spring Boot creates the default JCache manager and applies {@link #cacheManagerCustomizer()}.
+     */
+    @Bean
+    @ConditionalOnProperty(prefix = "application.cache", name = "disk-path")
+    public javax.cache.CacheManager diskPersistentCacheManager() {
+        EhcacheCachingProvider provider = (EhcacheCachingProvider) Caching.getCachingProvider(EhcacheCachingProvider.class.getName());
+        DefaultConfiguration configuration = new DefaultConfiguration(
+            provider.getDefaultClassLoader(),
+            new DefaultPersistenceConfiguration(new File(cacheProperties.getDiskPath()))
+        );
+        javax.cache.CacheManager cacheManager = provider.getCacheManager(provider.getDefaultURI(), configuration);
+        cacheManagerCustomizer().customize(cacheManager);
+        return cacheManager;
     }
 
     @Bean
@@ -64,10 +93,42 @@ public class CacheConfiguration {
         if (cache != null) {
             cache.clear();
         } else {
-            cm.createCache(cacheName, jcacheConfiguration);
+            cm.createCache(cacheName, jcacheConfiguration(cacheName));
         }
     }
 
+    /**
+     * Build the configuration of a cache: heap only with the {@code jhipster.cache.ehcache} defaults, unless the region
+     * is configured under {@code application.cache.regions} with its own heap, off-heap and disk tiers.
+     */
+    private javax.cache.configuration.Configuration<Object, Object> jcacheConfiguration(String cacheName) {
+        ApplicationProperties.Cache.Region region = cacheProperties
+            .getRegions()
+            .getOrDefault(cacheName, new ApplicationProperties.Cache.Region());
+
+        ResourcePoolsBuilder resourcePools = ResourcePoolsBuilder.newResourcePoolsBuilder();
+        if (region.getHeapSize() != null) {
+            resourcePools = resourcePools.heap(region.getHeapSize().toBytes(), MemoryUnit.B);
+        } else {
+            long heapEntries = region.getHeapEntries() != null ? region.getHeapEntries() : ehcache.getMaxEntries();
+            resourcePools = resourcePools.heap(heapEntries, EntryUnit.ENTRIES);
+        }
+        if (region.getOffHeapSize() != null) {
+            resourcePools = resourcePools.offheap(region.getOffHeapSize().toBytes(), MemoryUnit.B);
+        }
+        if (region.getDiskSize() != null) {
+            resourcePools = resourcePools.disk(region.getDiskSize().toBytes(), MemoryUnit.B, region.isDiskPersistent());
+        }
+        long timeToLiveSeconds = region.getTimeToLiveSeconds() != null ? region.getTimeToLiveSeconds() : ehcache.getTimeToLiveSeconds();
+
+        return Eh107Configuration.fromEhcacheCacheConfiguration(
+            CacheConfigurationBuilder
+                .newCacheConfigurationBuilder(Object.class, Object.class, resourcePools)
+                .withExpiry(ExpiryPolicyBuilder.timeToLiveExpiration(Duration.ofSeconds(timeToLiveSeconds)))
+                .build()
+        );
+    }
+
     @Autowired(required = false)
     public void setGitProperties(GitProperties gitProperties) {
         this.gitProperties = gitProperties;
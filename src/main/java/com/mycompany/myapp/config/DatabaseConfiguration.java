@@ -1,8 +1,13 @@
 package com.mycompany.myapp.config;
 
+import com.mycompany.myapp.service.EntityChangeListener;
 import java.sql.SQLException;
+import java.util.List;
+import org.hibernate.jpa.boot.internal.EntityManagerFactoryBuilderImpl;
+import org.hibernate.jpa.boot.spi.IntegratorProvider;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Profile;
@@ -41,6 +46,18 @@ public class DatabaseConfiguration {
         return H2ConfigurationHelper.createServer(port);
     }
 
+    /**
+     * Register the {@link EntityChangeListener} with Hibernate, so the caches built on the queries learn about the writes.
+     *
+     * @param entityChangeListener the listener.
+     * @return the customizer of the Hibernate properties.
+     */
+    @Bean
+    public HibernatePropertiesCustomizer entityChangeListenerCustomizer(EntityChangeListener entityChangeListener) {
+        IntegratorProvider integratorProvider = () -> List.of(entityChangeListener.integrator());
+        return properties -> properties.put(EntityManagerFactoryBuilderImpl.INTEGRATOR_PROVIDER, integratorProvider);
+    }
+
     private String getValidPortForH2() {
         int port = Integer.parseInt(env.getProperty("server.port"));
         if (port < 10000) {
@@ -0,0 +1,90 @@
+package com.mycompany.myapp.config;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import org.springframework.core.task.TaskDecorator;
+
+/**
+ * Meters of an executor, the same whether it runs its tasks on platform or virtual threads, so both modes can be
+ * compared under the same load: the time a task waits before running, and the time it runs. The rate of the
+ * execution timer is the throughput of the executor.
+ */
+final class ExecutorMeters implements TaskDecorator {
+
+    static final String WAIT_METER_NAME = "application.executor.wait";
+    static final String EXECUTION_METER_NAME = "application.executor.execution";
+    static final String ACTIVE_METER_NAME = "application.executor.active";
+    static final String WAITING_METER_NAME = "application.executor.waiting";
+    static final String EXECUTOR_DIMENSION = "executor";
+    static final String THREADS_DIMENSION = "threads";
+
+    private final MeterRegistry registry;
+
+    private final Tags tags;
+
+    private final Timer waitTimer;
+
+    private final Timer executionTimer;
+
+    ExecutorMeters(MeterRegistry registry, String executor, boolean virtualThreads) {
+        this.registry = registry;
+        this.tags = Tags.of(EXECUTOR_DIMENSION, executor, THREADS_DIMENSION, virtualThreads ? "virtual" : "platform");
+        this.waitTimer = Timer
+            .builder(WAIT_METER_NAME)
+            .description("Time the tasks wait for a thread or a permit before running.")
+            .tags(tags)
+            .register(registry);
+        this.executionTimer = Timer.builder(EXECUTION_METER_NAME).description("Time the tasks run.").tags(tags).register(registry);
+    }
+
+    /**
+     * Report the number of running and waiting tasks of an executor bounded by the given permits.
+     */
+    void bindPermits(Semaphore permits, int maxConcurrency) {
+        Gauge
+            .builder(ACTIVE_METER_NAME, permits, p -> maxConcurrency - p.availablePermits())
+            .description("Number of tasks running.")
+            .tags(tags)
+            .register(registry);
+        Gauge
+            .builder(WAITING_METER_NAME, permits, Semaphore::getQueueLength)
+            .description("Number of tasks waiting for a permit.")
+            .tags(tags)
+            .register(registry);
+    }
+
+    /**
+     * Report the number of running and queued tasks of a thread pool.
+     */
+    void bindPool(ThreadPoolExecutor pool) {
+        Gauge
+            .builder(ACTIVE_METER_NAME, pool, ThreadPoolExecutor::getActiveCount)
+            .description("Number of tasks running.")
+            .tags(tags)
+            .register(registry);
+        Gauge
+            .builder(WAITING_METER_NAME, pool, p -> p.getQueue().size())
+            .description("Number of tasks waiting for a thread.")
+            .tags(tags)
+            .register(registry);
+    }
+
+    @Override
+    public Runnable decorate(Runnable task) {
+        long submitted = System.nanoTime();
+        return () -> {
+            long started = System.nanoTime();
+            waitTimer.record(started - submitted, TimeUnit.NANOSECONDS);
+            try {
+                task.run();
+            } finally {
+                executionTimer.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+            }
+        };
+    }
+}
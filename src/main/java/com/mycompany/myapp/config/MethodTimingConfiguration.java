@@ -0,0 +1,36 @@
+package com.mycompany.myapp.config;
+
+import com.mycompany.myapp.aop.timing.MethodTimingInterceptor;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.aop.Advisor;
+import org.springframework.aop.aspectj.AspectJExpressionPointcutAdvisor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.EnableAspectJAutoProxy;
+
+@Configuration
+@EnableAspectJAutoProxy
+public class MethodTimingConfiguration {
+
+    /**
+     * All the Spring beans of the repository, service and REST packages of the application.
+     */
+    static final String TIMED_METHODS_POINTCUT =
+        "(within(@org.springframework.stereotype.Repository *)" +
+        " || within(@org.springframework.stereotype.Service *)" +
+        " || within(@org.springframework.web.bind.annotation.RestController *))" +
+        " && (within(com.mycompany.myapp.repository..*)" +
+        " || within(com.mycompany.myapp.service..*)" +
+        " || within(com.mycompany.myapp.web.rest..*))";
+
+    @Bean
+    @ConditionalOnProperty(prefix = "application.timing", name = "enabled", havingValue = "true", matchIfMissing = true)
+    public Advisor methodTimingAdvisor(MeterRegistry meterRegistry, ApplicationProperties applicationProperties) {
+        ApplicationProperties.Timing timing = applicationProperties.getTiming();
+        AspectJExpressionPointcutAdvisor advisor = new AspectJExpressionPointcutAdvisor();
+        advisor.setExpression(TIMED_METHODS_POINTCUT);
+        advisor.setAdvice(new MethodTimingInterceptor(meterRegistry, timing.getSampleRate(), timing.getSlowThreshold()));
+        return advisor;
+    }
+}
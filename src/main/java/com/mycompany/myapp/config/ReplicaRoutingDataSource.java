@@ -0,0 +1,235 @@
+package com.mycompany.myapp.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.sql.DataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.util.StringUtils;
+
+/**
+ * DataSource sending the connections of the read-only transactions to the replicas, in turn, and all the others to
+ * the primary.
+ * <p>
+ * The replicas are checked periodically: a replica which cannot be reached, or lags behind the primary by more than
+ * {@code maxLag}, is left out until a later check finds it back in sync. A read-only transaction falls back to the
+ * primary when no replica is available, or when the connection to the chosen replica fails.
+ * <p>
+ * The transaction is only known to be read-only once it has begun, which is after the JPA transaction manager asks
+ * for its connection: this DataSource must be wrapped in a
+ * {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy}, so the connection is only taken on the
+ * first statement.
+ */
+public class ReplicaRoutingDataSource extends AbstractDataSource implements AutoCloseable {
+
+    public static final String CONNECTIONS_METER_NAME = "application.datasource.connections";
+    public static final String REPLICA_LAG_METER_NAME = "application.datasource.replica.lag";
+    public static final String REPLICA_AVAILABLE_METER_NAME = "application.datasource.replica.available";
+    public static final String ROUTE_DIMENSION = "route";
+    public static final String REPLICA_DIMENSION = "replica";
+
+    private final Logger log = LoggerFactory.getLogger(ReplicaRoutingDataSource.class);
+
+    private final DataSource primary;
+
+    private final List<Replica> replicas;
+
+    private final double maxLagSeconds;
+
+    private final String lagQuery;
+
+    private final AtomicInteger next = new AtomicInteger();
+
+    private final Counter primaryCounter;
+
+    private final Counter replicaCounter;
+
+    private final Counter fallbackCounter;
+
+    private ScheduledExecutorService checker;
+
+    /**
+     * @param primary the primary DataSource.
+     * @param replicas the replica DataSources, by name.
+     * @param maxLag the replication lag above which a replica is left out.
+     * @param lagQuery the query returning the replication lag of a replica, in seconds ({@code null} when not
+     *                 replicating); if blank, the replicas are only checked for connectivity.
+     * @param meterRegistry the registry of the routing meters.
+     */
+    public ReplicaRoutingDataSource(
+        DataSource primary,
+        Map<String, DataSource> replicas,
+        Duration maxLag,
+        String lagQuery,
+        MeterRegistry meterRegistry
+    ) {
+        this.primary = primary;
+        List<Replica> list = new ArrayList<>(replicas.size());
+        replicas.forEach((name, dataSource) -> list.add(new Replica(name, dataSource, meterRegistry)));
+        this.replicas = Collections.unmodifiableList(list);
+        this.maxLagSeconds = maxLag.toMillis() / 1000.0;
+        this.lagQuery = lagQuery;
+        this.primaryCounter = routeCounter(meterRegistry, "primary");
+        this.replicaCounter = routeCounter(meterRegistry, "replica");
+        this.fallbackCounter = routeCounter(meterRegistry, "fallback");
+    }
+
+    private static Counter routeCounter(MeterRegistry meterRegistry, String route) {
+        return Counter
+            .builder(CONNECTIONS_METER_NAME)
+            .description("Number of connections taken, by route: primary, replica, or primary as a fallback for a read-only transaction.")
+            .tag(ROUTE_DIMENSION, route)
+            .register(meterRegistry);
+    }
+
+    /**
+     * Check the replicas now, then every {@code interval}, on a background thread.
+     *
+     * @param interval the interval between two checks.
+     */
+    public synchronized void start(Duration interval) {
+        if (checker != null) {
+            return;
+        }
+        checker =
+            Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "replica-lag-checker");
+                thread.setDaemon(true);
+                return thread;
+            });
+        checker.scheduleWithFixedDelay(this::checkReplicas, 0, interval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Stop checking the replicas, and close their pools.
+     */
+    @Override
+    public synchronized void close() throws Exception {
+        if (checker != null) {
+            checker.shutdownNow();
+            checker = null;
+        }
+        for (Replica replica : replicas) {
+            if (replica.dataSource instanceof AutoCloseable) {
+                ((AutoCloseable) replica.dataSource).close();
+            }
+        }
+    }
+
+    /**
+     * Check the connectivity and the replication lag of each replica, and update its availability.
+     */
+    public void checkReplicas() {
+        for (Replica replica : replicas) {
+            try {
+                double lag = lagSeconds(replica.dataSource);
+                replica.lagSeconds = lag;
+                replica.setAvailable(lag <= maxLagSeconds, "lag of " + lag + "s");
+            } catch (SQLException | RuntimeException e) {
+                replica.setAvailable(false, e.getMessage());
+            }
+        }
+    }
+
+    private double lagSeconds(DataSource dataSource) throws SQLException {
+        try (Connection connection = dataSource.getConnection()) {
+            if (!StringUtils.hasText(lagQuery)) {
+                if (!connection.isValid(5)) {
+                    throw new SQLException("Connection is not valid");
+                }
+                return 0;
+            }
+            try (Statement statement = connection.createStatement(); ResultSet resultSet = statement.executeQuery(lagQuery)) {
+                // no row, or a null lag: not replicating, hence not lagging
+                return resultSet.next() ? resultSet.getDouble(1) : 0;
+            } finally {
+                if (!connection.getAutoCommit()) {
+                    connection.rollback();
+                }
+            }
+        }
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly() || replicas.isEmpty()) {
+            primaryCounter.increment();
+            return primary.getConnection();
+        }
+        int start = Math.floorMod(next.getAndIncrement(), replicas.size());
+        for (int i = 0; i < replicas.size(); i++) {
+            Replica replica = replicas.get((start + i) % replicas.size());
+            if (replica.available) {
+                try {
+                    Connection connection = replica.dataSource.getConnection();
+                    replicaCounter.increment();
+                    return connection;
+                } catch (SQLException e) {
+                    replica.setAvailable(false, e.getMessage());
+                }
+            }
+        }
+        fallbackCounter.increment();
+        return primary.getConnection();
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        throw new SQLFeatureNotSupportedException("Connections are taken with the credentials of each pool");
+    }
+
+    private final class Replica {
+
+        private final String name;
+
+        private final DataSource dataSource;
+
+        private volatile boolean available = true;
+
+        private volatile double lagSeconds;
+
+        Replica(String name, DataSource dataSource, MeterRegistry meterRegistry) {
+            this.name = name;
+            this.dataSource = dataSource;
+            Gauge
+                .builder(REPLICA_LAG_METER_NAME, this, replica -> replica.lagSeconds)
+                .description("Replication lag of the replica, as of the last check.")
+                .baseUnit("seconds")
+                .tag(REPLICA_DIMENSION, name)
+                .register(meterRegistry);
+            Gauge
+                .builder(REPLICA_AVAILABLE_METER_NAME, this, replica -> replica.available ? 1 : 0)
+                .description("Whether the replica receives the read-only transactions.")
+                .tag(REPLICA_DIMENSION, name)
+                .register(meterRegistry);
+        }
+
+        void setAvailable(boolean available, String reason) {
+            if (this.available != available) {
+                if (available) {
+                    log.info("Replica {} is available again", name);
+                } else {
+                    log.warn("Replica {} is left out, read-only transactions fall back to the primary: {}", name, reason);
+                }
+            }
+            this.available = available;
+        }
+    }
+}
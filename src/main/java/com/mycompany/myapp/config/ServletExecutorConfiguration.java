@@ -0,0 +1,48 @@
+package com.mycompany.myapp.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.Optional;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.embedded.undertow.UndertowDeploymentInfoCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Runs the servlet requests of Undertow on virtual threads, when {@code application.virtual-threads.enabled} is set and
+ * the Java runtime supports them.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "application.virtual-threads", name = "enabled", havingValue = "true")
+@ConditionalOnClass(name = "io.undertow.Undertow")
+public class ServletExecutorConfiguration {
+
+    private static final Logger log = LoggerFactory.getLogger(ServletExecutorConfiguration.class);
+
+    private static final String THREAD_NAME_PREFIX = "http-virtual-";
+
+    @Bean
+    public UndertowDeploymentInfoCustomizer virtualThreadsDeploymentInfoCustomizer(
+        ApplicationProperties applicationProperties,
+        MeterRegistry meterRegistry
+    ) {
+        // built once, so its gauges are registered once whatever the number of deployments customized
+        Optional<Executor> requestExecutor = requestExecutor(applicationProperties, meterRegistry);
+        return deploymentInfo -> requestExecutor.ifPresent(deploymentInfo::setExecutor);
+    }
+
+    private static Optional<Executor> requestExecutor(ApplicationProperties applicationProperties, MeterRegistry meterRegistry) {
+        Optional<ThreadFactory> factory = VirtualThreadSupport.factory(THREAD_NAME_PREFIX);
+        if (factory.isEmpty()) {
+            log.warn("Virtual threads are enabled but not supported by this Java runtime, using the servlet container thread pool");
+            return Optional.empty();
+        }
+        int maxConcurrency = applicationProperties.getVirtualThreads().getMaxConcurrentRequests();
+        log.info("Running the servlet requests on virtual threads, {} requests at most", maxConcurrency);
+        return Optional.of(new VirtualThreadExecutor(factory.get(), maxConcurrency, new ExecutorMeters(meterRegistry, "http", true)));
+    }
+}
@@ -0,0 +1,42 @@
+package com.mycompany.myapp.config;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Executor running each task on a new virtual thread, with at most {@code maxConcurrency} tasks running at once.
+ * <p>
+ * Virtual threads are cheap, but the database connections are not: without a bound, a burst of requests would start
+ * as many transactions, which would all queue on the Hikari pool and time out together. The tasks over the bound wait
+ * for a permit on their own (parked) virtual thread, so {@link #execute(Runnable)} never blocks the caller.
+ */
+final class VirtualThreadExecutor implements Executor {
+
+    private final ThreadFactory threadFactory;
+
+    private final Semaphore permits;
+
+    private final ExecutorMeters meters;
+
+    VirtualThreadExecutor(ThreadFactory threadFactory, int maxConcurrency, ExecutorMeters meters) {
+        this.threadFactory = threadFactory;
+        this.permits = new Semaphore(maxConcurrency, true);
+        this.meters = meters;
+        meters.bindPermits(permits, maxConcurrency);
+    }
+
+    @Override
+    public void execute(Runnable task) {
+        Runnable measured = meters.decorate(task);
+        Thread thread = threadFactory.newThread(() -> {
+            permits.acquireUninterruptibly();
+            try {
+                measured.run();
+            } finally {
+                permits.release();
+            }
+        });
+        thread.start();
+    }
+}
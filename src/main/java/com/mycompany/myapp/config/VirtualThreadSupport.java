@@ -0,0 +1,30 @@
+package com.mycompany.myapp.config;
+
+import java.util.Optional;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Access to the virtual threads of Java 21 and later, while the application is still built for Java 11: the
+ * {@code Thread.ofVirtual()} builder is looked up reflectively.
+ */
+final class VirtualThreadSupport {
+
+    private VirtualThreadSupport() {}
+
+    /**
+     * Create a factory of virtual threads.
+     *
+     * @param namePrefix the prefix of the thread names, followed by a counter.
+     * @return the factory, or empty if the runtime has no virtual threads.
+     */
+    static Optional<ThreadFactory> factory(String namePrefix) {
+        try {
+            Class<?> builderType = Class.forName("java.lang.Thread$Builder$OfVirtual");
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            builder = builderType.getMethod("name", String.class, long.class).invoke(builder, namePrefix, 0L);
+            return Optional.of((ThreadFactory) builderType.getMethod("factory").invoke(builder));
+        } catch (ReflectiveOperationException e) {
+            return Optional.empty();
+        }
+    }
+}
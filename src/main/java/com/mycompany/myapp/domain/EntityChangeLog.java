@@ -0,0 +1,111 @@
+package com.mycompany.myapp.domain;
+
+import java.io.Serializable;
+import java.time.Instant;
+import javax.persistence.*;
+import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Size;
+
+/**
+ * A committed write of a streamed entity, saved by the {@code ChangeStreamService}. The id is the offset of the change
+ * in the stream.
+ */
+@Entity
+@Table(name = "entity_change_log")
+public class EntityChangeLog implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "sequenceGenerator")
+    @SequenceGenerator(name = "sequenceGenerator")
+    @Column(name = "id")
+    private Long id;
+
+    @NotNull
+    @Size(max = 50)
+    @Column(name = "entity_type", length = 50, nullable = false)
+    private String entityType;
+
+    @NotNull
+    @Column(name = "entity_id", nullable = false)
+    private Long entityId;
+
+    @NotNull
+    @Size(max = 10)
+    @Column(name = "operation", length = 10, nullable = false)
+    private String operation;
+
+    @NotNull
+    @Column(name = "change_date", nullable = false)
+    private Instant changeDate = Instant.now();
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getEntityType() {
+        return entityType;
+    }
+
+    public void setEntityType(String entityType) {
+        this.entityType = entityType;
+    }
+
+    public Long getEntityId() {
+        return entityId;
+    }
+
+    public void setEntityId(Long entityId) {
+        this.entityId = entityId;
+    }
+
+    public String getOperation() {
+        return operation;
+    }
+
+    public void setOperation(String operation) {
+        this.operation = operation;
+    }
+
+    public Instant getChangeDate() {
+        return changeDate;
+    }
+
+    public void setChangeDate(Instant changeDate) {
+        this.changeDate = changeDate;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof EntityChangeLog)) {
+            return false;
+        }
+        return id != null && id.equals(((EntityChangeLog) o).id);
+    }
+
+    @Override
+    public int hashCode() {
+        // see https://vladmihalcea.com/how-to-implement-equals-and-hashcode-using-the-jpa-entity-identifier/
+        return getClass().hashCode();
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "EntityChangeLog{" +
+            "id=" + getId() +
+            ", entityType='" + getEntityType() + "'" +
+            ", entityId=" + getEntityId() +
+            ", operation='" + getOperation() + "'" +
+            ", changeDate='" + getChangeDate() + "'" +
+            "}";
+    }
+}
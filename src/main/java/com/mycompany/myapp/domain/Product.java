@@ -50,6 +50,10 @@ public class Product implements Serializable {
     @JsonIgnoreProperties(value = { "parent", "products" }, allowSetters = true)
     private Set<Category> categories = new HashSet<>();
 
+    @Version
+    @Column(name = "version", nullable = false)
+    private Long version;
+
     // jhipster-needle-entity-add-field - JHipster will add fields here
 
     public Long getId() {
@@ -174,6 +178,14 @@ public class Product implements Serializable {
         return this;
     }
 
+    public Long getVersion() {
+        return this.version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
     // jhipster-needle-entity-add-getters-setters - JHipster will add getters and setters here
 
     @Override
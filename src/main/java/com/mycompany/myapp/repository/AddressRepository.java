@@ -1,6 +1,10 @@
 package com.mycompany.myapp.repository;
 
 import com.mycompany.myapp.domain.Address;
+import java.util.List;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.data.jpa.repository.*;
 import org.springframework.stereotype.Repository;
 
@@ -9,4 +13,15 @@ import org.springframework.stereotype.Repository;
  */
 @SuppressWarnings("unused")
 @Repository
-public interface AddressRepository extends JpaRepository<Address, Long>, JpaSpecificationExecutor<Address> {}
+public interface AddressRepository extends JpaRepository<Address, Long>, JpaSpecificationExecutor<Address> {
+    /**
+     * The listing fetch plan: the customer in the same query.
+     */
+    @Override
+    @EntityGraph(attributePaths = "customer")
+    Page<Address> findAll(Specification<Address> spec, Pageable pageable);
+
+    @Override
+    @EntityGraph(attributePaths = "customer")
+    List<Address> findAll(Specification<Address> spec);
+}
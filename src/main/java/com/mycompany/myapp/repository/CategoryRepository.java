@@ -1,10 +1,15 @@
 package com.mycompany.myapp.repository;
 
 import com.mycompany.myapp.domain.Category;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.data.jpa.repository.*;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -14,15 +19,57 @@ import org.springframework.stereotype.Repository;
  */
 @Repository
 public interface CategoryRepository extends JpaRepository<Category, Long>, JpaSpecificationExecutor<Category> {
+    /**
+     * The listing fetch plan: the parent in the same query, the products left lazy.
+     */
+    @Override
+    @EntityGraph(attributePaths = "parent")
+    Page<Category> findAll(Specification<Category> spec, Pageable pageable);
+
+    @Override
+    @EntityGraph(attributePaths = "parent")
+    List<Category> findAll(Specification<Category> spec);
+
+    /**
+     * Get a page of categories with their products.
+     * <p>
+     * A page cannot be cut from a query fetching a collection without loading all its rows, so the page is read in two
+     * queries: the ids of the categories of the page first, then the categories with their parent and their products.
+     *
+     * @param pageable the pagination information.
+     * @return the page of categories.
+     */
+    default Page<Category> findAllWithEagerRelationships(Pageable pageable) {
+        Page<Long> ids = findAllIds(pageable);
+        if (!ids.hasContent()) {
+            return ids.map(id -> null);
+        }
+        Map<Long, Category> categories = findAllWithEagerRelationshipsByIdIn(ids.getContent())
+            .stream()
+            .collect(Collectors.toMap(Category::getId, Function.identity()));
+        return ids.map(categories::get);
+    }
+
+    @Query(value = "select category.id from Category category", countQuery = "select count(category) from Category category")
+    Page<Long> findAllIds(Pageable pageable);
+
     @Query(
-        value = "select distinct category from Category category left join fetch category.products",
-        countQuery = "select count(distinct category) from Category category"
+        "select distinct category from Category category left join fetch category.parent left join fetch category.products" +
+        " where category.id in :ids"
     )
-    Page<Category> findAllWithEagerRelationships(Pageable pageable);
+    List<Category> findAllWithEagerRelationshipsByIdIn(@Param("ids") Collection<Long> ids);
 
     @Query("select distinct category from Category category left join fetch category.products")
     List<Category> findAllWithEagerRelationships();
 
-    @Query("select category from Category category left join fetch category.products where category.id =:id")
+    /**
+     * The detail fetch plan: the parent and the products in the same query.
+     */
+    @Query(
+        "select category from Category category left join fetch category.parent left join fetch category.products where category.id =:id"
+    )
     Optional<Category> findOneWithEagerRelationships(@Param("id") Long id);
+
+    @Query("select category.id, parent.id from Category category left join category.parent parent")
+    List<Object[]> findAllIdsWithParentId();
 }
@@ -0,0 +1,34 @@
+package com.mycompany.myapp.repository;
+
+import com.mycompany.myapp.domain.EntityChangeLog;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.*;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Spring Data SQL repository for the EntityChangeLog entity.
+ */
+@Repository
+public interface EntityChangeLogRepository extends JpaRepository<EntityChangeLog, Long> {
+    /**
+     * @param from the lowest offset, inclusive.
+     * @param to the highest offset, inclusive.
+     * @param pageable the maximum number of changes.
+     * @return the changes between the offsets, the oldest first.
+     */
+    List<EntityChangeLog> findByIdBetweenOrderByIdAsc(Long from, Long to, Pageable pageable);
+
+    Optional<EntityChangeLog> findFirstByOrderByIdDesc();
+
+    Optional<EntityChangeLog> findFirstByEntityTypeOrderByIdDesc(String entityType);
+
+    Optional<EntityChangeLog> findFirstByEntityTypeOrderByChangeDateDesc(String entityType);
+
+    @Modifying
+    @Query("delete from EntityChangeLog change where change.changeDate < :date")
+    int deleteByChangeDateBefore(@Param("date") Instant date);
+}
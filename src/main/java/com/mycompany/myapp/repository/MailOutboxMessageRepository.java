@@ -0,0 +1,38 @@
+package com.mycompany.myapp.repository;
+
+import com.mycompany.myapp.domain.MailOutboxMessage;
+import com.mycompany.myapp.domain.enumeration.MailStatus;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import javax.persistence.LockModeType;
+import javax.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.*;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Spring Data SQL repository for the MailOutboxMessage entity.
+ */
+@Repository
+public interface MailOutboxMessageRepository extends JpaRepository<MailOutboxMessage, Long> {
+    /**
+     * Lock the next messages due for sending, skipping the ones another instance is already sending.
+     *
+     * @param now the current time.
+     * @param pageable the maximum number of messages.
+     * @return the locked messages, the oldest attempts first.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "javax.persistence.lock.timeout", value = "-2")) // SKIP LOCKED
+    @Query(
+        "select message from MailOutboxMessage message where message.status = 'PENDING' and message.nextAttemptDate <= :now " +
+        "order by message.nextAttemptDate, message.id"
+    )
+    List<MailOutboxMessage> lockDue(@Param("now") Instant now, Pageable pageable);
+
+    long countByStatus(MailStatus status);
+
+    Optional<MailOutboxMessage> findFirstByStatusOrderByCreatedDateAsc(MailStatus status);
+}
@@ -0,0 +1,130 @@
+package com.mycompany.myapp.security;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.time.Duration;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+/**
+ * BCrypt {@link PasswordEncoder} which hashes and checks the passwords on a bounded pool instead of the request threads,
+ * so a burst of logins cannot take all the CPU from the other requests.
+ * <p>
+ * When the pool and its queue are full, or a password waits more than the maximum wait for a thread, a
+ * {@link TooManyAuthenticationsException} is thrown: the client gets a {@code 429 Too Many Requests} instead of
+ * queueing without bounds.
+ * <p>
+ * A hash of another cost than the configured strength is reported as {@linkplain #upgradeEncoding to upgrade}, so
+ * changing the strength rehashes the password of each user on their next login, see {@link DomainUserDetailsService}.
+ */
+public class ThrottledPasswordEncoder implements PasswordEncoder {
+
+    public static final String HASH_METER_NAME = "application.password.hash";
+    public static final String REJECTED_METER_NAME = "application.password.rejected";
+    public static final String OPERATION_DIMENSION = "operation";
+
+    private static final Pattern BCRYPT_COST = Pattern.compile("\\A\\$2[aby]?\\$(\\d\\d)\\$");
+
+    private final BCryptPasswordEncoder delegate;
+
+    private final int strength;
+
+    private final AsyncTaskExecutor executor;
+
+    private final long maxWaitMillis;
+
+    private final Timer encodeTimer;
+
+    private final Timer matchesTimer;
+
+    private final Counter rejectedCounter;
+
+    public ThrottledPasswordEncoder(int strength, AsyncTaskExecutor executor, Duration maxWait, MeterRegistry meterRegistry) {
+        this.delegate = new BCryptPasswordEncoder(strength);
+        this.strength = strength;
+        this.executor = executor;
+        this.maxWaitMillis = maxWait.toMillis();
+        this.encodeTimer = hashTimer(meterRegistry, "encode");
+        this.matchesTimer = hashTimer(meterRegistry, "matches");
+        this.rejectedCounter = Counter
+            .builder(REJECTED_METER_NAME)
+            .description("Number of passwords not hashed or checked because the authentication pool was saturated.")
+            .register(meterRegistry);
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return run(() -> encodeTimer.recordCallable(() -> delegate.encode(rawPassword)));
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return run(() -> matchesTimer.recordCallable(() -> delegate.matches(rawPassword, encodedPassword)));
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        Integer cost = cost(encodedPassword);
+        return cost != null && cost != strength;
+    }
+
+    /**
+     * @param encodedPassword a BCrypt hash.
+     * @return the cost of the hash, or {@code null} if it is not a BCrypt hash.
+     */
+    static Integer cost(String encodedPassword) {
+        if (encodedPassword == null) {
+            return null;
+        }
+        Matcher matcher = BCRYPT_COST.matcher(encodedPassword);
+        return matcher.find() ? Integer.valueOf(matcher.group(1)) : null;
+    }
+
+    private <T> T run(Callable<T> hashing) {
+        Future<T> future;
+        try {
+            future = executor.submit(hashing);
+        } catch (TaskRejectedException e) {
+            rejectedCounter.increment();
+            throw new TooManyAuthenticationsException("The authentication pool is saturated");
+        }
+        try {
+            return future.get(maxWaitMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            rejectedCounter.increment();
+            throw new TooManyAuthenticationsException("The password was not checked in time");
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for the password to be checked", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            if (e.getCause() instanceof Error) {
+                throw (Error) e.getCause();
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    private Timer hashTimer(MeterRegistry meterRegistry, String operation) {
+        return Timer
+            .builder(HASH_METER_NAME)
+            .description("Time spent hashing or checking passwords, without the wait for a thread.")
+            .tag(OPERATION_DIMENSION, operation)
+            .tag("strength", String.valueOf(strength))
+            .register(meterRegistry);
+    }
+}
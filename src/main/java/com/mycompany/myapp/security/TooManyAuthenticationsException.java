@@ -0,0 +1,13 @@
+package com.mycompany.myapp.security;
+
+/**
+ * This exception is thrown when a password cannot be hashed or checked because the authentication pool is saturated.
+ */
+public class TooManyAuthenticationsException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    public TooManyAuthenticationsException(String message) {
+        super(message);
+    }
+}
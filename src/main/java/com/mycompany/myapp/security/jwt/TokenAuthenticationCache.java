@@ -0,0 +1,108 @@
+package com.mycompany.myapp.security.jwt;
+
+import com.mycompany.myapp.cache.LruCache;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collection;
+import java.util.List;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.userdetails.User;
+
+/**
+ * Bounded cache of the subject and authorities of the verified tokens, keyed by the SHA-256 hash of the token.
+ * <p>
+ * An entry is never returned after the expiration of its token. When the cache is full, the least recently used entry
+ * is evicted for each new one: the tokens of the active users stay cached, the expired ones are evicted first as they
+ * are no longer used. The entries are spread over the lock-striped segments of an {@link LruCache}, so the requests do
+ * not wait for each other, and each hit gets its own {@link Authentication}, as the authentication tokens are mutable.
+ */
+final class TokenAuthenticationCache {
+
+    /**
+     * The digests are not thread-safe, and looking one up for each request is costly.
+     */
+    private static final ThreadLocal<MessageDigest> SHA_256 = ThreadLocal.withInitial(TokenAuthenticationCache::sha256);
+
+    private final LruCache<ByteBuffer, Entry> entries;
+
+    private final int maxEntries;
+
+    TokenAuthenticationCache(int maxEntries) {
+        this.entries = new LruCache<>(maxEntries);
+        this.maxEntries = maxEntries;
+    }
+
+    /**
+     * @param token the token.
+     * @param now the current time, in milliseconds since the epoch.
+     * @return a new authentication of the token, or {@code null} if it is not cached or has expired.
+     */
+    Authentication get(String token, long now) {
+        ByteBuffer key = hash(token);
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (entry.expiresAt <= now) {
+            entries.remove(key, entry);
+            return null;
+        }
+        return authentication(entry.subject, entry.authorities, token);
+    }
+
+    /**
+     * @param token the verified token.
+     * @param subject the subject of the token.
+     * @param authorities the authorities of the token.
+     * @param expiresAt the expiration of the token, in milliseconds since the epoch.
+     * @param now the current time, in milliseconds since the epoch.
+     */
+    void put(String token, String subject, Collection<? extends GrantedAuthority> authorities, long expiresAt, long now) {
+        if (maxEntries <= 0 || expiresAt <= now) {
+            return;
+        }
+        entries.put(hash(token), new Entry(subject, List.copyOf(authorities), expiresAt));
+    }
+
+    int size() {
+        return entries.size();
+    }
+
+    static Authentication authentication(String subject, Collection<? extends GrantedAuthority> authorities, String token) {
+        User principal = new User(subject, "", authorities);
+
+        return new UsernamePasswordAuthenticationToken(principal, token, authorities);
+    }
+
+    private static ByteBuffer hash(String token) {
+        // digest() resets the digest of the thread for the next token
+        return ByteBuffer.wrap(SHA_256.get().digest(token.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private static final class Entry {
+
+        private final String subject;
+
+        private final List<GrantedAuthority> authorities;
+
+        private final long expiresAt;
+
+        Entry(String subject, List<GrantedAuthority> authorities, long expiresAt) {
+            this.subject = subject;
+            this.authorities = authorities;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
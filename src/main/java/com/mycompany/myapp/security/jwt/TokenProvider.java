@@ -1,5 +1,6 @@
 package com.mycompany.myapp.security.jwt;
 
+import com.mycompany.myapp.config.ApplicationProperties;
 import com.mycompany.myapp.management.SecurityMetersService;
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.io.Decoders;
@@ -11,11 +12,9 @@ import java.util.*;
 import java.util.stream.Collectors;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
-import org.springframework.security.core.userdetails.User;
 import org.springframework.stereotype.Component;
 import org.springframework.util.ObjectUtils;
 import tech.jhipster.config.JHipsterProperties;
@@ -37,7 +36,13 @@ public class TokenProvider {
 
     private final SecurityMetersService securityMetersService;
 
-    public TokenProvider(JHipsterProperties jHipsterProperties, SecurityMetersService securityMetersService) {
+    private final TokenAuthenticationCache authenticationCache;
+
+    public TokenProvider(
+        JHipsterProperties jHipsterProperties,
+        ApplicationProperties applicationProperties,
+        SecurityMetersService securityMetersService
+    ) {
         byte[] keyBytes;
         String secret = jHipsterProperties.getSecurity().getAuthentication().getJwt().getBase64Secret();
         if (!ObjectUtils.isEmpty(secret)) {
@@ -58,6 +63,9 @@ public class TokenProvider {
             1000 * jHipsterProperties.getSecurity().getAuthentication().getJwt().getTokenValidityInSecondsForRememberMe();
 
         this.securityMetersService = securityMetersService;
+
+        ApplicationProperties.Security.TokenCache tokenCache = applicationProperties.getSecurity().getTokenCache();
+        this.authenticationCache = tokenCache.isEnabled() ? new TokenAuthenticationCache(tokenCache.getMaxEntries()) : null;
     }
 
     public String createToken(Authentication authentication, boolean rememberMe) {
@@ -83,22 +91,60 @@ public class TokenProvider {
     public Authentication getAuthentication(String token) {
         Claims claims = jwtParser.parseClaimsJws(token).getBody();
 
-        Collection<? extends GrantedAuthority> authorities = Arrays
+        return getAuthentication(claims, token);
+    }
+
+    public boolean validateToken(String authToken) {
+        return parseClaims(authToken) != null;
+    }
+
+    /**
+     * Validate a token and get its authentication, parsing and verifying the token only once.
+     * <p>
+     * The authentication of a verified token is cached until the token expires, so a token presented again is only
+     * hashed and looked up, and gets a new authentication built from the cached subject and authorities.
+     *
+     * @param authToken the token.
+     * @return the authentication of the token, or empty if the token is not valid.
+     */
+    public Optional<Authentication> validateAndGetAuthentication(String authToken) {
+        long now = System.currentTimeMillis();
+        if (authenticationCache != null) {
+            Authentication cached = authenticationCache.get(authToken, now);
+            if (cached != null) {
+                this.securityMetersService.trackTokenCacheHit();
+
+                return Optional.of(cached);
+            }
+            this.securityMetersService.trackTokenCacheMiss();
+        }
+
+        Claims claims = parseClaims(authToken);
+        if (claims == null) {
+            return Optional.empty();
+        }
+        Collection<? extends GrantedAuthority> authorities = getAuthorities(claims);
+        if (authenticationCache != null && claims.getExpiration() != null) {
+            authenticationCache.put(authToken, claims.getSubject(), authorities, claims.getExpiration().getTime(), now);
+        }
+        return Optional.of(TokenAuthenticationCache.authentication(claims.getSubject(), authorities, authToken));
+    }
+
+    private Authentication getAuthentication(Claims claims, String token) {
+        return TokenAuthenticationCache.authentication(claims.getSubject(), getAuthorities(claims), token);
+    }
+
+    private static Collection<? extends GrantedAuthority> getAuthorities(Claims claims) {
+        return Arrays
             .stream(claims.get(AUTHORITIES_KEY).toString().split(","))
             .filter(auth -> !auth.trim().isEmpty())
             .map(SimpleGrantedAuthority::new)
             .collect(Collectors.toList());
-
-        User principal = new User(claims.getSubject(), "", authorities);
-
-        return new UsernamePasswordAuthenticationToken(principal, token, authorities);
     }
 
-    public boolean validateToken(String authToken) {
+    private Claims parseClaims(String authToken) {
         try {
-            jwtParser.parseClaimsJws(authToken);
-
-            return true;
+            return jwtParser.parseClaimsJws(authToken).getBody();
         } catch (ExpiredJwtException e) {
             this.securityMetersService.trackTokenExpired();
 
@@ -119,6 +165,6 @@ public class TokenProvider {
             log.error("Token validation error {}", e.getMessage());
         }
 
-        return false;
+        return null;
     }
 }
@@ -4,32 +4,46 @@ import com.mycompany.myapp.domain.*; // for static metamodels
 import com.mycompany.myapp.domain.Address;
 import com.mycompany.myapp.repository.AddressRepository;
 import com.mycompany.myapp.service.criteria.AddressCriteria;
+import com.mycompany.myapp.service.dto.KeysetCursor;
+import com.mycompany.myapp.service.dto.KeysetSlice;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import javax.persistence.EntityManager;
 import javax.persistence.criteria.JoinType;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
-import tech.jhipster.service.QueryService;
 
 /**
  * Service for executing complex queries for {@link Address} entities in the database.
  * The main input is a {@link AddressCriteria} which gets converted to {@link Specification},
  * in a way that all the filters must apply.
- * It returns a {@link List} of {@link Address} or a {@link Page} of {@link Address} which fulfills the criteria.
+ * It returns a {@link List} of {@link Address}, a {@link Page} of {@link Address} or a {@link KeysetSlice} of {@link Address}
+ * which fulfills the criteria.
  */
 @Service
 @Transactional(readOnly = true)
-public class AddressQueryService extends QueryService<Address> {
+public class AddressQueryService extends KeysetQueryService<Address> {
 
     private final Logger log = LoggerFactory.getLogger(AddressQueryService.class);
 
     private final AddressRepository addressRepository;
 
-    public AddressQueryService(AddressRepository addressRepository) {
+    public AddressQueryService(
+        AddressRepository addressRepository,
+        EntityManager entityManager,
+        CountCache countCache,
+        QueryResultCache queryResultCache,
+        QueryPlanService queryPlanService
+    ) {
+        super(Address.class, entityManager, countCache, queryResultCache, queryPlanService);
         this.addressRepository = addressRepository;
     }
 
@@ -46,7 +60,7 @@ public class AddressQueryService extends QueryService<Address> {
     }
 
     /**
-     * Return a {@link Page} of {@link Address} which matches the criteria from the database.
+     * Return a {@link Page} of {@link Address} which matches the criteria from the database, or from the {@link QueryResultCache}.
      * @param criteria The object which holds all the filters, which the entities should match.
      * @param page The page, which should be returned.
      * @return the matching entities.
@@ -55,11 +69,80 @@ public class AddressQueryService extends QueryService<Address> {
     public Page<Address> findByCriteria(AddressCriteria criteria, Pageable page) {
         log.debug("find by criteria : {}, page: {}", criteria, page);
         final Specification<Address> specification = createSpecification(criteria);
-        return addressRepository.findAll(specification, page);
+        return findPageCached(criteria, specification, page, () -> addressRepository.findAll(specification, page));
     }
 
     /**
-     * Return the number of matching entities in the database.
+     * Return a {@link Slice} of {@link Address} which matches the criteria from the database, without counting the matching entities.
+     * @param criteria The object which holds all the filters, which the entities should match.
+     * @param page The page, which should be returned.
+     * @return the matching entities.
+     */
+    @Transactional(readOnly = true)
+    public Slice<Address> findSliceByCriteria(AddressCriteria criteria, Pageable page) {
+        log.debug("find slice by criteria : {}, page: {}", criteria, page);
+        final Specification<Address> specification = createSpecification(criteria);
+        return findSliceWithoutCount(specification, page);
+    }
+
+    /**
+     * Return a {@link Page} of the given fields of the {@link Address} which match the criteria from the database,
+     * selecting only their columns.
+     * @param criteria The object which holds all the filters, which the entities should match.
+     * @param fields The names of the fields, which should be returned with the id.
+     * @param page The page, which should be returned.
+     * @return the fields of the matching entities, by name.
+     * @throws IllegalArgumentException if a field is not a column of the entity.
+     */
+    @Transactional(readOnly = true)
+    public Page<Map<String, Object>> findFieldsByCriteria(AddressCriteria criteria, Collection<String> fields, Pageable page) {
+        log.debug("find fields by criteria : {}, fields: {}, page: {}", criteria, fields, page);
+        final Specification<Address> specification = createSpecification(criteria);
+        return findFields(criteria, specification, fields, page, () -> addressRepository.count(specification));
+    }
+
+    /**
+     * Return a {@link Page} of {@link Address} which matches the criteria from the database, with a cached or estimated total.
+     * @param criteria The object which holds all the filters, which the entities should match.
+     * @param page The page, which should be returned.
+     * @return the matching entities.
+     */
+    @Transactional(readOnly = true)
+    public Page<Address> findByCriteriaWithEstimatedCount(AddressCriteria criteria, Pageable page) {
+        log.debug("find by criteria with estimated count : {}, page: {}", criteria, page);
+        final Specification<Address> specification = createSpecification(criteria);
+        return findPageWithEstimatedCount(specification, criteria, page, () -> addressRepository.count(specification));
+    }
+
+    /**
+     * Return a {@link KeysetSlice} of {@link Address} which matches the criteria from the database, read with keyset pagination.
+     * @param criteria The object which holds all the filters, which the entities should match.
+     * @param cursor The cursor of the slice, which should be returned.
+     * @param size The maximum number of entities in the slice.
+     * @return the matching entities.
+     */
+    @Transactional(readOnly = true)
+    public KeysetSlice<Address> findByCriteria(AddressCriteria criteria, KeysetCursor cursor, int size) {
+        log.debug("find by criteria : {}, cursor: {}, size: {}", criteria, cursor, size);
+        final Specification<Address> specification = createSpecification(criteria);
+        return findSlice(specification, cursor, size);
+    }
+
+    /**
+     * Hand all the {@link Address} which match the criteria to the consumer, by ascending id, without loading them all in memory.
+     * @param criteria The object which holds all the filters, which the entities should match.
+     * @param consumer The consumer of the entities, which are detached once it returns.
+     * @return the number of matching entities.
+     */
+    @Transactional(readOnly = true)
+    public long streamByCriteria(AddressCriteria criteria, Consumer<Address> consumer) {
+        log.debug("stream by criteria : {}", criteria);
+        final Specification<Address> specification = createSpecification(criteria);
+        return scroll(specification, consumer);
+    }
+
+    /**
+     * Return the number of matching entities in the database, from the {@link CountCache} if counted recently.
      * @param criteria The object which holds all the filters, which the entities should match.
      * @return the number of matching entities.
      */
@@ -67,7 +150,7 @@ public class AddressQueryService extends QueryService<Address> {
     public long countByCriteria(AddressCriteria criteria) {
         log.debug("count by criteria : {}", criteria);
         final Specification<Address> specification = createSpecification(criteria);
-        return addressRepository.count(specification);
+        return countCached(criteria, () -> addressRepository.count(specification));
     }
 
     /**
@@ -0,0 +1,32 @@
+package com.mycompany.myapp.service;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Defers actions on in-memory state until the current transaction commits, so they never reflect rolled back writes.
+ */
+final class AfterCommit {
+
+    private AfterCommit() {}
+
+    /**
+     * Run the action once the current transaction commits, or immediately if there is no transaction.
+     *
+     * @param action the action to run.
+     */
+    static void run(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(
+            new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            }
+        );
+    }
+}
@@ -0,0 +1,464 @@
+package com.mycompany.myapp.service;
+
+import com.mycompany.myapp.config.ApplicationProperties;
+import com.mycompany.myapp.domain.Category;
+import com.mycompany.myapp.domain.Product;
+import com.mycompany.myapp.domain.enumeration.CategoryStatus;
+import com.mycompany.myapp.service.dto.BulkImportResult;
+import com.mycompany.myapp.service.dto.ImportRecord;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.sql.PreparedStatement;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import javax.persistence.EntityManager;
+import javax.validation.ConstraintViolation;
+import javax.validation.Validator;
+import org.hibernate.CacheMode;
+import org.hibernate.Session;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Service for the bulk import of {@link Product} and {@link Category} entities, with their
+ * {@code rel_category__product} rows.
+ * <p>
+ * Rows are saved by chunks of {@code application.bulk-import.commit-interval} rows, each in its own transaction. Within
+ * a chunk the persistence context is flushed and cleared every {@code hibernate.jdbc.batch_size} rows, so the inserts
+ * are sent as JDBC batches and memory stays flat; ids come from the pooled {@code sequence_generator} (one round trip
+ * every 50 ids) and the join rows are inserted with a single JDBC batch once the entities are flushed. The existing
+ * entities gaining join rows are recorded as updated, see {@link EntityChangeListener#recordUpdates}, so the caches
+ * and the change stream see them like the entities written through Hibernate.
+ * <p>
+ * A row which cannot be read, is not valid or references an unknown entity is rejected on its own; a chunk which fails
+ * in the database is rolled back and all its rows are rejected.
+ */
+@Service
+public class BulkImportService {
+
+    static final String ROWS_METER_NAME = "bulk.import.rows";
+
+    static final String DURATION_METER_NAME = "bulk.import";
+
+    private static final String INSERT_CATEGORY_PRODUCT = "insert into rel_category__product (category_id, product_id) values (?, ?)";
+
+    private static final int MAX_IN_CLAUSE_SIZE = 1000;
+
+    private final Logger log = LoggerFactory.getLogger(BulkImportService.class);
+
+    private final EntityManager entityManager;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final Validator validator;
+
+    private final ProductSearchService productSearchService;
+
+    private final CategoryHierarchyService categoryHierarchyService;
+
+    private final EntityChangeListener entityChangeListener;
+
+    private final MeterRegistry meterRegistry;
+
+    private final int batchSize;
+
+    private final int commitInterval;
+
+    private final int maxReportedErrors;
+
+    public BulkImportService(
+        EntityManager entityManager,
+        PlatformTransactionManager transactionManager,
+        Validator validator,
+        ProductSearchService productSearchService,
+        CategoryHierarchyService categoryHierarchyService,
+        EntityChangeListener entityChangeListener,
+        MeterRegistry meterRegistry,
+        ApplicationProperties applicationProperties,
+        @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:25}") int batchSize
+    ) {
+        this.entityManager = entityManager;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.validator = validator;
+        this.productSearchService = productSearchService;
+        this.categoryHierarchyService = categoryHierarchyService;
+        this.entityChangeListener = entityChangeListener;
+        this.meterRegistry = meterRegistry;
+        this.batchSize = batchSize;
+        this.commitInterval = applicationProperties.getBulkImport().getCommitInterval();
+        this.maxReportedErrors = applicationProperties.getBulkImport().getMaxReportedErrors();
+    }
+
+    /**
+     * Import new products.
+     * <p>
+     * Columns: {@code title}, {@code keywords}, {@code description}, {@code rating}, {@code dateAdded},
+     * {@code dateModified} and {@code categoryIds}, the ids of existing categories separated by {@code ;}.
+     *
+     * @param records the rows to import.
+     * @return the outcome of the import.
+     */
+    public BulkImportResult importProducts(Iterator<ImportRecord> records) {
+        log.debug("Request to import Products");
+        return importRows("product", records, this::toProduct, this::saveProducts);
+    }
+
+    /**
+     * Import new categories.
+     * <p>
+     * Columns: {@code description}, {@code sortOrder}, {@code dateAdded}, {@code dateModified}, {@code status},
+     * {@code parentId}, the id of an existing category, and {@code productIds}, the ids of existing products separated
+     * by {@code ;}.
+     *
+     * @param records the rows to import.
+     * @return the outcome of the import.
+     */
+    public BulkImportResult importCategories(Iterator<ImportRecord> records) {
+        log.debug("Request to import Categories");
+        return importRows("category", records, this::toCategory, this::saveCategories);
+    }
+
+    private <T> BulkImportResult importRows(
+        String entityName,
+        Iterator<ImportRecord> records,
+        Function<ImportRecord, PendingRow<T>> reader,
+        ChunkWriter<T> writer
+    ) {
+        long start = System.nanoTime();
+        BulkImportResult result = new BulkImportResult();
+        List<PendingRow<T>> chunk = new ArrayList<>();
+        while (records.hasNext()) {
+            ImportRecord record = records.next();
+            PendingRow<T> row;
+            try {
+                row = record.isValid() ? reader.apply(record) : PendingRow.invalid(record.getRow(), record.getError());
+            } catch (IllegalArgumentException e) {
+                row = PendingRow.invalid(record.getRow(), e.getMessage());
+            }
+            if (row.error != null) {
+                reject(result, row);
+                continue;
+            }
+            chunk.add(row);
+            if (chunk.size() == commitInterval) {
+                saveChunk(chunk, writer, result);
+                chunk.clear();
+            }
+        }
+        if (!chunk.isEmpty()) {
+            saveChunk(chunk, writer, result);
+        }
+
+        long elapsed = System.nanoTime() - start;
+        result.setElapsedMillis(TimeUnit.NANOSECONDS.toMillis(elapsed));
+        Timer.builder(DURATION_METER_NAME).tag("entity", entityName).register(meterRegistry).record(elapsed, TimeUnit.NANOSECONDS);
+        rowsCounter(entityName, "imported").increment(result.getImported());
+        rowsCounter(entityName, "failed").increment(result.getFailed());
+        log.info(
+            "Imported {} {} rows, rejected {}, in {} ms",
+            result.getImported(),
+            entityName,
+            result.getFailed(),
+            result.getElapsedMillis()
+        );
+        return result;
+    }
+
+    private <T> void saveChunk(List<PendingRow<T>> chunk, ChunkWriter<T> writer, BulkImportResult result) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> writer.write(chunk));
+        } catch (RuntimeException e) {
+            log.warn("Bulk import chunk of {} rows rolled back: {}", chunk.size(), e.getMessage());
+            String error = "Rolled back with rows " + chunk.get(0).row + " to " + chunk.get(chunk.size() - 1).row + ": " + e.getMessage();
+            chunk.stream().filter(row -> row.error == null).forEach(row -> row.error = error);
+        }
+        for (PendingRow<T> row : chunk) {
+            if (row.error == null) {
+                result.setImported(result.getImported() + 1);
+            } else {
+                reject(result, row);
+            }
+        }
+    }
+
+    private void reject(BulkImportResult result, PendingRow<?> row) {
+        result.setFailed(result.getFailed() + 1);
+        if (result.getErrors().size() < maxReportedErrors) {
+            result.getErrors().add(new BulkImportResult.RowError(row.row, row.error));
+        }
+    }
+
+    private Counter rowsCounter(String entityName, String result) {
+        return Counter.builder(ROWS_METER_NAME).baseUnit("rows").tag("entity", entityName).tag("result", result).register(meterRegistry);
+    }
+
+    private PendingRow<Product> toProduct(ImportRecord record) {
+        if (record.get("id") != null) {
+            throw new IllegalArgumentException("A new product cannot already have an ID");
+        }
+        Product product = new Product()
+            .title(record.get("title"))
+            .keywords(record.get("keywords"))
+            .description(record.get("description"))
+            .rating(integerValue(record, "rating"))
+            .dateAdded(localDateValue(record, "dateAdded"))
+            .dateModified(localDateValue(record, "dateModified"));
+        validate(product);
+        return new PendingRow<>(record.getRow(), product, null, idsValue(record, "categoryIds"));
+    }
+
+    private PendingRow<Category> toCategory(ImportRecord record) {
+        if (record.get("id") != null) {
+            throw new IllegalArgumentException("A new category cannot already have an ID");
+        }
+        Category category = new Category()
+            .description(record.get("description"))
+            .sortOrder(integerValue(record, "sortOrder"))
+            .dateAdded(localDateValue(record, "dateAdded"))
+            .dateModified(localDateValue(record, "dateModified"))
+            .status(statusValue(record, "status"));
+        validate(category);
+        Set<Long> parentId = idsValue(record, "parentId");
+        if (parentId.size() > 1) {
+            throw new IllegalArgumentException("Invalid parentId: " + record.get("parentId"));
+        }
+        Set<Long> productIds = idsValue(record, "productIds");
+        return new PendingRow<>(record.getRow(), category, parentId.isEmpty() ? null : parentId.iterator().next(), productIds);
+    }
+
+    private void saveProducts(List<PendingRow<Product>> chunk) {
+        entityManager.unwrap(Session.class).setCacheMode(CacheMode.IGNORE);
+        rejectUnknown(chunk, Category.class, row -> row.relatedIds);
+
+        List<Long[]> links = new ArrayList<>();
+        int count = 0;
+        for (PendingRow<Product> row : chunk) {
+            if (row.error != null) {
+                continue;
+            }
+            Product product = row.entity;
+            entityManager.persist(product);
+            productSearchService.index(product);
+            row.relatedIds.forEach(categoryId -> links.add(new Long[] { categoryId, product.getId() }));
+            if (++count % batchSize == 0) {
+                entityManager.flush();
+                entityManager.clear();
+            }
+        }
+        entityManager.flush();
+        entityManager.clear();
+        insertCategoryProducts(links);
+        Set<Long> ownerIds = links.stream().map(link -> link[0]).collect(Collectors.toSet());
+        entityChangeListener.recordUpdates(Category.class, ownerIds, entityManager);
+        evictCollectionsAfterCommit(Category.class.getName() + ".products", ownerIds);
+    }
+
+    private void saveCategories(List<PendingRow<Category>> chunk) {
+        entityManager.unwrap(Session.class).setCacheMode(CacheMode.IGNORE);
+        rejectUnknown(chunk, Category.class, row -> row.parentId == null ? Collections.emptySet() : Set.of(row.parentId));
+        rejectUnknown(chunk, Product.class, row -> row.relatedIds);
+
+        List<Long[]> links = new ArrayList<>();
+        int count = 0;
+        for (PendingRow<Category> row : chunk) {
+            if (row.error != null) {
+                continue;
+            }
+            Category category = row.entity;
+            if (row.parentId != null) {
+                category.setParent(entityManager.getReference(Category.class, row.parentId));
+            }
+            entityManager.persist(category);
+            categoryHierarchyService.update(category);
+            row.relatedIds.forEach(productId -> links.add(new Long[] { category.getId(), productId }));
+            if (++count % batchSize == 0) {
+                entityManager.flush();
+                entityManager.clear();
+            }
+        }
+        entityManager.flush();
+        entityManager.clear();
+        insertCategoryProducts(links);
+        Set<Long> ownerIds = links.stream().map(link -> link[1]).collect(Collectors.toSet());
+        entityChangeListener.recordUpdates(Product.class, ownerIds, entityManager);
+        evictCollectionsAfterCommit(Product.class.getName() + ".categories", ownerIds);
+    }
+
+    /**
+     * Reject the rows of the chunk which reference entities which do not exist.
+     */
+    private <T> void rejectUnknown(
+        List<PendingRow<T>> chunk,
+        Class<?> referencedClass,
+        Function<PendingRow<T>, Collection<Long>> references
+    ) {
+        Set<Long> referencedIds = chunk
+            .stream()
+            .filter(row -> row.error == null)
+            .flatMap(row -> references.apply(row).stream())
+            .collect(Collectors.toCollection(LinkedHashSet::new));
+        if (referencedIds.isEmpty()) {
+            return;
+        }
+        Set<Long> existingIds = new HashSet<>();
+        List<Long> ids = new ArrayList<>(referencedIds);
+        for (int from = 0; from < ids.size(); from += MAX_IN_CLAUSE_SIZE) {
+            existingIds.addAll(
+                entityManager
+                    .createQuery("select e.id from " + referencedClass.getSimpleName() + " e where e.id in :ids", Long.class)
+                    .setParameter("ids", ids.subList(from, Math.min(from + MAX_IN_CLAUSE_SIZE, ids.size())))
+                    .getResultList()
+            );
+        }
+        for (PendingRow<T> row : chunk) {
+            if (row.error == null) {
+                references
+                    .apply(row)
+                    .stream()
+                    .filter(id -> !existingIds.contains(id))
+                    .findFirst()
+                    .ifPresent(id -> row.error = "Unknown " + referencedClass.getSimpleName().toLowerCase(Locale.ROOT) + " id: " + id);
+            }
+        }
+    }
+
+    private void insertCategoryProducts(List<Long[]> links) {
+        if (links.isEmpty()) {
+            return;
+        }
+        entityManager
+            .unwrap(Session.class)
+            .doWork(connection -> {
+                try (PreparedStatement statement = connection.prepareStatement(INSERT_CATEGORY_PRODUCT)) {
+                    int pending = 0;
+                    for (Long[] link : links) {
+                        statement.setLong(1, link[0]);
+                        statement.setLong(2, link[1]);
+                        statement.addBatch();
+                        if (++pending == batchSize) {
+                            statement.executeBatch();
+                            pending = 0;
+                        }
+                    }
+                    if (pending > 0) {
+                        statement.executeBatch();
+                    }
+                }
+            });
+    }
+
+    /**
+     * The join rows are written with JDBC, so the cached collections of the entities on the other side are evicted.
+     */
+    private void evictCollectionsAfterCommit(String role, Set<Long> ownerIds) {
+        if (ownerIds.isEmpty()) {
+            return;
+        }
+        org.hibernate.Cache cache = entityManager.getEntityManagerFactory().getCache().unwrap(org.hibernate.Cache.class);
+        AfterCommit.run(() -> ownerIds.forEach(id -> cache.evictCollectionData(role, id)));
+    }
+
+    private void validate(Object entity) {
+        Set<ConstraintViolation<Object>> violations = validator.validate(entity);
+        if (!violations.isEmpty()) {
+            throw new IllegalArgumentException(
+                violations
+                    .stream()
+                    .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                    .sorted()
+                    .collect(Collectors.joining(", "))
+            );
+        }
+    }
+
+    private static Integer integerValue(ImportRecord record, String column) {
+        String value = record.get(column);
+        try {
+            return value == null ? null : Integer.valueOf(value.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid " + column + ": " + value);
+        }
+    }
+
+    private static LocalDate localDateValue(ImportRecord record, String column) {
+        String value = record.get(column);
+        try {
+            return value == null ? null : LocalDate.parse(value.trim());
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid " + column + ": " + value);
+        }
+    }
+
+    private static CategoryStatus statusValue(ImportRecord record, String column) {
+        String value = record.get(column);
+        try {
+            return value == null ? null : CategoryStatus.valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid " + column + ": " + value);
+        }
+    }
+
+    private static Set<Long> idsValue(ImportRecord record, String column) {
+        String value = record.get(column);
+        if (value == null || value.isBlank()) {
+            return Collections.emptySet();
+        }
+        Set<Long> ids = new LinkedHashSet<>();
+        try {
+            for (String id : value.trim().split("\\s*;\\s*")) {
+                ids.add(Long.valueOf(id));
+            }
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid " + column + ": " + value);
+        }
+        return ids;
+    }
+
+    @FunctionalInterface
+    private interface ChunkWriter<T> {
+        void write(List<PendingRow<T>> chunk);
+    }
+
+    private static final class PendingRow<T> {
+
+        private final long row;
+
+        private final T entity;
+
+        private final Long parentId;
+
+        private final Set<Long> relatedIds;
+
+        private String error;
+
+        PendingRow(long row, T entity, Long parentId, Set<Long> relatedIds) {
+            this.row = row;
+            this.entity = entity;
+            this.parentId = parentId;
+            this.relatedIds = relatedIds;
+        }
+
+        static <T> PendingRow<T> invalid(long row, String error) {
+            PendingRow<T> pending = new PendingRow<>(row, null, null, Collections.emptySet());
+            pending.error = error;
+            return pending;
+        }
+    }
+}
@@ -0,0 +1,157 @@
+package com.mycompany.myapp.service;
+
+import com.mycompany.myapp.domain.Category;
+import com.mycompany.myapp.domain.Product;
+import com.mycompany.myapp.repository.CategoryRepository;
+import com.mycompany.myapp.service.criteria.ProductCriteria;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Service for navigating the hierarchy of {@link Category} entities.
+ * <p>
+ * The parent of every category is kept in memory, loaded when the application starts and updated by
+ * {@link CategoryService} once its transactions commit; lookups are answered from a {@link CategoryTree} snapshot,
+ * rebuilt from memory after a change, so navigating the hierarchy costs no query per level.
+ */
+@Service
+@Transactional(readOnly = true)
+public class CategoryHierarchyService {
+
+    private final Logger log = LoggerFactory.getLogger(CategoryHierarchyService.class);
+
+    private final Map<Long, Long> parentIds = new HashMap<>();
+
+    private volatile CategoryTree tree;
+
+    private final CategoryRepository categoryRepository;
+
+    private final ProductQueryService productQueryService;
+
+    public CategoryHierarchyService(CategoryRepository categoryRepository, ProductQueryService productQueryService) {
+        this.categoryRepository = categoryRepository;
+        this.productQueryService = productQueryService;
+    }
+
+    /**
+     * Reload the hierarchy from the database.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void reload() {
+        log.debug("Request to reload the Category hierarchy");
+        List<Object[]> rows = categoryRepository.findAllIdsWithParentId();
+        synchronized (parentIds) {
+            parentIds.clear();
+            rows.forEach(row -> parentIds.put((Long) row[0], (Long) row[1]));
+            tree = null;
+        }
+        log.info("Loaded {} categories in the hierarchy", rows.size());
+    }
+
+    /**
+     * Get the descendants of a category, in depth-first order.
+     *
+     * @param id the id of the category.
+     * @return the descendants, or empty if the category is not found.
+     */
+    public Optional<List<Category>> findDescendants(Long id) {
+        log.debug("Request to get the descendants of Category : {}", id);
+        CategoryTree snapshot = tree();
+        return snapshot.contains(id) ? Optional.of(findAllInOrder(snapshot.descendantIds(id))) : Optional.empty();
+    }
+
+    /**
+     * Get the ancestors of a category, root first, as for a breadcrumb.
+     *
+     * @param id the id of the category.
+     * @return the ancestors, or empty if the category is not found.
+     */
+    public Optional<List<Category>> findAncestors(Long id) {
+        log.debug("Request to get the ancestors of Category : {}", id);
+        CategoryTree snapshot = tree();
+        return snapshot.contains(id) ? Optional.of(findAllInOrder(snapshot.ancestorIds(id))) : Optional.empty();
+    }
+
+    /**
+     * Get the products of a category or of any of its descendants, which also match the criteria.
+     *
+     * @param id the id of the category.
+     * @param criteria the criteria which the products should match.
+     * @param pageable the pagination information.
+     * @return the page of products, or empty if the category is not found.
+     */
+    public Optional<Page<Product>> findProducts(Long id, ProductCriteria criteria, Pageable pageable) {
+        log.debug("Request to get the Products of Category : {} and its descendants", id);
+        CategoryTree snapshot = tree();
+        if (!snapshot.contains(id)) {
+            return Optional.empty();
+        }
+        return Optional.of(productQueryService.findByCriteriaInCategories(criteria, snapshot.subtreeIds(id), pageable));
+    }
+
+    /**
+     * Record the parent of a saved category once the current transaction commits.
+     *
+     * @param category the saved category.
+     */
+    public void update(Category category) {
+        Long id = category.getId();
+        Long parentId = category.getParent() == null ? null : category.getParent().getId();
+        AfterCommit.run(() -> {
+            synchronized (parentIds) {
+                parentIds.put(id, parentId);
+                tree = null;
+            }
+        });
+    }
+
+    /**
+     * Forget a deleted category once the current transaction commits.
+     *
+     * @param id the id of the deleted category.
+     */
+    public void remove(Long id) {
+        AfterCommit.run(() -> {
+            synchronized (parentIds) {
+                parentIds.remove(id);
+                tree = null;
+            }
+        });
+    }
+
+    private CategoryTree tree() {
+        CategoryTree snapshot = tree;
+        if (snapshot == null) {
+            synchronized (parentIds) {
+                snapshot = tree;
+                if (snapshot == null) {
+                    snapshot = CategoryTree.of(parentIds);
+                    tree = snapshot;
+                }
+            }
+        }
+        return snapshot;
+    }
+
+    private List<Category> findAllInOrder(List<Long> ids) {
+        Map<Long, Integer> order = new HashMap<>();
+        for (int i = 0; i < ids.size(); i++) {
+            order.put(ids.get(i), i);
+        }
+        List<Category> categories = new ArrayList<>(categoryRepository.findAllById(ids));
+        categories.sort(Comparator.comparing(category -> order.get(category.getId())));
+        return categories;
+    }
+}
@@ -21,8 +21,11 @@ public class CategoryService {
 
     private final CategoryRepository categoryRepository;
 
-    public CategoryService(CategoryRepository categoryRepository) {
+    private final CategoryHierarchyService categoryHierarchyService;
+
+    public CategoryService(CategoryRepository categoryRepository, CategoryHierarchyService categoryHierarchyService) {
         this.categoryRepository = categoryRepository;
+        this.categoryHierarchyService = categoryHierarchyService;
     }
 
     /**
@@ -33,7 +36,9 @@ public class CategoryService {
      */
     public Category save(Category category) {
         log.debug("Request to save Category : {}", category);
-        return categoryRepository.save(category);
+        Category result = categoryRepository.save(category);
+        categoryHierarchyService.update(result);
+        return result;
     }
 
     /**
@@ -86,6 +91,7 @@ public class CategoryService {
      *
      * @return the list of entities.
      */
+    @Transactional(readOnly = true)
     public Page<Category> findAllWithEagerRelationships(Pageable pageable) {
         return categoryRepository.findAllWithEagerRelationships(pageable);
     }
@@ -110,5 +116,6 @@ public class CategoryService {
     public void delete(Long id) {
         log.debug("Request to delete Category : {}", id);
         categoryRepository.deleteById(id);
+        categoryHierarchyService.remove(id);
     }
 }
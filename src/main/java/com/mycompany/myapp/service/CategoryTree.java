@@ -0,0 +1,147 @@
+package com.mycompany.myapp.service;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable snapshot of the category hierarchy.
+ * <p>
+ * The categories are laid out in pre-order, each with the end of its subtree, so the descendants of a category are
+ * the contiguous range which follows it: finding them is a single map lookup. Categories whose parent is unknown are
+ * roots; categories caught in a parent cycle are left out.
+ */
+public final class CategoryTree {
+
+    private final long[] ids;
+
+    private final int[] subtreeEnds;
+
+    private final int[] parents;
+
+    private final Map<Long, Integer> positions;
+
+    private CategoryTree(long[] ids, int[] subtreeEnds, int[] parents, Map<Long, Integer> positions) {
+        this.ids = ids;
+        this.subtreeEnds = subtreeEnds;
+        this.parents = parents;
+        this.positions = positions;
+    }
+
+    /**
+     * Build the tree of the given categories.
+     *
+     * @param parentIds the id of the parent of each category, by category id, {@code null} for the roots.
+     * @return the tree.
+     */
+    public static CategoryTree of(Map<Long, Long> parentIds) {
+        Map<Long, List<Long>> children = new HashMap<>();
+        List<Long> roots = new ArrayList<>();
+        parentIds.forEach((id, parentId) -> {
+            if (parentId == null || !parentIds.containsKey(parentId)) {
+                roots.add(id);
+            } else {
+                children.computeIfAbsent(parentId, p -> new ArrayList<>()).add(id);
+            }
+        });
+        Collections.sort(roots);
+        children.values().forEach(Collections::sort);
+
+        int size = parentIds.size();
+        long[] ids = new long[size];
+        int[] subtreeEnds = new int[size];
+        int[] parents = new int[size];
+        Map<Long, Integer> positions = new HashMap<>(size * 2);
+        int next = 0;
+
+        // iterative depth-first walk: a node is pushed once to be visited, then once more to close its subtree
+        Deque<long[]> stack = new ArrayDeque<>();
+        for (int i = roots.size() - 1; i >= 0; i--) {
+            stack.push(new long[] { roots.get(i), -1, 0 });
+        }
+        while (!stack.isEmpty()) {
+            long[] frame = stack.pop();
+            if (frame[2] == 1) {
+                subtreeEnds[(int) frame[1]] = next;
+                continue;
+            }
+            int position = next++;
+            ids[position] = frame[0];
+            parents[position] = (int) frame[1];
+            positions.put(frame[0], position);
+            stack.push(new long[] { frame[0], position, 1 });
+            List<Long> nodeChildren = children.getOrDefault(frame[0], Collections.emptyList());
+            for (int i = nodeChildren.size() - 1; i >= 0; i--) {
+                stack.push(new long[] { nodeChildren.get(i), position, 0 });
+            }
+        }
+        return new CategoryTree(ids, subtreeEnds, parents, positions);
+    }
+
+    /**
+     * @param id the id of the category.
+     * @return whether the category is part of the tree.
+     */
+    public boolean contains(Long id) {
+        return positions.containsKey(id);
+    }
+
+    /**
+     * @return the number of categories in the tree.
+     */
+    public int size() {
+        return positions.size();
+    }
+
+    /**
+     * Get the ids of a category and all its descendants, in pre-order.
+     *
+     * @param id the id of the category.
+     * @return the ids, or an empty list if the category is not part of the tree.
+     */
+    public List<Long> subtreeIds(Long id) {
+        Integer position = positions.get(id);
+        if (position == null) {
+            return Collections.emptyList();
+        }
+        List<Long> result = new ArrayList<>(subtreeEnds[position] - position);
+        for (int i = position; i < subtreeEnds[position]; i++) {
+            result.add(ids[i]);
+        }
+        return result;
+    }
+
+    /**
+     * Get the ids of all the descendants of a category, in pre-order.
+     *
+     * @param id the id of the category.
+     * @return the ids, or an empty list if the category is not part of the tree.
+     */
+    public List<Long> descendantIds(Long id) {
+        List<Long> subtree = subtreeIds(id);
+        return subtree.isEmpty() ? subtree : subtree.subList(1, subtree.size());
+    }
+
+    /**
+     * Get the ids of the ancestors of a category, root first.
+     *
+     * @param id the id of the category.
+     * @return the ids, or an empty list if the category is a root or is not part of the tree.
+     */
+    public List<Long> ancestorIds(Long id) {
+        Integer position = positions.get(id);
+        if (position == null) {
+            return Collections.emptyList();
+        }
+        List<Long> result = new ArrayList<>();
+        for (int parent = parents[position]; parent >= 0; parent = parents[parent]) {
+            result.add(ids[parent]);
+        }
+        Collections.reverse(result);
+        return result;
+    }
+}
@@ -0,0 +1,333 @@
+package com.mycompany.myapp.service;
+
+import com.mycompany.myapp.config.ApplicationProperties;
+import com.mycompany.myapp.domain.Address;
+import com.mycompany.myapp.domain.Category;
+import com.mycompany.myapp.domain.Customer;
+import com.mycompany.myapp.domain.EntityChangeLog;
+import com.mycompany.myapp.domain.Product;
+import com.mycompany.myapp.repository.EntityChangeLogRepository;
+import com.mycompany.myapp.service.dto.EntityChange;
+import com.mycompany.myapp.service.dto.PendingEntityChangeEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.sql.Connection;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+import javax.persistence.EntityManager;
+import org.hibernate.Session;
+import org.hibernate.StatelessSession;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Stream of the committed writes of the {@link Product}, {@link Category}, {@link Customer} and {@link Address}
+ * entities, so the downstream caches and indexes can apply the changes instead of re-reading the tables.
+ * <p>
+ * The writes are saved in the {@code entity_change_log} table in the transaction which made them, after its last flush,
+ * see {@link PendingEntityChangeEvent}: they commit or roll back together. Once committed, they are also added to a
+ * buffer of the latest {@code application.change-stream.buffer-size} changes. The id of a change is its offset: the
+ * subscribers read the changes after the offset of the last one they received, from the buffer when it still holds
+ * them, else from the table. The changes older than {@code application.change-stream.retention} are purged every day.
+ * <p>
+ * The transactions do not commit in the order of their offsets, so the subscribers only read up to the offsets
+ * allocated before the oldest transaction still committing, which cannot commit a lower offset. This holds within an
+ * instance: the offsets come from the shared sequence, which the instances allocate in blocks, so a subscriber of a
+ * scaled out application must read the stream of each instance. The writes made outside Hibernate are only seen when
+ * recorded with {@link EntityChangeListener#recordUpdates}, like the join rows of the bulk import.
+ */
+@Service
+public class ChangeStreamService {
+
+    public static final String METER_NAME = "application.change-stream";
+    public static final String ENTITY_DIMENSION = "entity";
+
+    public static final Set<Class<?>> STREAMED_TYPES = Set.of(Product.class, Category.class, Customer.class, Address.class);
+
+    private final Logger log = LoggerFactory.getLogger(ChangeStreamService.class);
+
+    private final EntityChangeLogRepository entityChangeLogRepository;
+
+    private final EntityManager entityManager;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final ApplicationProperties.ChangeStream properties;
+
+    private final Map<String, Counter> counters = new HashMap<>();
+
+    /**
+     * The latest committed changes by offset, guarded by itself, like the fields below.
+     */
+    private final NavigableMap<Long, EntityChangeLog> buffer = new TreeMap<>();
+
+    /**
+     * The number of transactions still committing, by the highest offset allocated before they saved their changes:
+     * their offsets are all above it.
+     */
+    private final NavigableMap<Long, Integer> committing = new TreeMap<>();
+
+    /**
+     * The highest offset allocated by this instance.
+     */
+    private long allocated;
+
+    /**
+     * The offset the buffer starts after: every change committed by this instance after it is in the buffer. Unknown
+     * until the table is first read.
+     */
+    private volatile Long floor;
+
+    public ChangeStreamService(
+        EntityChangeLogRepository entityChangeLogRepository,
+        EntityManager entityManager,
+        PlatformTransactionManager transactionManager,
+        MeterRegistry meterRegistry,
+        ApplicationProperties applicationProperties
+    ) {
+        this.entityChangeLogRepository = entityChangeLogRepository;
+        this.entityManager = entityManager;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.properties = applicationProperties.getChangeStream();
+        for (Class<?> type : STREAMED_TYPES) {
+            counters.put(
+                type.getSimpleName(),
+                Counter
+                    .builder(METER_NAME)
+                    .description("Number of changes streamed, by entity type.")
+                    .tag(ENTITY_DIMENSION, type.getSimpleName())
+                    .register(meterRegistry)
+            );
+        }
+        Gauge
+            .builder(METER_NAME + ".buffered", this, ChangeStreamService::bufferSize)
+            .description("Number of changes held in memory for the subscribers.")
+            .register(meterRegistry);
+    }
+
+    /**
+     * Save the writes of the streamed entities in their transaction, and buffer them once it commits.
+     *
+     * @param event the writes of a transaction about to commit.
+     */
+    @EventListener
+    public void onPendingEntityChange(PendingEntityChangeEvent event) {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        List<EntityChangeLog> changes = event
+            .getChanges()
+            .stream()
+            .filter(change -> STREAMED_TYPES.contains(change.getEntityType()))
+            .map(ChangeStreamService::toLog)
+            .collect(Collectors.toList());
+        if (changes.isEmpty()) {
+            return;
+        }
+        long ticket = startCommit();
+        try {
+            Session session = entityManager.unwrap(Session.class);
+            session.doWork(connection -> insert(session, connection, changes));
+        } catch (RuntimeException e) {
+            endCommit(ticket, List.of());
+            throw e;
+        }
+        synchronized (buffer) {
+            allocated = Math.max(allocated, changes.get(changes.size() - 1).getId());
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            endCommit(ticket, changes);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(
+            new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    endCommit(ticket, status == STATUS_COMMITTED ? changes : List.of());
+                }
+            }
+        );
+    }
+
+    /**
+     * @param offset the offset of the last change already read.
+     * @param max the maximum number of changes.
+     * @return the committed changes after the offset, the oldest first.
+     */
+    public List<EntityChangeLog> read(long offset, int max) {
+        initializeFloor();
+        long readable;
+        synchronized (buffer) {
+            readable = readableLocked();
+            if (offset >= floor) {
+                return buffer
+                    .subMap(offset, false, Math.max(offset, readable), true)
+                    .values()
+                    .stream()
+                    .limit(max)
+                    .collect(Collectors.toList());
+            }
+        }
+        return entityChangeLogRepository.findByIdBetweenOrderByIdAsc(offset + 1, readable, PageRequest.of(0, max));
+    }
+
+    /**
+     * Wait for a change after the offset.
+     *
+     * @param offset the offset of the last change already read.
+     * @param timeout the maximum time to wait.
+     * @return whether there is a change after the offset.
+     * @throws InterruptedException if the thread is interrupted while waiting.
+     */
+    public boolean await(long offset, Duration timeout) throws InterruptedException {
+        initializeFloor();
+        long deadline = System.currentTimeMillis() + timeout.toMillis();
+        synchronized (buffer) {
+            long remaining = timeout.toMillis();
+            while (latestOffsetLocked() <= offset && remaining > 0) {
+                buffer.wait(remaining);
+                remaining = deadline - System.currentTimeMillis();
+            }
+            return latestOffsetLocked() > offset;
+        }
+    }
+
+    /**
+     * @return the offset of the latest change committed by this instance which can be read, or of the latest change of
+     * the table when this instance has not committed any yet.
+     */
+    public long latestOffset() {
+        initializeFloor();
+        synchronized (buffer) {
+            return latestOffsetLocked();
+        }
+    }
+
+    /**
+     * @param offset the offset of the last change a subscriber read.
+     * @return whether the changes after the offset may have been purged: the change at the offset is no longer saved.
+     */
+    public boolean isPurged(long offset) {
+        if (offset <= 0 || offset > latestOffset()) {
+            return false;
+        }
+        synchronized (buffer) {
+            if (buffer.containsKey(offset)) {
+                return false;
+            }
+        }
+        return !entityChangeLogRepository.existsById(offset);
+    }
+
+    /**
+     * The changes older than the retention are purged every day.
+     * <p>
+     * This is scheduled to get fired everyday, at 02:00 (am).
+     */
+    @Scheduled(cron = "0 0 2 * * ?")
+    public void purge() {
+        Integer purged = transactionTemplate.execute(status ->
+            entityChangeLogRepository.deleteByChangeDateBefore(Instant.now().minus(properties.getRetention()))
+        );
+        log.debug("Purged {} changes older than {}", purged, properties.getRetention());
+    }
+
+    /**
+     * The stateless session writes through the connection of the transaction, without flushing its session again, and
+     * allocates the offsets from the sequence of the entity.
+     */
+    private static void insert(Session session, Connection connection, List<EntityChangeLog> changes) {
+        StatelessSession logSession = session.getSessionFactory().withStatelessOptions().connection(connection).openStatelessSession();
+        try {
+            changes.forEach(logSession::insert);
+        } finally {
+            logSession.close();
+        }
+    }
+
+    /**
+     * @return the ticket of the committing transaction, below all the offsets it will allocate.
+     */
+    private long startCommit() {
+        synchronized (buffer) {
+            committing.merge(allocated, 1, Integer::sum);
+            return allocated;
+        }
+    }
+
+    private void endCommit(long ticket, List<EntityChangeLog> committed) {
+        synchronized (buffer) {
+            committing.computeIfPresent(ticket, (key, count) -> count > 1 ? count - 1 : null);
+            for (EntityChangeLog change : committed) {
+                if (floor == null || change.getId() > floor) {
+                    buffer.put(change.getId(), change);
+                }
+            }
+            while (buffer.size() > properties.getBufferSize()) {
+                long evicted = buffer.pollFirstEntry().getKey();
+                floor = floor == null ? evicted : Math.max(floor, evicted);
+            }
+            buffer.notifyAll();
+        }
+        committed.forEach(change -> counters.get(change.getEntityType()).increment());
+    }
+
+    /**
+     * The floor is read outside of the lock and of the transactions, never while a transaction commits.
+     */
+    private void initializeFloor() {
+        if (floor != null) {
+            return;
+        }
+        long latest = entityChangeLogRepository.findFirstByOrderByIdDesc().map(EntityChangeLog::getId).orElse(0L);
+        synchronized (buffer) {
+            if (floor == null) {
+                floor = latest;
+                allocated = Math.max(allocated, latest);
+            }
+        }
+    }
+
+    /**
+     * @return the highest offset which no committing transaction can still commit below.
+     */
+    private long readableLocked() {
+        return committing.isEmpty() ? Long.MAX_VALUE : committing.firstKey();
+    }
+
+    private long latestOffsetLocked() {
+        long readable = readableLocked();
+        Long latest = buffer.floorKey(readable);
+        return latest != null ? latest : Math.min(floor, readable);
+    }
+
+    private double bufferSize() {
+        synchronized (buffer) {
+            return buffer.size();
+        }
+    }
+
+    private static EntityChangeLog toLog(EntityChange change) {
+        EntityChangeLog entry = new EntityChangeLog();
+        entry.setEntityType(change.getEntityType().getSimpleName());
+        entry.setEntityId(((Number) change.getId()).longValue());
+        entry.setOperation(change.getOperation().name());
+        return entry;
+    }
+}
@@ -0,0 +1,161 @@
+package com.mycompany.myapp.service;
+
+import com.mycompany.myapp.config.ApplicationProperties;
+import com.mycompany.myapp.service.dto.EntityChangeEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.LongSupplier;
+import javax.persistence.Table;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import tech.jhipster.service.Criteria;
+
+/**
+ * Cache of the number of entities matching a {@link Criteria}, so the listings and the {@code /count} endpoints do not
+ * run a {@code count(*)} with all the criteria joins on each request.
+ * <p>
+ * Like the pages of the {@link QueryResultCache}, counts are keyed by the normalized criteria, depend on the types of
+ * the entities the count query reads, see {@link EntityDependentCache}, and are only cached within read-only
+ * transactions: a read-write transaction would count its own uncommitted writes. A count lives for at most
+ * {@code application.count.ttl}, within {@code application.count.max-entries} counts. Estimated counts of a table
+ * without criteria are read from the PostgreSQL planner statistics instead, once the table holds more than
+ * {@code application.count.estimate-threshold} rows.
+ */
+@Service
+public class CountCache {
+
+    public static final String METER_NAME = "application.count";
+    public static final String ENTITY_DIMENSION = "entity";
+    public static final String RESULT_DIMENSION = "result";
+
+    private static final String HIT = "hit";
+    private static final String MISS = "miss";
+    private static final String ESTIMATE = "estimate";
+
+    private final Logger log = LoggerFactory.getLogger(CountCache.class);
+
+    private final EntityDependentCache<List<Object>, Long> entries;
+
+    /**
+     * The lookup counters of each type of entities, by result.
+     */
+    private final ClassValue<Map<String, Counter>> counters = new ClassValue<>() {
+        @Override
+        protected Map<String, Counter> computeValue(Class<?> type) {
+            return Map.of(HIT, counter(type, HIT), MISS, counter(type, MISS), ESTIMATE, counter(type, ESTIMATE));
+        }
+    };
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final MeterRegistry meterRegistry;
+
+    private final boolean enabled;
+
+    private final long estimateThreshold;
+
+    private volatile Boolean postgresql;
+
+    public CountCache(JdbcTemplate jdbcTemplate, MeterRegistry meterRegistry, ApplicationProperties applicationProperties) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.meterRegistry = meterRegistry;
+        ApplicationProperties.Count properties = applicationProperties.getCount();
+        this.enabled = !properties.getTtl().isNegative() && !properties.getTtl().isZero();
+        this.entries = new EntityDependentCache<>(properties.getMaxEntries(), properties.getTtl());
+        this.estimateThreshold = properties.getEstimateThreshold();
+    }
+
+    /**
+     * Get the number of entities matching the criteria, from the cache if it was counted recently.
+     *
+     * @param entityClass the type of the entities.
+     * @param dependencies the types of the entities the count query reads, including {@code entityClass}.
+     * @param criteria the criteria, {@code null} for all the entities.
+     * @param exactCount the count query, run on a cache miss.
+     * @return the number of matching entities.
+     */
+    public long count(Class<?> entityClass, Set<Class<?>> dependencies, Criteria criteria, LongSupplier exactCount) {
+        if (!enabled || !TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return exactCount.getAsLong();
+        }
+        List<Object> key = Arrays.asList(entityClass, CriteriaFilters.normalize(criteria));
+        Long cached = entries.get(key);
+        if (cached != null) {
+            counters.get(entityClass).get(HIT).increment();
+            return cached;
+        }
+        counters.get(entityClass).get(MISS).increment();
+        long generation = entries.generation(dependencies);
+        long count = exactCount.getAsLong();
+        entries.put(key, count, dependencies, generation);
+        return count;
+    }
+
+    /**
+     * Get an estimate of the number of entities matching the criteria: the planner statistics of the table on
+     * PostgreSQL when there are no criteria and the table is large enough, the cached count otherwise.
+     *
+     * @param entityClass the type of the entities.
+     * @param dependencies the types of the entities the count query reads, including {@code entityClass}.
+     * @param criteria the criteria, {@code null} for all the entities.
+     * @param exactCount the count query, run on a cache miss.
+     * @return the estimated number of matching entities.
+     */
+    public long estimate(Class<?> entityClass, Set<Class<?>> dependencies, Criteria criteria, LongSupplier exactCount) {
+        if (CriteriaFilters.isEmpty(CriteriaFilters.normalize(criteria)) && isPostgresql()) {
+            Table table = entityClass.getAnnotation(Table.class);
+            List<Double> rows = jdbcTemplate.queryForList(
+                "select reltuples from pg_class where relname = ? and relkind = 'r'",
+                Double.class,
+                table == null ? entityClass.getSimpleName().toLowerCase() : table.name()
+            );
+            // a table never analyzed has no (0 or -1) estimate
+            if (!rows.isEmpty() && rows.get(0) != null && rows.get(0) >= estimateThreshold) {
+                counters.get(entityClass).get(ESTIMATE).increment();
+                return rows.get(0).longValue();
+            }
+        }
+        return count(entityClass, dependencies, criteria, exactCount);
+    }
+
+    /**
+     * Drop the cached counts which depend on the written entities.
+     *
+     * @param event the writes of a committed transaction.
+     */
+    @EventListener
+    public void onEntityChange(EntityChangeEvent event) {
+        entries.invalidate(event.getEntityTypes());
+    }
+
+    private boolean isPostgresql() {
+        Boolean result = postgresql;
+        if (result == null) {
+            String product = jdbcTemplate.execute(
+                (ConnectionCallback<String>) connection -> connection.getMetaData().getDatabaseProductName()
+            );
+            result = "PostgreSQL".equalsIgnoreCase(product);
+            log.debug("Estimated counts from the planner statistics: {}", result);
+            postgresql = result;
+        }
+        return result;
+    }
+
+    private Counter counter(Class<?> entityClass, String result) {
+        return Counter
+            .builder(METER_NAME)
+            .description("Number of count lookups, by result: cache hit, cache miss, or estimate from the database statistics.")
+            .tag(ENTITY_DIMENSION, entityClass.getSimpleName())
+            .tag(RESULT_DIMENSION, result)
+            .register(meterRegistry);
+    }
+}
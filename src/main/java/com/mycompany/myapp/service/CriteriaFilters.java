@@ -0,0 +1,152 @@
+package com.mycompany.myapp.service;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.function.Function;
+import tech.jhipster.service.Criteria;
+import tech.jhipster.service.filter.Filter;
+import tech.jhipster.service.filter.RangeFilter;
+import tech.jhipster.service.filter.StringFilter;
+
+/**
+ * Reflective access to the {@link Filter} fields of the {@link Criteria} classes, and to the operators of the filters,
+ * and normalization of the criteria used as cache keys.
+ */
+final class CriteriaFilters {
+
+    private static final ClassValue<List<Field>> FIELDS = new ClassValue<>() {
+        @Override
+        protected List<Field> computeValue(Class<?> type) {
+            List<Field> fields = new ArrayList<>();
+            for (Class<?> c = type; c != Object.class; c = c.getSuperclass()) {
+                for (Field field : c.getDeclaredFields()) {
+                    if (!Modifier.isStatic(field.getModifiers()) && Filter.class.isAssignableFrom(field.getType())) {
+                        field.setAccessible(true);
+                        fields.add(field);
+                    }
+                }
+            }
+            return Collections.unmodifiableList(fields);
+        }
+    };
+
+    private static final ClassValue<Map<String, Function<Filter<?>, Object>>> OPERATORS = new ClassValue<>() {
+        @Override
+        protected Map<String, Function<Filter<?>, Object>> computeValue(Class<?> type) {
+            Map<String, Function<Filter<?>, Object>> operators = new LinkedHashMap<>();
+            operators.put("equals", Filter::getEquals);
+            operators.put("notEquals", Filter::getNotEquals);
+            operators.put("specified", Filter::getSpecified);
+            operators.put("in", Filter::getIn);
+            operators.put("notIn", Filter::getNotIn);
+            if (RangeFilter.class.isAssignableFrom(type)) {
+                operators.put("greaterThan", filter -> ((RangeFilter<?>) filter).getGreaterThan());
+                operators.put("lessThan", filter -> ((RangeFilter<?>) filter).getLessThan());
+                operators.put("greaterThanOrEqual", filter -> ((RangeFilter<?>) filter).getGreaterThanOrEqual());
+                operators.put("lessThanOrEqual", filter -> ((RangeFilter<?>) filter).getLessThanOrEqual());
+            }
+            if (StringFilter.class.isAssignableFrom(type)) {
+                operators.put("contains", filter -> ((StringFilter) filter).getContains());
+                operators.put("doesNotContain", filter -> ((StringFilter) filter).getDoesNotContain());
+            }
+            return Collections.unmodifiableMap(operators);
+        }
+    };
+
+    private static final ClassValue<Object> EMPTY = new ClassValue<>() {
+        @Override
+        protected Object computeValue(Class<?> type) {
+            try {
+                return type.getDeclaredConstructor().newInstance();
+            } catch (ReflectiveOperationException e) {
+                return null;
+            }
+        }
+    };
+
+    private CriteriaFilters() {}
+
+    /**
+     * @param criteriaClass the type of the criteria.
+     * @return the filter fields of the criteria, made accessible.
+     */
+    static List<Field> fields(Class<?> criteriaClass) {
+        return FIELDS.get(criteriaClass);
+    }
+
+    /**
+     * @param filterClass the type of the filter.
+     * @return the accessors of the operators of the filter, by name: those of {@link Filter}, and of
+     * {@link RangeFilter} and {@link StringFilter} when it extends them.
+     */
+    static Map<String, Function<Filter<?>, Object>> operators(Class<?> filterClass) {
+        return OPERATORS.get(filterClass);
+    }
+
+    /**
+     * @param criteria the criteria.
+     * @return the filters which are set, by field name, in declaration order.
+     */
+    static Map<String, Filter<?>> filters(Criteria criteria) {
+        Map<String, Filter<?>> filters = new LinkedHashMap<>();
+        if (criteria == null) {
+            return filters;
+        }
+        for (Field field : fields(criteria.getClass())) {
+            try {
+                Filter<?> filter = (Filter<?>) field.get(criteria);
+                if (filter != null) {
+                    filters.put(field.getName(), filter);
+                }
+            } catch (IllegalAccessException e) {
+                throw new IllegalStateException("Cannot read the filter " + field.getName() + " of " + criteria.getClass().getName(), e);
+            }
+        }
+        return filters;
+    }
+
+    /**
+     * Copy the criteria, without the filters which filter nothing and with the {@code in} lists sorted, so that
+     * equivalent criteria are equal, as the keys of the caches.
+     *
+     * @param criteria the criteria, may be {@code null}.
+     * @return the normalized copy, which later changes of the criteria do not affect.
+     */
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    static Criteria normalize(Criteria criteria) {
+        if (criteria == null) {
+            return null;
+        }
+        Criteria copy = criteria.copy();
+        try {
+            for (Field field : fields(copy.getClass())) {
+                Filter filter = (Filter) field.get(copy);
+                if (filter == null) {
+                    continue;
+                }
+                if (filter.equals(EMPTY.get(filter.getClass()))) {
+                    field.set(copy, null);
+                } else if (filter.getIn() != null && filter.getIn().stream().allMatch(Comparable.class::isInstance)) {
+                    filter.setIn(new ArrayList<>(new TreeSet<>(filter.getIn())));
+                }
+            }
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException("Cannot normalize the criteria: " + criteria, e);
+        }
+        return copy;
+    }
+
+    /**
+     * @param criteria the normalized criteria, see {@link #normalize}, may be {@code null}.
+     * @return whether the criteria filter nothing.
+     */
+    static boolean isEmpty(Criteria criteria) {
+        return criteria == null || criteria.equals(EMPTY.get(criteria.getClass()));
+    }
+}
@@ -4,32 +4,46 @@ import com.mycompany.myapp.domain.*; // for static metamodels
 import com.mycompany.myapp.domain.Customer;
 import com.mycompany.myapp.repository.CustomerRepository;
 import com.mycompany.myapp.service.criteria.CustomerCriteria;
+import com.mycompany.myapp.service.dto.KeysetCursor;
+import com.mycompany.myapp.service.dto.KeysetSlice;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import javax.persistence.EntityManager;
 import javax.persistence.criteria.JoinType;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
-import tech.jhipster.service.QueryService;
 
 /**
  * Service for executing complex queries for {@link Customer} entities in the database.
  * The main input is a {@link CustomerCriteria} which gets converted to {@link Specification},
  * in a way that all the filters must apply.
- * It returns a {@link List} of {@link Customer} or a {@link Page} of {@link Customer} which fulfills the criteria.
+ * It returns a {@link List} of {@link Customer}, a {@link Page} of {@link Customer} or a {@link KeysetSlice} of {@link Customer}
+ * which fulfills the criteria.
  */
 @Service
 @Transactional(readOnly = true)
-public class CustomerQueryService extends QueryService<Customer> {
+public class CustomerQueryService extends KeysetQueryService<Customer> {
 
     private final Logger log = LoggerFactory.getLogger(CustomerQueryService.class);
 
     private final CustomerRepository customerRepository;
 
-    public CustomerQueryService(CustomerRepository customerRepository) {
+    public CustomerQueryService(
+        CustomerRepository customerRepository,
+        EntityManager entityManager,
+        CountCache countCache,
+        QueryResultCache queryResultCache,
+        QueryPlanService queryPlanService
+    ) {
+        super(Customer.class, entityManager, countCache, queryResultCache, queryPlanService);
         this.customerRepository = customerRepository;
     }
 
@@ -46,7 +60,7 @@ public class CustomerQueryService extends QueryService<Customer> {
     }
 
     /**
-     * Return a {@link Page} of {@link Customer} which matches the criteria from the database.
+     * Return a {@link Page} of {@link Customer} which matches the criteria from the database, or from the {@link QueryResultCache}.
      * @param criteria The object which holds all the filters, which the entities should match.
      * @param page The page, which should be returned.
      * @return the matching entities.
@@ -55,11 +69,80 @@ public class CustomerQueryService extends QueryService<Customer> {
     public Page<Customer> findByCriteria(CustomerCriteria criteria, Pageable page) {
         log.debug("find by criteria : {}, page: {}", criteria, page);
         final Specification<Customer> specification = createSpecification(criteria);
-        return customerRepository.findAll(specification, page);
+        return findPageCached(criteria, specification, page, () -> customerRepository.findAll(specification, page));
     }
 
     /**
-     * Return the number of matching entities in the database.
+     * Return a {@link Slice} of {@link Customer} which matches the criteria from the database, without counting the matching entities.
+     * @param criteria The object which holds all the filters, which the entities should match.
+     * @param page The page, which should be returned.
+     * @return the matching entities.
+     */
+    @Transactional(readOnly = true)
+    public Slice<Customer> findSliceByCriteria(CustomerCriteria criteria, Pageable page) {
+        log.debug("find slice by criteria : {}, page: {}", criteria, page);
+        final Specification<Customer> specification = createSpecification(criteria);
+        return findSliceWithoutCount(specification, page);
+    }
+
+    /**
+     * Return a {@link Page} of the given fields of the {@link Customer} which match the criteria from the database,
+     * selecting only their columns.
+     * @param criteria The object which holds all the filters, which the entities should match.
+     * @param fields The names of the fields, which should be returned with the id.
+     * @param page The page, which should be returned.
+     * @return the fields of the matching entities, by name.
+     * @throws IllegalArgumentException if a field is not a column of the entity.
+     */
+    @Transactional(readOnly = true)
+    public Page<Map<String, Object>> findFieldsByCriteria(CustomerCriteria criteria, Collection<String> fields, Pageable page) {
+        log.debug("find fields by criteria : {}, fields: {}, page: {}", criteria, fields, page);
+        final Specification<Customer> specification = createSpecification(criteria);
+        return findFields(criteria, specification, fields, page, () -> customerRepository.count(specification));
+    }
+
+    /**
+     * Return a {@link Page} of {@link Customer} which matches the criteria from the database, with a cached or estimated total.
+     * @param criteria The object which holds all the filters, which the entities should match.
+     * @param page The page, which should be returned.
+     * @return the matching entities.
+     */
+    @Transactional(readOnly = true)
+    public Page<Customer> findByCriteriaWithEstimatedCount(CustomerCriteria criteria, Pageable page) {
+        log.debug("find by criteria with estimated count : {}, page: {}", criteria, page);
+        final Specification<Customer> specification = createSpecification(criteria);
+        return findPageWithEstimatedCount(specification, criteria, page, () -> customerRepository.count(specification));
+    }
+
+    /**
+     * Return a {@link KeysetSlice} of {@link Customer} which matches the criteria from the database, read with keyset pagination.
+     * @param criteria The object which holds all the filters, which the entities should match.
+     * @param cursor The cursor of the slice, which should be returned.
+     * @param size The maximum number of entities in the slice.
+     * @return the matching entities.
+     */
+    @Transactional(readOnly = true)
+    public KeysetSlice<Customer> findByCriteria(CustomerCriteria criteria, KeysetCursor cursor, int size) {
+        log.debug("find by criteria : {}, cursor: {}, size: {}", criteria, cursor, size);
+        final Specification<Customer> specification = createSpecification(criteria);
+        return findSlice(specification, cursor, size);
+    }
+
+    /**
+     * Hand all the {@link Customer} which match the criteria to the consumer, by ascending id, without loading them all in memory.
+     * @param criteria The object which holds all the filters, which the entities should match.
+     * @param consumer The consumer of the entities, which are detached once it returns.
+     * @return the number of matching entities.
+     */
+    @Transactional(readOnly = true)
+    public long streamByCriteria(CustomerCriteria criteria, Consumer<Customer> consumer) {
+        log.debug("stream by criteria : {}", criteria);
+        final Specification<Customer> specification = createSpecification(criteria);
+        return scroll(specification, consumer);
+    }
+
+    /**
+     * Return the number of matching entities in the database, from the {@link CountCache} if counted recently.
      * @param criteria The object which holds all the filters, which the entities should match.
      * @return the number of matching entities.
      */
@@ -67,7 +150,7 @@ public class CustomerQueryService extends QueryService<Customer> {
     public long countByCriteria(CustomerCriteria criteria) {
         log.debug("count by criteria : {}", criteria);
         final Specification<Customer> specification = createSpecification(criteria);
-        return customerRepository.count(specification);
+        return countCached(criteria, () -> customerRepository.count(specification));
     }
 
     /**
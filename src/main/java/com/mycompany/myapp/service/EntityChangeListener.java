@@ -0,0 +1,264 @@
+package com.mycompany.myapp.service;
+
+import com.mycompany.myapp.service.dto.EntityChange;
+import com.mycompany.myapp.service.dto.EntityChangeEvent;
+import com.mycompany.myapp.service.dto.PendingEntityChangeEvent;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import javax.persistence.EntityManager;
+import org.hibernate.action.spi.BeforeTransactionCompletionProcess;
+import org.hibernate.boot.Metadata;
+import org.hibernate.engine.spi.EntityEntry;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.engine.spi.Status;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.AbstractCollectionEvent;
+import org.hibernate.event.spi.EventSource;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostCollectionRecreateEvent;
+import org.hibernate.event.spi.PostCollectionRecreateEventListener;
+import org.hibernate.event.spi.PostCollectionRemoveEvent;
+import org.hibernate.event.spi.PostCollectionRemoveEventListener;
+import org.hibernate.event.spi.PostCollectionUpdateEvent;
+import org.hibernate.event.spi.PostCollectionUpdateEventListener;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostDeleteEventListener;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostInsertEventListener;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.event.spi.PostUpdateEventListener;
+import org.hibernate.integrator.spi.Integrator;
+import org.hibernate.persister.entity.EntityPersister;
+import org.hibernate.service.spi.SessionFactoryServiceRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Hibernate event listener which collects the entity writes of each transaction, and publishes them as one
+ * {@link EntityChangeEvent} once the transaction commits: the writes of rolled back transactions are never published.
+ * They are also published as one {@link PendingEntityChangeEvent} in the transaction, after its last flush, for the
+ * subscribers which must write in the same transaction.
+ * <p>
+ * A change of a many-to-many or one-to-many collection is reported as an update of the entity owning it, unless that
+ * entity was already written in the same transaction. Writes made with plain JDBC or bulk JPQL statements are not seen,
+ * unless they are recorded with {@link #recordUpdates}.
+ * <p>
+ * The listener is registered with Hibernate through {@link #integrator()}.
+ */
+@Component
+public class EntityChangeListener
+    implements
+        PostInsertEventListener,
+        PostUpdateEventListener,
+        PostDeleteEventListener,
+        PostCollectionRecreateEventListener,
+        PostCollectionUpdateEventListener,
+        PostCollectionRemoveEventListener {
+
+    private static final long serialVersionUID = 1L;
+
+    private final Logger log = LoggerFactory.getLogger(EntityChangeListener.class);
+
+    private final transient ApplicationEventPublisher eventPublisher;
+
+    public EntityChangeListener(ApplicationEventPublisher eventPublisher) {
+        this.eventPublisher = eventPublisher;
+    }
+
+    /**
+     * @return the integrator appending this listener to the event listeners of the session factory.
+     */
+    public Integrator integrator() {
+        EntityChangeListener listener = this;
+        return new Integrator() {
+            @Override
+            public void integrate(
+                Metadata metadata,
+                SessionFactoryImplementor sessionFactory,
+                SessionFactoryServiceRegistry serviceRegistry
+            ) {
+                EventListenerRegistry registry = serviceRegistry.getService(EventListenerRegistry.class);
+                registry.appendListeners(EventType.POST_INSERT, listener);
+                registry.appendListeners(EventType.POST_UPDATE, listener);
+                registry.appendListeners(EventType.POST_DELETE, listener);
+                registry.appendListeners(EventType.POST_COLLECTION_RECREATE, listener);
+                registry.appendListeners(EventType.POST_COLLECTION_UPDATE, listener);
+                registry.appendListeners(EventType.POST_COLLECTION_REMOVE, listener);
+            }
+
+            @Override
+            public void disintegrate(SessionFactoryImplementor sessionFactory, SessionFactoryServiceRegistry serviceRegistry) {
+                // the listeners go away with the session factory
+            }
+        };
+    }
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        record(
+            new EntityChange(event.getPersister().getMappedClass(), event.getId(), EntityChange.Operation.CREATE),
+            false,
+            event.getSession()
+        );
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        record(
+            new EntityChange(event.getPersister().getMappedClass(), event.getId(), EntityChange.Operation.UPDATE),
+            false,
+            event.getSession()
+        );
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        record(
+            new EntityChange(event.getPersister().getMappedClass(), event.getId(), EntityChange.Operation.DELETE),
+            false,
+            event.getSession()
+        );
+    }
+
+    @Override
+    public void onPostRecreateCollection(PostCollectionRecreateEvent event) {
+        recordOwner(event);
+    }
+
+    @Override
+    public void onPostUpdateCollection(PostCollectionUpdateEvent event) {
+        recordOwner(event);
+    }
+
+    @Override
+    public void onPostRemoveCollection(PostCollectionRemoveEvent event) {
+        recordOwner(event);
+    }
+
+    /**
+     * The changes are published after the commit by the transaction synchronization, not by Hibernate.
+     */
+    @Override
+    public boolean requiresPostCommitHandling(EntityPersister persister) {
+        return false;
+    }
+
+    /**
+     * Still abstract in Hibernate 5.4, which only calls it through {@link #requiresPostCommitHandling}.
+     *
+     * @deprecated use {@link #requiresPostCommitHandling}.
+     */
+    @Deprecated
+    @Override
+    public boolean requiresPostCommitHanding(EntityPersister persister) {
+        return requiresPostCommitHandling(persister);
+    }
+
+    /**
+     * Record writes made outside Hibernate in the current transaction, such as join rows inserted with JDBC, as updates
+     * of the entities owning them, unless these entities were already written in the same transaction.
+     *
+     * @param entityType the type of the entities.
+     * @param ids the ids of the entities.
+     * @param entityManager the entity manager of the transaction.
+     */
+    public void recordUpdates(Class<?> entityType, Collection<? extends Serializable> ids, EntityManager entityManager) {
+        EventSource session = entityManager.unwrap(EventSource.class);
+        ids.forEach(id -> record(new EntityChange(entityType, id, EntityChange.Operation.UPDATE), true, session));
+    }
+
+    private void recordOwner(AbstractCollectionEvent event) {
+        Serializable ownerId = event.getAffectedOwnerIdOrNull();
+        if (ownerId == null || isDeleted(event)) {
+            return;
+        }
+        Class<?> ownerType = event
+            .getSession()
+            .getFactory()
+            .getMetamodel()
+            .entityPersister(event.getAffectedOwnerEntityName())
+            .getMappedClass();
+        record(new EntityChange(ownerType, ownerId, EntityChange.Operation.UPDATE), true, event.getSession());
+    }
+
+    /**
+     * The collections of a deleted entity are removed before it, which is not an update.
+     */
+    private static boolean isDeleted(AbstractCollectionEvent event) {
+        Object owner = event.getAffectedOwnerOrNull();
+        EntityEntry entry = owner != null ? event.getSession().getPersistenceContextInternal().getEntry(owner) : null;
+        return entry != null && (entry.getStatus() == Status.DELETED || entry.getStatus() == Status.GONE);
+    }
+
+    private void record(EntityChange change, boolean unlessWritten, EventSource session) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            publish(List.of(change));
+            return;
+        }
+        PendingChanges pending = (PendingChanges) TransactionSynchronizationManager.getResource(this);
+        if (pending == null) {
+            pending = new PendingChanges();
+            TransactionSynchronizationManager.bindResource(this, pending);
+            TransactionSynchronizationManager.registerSynchronization(pending);
+            session.getActionQueue().registerProcess(pending);
+        }
+        pending.add(change, unlessWritten);
+    }
+
+    private void publish(List<EntityChange> changes) {
+        try {
+            eventPublisher.publishEvent(new EntityChangeEvent(changes));
+        } catch (RuntimeException e) {
+            // the transaction is committed, a failing subscriber must not fail the request
+            log.error("Failed to publish the changes of {} entities", changes.size(), e);
+        }
+    }
+
+    private final class PendingChanges implements TransactionSynchronization, BeforeTransactionCompletionProcess {
+
+        private final List<EntityChange> changes = new ArrayList<>();
+
+        private final Set<List<Object>> written = new HashSet<>();
+
+        void add(EntityChange change, boolean unlessWritten) {
+            boolean first = written.add(List.of(change.getEntityType(), change.getId()));
+            if (first || !unlessWritten) {
+                changes.add(change);
+            }
+        }
+
+        /**
+         * Called by Hibernate when the transaction commits, after its last flush, so all the changes are recorded.
+         */
+        @Override
+        public void doBeforeTransactionCompletion(SessionImplementor session) {
+            if (!changes.isEmpty()) {
+                // unlike the publication after the commit, a failing subscriber fails the commit
+                eventPublisher.publishEvent(new PendingEntityChangeEvent(List.copyOf(changes)));
+            }
+        }
+
+        @Override
+        public void afterCommit() {
+            // the subscribers may write in a new transaction, whose changes must not be added to these ones
+            TransactionSynchronizationManager.unbindResourceIfPossible(EntityChangeListener.this);
+            if (!changes.isEmpty()) {
+                publish(List.copyOf(changes));
+            }
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            TransactionSynchronizationManager.unbindResourceIfPossible(EntityChangeListener.this);
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package com.mycompany.myapp.service;
+
+import com.mycompany.myapp.cache.LruCache;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Cache of values read from the entities of some types: an entry depends on these types, and is dropped as soon as a
+ * transaction writing one of them commits, see {@link EntityChangeListener}. This is the cache behind the
+ * {@link QueryResultCache}, the {@link CountCache} and the cached responses of the catalog.
+ * <p>
+ * A value read while a write commits may miss it, so the readers take the {@link #generation} of the types before
+ * reading, and the value is not cached if one of them was written since. Entries also expire after a time to live,
+ * which bounds the staleness after the writes Hibernate does not see, and the least recently used entries are evicted
+ * once the cache is full, see {@link LruCache}.
+ *
+ * @param <K> the type of the keys.
+ * @param <V> the type of the values.
+ */
+public final class EntityDependentCache<K, V> {
+
+    private final LruCache<K, Entry<V>> entries;
+
+    private final Map<Class<?>, AtomicLong> generations = new ConcurrentHashMap<>();
+
+    private final long ttlMillis;
+
+    /**
+     * @param maxEntries the maximum number of entries.
+     * @param ttl the time to live of the entries.
+     */
+    public EntityDependentCache(int maxEntries, Duration ttl) {
+        this.entries = new LruCache<>(maxEntries);
+        this.ttlMillis = ttl.toMillis();
+    }
+
+    /**
+     * @param key the key.
+     * @return the value of the key, or {@code null} if it is not cached or has expired.
+     */
+    public V get(K key) {
+        Entry<V> entry = entries.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (entry.expiresAt <= System.currentTimeMillis()) {
+            entries.remove(key, entry);
+            return null;
+        }
+        return entry.value;
+    }
+
+    /**
+     * @param dependencies the types of the entities a value is read from.
+     * @return the generation of these types, to take before reading the value and to give back to {@link #put}.
+     */
+    public long generation(Collection<Class<?>> dependencies) {
+        long sum = 0;
+        for (Class<?> type : dependencies) {
+            AtomicLong generation = generations.get(type);
+            sum += generation == null ? 0 : generation.get();
+        }
+        return sum;
+    }
+
+    /**
+     * Cache a value, unless one of the types it was read from was written since the generation was taken.
+     *
+     * @param key the key.
+     * @param value the value.
+     * @param dependencies the types of the entities the value was read from.
+     * @param generation the {@link #generation} of these types taken before reading the value.
+     */
+    public void put(K key, V value, Set<Class<?>> dependencies, long generation) {
+        Entry<V> entry = new Entry<>(value, dependencies, System.currentTimeMillis() + ttlMillis);
+        entries.put(key, entry);
+        // a write committed since the generation drops its dependent entries after counting itself, this one included
+        if (generation(dependencies) != generation) {
+            entries.remove(key, entry);
+        }
+    }
+
+    /**
+     * Drop the entries which depend on the written types.
+     *
+     * @param types the types of the entities written by a committed transaction.
+     */
+    public void invalidate(Set<Class<?>> types) {
+        types.forEach(type -> generations.computeIfAbsent(type, t -> new AtomicLong()).incrementAndGet());
+        entries.removeIf(entry -> entry.dependencies.stream().anyMatch(types::contains));
+    }
+
+    /**
+     * Drop all the entries.
+     */
+    public void clear() {
+        entries.clear();
+    }
+
+    /**
+     * @return the number of entries, including the expired ones not yet dropped.
+     */
+    public int size() {
+        return entries.size();
+    }
+
+    private static final class Entry<V> {
+
+        private final V value;
+
+        private final Set<Class<?>> dependencies;
+
+        private final long expiresAt;
+
+        Entry(V value, Set<Class<?>> dependencies, long expiresAt) {
+            this.value = value;
+            this.dependencies = dependencies;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package com.mycompany.myapp.service;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+import javax.persistence.EntityManager;
+import javax.persistence.metamodel.Attribute;
+import javax.persistence.metamodel.PluralAttribute;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+import tech.jhipster.service.Criteria;
+
+/**
+ * The caches of the queries of the entities of a type: the pages of the {@link QueryResultCache} and the counts of the
+ * {@link CountCache}, which depend on the entity and the targets of its associations, and the listings recorded for the
+ * {@link QueryPlanService}.
+ *
+ * @param <ENTITY> the type of the entity which is queried.
+ */
+final class EntityQueryCaches<ENTITY> {
+
+    private final Class<ENTITY> entityClass;
+
+    private final EntityManager entityManager;
+
+    private final CountCache countCache;
+
+    private final QueryResultCache queryResultCache;
+
+    private final QueryPlanService queryPlanService;
+
+    private volatile Set<Class<?>> dependencies;
+
+    EntityQueryCaches(
+        Class<ENTITY> entityClass,
+        EntityManager entityManager,
+        CountCache countCache,
+        QueryResultCache queryResultCache,
+        QueryPlanService queryPlanService
+    ) {
+        this.entityClass = entityClass;
+        this.entityManager = entityManager;
+        this.countCache = countCache;
+        this.queryResultCache = queryResultCache;
+        this.queryPlanService = queryPlanService;
+    }
+
+    /**
+     * Record a listing for the {@link QueryPlanService}.
+     */
+    void record(Criteria criteria, Specification<ENTITY> specification, Pageable pageable) {
+        queryPlanService.record(entityClass, criteria, specification, pageable);
+    }
+
+    /**
+     * @see QueryResultCache#page
+     */
+    Page<ENTITY> page(Criteria criteria, Pageable pageable, Supplier<Page<ENTITY>> query) {
+        return queryResultCache.page(entityClass, dependencies(), criteria, pageable, query);
+    }
+
+    /**
+     * @see CountCache#count
+     */
+    long count(Criteria criteria, LongSupplier exactCount) {
+        return countCache.count(entityClass, dependencies(), criteria, exactCount);
+    }
+
+    /**
+     * @see CountCache#estimate
+     */
+    long estimate(Criteria criteria, LongSupplier exactCount) {
+        return countCache.estimate(entityClass, dependencies(), criteria, exactCount);
+    }
+
+    /**
+     * @return the types of the entities the queries read: the entity and the targets of its associations, which the
+     * criteria can join.
+     */
+    Set<Class<?>> dependencies() {
+        Set<Class<?>> result = dependencies;
+        if (result == null) {
+            Set<Class<?>> types = new HashSet<>();
+            types.add(entityClass);
+            for (Attribute<? super ENTITY, ?> attribute : entityManager.getMetamodel().entity(entityClass).getAttributes()) {
+                if (attribute instanceof PluralAttribute) {
+                    types.add(((PluralAttribute<?, ?, ?>) attribute).getElementType().getJavaType());
+                } else if (attribute.isAssociation()) {
+                    types.add(attribute.getJavaType());
+                }
+            }
+            result = Set.copyOf(types);
+            dependencies = result;
+        }
+        return result;
+    }
+}
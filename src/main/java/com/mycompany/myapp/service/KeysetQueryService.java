@@ -0,0 +1,403 @@
+package com.mycompany.myapp.service;
+
+import com.mycompany.myapp.service.dto.KeysetCursor;
+import com.mycompany.myapp.service.dto.KeysetSlice;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+import javax.persistence.EntityManager;
+import javax.persistence.TypedQuery;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Expression;
+import javax.persistence.criteria.JoinType;
+import javax.persistence.criteria.Path;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+import javax.persistence.metamodel.Attribute;
+import javax.persistence.metamodel.SingularAttribute;
+import org.hibernate.CacheMode;
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
+import org.springframework.beans.PropertyAccessorFactory;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.data.support.PageableExecutionUtils;
+import tech.jhipster.service.Criteria;
+import tech.jhipster.service.QueryService;
+
+/**
+ * Base class for the query services which, on top of {@link QueryService}, can read the entities matching a
+ * {@link Specification} with keyset (seek) pagination, or a page of them without an exact count, or stream all of them.
+ * <p>
+ * A slice is read with a range predicate on the sort key and the id of the last row of the previous slice, ordered
+ * by the same columns and limited to one more row than requested: there is neither an {@code OFFSET} nor a
+ * {@code count(*)} query, so the cost of a slice does not depend on its depth. Rows with a {@code null} sort key
+ * are returned after all the others, ordered by id.
+ * <p>
+ * Streaming reads the entities through a forward-only cursor, {@value #SCROLL_FETCH_SIZE} rows per round trip, and
+ * detaches each entity once handed over, so the memory used does not depend on the number of rows.
+ * <p>
+ * A page can also be read without its {@code count(*)} query: either as a {@link Slice}, which only tells whether
+ * there is a next page, or with a total taken from the {@link CountCache}, or as a sparse fieldset, see
+ * {@link SparseFieldsQuery}. The pages and counts read by criteria are cached, see {@link EntityQueryCaches}.
+ *
+ * @param <ENTITY> the type of the entity which is queried.
+ */
+public abstract class KeysetQueryService<ENTITY> extends QueryService<ENTITY> {
+
+    static final int SCROLL_FETCH_SIZE = 500;
+
+    private final Class<ENTITY> entityClass;
+
+    private final EntityManager entityManager;
+
+    private final EntityQueryCaches<ENTITY> caches;
+
+    private final SparseFieldsQuery<ENTITY> sparseFieldsQuery;
+
+    protected KeysetQueryService(
+        Class<ENTITY> entityClass,
+        EntityManager entityManager,
+        CountCache countCache,
+        QueryResultCache queryResultCache,
+        QueryPlanService queryPlanService
+    ) {
+        this.entityClass = entityClass;
+        this.entityManager = entityManager;
+        this.caches = new EntityQueryCaches<>(entityClass, entityManager, countCache, queryResultCache, queryPlanService);
+        this.sparseFieldsQuery = new SparseFieldsQuery<>(entityClass, entityManager);
+    }
+
+    /**
+     * Return a {@link Page} of entities which match the criteria, from the {@link QueryResultCache} if it was read
+     * since the last write of the entities it depends on.
+     * @param criteria The criteria, the key of the cached page.
+     * @param specification The specification created from the criteria, recorded for the {@link QueryPlanService}.
+     * @param pageable The page, which should be returned, recorded with the specification.
+     * @param query The query, run when the page is not cached.
+     * @return the matching entities.
+     */
+    protected Page<ENTITY> findPageCached(
+        Criteria criteria,
+        Specification<ENTITY> specification,
+        Pageable pageable,
+        Supplier<Page<ENTITY>> query
+    ) {
+        caches.record(criteria, specification, pageable);
+        return caches.page(criteria, pageable, query);
+    }
+
+    /**
+     * Return the {@link KeysetSlice} of entities which match the specification, following the given cursor.
+     * @param specification The specification which the entities should match.
+     * @param cursor The cursor of the slice, which should be returned.
+     * @param size The maximum number of entities in the slice.
+     * @return the matching entities.
+     * @throws IllegalArgumentException if the cursor does not reference a sortable attribute of the entity.
+     */
+    protected KeysetSlice<ENTITY> findSlice(Specification<ENTITY> specification, KeysetCursor cursor, int size) {
+        SingularAttribute<? super ENTITY, ?> attribute = sortAttribute(cursor.getProperty());
+        boolean idOnly = cursor.isIdOnly();
+        boolean inNullBlock = !idOnly && !cursor.isFirst() && cursor.getLastValue() == null;
+
+        List<ENTITY> content = new ArrayList<>(size + 1);
+        if (!inNullBlock) {
+            content.addAll(readSlice(specification, cursor, attribute, false, size + 1));
+        }
+        if (content.size() <= size && !idOnly && attribute.isOptional()) {
+            KeysetCursor nullCursor = inNullBlock ? cursor : cursor.next(null, null);
+            content.addAll(readSlice(specification, nullCursor, attribute, true, size + 1 - content.size()));
+        }
+
+        KeysetCursor nextCursor = null;
+        if (content.size() > size) {
+            content = content.subList(0, size);
+            ENTITY last = content.get(size - 1);
+            Long lastId = (Long) entityManager.getEntityManagerFactory().getPersistenceUnitUtil().getIdentifier(last);
+            String lastValue = idOnly
+                ? null
+                : formatValue(PropertyAccessorFactory.forDirectFieldAccess(last).getPropertyValue(attribute.getName()));
+            nextCursor = cursor.next(lastId, lastValue);
+        }
+        Sort sort = idOnly
+            ? Sort.by(cursor.getDirection(), KeysetCursor.ID_PROPERTY)
+            : Sort.by(cursor.getDirection(), cursor.getProperty(), KeysetCursor.ID_PROPERTY);
+        return new KeysetSlice<>(new ArrayList<>(content), PageRequest.of(0, size, sort), nextCursor);
+    }
+
+    /**
+     * Return the {@link Slice} of entities which match the specification for the given page, without counting them:
+     * one more entity than the page size is read to tell whether there is a next page.
+     * @param specification The specification which the entities should match.
+     * @param pageable The page, which should be returned.
+     * @return the matching entities.
+     */
+    protected Slice<ENTITY> findSliceWithoutCount(Specification<ENTITY> specification, Pageable pageable) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<ENTITY> query = cb.createQuery(entityClass);
+        Root<ENTITY> root = query.from(entityClass);
+        Predicate filter = specification == null ? null : specification.toPredicate(root, query, cb);
+        if (filter != null) {
+            query.where(filter);
+        }
+        if (pageable.getSort().isSorted()) {
+            query.orderBy(QueryUtils.toOrders(pageable.getSort(), root, cb));
+        }
+        TypedQuery<ENTITY> typedQuery = entityManager.createQuery(query);
+        if (pageable.isUnpaged()) {
+            return new SliceImpl<>(typedQuery.getResultList(), pageable, false);
+        }
+        typedQuery.setFirstResult((int) pageable.getOffset());
+        typedQuery.setMaxResults(pageable.getPageSize() + 1);
+        List<ENTITY> content = typedQuery.getResultList();
+        boolean hasNext = content.size() > pageable.getPageSize();
+        return new SliceImpl<>(hasNext ? new ArrayList<>(content.subList(0, pageable.getPageSize())) : content, pageable, hasNext);
+    }
+
+    /**
+     * Return a {@link Page} of the given fields of the entities which match the specification, read with a
+     * {@link SparseFieldsQuery}. The total is taken from the {@link CountCache}, unless the page tells it.
+     * @param criteria The criteria the specification was created from, the key of the cached count.
+     * @param specification The specification which the entities should match.
+     * @param fields The names of the fields, basic attributes of the entity; the id is always selected first.
+     * @param pageable The page, which should be returned.
+     * @param exactCount The count query, run when the count is not cached.
+     * @return the fields of the matching entities, by name.
+     * @throws IllegalArgumentException if a field is not a basic attribute of the entity.
+     */
+    protected Page<Map<String, Object>> findFields(
+        Criteria criteria,
+        Specification<ENTITY> specification,
+        Collection<String> fields,
+        Pageable pageable,
+        LongSupplier exactCount
+    ) {
+        caches.record(criteria, specification, pageable);
+        List<Map<String, Object>> content = sparseFieldsQuery.find(specification, fields, pageable);
+        return PageableExecutionUtils.getPage(content, pageable, () -> countCached(criteria, exactCount));
+    }
+
+    /**
+     * Return a {@link Page} of entities which match the specification, with an estimated total: the total is exact
+     * when the page is the last one, and taken from {@link CountCache#estimate} otherwise.
+     * @param specification The specification which the entities should match.
+     * @param criteria The criteria the specification was created from, the key of the cached count.
+     * @param pageable The page, which should be returned.
+     * @param exactCount The count query, run when the count is not cached.
+     * @return the matching entities.
+     */
+    protected Page<ENTITY> findPageWithEstimatedCount(
+        Specification<ENTITY> specification,
+        Criteria criteria,
+        Pageable pageable,
+        LongSupplier exactCount
+    ) {
+        caches.record(criteria, specification, pageable);
+        Slice<ENTITY> slice = findSliceWithoutCount(specification, pageable);
+        long offset = pageable.isPaged() ? pageable.getOffset() : 0;
+        long total = slice.hasNext() || (!slice.hasContent() && offset > 0)
+            ? caches.estimate(criteria, exactCount)
+            : offset + slice.getNumberOfElements();
+        return new PageImpl<>(slice.getContent(), pageable, total);
+    }
+
+    /**
+     * Return the number of entities which match the criteria, from the {@link CountCache} if counted recently.
+     * @param criteria The criteria, the key of the cached count.
+     * @param exactCount The count query, run when the count is not cached.
+     * @return the number of matching entities.
+     */
+    protected long countCached(Criteria criteria, LongSupplier exactCount) {
+        return caches.count(criteria, exactCount);
+    }
+
+    /**
+     * @return the types of the entities the queries read: the entity and the targets of its associations, which the
+     * criteria can join.
+     */
+    public Set<Class<?>> dependencies() {
+        return caches.dependencies();
+    }
+
+    /**
+     * Hand all the entities which match the specification to the consumer, by ascending id, through a forward-only
+     * cursor. Must be called within a transaction, which stays open until all the entities are consumed. The to-one
+     * associations are fetched with the entities, which would otherwise be read with a query per row.
+     * @param specification The specification which the entities should match.
+     * @param consumer The consumer of the entities, which are detached once it returns.
+     * @return the number of entities.
+     */
+    @SuppressWarnings("unchecked")
+    protected long scroll(Specification<ENTITY> specification, Consumer<? super ENTITY> consumer) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<ENTITY> query = cb.createQuery(entityClass);
+        Root<ENTITY> root = query.from(entityClass);
+        for (SingularAttribute<? super ENTITY, ?> attribute : entityManager.getMetamodel().entity(entityClass).getSingularAttributes()) {
+            if (attribute.isAssociation()) {
+                root.fetch(attribute, JoinType.LEFT);
+            }
+        }
+        Predicate filter = specification == null ? null : specification.toPredicate(root, query, cb);
+        if (filter != null) {
+            query.where(filter);
+        }
+        query.orderBy(cb.asc(root.get(KeysetCursor.ID_PROPERTY)));
+
+        long count = 0;
+        try (
+            ScrollableResults results = entityManager
+                .createQuery(query)
+                .unwrap(org.hibernate.query.Query.class)
+                .setFetchSize(SCROLL_FETCH_SIZE)
+                .setReadOnly(true)
+                .setCacheMode(CacheMode.GET)
+                .scroll(ScrollMode.FORWARD_ONLY)
+        ) {
+            while (results.next()) {
+                ENTITY entity = (ENTITY) results.get(0);
+                consumer.accept(entity);
+                entityManager.detach(entity);
+                // eagerly fetched associations are not detached with the entity
+                if (++count % SCROLL_FETCH_SIZE == 0) {
+                    entityManager.clear();
+                }
+            }
+        }
+        return count;
+    }
+
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    private List<ENTITY> readSlice(
+        Specification<ENTITY> specification,
+        KeysetCursor cursor,
+        SingularAttribute<? super ENTITY, ?> attribute,
+        boolean nullBlock,
+        int limit
+    ) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<ENTITY> query = cb.createQuery(entityClass);
+        Root<ENTITY> root = query.from(entityClass);
+        boolean ascending = cursor.getDirection().isAscending();
+
+        List<Predicate> predicates = new ArrayList<>();
+        Predicate filter = specification == null ? null : specification.toPredicate(root, query, cb);
+        if (filter != null) {
+            predicates.add(filter);
+        }
+        Path<Comparable> id = root.get(KeysetCursor.ID_PROPERTY);
+        Path<Comparable> key = root.get(attribute.getName());
+        Comparable lastId = cursor.getLastId();
+        if (cursor.isIdOnly()) {
+            if (lastId != null) {
+                predicates.add(after(cb, id, lastId, ascending));
+            }
+            query.orderBy(ascending ? cb.asc(id) : cb.desc(id));
+        } else if (nullBlock) {
+            predicates.add(cb.isNull(key));
+            if (lastId != null) {
+                predicates.add(after(cb, id, lastId, ascending));
+            }
+            query.orderBy(ascending ? cb.asc(id) : cb.desc(id));
+        } else {
+            if (attribute.isOptional()) {
+                predicates.add(cb.isNotNull(key));
+            }
+            if (lastId != null) {
+                Comparable lastValue = parseValue(cursor.getLastValue(), attribute.getJavaType());
+                predicates.add(
+                    cb.or(after(cb, key, lastValue, ascending), cb.and(cb.equal(key, lastValue), after(cb, id, lastId, ascending)))
+                );
+            }
+            query.orderBy(ascending ? cb.asc(key) : cb.desc(key), ascending ? cb.asc(id) : cb.desc(id));
+        }
+        query.where(predicates.toArray(new Predicate[0]));
+        return entityManager.createQuery(query).setMaxResults(limit).getResultList();
+    }
+
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    private static Predicate after(CriteriaBuilder cb, Expression<Comparable> path, Comparable value, boolean ascending) {
+        return ascending ? cb.greaterThan(path, value) : cb.lessThan(path, value);
+    }
+
+    private SingularAttribute<? super ENTITY, ?> sortAttribute(String property) {
+        SingularAttribute<? super ENTITY, ?> attribute = entityManager.getMetamodel().entity(entityClass).getSingularAttribute(property);
+        if (
+            attribute.getPersistentAttributeType() != Attribute.PersistentAttributeType.BASIC ||
+            !Comparable.class.isAssignableFrom(attribute.getJavaType())
+        ) {
+            throw new IllegalArgumentException("Cannot use keyset pagination on attribute: " + property);
+        }
+        return attribute;
+    }
+
+    private static String formatValue(Object value) {
+        if (value == null) {
+            return null;
+        }
+        if (value instanceof Enum) {
+            return ((Enum<?>) value).name();
+        }
+        return value.toString();
+    }
+
+    @SuppressWarnings("rawtypes")
+    private static Comparable parseValue(String value, Class<?> type) {
+        if (value == null) {
+            throw new IllegalArgumentException("Invalid keyset cursor");
+        }
+        try {
+            return convertValue(value, type);
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid keyset cursor", e);
+        }
+    }
+
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    private static Comparable convertValue(String value, Class<?> type) {
+        if (String.class.equals(type)) {
+            return value;
+        } else if (Long.class.equals(type)) {
+            return Long.valueOf(value);
+        } else if (Integer.class.equals(type)) {
+            return Integer.valueOf(value);
+        } else if (Double.class.equals(type)) {
+            return Double.valueOf(value);
+        } else if (Float.class.equals(type)) {
+            return Float.valueOf(value);
+        } else if (BigDecimal.class.equals(type)) {
+            return new BigDecimal(value);
+        } else if (Boolean.class.equals(type)) {
+            return Boolean.valueOf(value);
+        } else if (LocalDate.class.equals(type)) {
+            return LocalDate.parse(value);
+        } else if (Instant.class.equals(type)) {
+            return Instant.parse(value);
+        } else if (ZonedDateTime.class.equals(type)) {
+            return ZonedDateTime.parse(value);
+        } else if (UUID.class.equals(type)) {
+            return UUID.fromString(value);
+        } else if (type.isEnum()) {
+            return Enum.valueOf((Class<Enum>) type, value);
+        }
+        throw new IllegalArgumentException("Cannot use keyset pagination on values of type: " + type.getName());
+    }
+}
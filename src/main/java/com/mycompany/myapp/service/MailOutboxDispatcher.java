@@ -0,0 +1,261 @@
+package com.mycompany.myapp.service;
+
+import com.mycompany.myapp.config.ApplicationProperties;
+import com.mycompany.myapp.domain.MailOutboxMessage;
+import com.mycompany.myapp.domain.enumeration.MailStatus;
+import com.mycompany.myapp.repository.MailOutboxMessageRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import javax.mail.MessagingException;
+import javax.mail.internet.MimeMessage;
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.mail.javamail.MimeMessageHelper;
+import org.springframework.scheduling.annotation.SchedulingConfigurer;
+import org.springframework.scheduling.config.ScheduledTaskRegistrar;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import tech.jhipster.config.JHipsterProperties;
+
+/**
+ * Sends the emails of the outbox.
+ * <p>
+ * Every {@code application.mail-outbox.poll-interval}, the due emails are locked in batches and each batch is sent over
+ * a single SMTP connection. The sent emails are deleted from the outbox. The others are retried with an exponential
+ * backoff, until they are marked {@link MailStatus#FAILED} after {@code application.mail-outbox.max-attempts}.
+ * <p>
+ * The locked rows are skipped by the other instances on PostgreSQL, so the application can be scaled out without
+ * sending an email twice.
+ */
+@Service
+public class MailOutboxDispatcher implements SchedulingConfigurer {
+
+    public static final String METER_NAME = "application.mail.outbox";
+    public static final String RESULT_DIMENSION = "result";
+
+    private static final int MAX_ERROR_LENGTH = 1000;
+
+    private final Logger log = LoggerFactory.getLogger(MailOutboxDispatcher.class);
+
+    private final JHipsterProperties jHipsterProperties;
+
+    private final JavaMailSender javaMailSender;
+
+    private final MailOutboxMessageRepository mailOutboxMessageRepository;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final ApplicationProperties.MailOutbox properties;
+
+    private final Counter sentCounter;
+
+    private final Counter retriedCounter;
+
+    private final Counter failedCounter;
+
+    private final Timer batchTimer;
+
+    private final AtomicLong pending = new AtomicLong();
+
+    private final AtomicReference<Instant> oldestPending = new AtomicReference<>();
+
+    public MailOutboxDispatcher(
+        JHipsterProperties jHipsterProperties,
+        JavaMailSender javaMailSender,
+        MailOutboxMessageRepository mailOutboxMessageRepository,
+        PlatformTransactionManager transactionManager,
+        MeterRegistry meterRegistry,
+        ApplicationProperties applicationProperties
+    ) {
+        this.jHipsterProperties = jHipsterProperties;
+        this.javaMailSender = javaMailSender;
+        this.mailOutboxMessageRepository = mailOutboxMessageRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.properties = applicationProperties.getMailOutbox();
+        this.sentCounter = resultCounter(meterRegistry, "sent");
+        this.retriedCounter = resultCounter(meterRegistry, "retried");
+        this.failedCounter = resultCounter(meterRegistry, "failed");
+        this.batchTimer =
+            Timer
+                .builder(METER_NAME + ".batch")
+                .description("Time spent sending a batch of emails over one SMTP connection.")
+                .register(meterRegistry);
+        Gauge
+            .builder(METER_NAME + ".pending", pending, AtomicLong::get)
+            .description("Number of emails waiting in the outbox, including the ones waiting for a retry.")
+            .register(meterRegistry);
+        Gauge
+            .builder(METER_NAME + ".lag", this, MailOutboxDispatcher::lagSeconds)
+            .description("Age of the oldest email waiting in the outbox.")
+            .baseUnit("seconds")
+            .register(meterRegistry);
+    }
+
+    @Override
+    public void configureTasks(ScheduledTaskRegistrar taskRegistrar) {
+        if (properties.isEnabled()) {
+            taskRegistrar.addFixedDelayTask(this::dispatchAll, properties.getPollInterval().toMillis());
+        }
+    }
+
+    /**
+     * Send the due emails, batch after batch, until a batch is not fully sent.
+     */
+    public void dispatchAll() {
+        try {
+            int sent;
+            do {
+                sent = dispatch();
+            } while (sent == properties.getBatchSize());
+        } catch (RuntimeException e) {
+            log.error("Could not dispatch the mail outbox", e);
+        } finally {
+            updateBacklog();
+        }
+    }
+
+    /**
+     * Send one batch of due emails over a single SMTP connection.
+     *
+     * @return the number of emails sent.
+     */
+    public int dispatch() {
+        Integer sent = transactionTemplate.execute(status -> {
+            List<MailOutboxMessage> due = mailOutboxMessageRepository.lockDue(Instant.now(), PageRequest.of(0, properties.getBatchSize()));
+            return due.isEmpty() ? 0 : send(due);
+        });
+        return sent == null ? 0 : sent;
+    }
+
+    private int send(List<MailOutboxMessage> due) {
+        Map<MimeMessage, MailOutboxMessage> messages = new LinkedHashMap<>();
+        for (MailOutboxMessage message : due) {
+            try {
+                messages.put(toMimeMessage(message), message);
+            } catch (MessagingException e) {
+                fail(message, e);
+            }
+        }
+        if (messages.isEmpty()) {
+            return 0;
+        }
+
+        Map<Object, Exception> failures = Map.of();
+        Timer.Sample sample = Timer.start();
+        try {
+            javaMailSender.send(messages.keySet().toArray(new MimeMessage[0]));
+        } catch (MailSendException e) {
+            // Holds the messages which were not sent, the others were delivered before the failure
+            failures = e.getFailedMessages();
+        } catch (MailException e) {
+            // Authentication failure, nothing was sent
+            failures = new LinkedHashMap<>();
+            for (MimeMessage mimeMessage : messages.keySet()) {
+                failures.put(mimeMessage, e);
+            }
+        } finally {
+            sample.stop(batchTimer);
+        }
+
+        List<MailOutboxMessage> sent = new ArrayList<>();
+        for (Map.Entry<MimeMessage, MailOutboxMessage> entry : messages.entrySet()) {
+            Exception failure = failures.get(entry.getKey());
+            if (failure == null) {
+                sent.add(entry.getValue());
+            } else {
+                retry(entry.getValue(), failure);
+            }
+        }
+        if (!sent.isEmpty()) {
+            mailOutboxMessageRepository.deleteAllInBatch(sent);
+        }
+        sentCounter.increment(sent.size());
+        log.debug("Sent {} emails, {} to retry", sent.size(), messages.size() - sent.size());
+        return sent.size();
+    }
+
+    private MimeMessage toMimeMessage(MailOutboxMessage message) throws MessagingException {
+        MimeMessage mimeMessage = javaMailSender.createMimeMessage();
+        MimeMessageHelper helper = new MimeMessageHelper(mimeMessage, message.isMultipart(), StandardCharsets.UTF_8.name());
+        helper.setTo(message.getRecipient());
+        helper.setFrom(jHipsterProperties.getMail().getFrom());
+        helper.setSubject(message.getSubject());
+        helper.setText(message.getContent(), message.isHtml());
+        return mimeMessage;
+    }
+
+    private void retry(MailOutboxMessage message, Exception failure) {
+        message.setAttempts(message.getAttempts() + 1);
+        message.setLastError(StringUtils.abbreviate(String.valueOf(failure.getMessage()), MAX_ERROR_LENGTH));
+        if (message.getAttempts() >= properties.getMaxAttempts()) {
+            fail(message, failure);
+            return;
+        }
+        message.setNextAttemptDate(Instant.now().plus(backoff(message.getAttempts())));
+        retriedCounter.increment();
+        log.warn("Email could not be sent to '{}', attempt {}: {}", message.getRecipient(), message.getAttempts(), failure.getMessage());
+    }
+
+    private void fail(MailOutboxMessage message, Exception failure) {
+        message.setStatus(MailStatus.FAILED);
+        message.setLastError(StringUtils.abbreviate(String.valueOf(failure.getMessage()), MAX_ERROR_LENGTH));
+        failedCounter.increment();
+        log.error("Email could not be sent to '{}', giving up: {}", message.getRecipient(), message, failure);
+    }
+
+    /**
+     * @param attempts the number of failed attempts, at least 1.
+     * @return the wait before the next attempt: the initial backoff, doubled after each attempt, up to the max backoff.
+     */
+    Duration backoff(int attempts) {
+        Duration backoff = properties.getInitialBackoff();
+        for (int i = 1; i < attempts && backoff.compareTo(properties.getMaxBackoff()) < 0; i++) {
+            backoff = backoff.multipliedBy(2);
+        }
+        return backoff.compareTo(properties.getMaxBackoff()) < 0 ? backoff : properties.getMaxBackoff();
+    }
+
+    private void updateBacklog() {
+        try {
+            pending.set(mailOutboxMessageRepository.countByStatus(MailStatus.PENDING));
+            oldestPending.set(
+                mailOutboxMessageRepository
+                    .findFirstByStatusOrderByCreatedDateAsc(MailStatus.PENDING)
+                    .map(MailOutboxMessage::getCreatedDate)
+                    .orElse(null)
+            );
+        } catch (RuntimeException e) {
+            log.warn("Could not measure the mail outbox backlog", e);
+        }
+    }
+
+    private double lagSeconds() {
+        Instant oldest = oldestPending.get();
+        return oldest == null ? 0 : Math.max(0, Duration.between(oldest, Instant.now()).toMillis() / 1000.0);
+    }
+
+    private static Counter resultCounter(MeterRegistry meterRegistry, String result) {
+        return Counter
+            .builder(METER_NAME)
+            .description("Number of emails of the outbox, by outcome of their sending attempt.")
+            .tag(RESULT_DIMENSION, result)
+            .register(meterRegistry);
+    }
+}
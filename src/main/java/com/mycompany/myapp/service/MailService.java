@@ -1,18 +1,27 @@
 package com.mycompany.myapp.service;
 
+import com.mycompany.myapp.config.Constants;
+import com.mycompany.myapp.domain.MailOutboxMessage;
 import com.mycompany.myapp.domain.User;
-import java.nio.charset.StandardCharsets;
+import com.mycompany.myapp.domain.User_;
+import com.mycompany.myapp.repository.MailOutboxMessageRepository;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Locale;
-import javax.mail.MessagingException;
-import javax.mail.internet.MimeMessage;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import javax.persistence.EntityManager;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Root;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.MessageSource;
-import org.springframework.mail.MailException;
-import org.springframework.mail.javamail.JavaMailSender;
-import org.springframework.mail.javamail.MimeMessageHelper;
-import org.springframework.scheduling.annotation.Async;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import org.thymeleaf.context.Context;
 import org.thymeleaf.spring5.SpringTemplateEngine;
 import tech.jhipster.config.JHipsterProperties;
@@ -20,9 +29,14 @@ import tech.jhipster.config.JHipsterProperties;
 /**
  * Service for sending emails.
  * <p>
- * We use the {@link Async} annotation to send emails asynchronously.
+ * The emails are saved in the outbox table with the business writes they notify about, and sent in batches by the
+ * {@link MailOutboxDispatcher}.
+ * <p>
+ * The templates are processed once per locale and cached with placeholders for the fields of the user, unless the
+ * Thymeleaf cache is disabled, see {@link MailTemplate}.
  */
 @Service
+@Transactional
 public class MailService {
 
     private final Logger log = LoggerFactory.getLogger(MailService.class);
@@ -31,80 +45,157 @@ public class MailService {
 
     private static final String BASE_URL = "baseUrl";
 
-    private final JHipsterProperties jHipsterProperties;
+    private static final int BULK_BATCH_SIZE = 500;
 
-    private final JavaMailSender javaMailSender;
+    private final JHipsterProperties jHipsterProperties;
 
     private final MessageSource messageSource;
 
     private final SpringTemplateEngine templateEngine;
 
+    private final MailOutboxMessageRepository mailOutboxMessageRepository;
+
+    private final EntityManager entityManager;
+
+    private final boolean cacheTemplates;
+
+    /**
+     * The templates rendered for each template, subject and locale, see {@link MailTemplate}.
+     */
+    private final Map<List<Object>, MailTemplate> templates = new ConcurrentHashMap<>();
+
     public MailService(
         JHipsterProperties jHipsterProperties,
-        JavaMailSender javaMailSender,
         MessageSource messageSource,
-        SpringTemplateEngine templateEngine
+        SpringTemplateEngine templateEngine,
+        MailOutboxMessageRepository mailOutboxMessageRepository,
+        EntityManager entityManager,
+        @Value("${spring.thymeleaf.cache:true}") boolean cacheTemplates
     ) {
         this.jHipsterProperties = jHipsterProperties;
-        this.javaMailSender = javaMailSender;
         this.messageSource = messageSource;
         this.templateEngine = templateEngine;
+        this.mailOutboxMessageRepository = mailOutboxMessageRepository;
+        this.entityManager = entityManager;
+        this.cacheTemplates = cacheTemplates;
     }
 
-    @Async
+    /**
+     * Save an email in the outbox, in the current transaction: it is only sent if the transaction commits, and it is
+     * not lost if the application stops before the {@link MailOutboxDispatcher} sends it.
+     *
+     * @param to the recipient.
+     * @param subject the subject.
+     * @param content the body.
+     * @param isMultipart whether the body is sent as a multipart message.
+     * @param isHtml whether the body is HTML.
+     */
     public void sendEmail(String to, String subject, String content, boolean isMultipart, boolean isHtml) {
+        queue(to, subject, content, isMultipart, isHtml);
+    }
+
+    private MailOutboxMessage queue(String to, String subject, String content, boolean isMultipart, boolean isHtml) {
         log.debug(
-            "Send email[multipart '{}' and html '{}'] to '{}' with subject '{}' and content={}",
+            "Queue email[multipart '{}' and html '{}'] to '{}' with subject '{}' and content={}",
             isMultipart,
             isHtml,
             to,
             subject,
             content
         );
-
-        // Prepare message using a Spring helper
-        MimeMessage mimeMessage = javaMailSender.createMimeMessage();
-        try {
-            MimeMessageHelper message = new MimeMessageHelper(mimeMessage, isMultipart, StandardCharsets.UTF_8.name());
-            message.setTo(to);
-            message.setFrom(jHipsterProperties.getMail().getFrom());
-            message.setSubject(subject);
-            message.setText(content, isHtml);
-            javaMailSender.send(mimeMessage);
-            log.debug("Sent email to User '{}'", to);
-        } catch (MailException | MessagingException e) {
-            log.warn("Email could not be sent to user '{}'", to, e);
-        }
+        MailOutboxMessage message = new MailOutboxMessage();
+        message.setRecipient(to);
+        message.setSubject(subject);
+        message.setContent(content);
+        message.setMultipart(isMultipart);
+        message.setHtml(isHtml);
+        return mailOutboxMessageRepository.save(message);
     }
 
-    @Async
     public void sendEmailFromTemplate(User user, String templateName, String titleKey) {
         if (user.getEmail() == null) {
             log.debug("Email doesn't exist for user '{}'", user.getLogin());
             return;
         }
-        Locale locale = Locale.forLanguageTag(user.getLangKey());
+        queueFromTemplate(user, templateName, titleKey, cacheTemplates ? templates : new HashMap<>());
+    }
+
+    /**
+     * Send an email from a template to each user of a query, for example to remind the users who did not activate their
+     * account. The users without an email are skipped.
+     * <p>
+     * The users are read and the emails saved by batches of {@value #BULK_BATCH_SIZE}, which are detached from the
+     * persistence context once flushed, and the template is only processed once per language.
+     *
+     * @param users the query of the users, {@code null} for all of them.
+     * @param templateName the template of the email.
+     * @param titleKey the message key of the subject.
+     * @return the number of emails saved in the outbox.
+     */
+    public long sendEmailsFromTemplate(Specification<User> users, String templateName, String titleKey) {
+        log.debug("Sending '{}' emails to a query of users", templateName);
+        Map<List<Object>, MailTemplate> bulkTemplates = cacheTemplates ? templates : new HashMap<>();
+        long queued = 0;
+        List<User> batch;
+        Long lastId = null;
+        do {
+            batch = nextUsers(users, lastId);
+            List<MailOutboxMessage> messages = new ArrayList<>(batch.size());
+            for (User user : batch) {
+                messages.add(queueFromTemplate(user, templateName, titleKey, bulkTemplates));
+            }
+            entityManager.flush();
+            batch.forEach(entityManager::detach);
+            messages.forEach(entityManager::detach);
+            queued += messages.size();
+            if (!batch.isEmpty()) {
+                lastId = batch.get(batch.size() - 1).getId();
+            }
+        } while (batch.size() == BULK_BATCH_SIZE);
+        log.debug("Sent {} '{}' emails", queued, templateName);
+        return queued;
+    }
+
+    private MailOutboxMessage queueFromTemplate(User user, String templateName, String titleKey, Map<List<Object>, MailTemplate> cache) {
+        Locale locale = Locale.forLanguageTag(user.getLangKey() == null ? Constants.DEFAULT_LANGUAGE : user.getLangKey());
+        MailTemplate template = cache.computeIfAbsent(
+            List.of(templateName, titleKey, locale),
+            key -> prerender(templateName, titleKey, locale)
+        );
+        return queue(user.getEmail(), template.getSubject(), template.render(user), false, true);
+    }
+
+    private MailTemplate prerender(String templateName, String titleKey, Locale locale) {
         Context context = new Context(locale);
-        context.setVariable(USER, user);
+        context.setVariable(USER, MailTemplate.placeholderUser());
         context.setVariable(BASE_URL, jHipsterProperties.getMail().getBaseUrl());
         String content = templateEngine.process(templateName, context);
         String subject = messageSource.getMessage(titleKey, null, locale);
-        sendEmail(user.getEmail(), subject, content, false, true);
+        return MailTemplate.of(subject, content);
+    }
+
+    private List<User> nextUsers(Specification<User> users, Long afterId) {
+        Specification<User> specification = Specification.where(users).and((root, query, cb) -> cb.isNotNull(root.get(User_.email)));
+        if (afterId != null) {
+            specification = specification.and((root, query, cb) -> cb.greaterThan(root.get(User_.id), afterId));
+        }
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<User> query = cb.createQuery(User.class);
+        Root<User> root = query.from(User.class);
+        query.select(root).where(specification.toPredicate(root, query, cb)).orderBy(cb.asc(root.get(User_.id)));
+        return entityManager.createQuery(query).setMaxResults(BULK_BATCH_SIZE).getResultList();
     }
 
-    @Async
     public void sendActivationEmail(User user) {
         log.debug("Sending activation email to '{}'", user.getEmail());
         sendEmailFromTemplate(user, "mail/activationEmail", "email.activation.title");
     }
 
-    @Async
     public void sendCreationEmail(User user) {
         log.debug("Sending creation email to '{}'", user.getEmail());
         sendEmailFromTemplate(user, "mail/creationEmail", "email.activation.title");
     }
 
-    @Async
     public void sendPasswordResetMail(User user) {
         log.debug("Sending password reset email to '{}'", user.getEmail());
         sendEmailFromTemplate(user, "mail/passwordResetEmail", "email.reset.title");
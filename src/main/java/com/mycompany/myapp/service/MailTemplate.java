@@ -0,0 +1,111 @@
+package com.mycompany.myapp.service;
+
+import com.mycompany.myapp.domain.User;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import org.unbescape.html.HtmlEscape;
+
+/**
+ * A mail template rendered once for a locale, with placeholders where the fields of the user go.
+ * <p>
+ * The template is processed with a {@link #placeholderUser() placeholder user}, whose fields are unique markers, and
+ * the markers found in the output are replaced by the HTML escaped fields of each recipient, as Thymeleaf would have
+ * output them. So the templates can output the fields of the user, but must not branch on them or transform them.
+ */
+final class MailTemplate {
+
+    private static final String MARKER = "mailfield" + UUID.randomUUID().toString().replace("-", "");
+
+    private static final Pattern PLACEHOLDER = Pattern.compile(MARKER + "([a-z]+)" + MARKER);
+
+    private static final Map<String, Function<User, String>> GETTERS = new LinkedHashMap<>();
+
+    private static final Map<String, BiConsumer<User, String>> SETTERS = new LinkedHashMap<>();
+
+    static {
+        field("login", User::getLogin, User::setLogin);
+        field("firstname", User::getFirstName, User::setFirstName);
+        field("lastname", User::getLastName, User::setLastName);
+        field("email", User::getEmail, User::setEmail);
+        field("langkey", User::getLangKey, User::setLangKey);
+        field("imageurl", User::getImageUrl, User::setImageUrl);
+        field("activationkey", User::getActivationKey, User::setActivationKey);
+        field("resetkey", User::getResetKey, User::setResetKey);
+    }
+
+    private final String subject;
+
+    private final List<String> literals;
+
+    private final List<Function<User, String>> fields;
+
+    private MailTemplate(String subject, List<String> literals, List<Function<User, String>> fields) {
+        this.subject = subject;
+        this.literals = literals;
+        this.fields = fields;
+    }
+
+    /**
+     * @return a user whose fields are the markers {@link #of} looks for.
+     */
+    static User placeholderUser() {
+        User user = new User();
+        SETTERS.forEach((name, setter) -> setter.accept(user, MARKER + name + MARKER));
+        return user;
+    }
+
+    /**
+     * @param subject the subject of the email.
+     * @param content the template processed with the {@link #placeholderUser() placeholder user}.
+     * @return the template to render for each recipient.
+     */
+    static MailTemplate of(String subject, String content) {
+        List<String> literals = new ArrayList<>();
+        List<Function<User, String>> fields = new ArrayList<>();
+        Matcher matcher = PLACEHOLDER.matcher(content);
+        int start = 0;
+        while (matcher.find()) {
+            Function<User, String> getter = GETTERS.get(matcher.group(1));
+            if (getter == null) {
+                continue;
+            }
+            literals.add(content.substring(start, matcher.start()));
+            fields.add(getter);
+            start = matcher.end();
+        }
+        literals.add(content.substring(start));
+        return new MailTemplate(subject, literals, fields);
+    }
+
+    String getSubject() {
+        return subject;
+    }
+
+    /**
+     * @param user the recipient.
+     * @return the content of the email for the recipient.
+     */
+    String render(User user) {
+        StringBuilder content = new StringBuilder(literals.stream().mapToInt(String::length).sum() + 64 * fields.size());
+        for (int i = 0; i < fields.size(); i++) {
+            content.append(literals.get(i));
+            String value = fields.get(i).apply(user);
+            if (value != null) {
+                content.append(HtmlEscape.escapeHtml4Xml(value));
+            }
+        }
+        return content.append(literals.get(literals.size() - 1)).toString();
+    }
+
+    private static void field(String name, Function<User, String> getter, BiConsumer<User, String> setter) {
+        GETTERS.put(name, getter);
+        SETTERS.put(name, setter);
+    }
+}
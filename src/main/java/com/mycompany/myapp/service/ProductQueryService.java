@@ -4,32 +4,46 @@ import com.mycompany.myapp.domain.*; // for static metamodels
 import com.mycompany.myapp.domain.Product;
 import com.mycompany.myapp.repository.ProductRepository;
 import com.mycompany.myapp.service.criteria.ProductCriteria;
+import com.mycompany.myapp.service.dto.KeysetCursor;
+import com.mycompany.myapp.service.dto.KeysetSlice;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import javax.persistence.EntityManager;
 import javax.persistence.criteria.JoinType;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
-import tech.jhipster.service.QueryService;
 
 /**
  * Service for executing complex queries for {@link Product} entities in the database.
  * The main input is a {@link ProductCriteria} which gets converted to {@link Specification},
  * in a way that all the filters must apply.
- * It returns a {@link List} of {@link Product} or a {@link Page} of {@link Product} which fulfills the criteria.
+ * It returns a {@link List} of {@link Product}, a {@link Page} of {@link Product} or a {@link KeysetSlice} of {@link Product}
+ * which fulfills the criteria.
  */
 @Service
 @Transactional(readOnly = true)
-public class ProductQueryService extends QueryService<Product> {
+public class ProductQueryService extends KeysetQueryService<Product> {
 
     private final Logger log = LoggerFactory.getLogger(ProductQueryService.class);
 
     private final ProductRepository productRepository;
 
-    public ProductQueryService(ProductRepository productRepository) {
+    public ProductQueryService(
+        ProductRepository productRepository,
+        EntityManager entityManager,
+        CountCache countCache,
+        QueryResultCache queryResultCache,
+        QueryPlanService queryPlanService
+    ) {
+        super(Product.class, entityManager, countCache, queryResultCache, queryPlanService);
         this.productRepository = productRepository;
     }
 
@@ -46,7 +60,7 @@ public class ProductQueryService extends QueryService<Product> {
     }
 
     /**
-     * Return a {@link Page} of {@link Product} which matches the criteria from the database.
+     * Return a {@link Page} of {@link Product} which matches the criteria from the database, or from the {@link QueryResultCache}.
      * @param criteria The object which holds all the filters, which the entities should match.
      * @param page The page, which should be returned.
      * @return the matching entities.
@@ -55,11 +69,95 @@ public class ProductQueryService extends QueryService<Product> {
     public Page<Product> findByCriteria(ProductCriteria criteria, Pageable page) {
         log.debug("find by criteria : {}, page: {}", criteria, page);
         final Specification<Product> specification = createSpecification(criteria);
+        return findPageCached(criteria, specification, page, () -> productRepository.findAll(specification, page));
+    }
+
+    /**
+     * Return a {@link Page} of {@link Product} which matches the criteria and belongs to one of the categories, from the database.
+     * The categories are a separate filter: they limit the result whatever the {@code categoryId} filter of the criteria.
+     * @param criteria The object which holds all the filters, which the entities should match.
+     * @param categoryIds The ids of the categories, one of which the entities should belong to.
+     * @param page The page, which should be returned.
+     * @return the matching entities.
+     */
+    @Transactional(readOnly = true)
+    public Page<Product> findByCriteriaInCategories(ProductCriteria criteria, Collection<Long> categoryIds, Pageable page) {
+        log.debug("find by criteria : {}, in categories: {}, page: {}", criteria, categoryIds, page);
+        final Specification<Product> specification = createSpecification(criteria).and(inCategories(categoryIds));
         return productRepository.findAll(specification, page);
     }
 
     /**
-     * Return the number of matching entities in the database.
+     * Return a {@link Slice} of {@link Product} which matches the criteria from the database, without counting the matching entities.
+     * @param criteria The object which holds all the filters, which the entities should match.
+     * @param page The page, which should be returned.
+     * @return the matching entities.
+     */
+    @Transactional(readOnly = true)
+    public Slice<Product> findSliceByCriteria(ProductCriteria criteria, Pageable page) {
+        log.debug("find slice by criteria : {}, page: {}", criteria, page);
+        final Specification<Product> specification = createSpecification(criteria);
+        return findSliceWithoutCount(specification, page);
+    }
+
+    /**
+     * Return a {@link Page} of the given fields of the {@link Product} which match the criteria from the database,
+     * selecting only their columns.
+     * @param criteria The object which holds all the filters, which the entities should match.
+     * @param fields The names of the fields, which should be returned with the id.
+     * @param page The page, which should be returned.
+     * @return the fields of the matching entities, by name.
+     * @throws IllegalArgumentException if a field is not a column of the entity.
+     */
+    @Transactional(readOnly = true)
+    public Page<Map<String, Object>> findFieldsByCriteria(ProductCriteria criteria, Collection<String> fields, Pageable page) {
+        log.debug("find fields by criteria : {}, fields: {}, page: {}", criteria, fields, page);
+        final Specification<Product> specification = createSpecification(criteria);
+        return findFields(criteria, specification, fields, page, () -> productRepository.count(specification));
+    }
+
+    /**
+     * Return a {@link Page} of {@link Product} which matches the criteria from the database, with a cached or estimated total.
+     * @param criteria The object which holds all the filters, which the entities should match.
+     * @param page The page, which should be returned.
+     * @return the matching entities.
+     */
+    @Transactional(readOnly = true)
+    public Page<Product> findByCriteriaWithEstimatedCount(ProductCriteria criteria, Pageable page) {
+        log.debug("find by criteria with estimated count : {}, page: {}", criteria, page);
+        final Specification<Product> specification = createSpecification(criteria);
+        return findPageWithEstimatedCount(specification, criteria, page, () -> productRepository.count(specification));
+    }
+
+    /**
+     * Return a {@link KeysetSlice} of {@link Product} which matches the criteria from the database, read with keyset pagination.
+     * @param criteria The object which holds all the filters, which the entities should match.
+     * @param cursor The cursor of the slice, which should be returned.
+     * @param size The maximum number of entities in the slice.
+     * @return the matching entities.
+     */
+    @Transactional(readOnly = true)
+    public KeysetSlice<Product> findByCriteria(ProductCriteria criteria, KeysetCursor cursor, int size) {
+        log.debug("find by criteria : {}, cursor: {}, size: {}", criteria, cursor, size);
+        final Specification<Product> specification = createSpecification(criteria);
+        return findSlice(specification, cursor, size);
+    }
+
+    /**
+     * Hand all the {@link Product} which match the criteria to the consumer, by ascending id, without loading them all in memory.
+     * @param criteria The object which holds all the filters, which the entities should match.
+     * @param consumer The consumer of the entities, which are detached once it returns.
+     * @return the number of matching entities.
+     */
+    @Transactional(readOnly = true)
+    public long streamByCriteria(ProductCriteria criteria, Consumer<Product> consumer) {
+        log.debug("stream by criteria : {}", criteria);
+        final Specification<Product> specification = createSpecification(criteria);
+        return scroll(specification, consumer);
+    }
+
+    /**
+     * Return the number of matching entities in the database, from the {@link CountCache} if counted recently.
      * @param criteria The object which holds all the filters, which the entities should match.
      * @return the number of matching entities.
      */
@@ -67,7 +165,7 @@ public class ProductQueryService extends QueryService<Product> {
     public long countByCriteria(ProductCriteria criteria) {
         log.debug("count by criteria : {}", criteria);
         final Specification<Product> specification = createSpecification(criteria);
-        return productRepository.count(specification);
+        return countCached(criteria, () -> productRepository.count(specification));
     }
 
     /**
@@ -115,4 +213,15 @@ public class ProductQueryService extends QueryService<Product> {
         }
         return specification;
     }
+
+    /**
+     * @param categoryIds the ids of the categories.
+     * @return the {@link Specification} of the products which belong to one of the categories, each returned once.
+     */
+    private static Specification<Product> inCategories(Collection<Long> categoryIds) {
+        return (root, query, cb) -> {
+            query.distinct(true);
+            return root.join(Product_.categories, JoinType.LEFT).get(Category_.id).in(categoryIds);
+        };
+    }
 }
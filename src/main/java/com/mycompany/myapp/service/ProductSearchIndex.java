@@ -0,0 +1,503 @@
+package com.mycompany.myapp.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory inverted index over the title, keywords and description of the products.
+ * <p>
+ * Each product is given a dense internal document number, and each term maps to a posting list of document numbers
+ * (in ascending order) with the weighted term frequency, both stored in primitive {@code int} arrays. A query is
+ * answered by intersecting the posting lists of its terms, shortest first, and ranking the matches with BM25, so its
+ * cost depends on the size of the posting lists and not on the number of products.
+ * <p>
+ * Updating a product deletes its document and appends a new one, which keeps the posting lists sorted; the deleted
+ * documents are purged once they make up half of the index, and are left out of the document frequencies right away.
+ * Readers share a read lock, writers take the write lock.
+ * <p>
+ * The index is rebuilt from a read of the database, see {@link #startRebuild()}, while the products written meanwhile
+ * are still indexed as their transactions commit: the rebuild does not overwrite these products with what it read,
+ * which may be older.
+ */
+public final class ProductSearchIndex {
+
+    static final int TITLE_WEIGHT = 3;
+
+    static final int KEYWORDS_WEIGHT = 2;
+
+    static final int DESCRIPTION_WEIGHT = 1;
+
+    private static final int MIN_TERM_LENGTH = 2;
+
+    private static final int MIN_DELETED_TO_COMPACT = 1024;
+
+    private static final double K1 = 1.2;
+
+    private static final double B = 0.75;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final Map<String, Postings> postingsByTerm = new HashMap<>();
+
+    private final Map<Long, Integer> documentsByProductId = new HashMap<>();
+
+    private final BitSet deleted = new BitSet();
+
+    private long[] productIds = new long[1024];
+
+    private int[] lengths = new int[1024];
+
+    /**
+     * The posting lists of the terms of each document, whose live documents it counts.
+     */
+    private Postings[][] documentTerms = new Postings[1024][];
+
+    /**
+     * The products indexed or removed since the rebuild started, {@code null} when the index is not being rebuilt.
+     */
+    private Set<Long> updatedDuringRebuild;
+
+    private int documentCount;
+
+    private long liveLength;
+
+    /**
+     * Add or replace a product in the index.
+     *
+     * @param productId the id of the product.
+     * @param title the title of the product.
+     * @param keywords the keywords of the product.
+     * @param description the description of the product.
+     */
+    public void index(long productId, String title, String keywords, String description) {
+        Document document = document(title, keywords, description);
+        lock.writeLock().lock();
+        try {
+            if (updatedDuringRebuild != null) {
+                updatedDuringRebuild.add(productId);
+            }
+            addDocument(productId, document);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Remove a product from the index.
+     *
+     * @param productId the id of the product.
+     */
+    public void remove(long productId) {
+        lock.writeLock().lock();
+        try {
+            if (updatedDuringRebuild != null) {
+                updatedDuringRebuild.add(productId);
+            }
+            removeDocument(productId);
+            compactIfNeeded();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Remove all the products from the index, and start tracking the products indexed or removed from now on, which
+     * {@link #rebuild} leaves as they are until {@link #finishRebuild()}.
+     */
+    public void startRebuild() {
+        lock.writeLock().lock();
+        try {
+            postingsByTerm.clear();
+            documentsByProductId.clear();
+            deleted.clear();
+            Arrays.fill(documentTerms, 0, documentCount, null);
+            documentCount = 0;
+            liveLength = 0;
+            updatedDuringRebuild = new HashSet<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Add a product read by the rebuild, unless it was indexed or removed since the rebuild started: it was then
+     * written by a transaction which committed after it was read, or indexed with the values which were read.
+     *
+     * @param productId the id of the product.
+     * @param title the title of the product.
+     * @param keywords the keywords of the product.
+     * @param description the description of the product.
+     */
+    public void rebuild(long productId, String title, String keywords, String description) {
+        Document document = document(title, keywords, description);
+        lock.writeLock().lock();
+        try {
+            if (updatedDuringRebuild == null || !updatedDuringRebuild.contains(productId)) {
+                addDocument(productId, document);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Stop tracking the products indexed or removed since the rebuild started.
+     */
+    public void finishRebuild() {
+        lock.writeLock().lock();
+        try {
+            updatedDuringRebuild = null;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void addDocument(long productId, Document added) {
+        removeDocument(productId);
+        int document = documentCount++;
+        if (document == productIds.length) {
+            productIds = Arrays.copyOf(productIds, document * 2);
+            lengths = Arrays.copyOf(lengths, document * 2);
+            documentTerms = Arrays.copyOf(documentTerms, document * 2);
+        }
+        productIds[document] = productId;
+        lengths[document] = added.length;
+        liveLength += added.length;
+        documentsByProductId.put(productId, document);
+        Postings[] terms = new Postings[added.frequencies.size()];
+        int i = 0;
+        for (Map.Entry<String, Integer> entry : added.frequencies.entrySet()) {
+            Postings postings = postingsByTerm.computeIfAbsent(entry.getKey(), t -> new Postings());
+            postings.add(document, entry.getValue());
+            terms[i++] = postings;
+        }
+        documentTerms[document] = terms;
+        // re-indexing deletes the previous document too, the products updated in a loop must not grow the index
+        compactIfNeeded();
+    }
+
+    /**
+     * @return the number of products in the index.
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return documentsByProductId.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return the number of documents in the index, including the deleted ones not purged yet.
+     */
+    int documentCount() {
+        lock.readLock().lock();
+        try {
+            return documentCount;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @param term a term.
+     * @return the number of products in the index with the term.
+     */
+    int documentFrequency(String term) {
+        lock.readLock().lock();
+        try {
+            Postings postings = postingsByTerm.get(term);
+            return postings == null ? 0 : postings.live;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Find the products matching all the terms of the query, best matches first.
+     *
+     * @param query the free text query.
+     * @param offset the number of matches to skip.
+     * @param limit the maximum number of matches to return.
+     * @return the matching product ids and the total number of matches.
+     */
+    public Hits search(String query, long offset, int limit) {
+        Set<String> terms = new LinkedHashSet<>(tokenize(query));
+        if (terms.isEmpty()) {
+            return Hits.EMPTY;
+        }
+        lock.readLock().lock();
+        try {
+            List<Postings> lists = new ArrayList<>(terms.size());
+            for (String term : terms) {
+                Postings postings = postingsByTerm.get(term);
+                if (postings == null || postings.live == 0) {
+                    return Hits.EMPTY;
+                }
+                lists.add(postings);
+            }
+            lists.sort((a, b) -> Integer.compare(a.size, b.size));
+            return rank(lists, offset, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private Hits rank(List<Postings> lists, long offset, int limit) {
+        int live = documentsByProductId.size();
+        double averageLength = live == 0 ? 1 : Math.max(1, (double) liveLength / live);
+        double[] idf = new double[lists.size()];
+        for (int i = 0; i < idf.length; i++) {
+            int df = lists.get(i).live;
+            idf[i] = Math.log(1 + (live - df + 0.5) / (df + 0.5));
+        }
+
+        long keep = Math.min(offset + limit, Integer.MAX_VALUE);
+        PriorityQueue<Hit> best = new PriorityQueue<>();
+        long total = 0;
+        int[] positions = new int[lists.size()];
+        Postings shortest = lists.get(0);
+        candidates: for (int i = 0; i < shortest.size; i++) {
+            int document = shortest.documents[i];
+            if (deleted.get(document)) {
+                continue;
+            }
+            double norm = K1 * (1 - B + B * lengths[document] / averageLength);
+            double score = idf[0] * termScore(shortest.frequencies[i], norm);
+            for (int j = 1; j < lists.size(); j++) {
+                Postings other = lists.get(j);
+                int position = other.seek(document, positions[j]);
+                positions[j] = position;
+                if (position == other.size || other.documents[position] != document) {
+                    continue candidates;
+                }
+                score += idf[j] * termScore(other.frequencies[position], norm);
+            }
+            total++;
+            if (best.size() < keep) {
+                best.add(new Hit(document, score));
+            } else if (keep > 0 && best.peek().score < score) {
+                best.poll();
+                best.add(new Hit(document, score));
+            }
+        }
+
+        List<Hit> ranked = new ArrayList<>(best);
+        Collections.sort(ranked, Collections.reverseOrder());
+        List<Long> ids = new ArrayList<>(limit);
+        for (int i = (int) Math.min(offset, ranked.size()); i < ranked.size(); i++) {
+            ids.add(productIds[ranked.get(i).document]);
+        }
+        return new Hits(ids, total);
+    }
+
+    private static double termScore(int frequency, double norm) {
+        return (frequency * (K1 + 1)) / (frequency + norm);
+    }
+
+    private void removeDocument(long productId) {
+        Integer document = documentsByProductId.remove(productId);
+        if (document != null) {
+            deleted.set(document);
+            liveLength -= lengths[document];
+            for (Postings postings : documentTerms[document]) {
+                postings.live--;
+            }
+            documentTerms[document] = null;
+        }
+    }
+
+    private void compactIfNeeded() {
+        int deletedCount = deleted.cardinality();
+        if (deletedCount >= MIN_DELETED_TO_COMPACT && deletedCount * 2 >= documentCount) {
+            compact();
+        }
+    }
+
+    private void compact() {
+        int[] remapped = new int[documentCount];
+        int next = 0;
+        for (int document = 0; document < documentCount; document++) {
+            if (deleted.get(document)) {
+                remapped[document] = -1;
+            } else {
+                remapped[document] = next;
+                productIds[next] = productIds[document];
+                lengths[next] = lengths[document];
+                documentTerms[next] = documentTerms[document];
+                documentsByProductId.put(productIds[next], next);
+                next++;
+            }
+        }
+        postingsByTerm.values().removeIf(postings -> postings.remap(remapped) == 0);
+        Arrays.fill(documentTerms, next, documentCount, null);
+        documentCount = next;
+        deleted.clear();
+    }
+
+    private static Document document(String title, String keywords, String description) {
+        Map<String, Integer> frequencies = new HashMap<>();
+        int length = 0;
+        length += addTerms(frequencies, title, TITLE_WEIGHT);
+        length += addTerms(frequencies, keywords, KEYWORDS_WEIGHT);
+        length += addTerms(frequencies, description, DESCRIPTION_WEIGHT);
+        return new Document(frequencies, length);
+    }
+
+    private static int addTerms(Map<String, Integer> frequencies, String text, int weight) {
+        List<String> terms = tokenize(text);
+        terms.forEach(term -> frequencies.merge(term, weight, Integer::sum));
+        return terms.size() * weight;
+    }
+
+    /**
+     * Split a text into lower-case terms of letters and digits.
+     *
+     * @param text the text to split, may be {@code null}.
+     * @return the terms, in order of appearance.
+     */
+    static List<String> tokenize(String text) {
+        List<String> terms = new ArrayList<>();
+        if (text == null) {
+            return terms;
+        }
+        int start = -1;
+        for (int i = 0; i <= text.length(); i++) {
+            boolean termChar = i < text.length() && Character.isLetterOrDigit(text.charAt(i));
+            if (termChar && start < 0) {
+                start = i;
+            } else if (!termChar && start >= 0) {
+                if (i - start >= MIN_TERM_LENGTH) {
+                    terms.add(text.substring(start, i).toLowerCase(Locale.ROOT));
+                }
+                start = -1;
+            }
+        }
+        return terms;
+    }
+
+    /**
+     * The product ids of a page of matches, with the total number of matches.
+     */
+    public static final class Hits {
+
+        static final Hits EMPTY = new Hits(Collections.emptyList(), 0);
+
+        private final List<Long> productIds;
+
+        private final long total;
+
+        Hits(List<Long> productIds, long total) {
+            this.productIds = productIds;
+            this.total = total;
+        }
+
+        public List<Long> getProductIds() {
+            return productIds;
+        }
+
+        public long getTotal() {
+            return total;
+        }
+    }
+
+    private static final class Document {
+
+        private final Map<String, Integer> frequencies;
+
+        private final int length;
+
+        Document(Map<String, Integer> frequencies, int length) {
+            this.frequencies = frequencies;
+            this.length = length;
+        }
+    }
+
+    private static final class Hit implements Comparable<Hit> {
+
+        private final int document;
+
+        private final double score;
+
+        Hit(int document, double score) {
+            this.document = document;
+            this.score = score;
+        }
+
+        @Override
+        public int compareTo(Hit other) {
+            int byScore = Double.compare(score, other.score);
+            // on equal scores, the oldest document ranks first
+            return byScore != 0 ? byScore : Integer.compare(other.document, document);
+        }
+    }
+
+    private static final class Postings {
+
+        private int[] documents = new int[4];
+
+        private int[] frequencies = new int[4];
+
+        private int size;
+
+        /**
+         * The number of documents which are not deleted, the document frequency of the term.
+         */
+        private int live;
+
+        void add(int document, int frequency) {
+            if (size == documents.length) {
+                documents = Arrays.copyOf(documents, size * 2);
+                frequencies = Arrays.copyOf(frequencies, size * 2);
+            }
+            documents[size] = document;
+            frequencies[size] = frequency;
+            size++;
+            live++;
+        }
+
+        /**
+         * @return the position of the first document greater than or equal to the given one, starting from
+         * {@code from}, or {@code size} if there is none.
+         */
+        int seek(int document, int from) {
+            int step = 1;
+            int low = from;
+            int high = from;
+            while (high < size && documents[high] < document) {
+                low = high + 1;
+                high += step;
+                step <<= 1;
+            }
+            int index = Arrays.binarySearch(documents, low, Math.min(high + 1, size), document);
+            return index >= 0 ? index : -index - 1;
+        }
+
+        int remap(int[] remapped) {
+            int kept = 0;
+            for (int i = 0; i < size; i++) {
+                int document = remapped[documents[i]];
+                if (document >= 0) {
+                    documents[kept] = document;
+                    frequencies[kept] = frequencies[i];
+                    kept++;
+                }
+            }
+            size = kept;
+            return size;
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package com.mycompany.myapp.service;
+
+import com.mycompany.myapp.domain.Product;
+import com.mycompany.myapp.repository.ProductRepository;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Service for the full-text search of {@link Product} entities.
+ * <p>
+ * The search is answered by a {@link ProductSearchIndex} built in the background when the application starts, and
+ * kept up to date by {@link ProductService} once its transactions commit. Until the index is built, the search only
+ * finds the products already indexed.
+ */
+@Service
+@Transactional(readOnly = true)
+public class ProductSearchService {
+
+    private static final int REINDEX_BATCH_SIZE = 1000;
+
+    private final Logger log = LoggerFactory.getLogger(ProductSearchService.class);
+
+    private final ProductSearchIndex index = new ProductSearchIndex();
+
+    private final ProductRepository productRepository;
+
+    private final TransactionTemplate transactionTemplate;
+
+    public ProductSearchService(ProductRepository productRepository, PlatformTransactionManager transactionManager) {
+        this.productRepository = productRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+    }
+
+    /**
+     * Build the index on the task executor once the application has started, so it is ready without waiting for it.
+     */
+    @Async
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void reindexOnStartup() {
+        reindex();
+    }
+
+    /**
+     * Rebuild the index from the database, reading the products by batches of ascending id, each in its own
+     * transaction, so no connection is held for the whole table. The products indexed or removed once their
+     * transactions commit while the index is rebuilt are not overwritten with what was read.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void reindex() {
+        log.debug("Request to reindex all Products");
+        index.startRebuild();
+        try {
+            Pageable batch = PageRequest.of(0, REINDEX_BATCH_SIZE, Sort.by("id"));
+            long lastId = Long.MIN_VALUE;
+            Slice<Product> slice;
+            do {
+                long after = lastId;
+                slice = transactionTemplate.execute(status -> productRepository.findAllByIdGreaterThan(after, batch));
+                for (Product product : slice) {
+                    index.rebuild(product.getId(), product.getTitle(), product.getKeywords(), product.getDescription());
+                    lastId = product.getId();
+                }
+            } while (slice.hasNext());
+        } finally {
+            index.finishRebuild();
+        }
+        log.info("Indexed {} products", index.size());
+    }
+
+    /**
+     * Search the products matching all the terms of the query, best matches first.
+     *
+     * @param query the free text query.
+     * @param pageable the pagination information.
+     * @return the page of matching products.
+     */
+    public Page<Product> search(String query, Pageable pageable) {
+        log.debug("Request to search for a page of Products for query {}", query);
+        ProductSearchIndex.Hits hits = index.search(query, pageable.getOffset(), pageable.getPageSize());
+        List<Long> ids = hits.getProductIds();
+        Map<Long, Integer> ranks = new HashMap<>();
+        for (int i = 0; i < ids.size(); i++) {
+            ranks.put(ids.get(i), i);
+        }
+        List<Product> products = new ArrayList<>(productRepository.findAllById(ids));
+        products.sort(Comparator.comparing(product -> ranks.get(product.getId())));
+        return new PageImpl<>(products, pageable, hits.getTotal());
+    }
+
+    /**
+     * Index a product once the current transaction commits.
+     *
+     * @param product the saved product.
+     */
+    public void index(Product product) {
+        Long id = product.getId();
+        String title = product.getTitle();
+        String keywords = product.getKeywords();
+        String description = product.getDescription();
+        AfterCommit.run(() -> index.index(id, title, keywords, description));
+    }
+
+    /**
+     * Remove a product from the index once the current transaction commits.
+     *
+     * @param id the id of the deleted product.
+     */
+    public void remove(Long id) {
+        AfterCommit.run(() -> index.remove(id));
+    }
+}
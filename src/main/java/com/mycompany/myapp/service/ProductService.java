@@ -21,8 +21,11 @@ public class ProductService {
 
     private final ProductRepository productRepository;
 
-    public ProductService(ProductRepository productRepository) {
+    private final ProductSearchService productSearchService;
+
+    public ProductService(ProductRepository productRepository, ProductSearchService productSearchService) {
         this.productRepository = productRepository;
+        this.productSearchService = productSearchService;
     }
 
     /**
@@ -33,7 +36,9 @@ public class ProductService {
      */
     public Product save(Product product) {
         log.debug("Request to save Product : {}", product);
-        return productRepository.save(product);
+        Product result = productRepository.save(product);
+        productSearchService.index(result);
+        return result;
     }
 
     /**
@@ -69,7 +74,11 @@ public class ProductService {
 
                 return existingProduct;
             })
-            .map(productRepository::save);
+            .map(productRepository::save)
+            .map(result -> {
+                productSearchService.index(result);
+                return result;
+            });
     }
 
     /**
@@ -104,5 +113,6 @@ public class ProductService {
     public void delete(Long id) {
         log.debug("Request to delete Product : {}", id);
         productRepository.deleteById(id);
+        productSearchService.remove(id);
     }
 }
@@ -0,0 +1,292 @@
+package com.mycompany.myapp.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mycompany.myapp.service.dto.QueryPlanDTO;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+import javax.sql.DataSource;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.query.Query;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.stereotype.Service;
+import tech.jhipster.service.Criteria;
+
+/**
+ * Report of the plans of the listings, by combination of Criteria filters, so the filters which end in sequential
+ * scans can be backed by an index.
+ * <p>
+ * The query services record each combination of filters they read a page with, and the last specification built from it
+ * with its page. On demand, each specification is run again, with the sort and the offset of its page, through a
+ * Hibernate session whose connection prefixes the statements with {@code EXPLAIN (FORMAT JSON)}: the plan is read from
+ * the result, and Hibernate sees no rows. The statements are only planned, not executed. Only PostgreSQL is supported:
+ * nothing is recorded on the other databases.
+ */
+@Service
+public class QueryPlanService {
+
+    static final int MAX_FILTER_COMBINATIONS = 500;
+
+    static final int EXPLAINED_PAGE_SIZE = 20;
+
+    private static final String EXPLAIN = "explain (format json) ";
+
+    private static final String SEQUENTIAL_SCAN = "Seq Scan";
+
+    private final Logger log = LoggerFactory.getLogger(QueryPlanService.class);
+
+    private final Map<List<Object>, Usage> usages = new ConcurrentHashMap<>();
+
+    private final EntityManagerFactory entityManagerFactory;
+
+    private final DataSource dataSource;
+
+    private final ObjectMapper objectMapper;
+
+    private volatile Boolean postgresql;
+
+    public QueryPlanService(EntityManagerFactory entityManagerFactory, DataSource dataSource, ObjectMapper objectMapper) {
+        this.entityManagerFactory = entityManagerFactory;
+        this.dataSource = dataSource;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Record a listing read with the given criteria, unless the plans cannot be read, see {@link #isSupported()}.
+     *
+     * @param entityClass the type of the entities.
+     * @param criteria the criteria, {@code null} for all the entities.
+     * @param specification the specification built from the criteria.
+     * @param pageable the page read, {@code null} for the first page of {@value #EXPLAINED_PAGE_SIZE} entities.
+     * @param <T> the type of the entities.
+     */
+    public <T> void record(Class<T> entityClass, Criteria criteria, Specification<T> specification, Pageable pageable) {
+        if (!isSupported()) {
+            return;
+        }
+        List<Object> key = List.of(entityClass, filters(criteria));
+        Usage usage = usages.get(key);
+        if (usage == null) {
+            if (usages.size() >= MAX_FILTER_COMBINATIONS) {
+                return;
+            }
+            usage = usages.computeIfAbsent(key, k -> new Usage());
+        }
+        usage.specification = specification;
+        usage.pageable = pageable;
+        usage.uses.increment();
+    }
+
+    /**
+     * @return whether the plans can be read from the database.
+     */
+    public boolean isSupported() {
+        Boolean result = postgresql;
+        if (result == null) {
+            try (Connection connection = dataSource.getConnection()) {
+                result = "PostgreSQL".equalsIgnoreCase(connection.getMetaData().getDatabaseProductName());
+            } catch (SQLException e) {
+                throw new IllegalStateException("Cannot read the database product name", e);
+            }
+            postgresql = result;
+        }
+        return result;
+    }
+
+    /**
+     * Plan the last query of each recorded combination of filters.
+     *
+     * @return the plans, the most used combinations first.
+     */
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    public List<QueryPlanDTO> explainAll() {
+        List<QueryPlanDTO> plans = new ArrayList<>();
+        usages.forEach((key, usage) -> {
+            Class entityClass = (Class) key.get(0);
+            QueryPlanDTO plan = explain(entityClass, usage.specification, usage.pageable);
+            plan.setEntity(entityClass.getSimpleName());
+            plan.setFilters((String) key.get(1));
+            plan.setUses(usage.uses.sum());
+            plans.add(plan);
+        });
+        plans.sort(Comparator.comparingLong(QueryPlanDTO::getUses).reversed());
+        return plans;
+    }
+
+    /**
+     * Clear the recorded filter combinations.
+     */
+    public void clear() {
+        usages.clear();
+    }
+
+    /**
+     * @return the filter combinations recorded, by entity.
+     */
+    Map<Class<?>, List<String>> recorded() {
+        Map<Class<?>, List<String>> recorded = new LinkedHashMap<>();
+        usages
+            .keySet()
+            .forEach(key -> recorded.computeIfAbsent((Class<?>) key.get(0), k -> new ArrayList<>()).add((String) key.get(1)));
+        return recorded;
+    }
+
+    private <T> QueryPlanDTO explain(Class<T> entityClass, Specification<T> specification, Pageable pageable) {
+        Pageable page = pageable != null ? pageable : PageRequest.of(0, EXPLAINED_PAGE_SIZE);
+        List<String> explained = new ArrayList<>();
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setReadOnly(true);
+            Connection explaining = explaining(connection, explained);
+            SessionFactory sessionFactory = entityManagerFactory.unwrap(SessionFactory.class);
+            try (Session session = sessionFactory.withOptions().connection(explaining).openSession()) {
+                CriteriaBuilder cb = session.getCriteriaBuilder();
+                CriteriaQuery<T> query = cb.createQuery(entityClass);
+                Root<T> root = query.from(entityClass);
+                Predicate filter = specification == null ? null : specification.toPredicate(root, query, cb);
+                if (filter != null) {
+                    query.where(filter);
+                }
+                // the sort and the offset change the plan, like an index scan in the order of the sort
+                if (page.getSort().isSorted()) {
+                    query.orderBy(QueryUtils.toOrders(page.getSort(), root, cb));
+                }
+                Query<T> typedQuery = session.createQuery(query);
+                if (page.isPaged()) {
+                    typedQuery.setFirstResult((int) page.getOffset());
+                    typedQuery.setMaxResults(page.getPageSize());
+                }
+                typedQuery.getResultList();
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException("Cannot explain the query of " + entityClass.getSimpleName(), e);
+        }
+        if (explained.isEmpty()) {
+            throw new IllegalStateException("No statement was explained for " + entityClass.getSimpleName());
+        }
+        return toQueryPlan(explained.get(0));
+    }
+
+    QueryPlanDTO toQueryPlan(String json) {
+        JsonNode plan;
+        try {
+            plan = objectMapper.readTree(json).path(0).path("Plan");
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot read the query plan", e);
+        }
+        QueryPlanDTO result = new QueryPlanDTO();
+        result.setTotalCost(plan.path("Total Cost").asDouble());
+        Map<String, Long> sequentialScans = new LinkedHashMap<>();
+        collectSequentialScans(plan, sequentialScans);
+        result.setSequentialScans(sequentialScans);
+        return result;
+    }
+
+    private static void collectSequentialScans(JsonNode node, Map<String, Long> sequentialScans) {
+        if (SEQUENTIAL_SCAN.equals(node.path("Node Type").asText())) {
+            sequentialScans.merge(node.path("Relation Name").asText(), node.path("Plan Rows").asLong(), Long::sum);
+        }
+        node.path("Plans").forEach(child -> collectSequentialScans(child, sequentialScans));
+    }
+
+    /**
+     * Describe the filters of the criteria and their operators, such as {@code rating.greaterThan,title.contains}.
+     *
+     * @param criteria the criteria, may be {@code null}.
+     * @return the description, in alphabetical order, empty if there is no filter.
+     */
+    static String filters(Criteria criteria) {
+        TreeSet<String> filters = new TreeSet<>();
+        CriteriaFilters
+            .filters(criteria)
+            .forEach((name, filter) ->
+                CriteriaFilters
+                    .operators(filter.getClass())
+                    .forEach((operator, value) -> {
+                        if (value.apply(filter) != null) {
+                            filters.add(name + "." + operator);
+                        }
+                    })
+            );
+        return filters.stream().collect(Collectors.joining(","));
+    }
+
+    private Connection explaining(Connection connection, List<String> explained) {
+        return (Connection) Proxy.newProxyInstance(
+            QueryPlanService.class.getClassLoader(),
+            new Class<?>[] { Connection.class },
+            (proxy, method, args) -> {
+                if ("prepareStatement".equals(method.getName()) && args != null && args[0] instanceof String) {
+                    Object[] explainArgs = args.clone();
+                    explainArgs[0] = EXPLAIN + args[0];
+                    log.debug("Explaining: {}", args[0]);
+                    return capturing((PreparedStatement) invoke(method, connection, explainArgs), explained);
+                }
+                return invoke(method, connection, args);
+            }
+        );
+    }
+
+    /**
+     * Wrap the statement so the plan is read from its result set, which is then left exhausted.
+     */
+    private static PreparedStatement capturing(PreparedStatement statement, List<String> explained) {
+        return (PreparedStatement) Proxy.newProxyInstance(
+            QueryPlanService.class.getClassLoader(),
+            new Class<?>[] { PreparedStatement.class },
+            (proxy, method, args) -> {
+                Object result = invoke(method, statement, args);
+                if ("executeQuery".equals(method.getName())) {
+                    ResultSet resultSet = (ResultSet) result;
+                    while (resultSet.next()) {
+                        explained.add(resultSet.getString(1));
+                    }
+                }
+                return result;
+            }
+        );
+    }
+
+    private static Object invoke(Method method, Object target, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    private static final class Usage {
+
+        private final LongAdder uses = new LongAdder();
+
+        @SuppressWarnings("rawtypes")
+        private volatile Specification specification;
+
+        private volatile Pageable pageable;
+    }
+}
@@ -0,0 +1,187 @@
+package com.mycompany.myapp.service;
+
+import com.mycompany.myapp.config.ApplicationProperties;
+import com.mycompany.myapp.service.dto.EntityChangeEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Supplier;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceUnitUtil;
+import org.hibernate.Session;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import tech.jhipster.service.Criteria;
+
+/**
+ * Cache of the pages of entities matching a {@link Criteria}: only the ids of the entities and the total are cached,
+ * and the entities are read back from the second-level cache, the ids missing from it in a single batched query.
+ * <p>
+ * The key is the type of the entities, the normalized criteria (empty filters dropped, {@code in} lists sorted) and
+ * the page. An entry depends on the types of the entities the query reads, its own and those of its associations,
+ * see {@link EntityDependentCache}, and lives for at most {@code application.query-cache.ttl}, within
+ * {@code application.query-cache.max-entries} pages.
+ * <p>
+ * The cache is only used within read-only transactions: a read-write transaction may see its own uncommitted writes.
+ * When these transactions are routed to lagging replicas, a page read right after a write may miss it until the next
+ * write or the expiry of the entry.
+ */
+@Service
+public class QueryResultCache {
+
+    public static final String METER_NAME = "application.query-cache";
+    public static final String ENTITY_DIMENSION = "entity";
+    public static final String RESULT_DIMENSION = "result";
+
+    private static final String HIT = "hit";
+    private static final String MISS = "miss";
+
+    private final EntityDependentCache<List<Object>, Entry> entries;
+
+    /**
+     * The lookup counters of each type of entities, by result.
+     */
+    private final ClassValue<Map<String, Counter>> counters = new ClassValue<>() {
+        @Override
+        protected Map<String, Counter> computeValue(Class<?> type) {
+            return Map.of(HIT, counter(type, HIT), MISS, counter(type, MISS));
+        }
+    };
+
+    private final EntityManager entityManager;
+
+    private final MeterRegistry meterRegistry;
+
+    private final boolean enabled;
+
+    public QueryResultCache(EntityManager entityManager, MeterRegistry meterRegistry, ApplicationProperties applicationProperties) {
+        this.entityManager = entityManager;
+        this.meterRegistry = meterRegistry;
+        ApplicationProperties.QueryCache properties = applicationProperties.getQueryCache();
+        this.enabled = properties.isEnabled();
+        this.entries = new EntityDependentCache<>(properties.getMaxEntries(), properties.getTtl());
+        Gauge.builder(METER_NAME + ".entries", this, QueryResultCache::size).description("Number of cached pages.").register(meterRegistry);
+    }
+
+    /**
+     * Get a page of entities matching the criteria, from the cache if it was read since the last write of the
+     * entities it depends on.
+     *
+     * @param entityClass the type of the entities.
+     * @param dependencies the types of the entities the query reads, including {@code entityClass}.
+     * @param criteria the criteria, {@code null} for all the entities.
+     * @param pageable the page.
+     * @param query the query, run on a cache miss.
+     * @param <T> the type of the entities.
+     * @return the page of entities.
+     */
+    public <T> Page<T> page(
+        Class<T> entityClass,
+        Set<Class<?>> dependencies,
+        Criteria criteria,
+        Pageable pageable,
+        Supplier<Page<T>> query
+    ) {
+        if (!enabled || pageable.isUnpaged() || !TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return query.get();
+        }
+        List<Object> key = Arrays.asList(entityClass, CriteriaFilters.normalize(criteria), pageable);
+        Entry entry = entries.get(key);
+        if (entry != null) {
+            counters.get(entityClass).get(HIT).increment();
+            return new PageImpl<>(hydrate(entityClass, entry.ids), pageable, entry.total);
+        }
+        counters.get(entityClass).get(MISS).increment();
+        long generation = entries.generation(dependencies);
+        Page<T> page = query.get();
+        PersistenceUnitUtil persistenceUnitUtil = entityManager.getEntityManagerFactory().getPersistenceUnitUtil();
+        List<Long> ids = new ArrayList<>(page.getNumberOfElements());
+        page.forEach(entity -> ids.add((Long) persistenceUnitUtil.getIdentifier(entity)));
+        entries.put(key, new Entry(ids, page.getTotalElements()), dependencies, generation);
+        return page;
+    }
+
+    /**
+     * Drop the cached pages which depend on the written entities.
+     *
+     * @param event the writes of a committed transaction.
+     */
+    @EventListener
+    public void onEntityChange(EntityChangeEvent event) {
+        entries.invalidate(event.getEntityTypes());
+    }
+
+    /**
+     * Drop all the cached pages.
+     */
+    public void clear() {
+        entries.clear();
+    }
+
+    private double size() {
+        return entries.size();
+    }
+
+    /**
+     * Read the entities from the second-level cache, or in a single query for those which are not cached. The
+     * entities deleted since the ids were cached are left out.
+     */
+    private <T> List<T> hydrate(Class<T> entityClass, List<Long> ids) {
+        Session session = entityManager.unwrap(Session.class);
+        org.hibernate.Cache cache = session.getSessionFactory().getCache();
+        Map<Long, T> entities = new HashMap<>();
+        List<Long> missing = new ArrayList<>();
+        for (Long id : ids) {
+            if (cache.containsEntity(entityClass, id)) {
+                entities.put(id, session.get(entityClass, id));
+            } else {
+                missing.add(id);
+            }
+        }
+        if (!missing.isEmpty()) {
+            List<T> loaded = session.byMultipleIds(entityClass).multiLoad(missing);
+            for (int i = 0; i < missing.size(); i++) {
+                entities.put(missing.get(i), loaded.get(i));
+            }
+        }
+        List<T> result = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            T entity = entities.get(id);
+            if (entity != null) {
+                result.add(entity);
+            }
+        }
+        return result;
+    }
+
+    private Counter counter(Class<?> entityClass, String result) {
+        return Counter
+            .builder(METER_NAME)
+            .description("Number of cached page lookups, by result: cache hit or cache miss.")
+            .tag(ENTITY_DIMENSION, entityClass.getSimpleName())
+            .tag(RESULT_DIMENSION, result)
+            .register(meterRegistry);
+    }
+
+    private static final class Entry {
+
+        private final List<Long> ids;
+
+        private final long total;
+
+        Entry(List<Long> ids, long total) {
+            this.ids = ids;
+            this.total = total;
+        }
+    }
+}
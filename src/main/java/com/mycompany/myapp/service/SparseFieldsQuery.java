@@ -0,0 +1,100 @@
+package com.mycompany.myapp.service;
+
+import com.mycompany.myapp.service.dto.KeysetCursor;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import javax.persistence.EntityManager;
+import javax.persistence.Tuple;
+import javax.persistence.TypedQuery;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+import javax.persistence.criteria.Selection;
+import javax.persistence.metamodel.Attribute;
+import javax.persistence.metamodel.EntityType;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+
+/**
+ * Sparse fieldset query of the entities of a type: a tuple query selects only the columns of the requested fields, and
+ * each row is returned as a map of the fields by name, so neither the other columns nor the associations are read.
+ *
+ * @param <ENTITY> the type of the entity which is queried.
+ */
+final class SparseFieldsQuery<ENTITY> {
+
+    private final Class<ENTITY> entityClass;
+
+    private final EntityManager entityManager;
+
+    SparseFieldsQuery(Class<ENTITY> entityClass, EntityManager entityManager) {
+        this.entityClass = entityClass;
+        this.entityManager = entityManager;
+    }
+
+    /**
+     * @param specification the specification which the entities should match.
+     * @param fields the names of the fields, basic attributes of the entity; the id is always selected first.
+     * @param pageable the page, which should be returned.
+     * @return the fields of the matching entities of the page, by name.
+     * @throws IllegalArgumentException if a field is not a basic attribute of the entity.
+     */
+    List<Map<String, Object>> find(Specification<ENTITY> specification, Collection<String> fields, Pageable pageable) {
+        List<String> selection = selection(fields);
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<ENTITY> root = query.from(entityClass);
+        List<Selection<?>> selections = new ArrayList<>(selection.size());
+        for (String field : selection) {
+            selections.add(root.get(field).alias(field));
+        }
+        query.multiselect(selections);
+        Predicate filter = specification == null ? null : specification.toPredicate(root, query, cb);
+        if (filter != null) {
+            query.where(filter);
+        }
+        if (pageable.getSort().isSorted()) {
+            query.orderBy(QueryUtils.toOrders(pageable.getSort(), root, cb));
+        }
+        TypedQuery<Tuple> typedQuery = entityManager.createQuery(query);
+        if (pageable.isPaged()) {
+            typedQuery.setFirstResult((int) pageable.getOffset());
+            typedQuery.setMaxResults(pageable.getPageSize());
+        }
+        List<Map<String, Object>> content = new ArrayList<>();
+        for (Tuple tuple : typedQuery.getResultList()) {
+            Map<String, Object> row = new LinkedHashMap<>();
+            for (String field : selection) {
+                row.put(field, tuple.get(field));
+            }
+            content.add(row);
+        }
+        return content;
+    }
+
+    private List<String> selection(Collection<String> fields) {
+        EntityType<ENTITY> entityType = entityManager.getMetamodel().entity(entityClass);
+        Set<String> selection = new LinkedHashSet<>();
+        selection.add(KeysetCursor.ID_PROPERTY);
+        for (String field : fields) {
+            Attribute<? super ENTITY, ?> attribute;
+            try {
+                attribute = entityType.getAttribute(field);
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Unknown field: " + field, e);
+            }
+            if (attribute.getPersistentAttributeType() != Attribute.PersistentAttributeType.BASIC) {
+                throw new IllegalArgumentException("Cannot select field: " + field);
+            }
+            selection.add(field);
+        }
+        return List.copyOf(selection);
+    }
+}
@@ -0,0 +1,205 @@
+package com.mycompany.myapp.service;
+
+import com.mycompany.myapp.config.ApplicationProperties;
+import com.mycompany.myapp.domain.EntityChangeLog;
+import com.mycompany.myapp.repository.EntityChangeLogRepository;
+import com.mycompany.myapp.service.dto.EntityChangeEvent;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Revisions of the tables of each entity type, so the listings can tell whether their tables changed without querying
+ * them.
+ * <p>
+ * The revisions of the {@link ChangeStreamService#STREAMED_TYPES} come from the latest change of each type in the
+ * shared {@code entity_change_log} table, so all the instances tag the same listing alike. The latest changes are read
+ * at most once per {@code application.conditional-get.refresh-interval}, and again after each committed write of this
+ * instance: the writes of the other instances are seen within the interval.
+ * <p>
+ * When the change stream is disabled, the revisions count the committed writes made through Hibernate by this
+ * instance, from a random epoch, so they never repeat after a restart: each instance has its own revisions.
+ * <p>
+ * Either way, the revisions also change at the end of each {@code application.conditional-get.window}, which bounds
+ * the staleness after the writes the counters and the change stream do not see, such as the bulk statements.
+ */
+@Service
+public class TableChangeCounter {
+
+    private final String epoch = UUID.randomUUID().toString().substring(0, 8);
+
+    private final Instant started = Instant.now();
+
+    private final EntityChangeLogRepository entityChangeLogRepository;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final boolean shared;
+
+    private final long refreshMillis;
+
+    private final long windowMillis;
+
+    private final Map<Class<?>, Counter> counters = new ConcurrentHashMap<>();
+
+    /**
+     * Incremented by each committed write of the streamed types, which outdates the latest changes read before.
+     */
+    private final AtomicLong writes = new AtomicLong();
+
+    private volatile LatestChanges latestChanges;
+
+    public TableChangeCounter(
+        ApplicationProperties applicationProperties,
+        EntityChangeLogRepository entityChangeLogRepository,
+        PlatformTransactionManager transactionManager
+    ) {
+        this.entityChangeLogRepository = entityChangeLogRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        this.shared = applicationProperties.getChangeStream().isEnabled();
+        this.refreshMillis = applicationProperties.getConditionalGet().getRefreshInterval().toMillis();
+        this.windowMillis = applicationProperties.getConditionalGet().getWindow().toMillis();
+    }
+
+    @EventListener
+    public void onEntityChange(EntityChangeEvent event) {
+        Instant now = Instant.now();
+        event.getEntityTypes().forEach(type -> counters.computeIfAbsent(type, t -> new Counter()).increment(now));
+        if (event.getEntityTypes().stream().anyMatch(ChangeStreamService.STREAMED_TYPES::contains)) {
+            writes.incrementAndGet();
+        }
+    }
+
+    /**
+     * @param types the entity types.
+     * @return a revision of the tables of the types, which changes after each write to them.
+     */
+    public String revision(Collection<Class<?>> types) {
+        String window = String.valueOf(window(System.currentTimeMillis()));
+        if (isShared(types)) {
+            Map<Class<?>, String> revisions = latestChanges().revisions;
+            // the same types are tagged alike by all the instances, whatever the order of the collection
+            return types
+                .stream()
+                .sorted(Comparator.comparing(Class::getName))
+                .map(type -> revisions.getOrDefault(type, "0"))
+                .collect(Collectors.joining("-", "", "-" + window));
+        }
+        long count = 0;
+        for (Class<?> type : types) {
+            Counter counter = counters.get(type);
+            count += counter == null ? 0 : counter.count;
+        }
+        return epoch + "-" + count + "-" + window;
+    }
+
+    /**
+     * @param types the entity types.
+     * @return the time of the last write to the tables of the types, no earlier than the start of the current window.
+     */
+    public Instant lastModified(Collection<Class<?>> types) {
+        long now = System.currentTimeMillis();
+        Instant windowStart = windowMillis > 0 ? Instant.ofEpochMilli(window(now) * windowMillis) : Instant.EPOCH;
+        if (isShared(types)) {
+            Instant result = windowStart;
+            Map<Class<?>, Instant> dates = latestChanges().dates;
+            for (Class<?> type : types) {
+                Instant date = dates.get(type);
+                if (date != null && date.isAfter(result)) {
+                    result = date;
+                }
+            }
+            return result;
+        }
+        Instant result = windowStart.isBefore(started) ? started : windowStart;
+        for (Class<?> type : types) {
+            Counter counter = counters.get(type);
+            if (counter != null && counter.lastChange.isAfter(result)) {
+                result = counter.lastChange;
+            }
+        }
+        return result;
+    }
+
+    private boolean isShared(Collection<Class<?>> types) {
+        return shared && ChangeStreamService.STREAMED_TYPES.containsAll(types);
+    }
+
+    /**
+     * @return the latest changes of the streamed types, read again after the refresh interval or a write.
+     */
+    private LatestChanges latestChanges() {
+        LatestChanges current = latestChanges;
+        long now = System.currentTimeMillis();
+        long writeCount = writes.get();
+        if (current == null || current.writeCount != writeCount || now - current.readAt >= refreshMillis) {
+            current = transactionTemplate.execute(status -> readLatestChanges(now, writeCount));
+            latestChanges = current;
+        }
+        return current;
+    }
+
+    /**
+     * The revision of a type is the highest offset of its changes and their latest date: the offsets are allocated in
+     * blocks by the instances, and their clocks may differ, so a new change raises at least one of them.
+     */
+    private LatestChanges readLatestChanges(long readAt, long writeCount) {
+        LatestChanges result = new LatestChanges(readAt, writeCount);
+        for (Class<?> type : ChangeStreamService.STREAMED_TYPES) {
+            Optional<EntityChangeLog> byId = entityChangeLogRepository.findFirstByEntityTypeOrderByIdDesc(type.getSimpleName());
+            Optional<EntityChangeLog> byDate = entityChangeLogRepository.findFirstByEntityTypeOrderByChangeDateDesc(
+                type.getSimpleName()
+            );
+            if (byId.isPresent() && byDate.isPresent()) {
+                Instant date = byDate.get().getChangeDate();
+                result.revisions.put(type, byId.get().getId() + ":" + date.toEpochMilli());
+                result.dates.put(type, date);
+            }
+        }
+        return result;
+    }
+
+    private long window(long now) {
+        return windowMillis > 0 ? now / windowMillis : 0;
+    }
+
+    private static final class LatestChanges {
+
+        private final long readAt;
+
+        private final long writeCount;
+
+        private final Map<Class<?>, String> revisions = new HashMap<>();
+
+        private final Map<Class<?>, Instant> dates = new HashMap<>();
+
+        LatestChanges(long readAt, long writeCount) {
+            this.readAt = readAt;
+            this.writeCount = writeCount;
+        }
+    }
+
+    private static final class Counter {
+
+        private volatile long count;
+
+        private volatile Instant lastChange = Instant.EPOCH;
+
+        synchronized void increment(Instant now) {
+            count++;
+            lastChange = now;
+        }
+    }
+}
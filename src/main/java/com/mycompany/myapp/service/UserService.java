@@ -26,6 +26,9 @@ import tech.jhipster.security.RandomUtil;
 
 /**
  * Service class for managing users.
+ * <p>
+ * The emails notifying about a registration, a creation or a password reset are queued by {@link MailService} in the
+ * transaction writing the user, so they are only sent if the user is saved, and never lost once it is.
  */
 @Service
 @Transactional
@@ -41,16 +44,20 @@ public class UserService {
 
     private final CacheManager cacheManager;
 
+    private final MailService mailService;
+
     public UserService(
         UserRepository userRepository,
         PasswordEncoder passwordEncoder,
         AuthorityRepository authorityRepository,
-        CacheManager cacheManager
+        CacheManager cacheManager,
+        MailService mailService
     ) {
         this.userRepository = userRepository;
         this.passwordEncoder = passwordEncoder;
         this.authorityRepository = authorityRepository;
         this.cacheManager = cacheManager;
+        this.mailService = mailService;
     }
 
     public Optional<User> activateRegistration(String key) {
@@ -89,6 +96,7 @@ public class UserService {
                 user.setResetKey(RandomUtil.generateResetKey());
                 user.setResetDate(Instant.now());
                 this.clearUserCaches(user);
+                mailService.sendPasswordResetMail(user);
                 return user;
             });
     }
@@ -132,6 +140,7 @@ public class UserService {
         userRepository.save(newUser);
         this.clearUserCaches(newUser);
         log.debug("Created Information for User: {}", newUser);
+        mailService.sendActivationEmail(newUser);
         return newUser;
     }
 
@@ -177,6 +186,7 @@ public class UserService {
         userRepository.save(user);
         this.clearUserCaches(user);
         log.debug("Created Information for User: {}", user);
+        mailService.sendCreationEmail(user);
         return user;
     }
 
@@ -0,0 +1,94 @@
+package com.mycompany.myapp.service.dto;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Outcome of a bulk import: the number of imported and rejected rows, the first errors and the throughput.
+ */
+public class BulkImportResult implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private long imported;
+
+    private long failed;
+
+    private long elapsedMillis;
+
+    private final List<RowError> errors = new ArrayList<>();
+
+    public long getImported() {
+        return imported;
+    }
+
+    public void setImported(long imported) {
+        this.imported = imported;
+    }
+
+    public long getFailed() {
+        return failed;
+    }
+
+    public void setFailed(long failed) {
+        this.failed = failed;
+    }
+
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+    public void setElapsedMillis(long elapsedMillis) {
+        this.elapsedMillis = elapsedMillis;
+    }
+
+    /**
+     * @return the number of rows, imported or rejected, processed per second.
+     */
+    public double getRowsPerSecond() {
+        return elapsedMillis == 0 ? 0 : (imported + failed) * 1000.0 / elapsedMillis;
+    }
+
+    /**
+     * @return the errors of the first rejected rows, up to {@code application.bulk-import.max-reported-errors}.
+     */
+    public List<RowError> getErrors() {
+        return errors;
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "BulkImportResult{" +
+            "imported=" + imported +
+            ", failed=" + failed +
+            ", elapsedMillis=" + elapsedMillis +
+            "}";
+    }
+
+    /**
+     * The reason why a row was rejected.
+     */
+    public static class RowError implements Serializable {
+
+        private static final long serialVersionUID = 1L;
+
+        private final long row;
+
+        private final String message;
+
+        public RowError(long row, String message) {
+            this.row = row;
+            this.message = message;
+        }
+
+        public long getRow() {
+            return row;
+        }
+
+        public String getMessage() {
+            return message;
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.mycompany.myapp.service.dto;
+
+import java.io.Serializable;
+import java.util.Objects;
+
+/**
+ * A write of an entity, as seen by Hibernate when the persistence context was flushed.
+ */
+public final class EntityChange implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    public enum Operation {
+        CREATE,
+        UPDATE,
+        DELETE,
+    }
+
+    private final Class<?> entityType;
+
+    private final Serializable id;
+
+    private final Operation operation;
+
+    public EntityChange(Class<?> entityType, Serializable id, Operation operation) {
+        this.entityType = entityType;
+        this.id = id;
+        this.operation = operation;
+    }
+
+    public Class<?> getEntityType() {
+        return entityType;
+    }
+
+    public Serializable getId() {
+        return id;
+    }
+
+    public Operation getOperation() {
+        return operation;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof EntityChange)) {
+            return false;
+        }
+        EntityChange that = (EntityChange) o;
+        return entityType.equals(that.entityType) && Objects.equals(id, that.id) && operation == that.operation;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(entityType, id, operation);
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "EntityChange{" +
+            "entityType=" + entityType.getSimpleName() +
+            ", id=" + id +
+            ", operation=" + operation +
+            "}";
+    }
+}
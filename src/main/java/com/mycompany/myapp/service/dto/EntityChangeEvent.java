@@ -0,0 +1,43 @@
+package com.mycompany.myapp.service.dto;
+
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Application event published once a transaction which wrote entities has committed, with all its writes in order.
+ */
+public final class EntityChangeEvent {
+
+    private final List<EntityChange> changes;
+
+    private final Set<Class<?>> entityTypes;
+
+    public EntityChangeEvent(List<EntityChange> changes) {
+        this.changes = Collections.unmodifiableList(changes);
+        Set<Class<?>> types = new LinkedHashSet<>();
+        changes.forEach(change -> types.add(change.getEntityType()));
+        this.entityTypes = Collections.unmodifiableSet(types);
+    }
+
+    public List<EntityChange> getChanges() {
+        return changes;
+    }
+
+    /**
+     * @return the types of the entities which were written.
+     */
+    public Set<Class<?>> getEntityTypes() {
+        return entityTypes;
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "EntityChangeEvent{" +
+            "entityTypes=" + entityTypes +
+            ", changes=" + changes.size() +
+            "}";
+    }
+}
@@ -0,0 +1,71 @@
+package com.mycompany.myapp.service.dto;
+
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * A row of a bulk import: its values by column name, or the reason why it could not be read.
+ */
+public final class ImportRecord {
+
+    private final long row;
+
+    private final Map<String, String> values;
+
+    private final String error;
+
+    private ImportRecord(long row, Map<String, String> values, String error) {
+        this.row = row;
+        this.values = values;
+        this.error = error;
+    }
+
+    /**
+     * @param row the number of the row, starting at 1.
+     * @param values the values by column name, {@code null} or absent when empty.
+     * @return the record.
+     */
+    public static ImportRecord of(long row, Map<String, String> values) {
+        return new ImportRecord(row, values, null);
+    }
+
+    /**
+     * @param row the number of the row, starting at 1.
+     * @param error the reason why the row could not be read.
+     * @return the record.
+     */
+    public static ImportRecord invalid(long row, String error) {
+        return new ImportRecord(row, Collections.emptyMap(), error);
+    }
+
+    public long getRow() {
+        return row;
+    }
+
+    /**
+     * @param column the name of the column.
+     * @return the value, or {@code null} if it is empty or absent.
+     */
+    public String get(String column) {
+        String value = values.get(column);
+        return value == null || value.isEmpty() ? null : value;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public boolean isValid() {
+        return error == null;
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "ImportRecord{" +
+            "row=" + row +
+            ", values=" + values +
+            ", error='" + error + "'" +
+            "}";
+    }
+}
@@ -0,0 +1,190 @@
+package com.mycompany.myapp.service.dto;
+
+import java.io.Serializable;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Objects;
+import org.springframework.data.domain.Sort;
+import org.springframework.util.StringUtils;
+
+/**
+ * Continuation token for keyset (seek) pagination.
+ * <p>
+ * A cursor remembers the sort key and the id of the last row of the previous slice, so the next slice can be
+ * read with an indexed range predicate instead of an {@code OFFSET}. It is handed to clients as an opaque
+ * Base64 (URL safe) string, see {@link #encode()} and {@link #decode(String)}.
+ */
+public final class KeysetCursor implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    public static final String ID_PROPERTY = "id";
+
+    private static final String SEPARATOR = ":";
+
+    private final String property;
+
+    private final Sort.Direction direction;
+
+    private final Long lastId;
+
+    private final String lastValue;
+
+    private KeysetCursor(String property, Sort.Direction direction, Long lastId, String lastValue) {
+        this.property = property;
+        this.direction = direction;
+        this.lastId = lastId;
+        this.lastValue = lastValue;
+    }
+
+    /**
+     * Create the cursor of the first slice for the given sort.
+     * <p>
+     * Only one sort property is supported, optionally followed by {@code id} in the same direction as a tie breaker;
+     * an unsorted request is read by ascending id.
+     *
+     * @param sort the requested sort.
+     * @return the cursor of the first slice.
+     * @throws IllegalArgumentException if the sort cannot be used for keyset pagination.
+     */
+    public static KeysetCursor first(Sort sort) {
+        if (sort == null || sort.isUnsorted()) {
+            return new KeysetCursor(ID_PROPERTY, Sort.Direction.ASC, null, null);
+        }
+        Sort.Order[] orders = sort.stream().toArray(Sort.Order[]::new);
+        if (orders.length > 2 || (orders.length == 2 && !ID_PROPERTY.equals(orders[1].getProperty()))) {
+            throw new IllegalArgumentException("Keyset pagination supports a single sort property followed by id, got: " + sort);
+        }
+        // the keyset predicate breaks the ties by id in the direction of the sort property
+        if (orders.length == 2 && orders[1].getDirection() != orders[0].getDirection()) {
+            throw new IllegalArgumentException("Keyset pagination sorts the id in the direction of the sort property, got: " + sort);
+        }
+        return new KeysetCursor(orders[0].getProperty(), orders[0].getDirection(), null, null);
+    }
+
+    /**
+     * Decode a token previously produced by {@link #encode()}.
+     *
+     * @param token the opaque token sent by the client.
+     * @return the decoded cursor.
+     * @throws IllegalArgumentException if the token is malformed.
+     */
+    public static KeysetCursor decode(String token) {
+        String raw;
+        try {
+            raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid keyset cursor", e);
+        }
+        String[] parts = raw.split(SEPARATOR, 4);
+        if (parts.length < 3 || !StringUtils.hasText(parts[0])) {
+            throw new IllegalArgumentException("Invalid keyset cursor");
+        }
+        try {
+            return new KeysetCursor(parts[0], Sort.Direction.fromString(parts[1]), Long.valueOf(parts[2]), parts.length == 4 ? parts[3] : null);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid keyset cursor", e);
+        }
+    }
+
+    /**
+     * Resolve the cursor to use for a request: the decoded token when one is given, the first slice otherwise.
+     *
+     * @param token the opaque token sent by the client, may be empty.
+     * @param sort the requested sort, which must match the one the token was issued for.
+     * @return the cursor to read from.
+     * @throws IllegalArgumentException if the token is malformed or was issued for another sort.
+     */
+    public static KeysetCursor of(String token, Sort sort) {
+        KeysetCursor first = first(sort);
+        if (!StringUtils.hasText(token)) {
+            return first;
+        }
+        KeysetCursor cursor = decode(token);
+        if (!cursor.property.equals(first.property) || cursor.direction != first.direction) {
+            throw new IllegalArgumentException("Keyset cursor was issued for another sort");
+        }
+        return cursor;
+    }
+
+    /**
+     * Create the cursor pointing after the given row.
+     *
+     * @param lastId the id of the last row read.
+     * @param lastValue the sort key of the last row read, as a string, or {@code null}.
+     * @return the cursor of the next slice.
+     */
+    public KeysetCursor next(Long lastId, String lastValue) {
+        return new KeysetCursor(property, direction, lastId, lastValue);
+    }
+
+    public String encode() {
+        StringBuilder raw = new StringBuilder()
+            .append(property)
+            .append(SEPARATOR)
+            .append(direction.name())
+            .append(SEPARATOR)
+            .append(lastId == null ? "" : lastId.toString());
+        if (lastValue != null) {
+            raw.append(SEPARATOR).append(lastValue);
+        }
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    public String getProperty() {
+        return property;
+    }
+
+    public Sort.Direction getDirection() {
+        return direction;
+    }
+
+    public Long getLastId() {
+        return lastId;
+    }
+
+    public String getLastValue() {
+        return lastValue;
+    }
+
+    public boolean isFirst() {
+        return lastId == null;
+    }
+
+    public boolean isIdOnly() {
+        return ID_PROPERTY.equals(property);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof KeysetCursor)) {
+            return false;
+        }
+        KeysetCursor that = (KeysetCursor) o;
+        return (
+            property.equals(that.property) &&
+            direction == that.direction &&
+            Objects.equals(lastId, that.lastId) &&
+            Objects.equals(lastValue, that.lastValue)
+        );
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(property, direction, lastId, lastValue);
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "KeysetCursor{" +
+            "property='" + property + "'" +
+            ", direction=" + direction +
+            ", lastId=" + lastId +
+            ", lastValue='" + lastValue + "'" +
+            "}";
+    }
+}
@@ -0,0 +1,27 @@
+package com.mycompany.myapp.service.dto;
+
+import java.util.List;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.SliceImpl;
+
+/**
+ * A {@link org.springframework.data.domain.Slice} read with keyset pagination, carrying the cursor of the next slice.
+ */
+public class KeysetSlice<T> extends SliceImpl<T> {
+
+    private static final long serialVersionUID = 1L;
+
+    private final KeysetCursor nextCursor;
+
+    public KeysetSlice(List<T> content, Pageable pageable, KeysetCursor nextCursor) {
+        super(content, pageable, nextCursor != null);
+        this.nextCursor = nextCursor;
+    }
+
+    /**
+     * @return the cursor of the next slice, or {@code null} if this is the last one.
+     */
+    public KeysetCursor getNextCursor() {
+        return nextCursor;
+    }
+}
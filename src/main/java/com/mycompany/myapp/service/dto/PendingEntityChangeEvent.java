@@ -0,0 +1,33 @@
+package com.mycompany.myapp.service.dto;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Application event published in a transaction which wrote entities, after its last flush and right before it commits,
+ * with all its writes in order.
+ * <p>
+ * The listeners may write more rows, which commit or roll back with the entity writes, but not through the flushed
+ * {@code EntityManager}: with a {@code StatelessSession} on its connection for instance. A failing listener rolls the
+ * transaction back.
+ */
+public final class PendingEntityChangeEvent {
+
+    private final List<EntityChange> changes;
+
+    public PendingEntityChangeEvent(List<EntityChange> changes) {
+        this.changes = Collections.unmodifiableList(changes);
+    }
+
+    public List<EntityChange> getChanges() {
+        return changes;
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "PendingEntityChangeEvent{" +
+            "changes=" + changes.size() +
+            "}";
+    }
+}
@@ -0,0 +1,83 @@
+package com.mycompany.myapp.service.dto;
+
+import java.io.Serializable;
+import java.util.Map;
+
+/**
+ * The plan PostgreSQL chose for a combination of Criteria filters of the listings.
+ */
+public class QueryPlanDTO implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private String entity;
+
+    private String filters;
+
+    private long uses;
+
+    private double totalCost;
+
+    private Map<String, Long> sequentialScans;
+
+    public String getEntity() {
+        return entity;
+    }
+
+    public void setEntity(String entity) {
+        this.entity = entity;
+    }
+
+    /**
+     * @return the filters and their operators, such as {@code rating.greaterThan,title.contains}, empty for none.
+     */
+    public String getFilters() {
+        return filters;
+    }
+
+    public void setFilters(String filters) {
+        this.filters = filters;
+    }
+
+    /**
+     * @return the number of listings read with this combination of filters since the start.
+     */
+    public long getUses() {
+        return uses;
+    }
+
+    public void setUses(long uses) {
+        this.uses = uses;
+    }
+
+    public double getTotalCost() {
+        return totalCost;
+    }
+
+    public void setTotalCost(double totalCost) {
+        this.totalCost = totalCost;
+    }
+
+    /**
+     * @return the tables read with a sequential scan, with the number of rows the planner expects from them.
+     */
+    public Map<String, Long> getSequentialScans() {
+        return sequentialScans;
+    }
+
+    public void setSequentialScans(Map<String, Long> sequentialScans) {
+        this.sequentialScans = sequentialScans;
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "QueryPlanDTO{" +
+            "entity='" + entity + "'" +
+            ", filters='" + filters + "'" +
+            ", uses=" + uses +
+            ", totalCost=" + totalCost +
+            ", sequentialScans=" + sequentialScans +
+            "}";
+    }
+}
@@ -0,0 +1,239 @@
+package com.mycompany.myapp.web.filter;
+
+import com.mycompany.myapp.config.ApplicationProperties;
+import com.mycompany.myapp.service.CategoryQueryService;
+import com.mycompany.myapp.service.EntityDependentCache;
+import com.mycompany.myapp.service.KeysetQueryService;
+import com.mycompany.myapp.service.ProductQueryService;
+import com.mycompany.myapp.service.dto.EntityChangeEvent;
+import com.mycompany.myapp.web.rest.util.ConditionalGetUtil;
+import com.mycompany.myapp.web.rest.util.KeysetPaginationUtil;
+import com.mycompany.myapp.web.rest.util.SlicePaginationUtil;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+/**
+ * Cache of the serialized {@code 200 OK} responses of the catalog reads: the listings and the entities of
+ * {@code /api/products} and {@code /api/categories}, which are the same for all the users.
+ * <p>
+ * The filter has the lowest precedence, so it runs after the Spring Security filter chain and the requests are still
+ * authenticated and authorized. A cache hit skips the controller, the services, Hibernate and Jackson: the cached
+ * bytes are copied to the response, with the headers of the original one, or a {@code 304 Not Modified} is returned
+ * when the conditional headers of the request match them. The key is the scheme, host and port of the request, which
+ * the {@code Link} headers of the listings carry, the path, the query parameters sorted by name, and the JSON, Smile or
+ * CBOR representation negotiated from the {@code Accept} header, see {@link ConditionalGetUtil#representation}. The
+ * requests accepting none of them are not cached.
+ * <p>
+ * An entry depends on the types of the entities the resource reads, see {@link KeysetQueryService#dependencies()}, and
+ * lives for at most {@code application.response-cache.ttl}, within {@code application.response-cache.max-entries}
+ * responses, see {@link EntityDependentCache}.
+ */
+@Component
+public class ResponseCacheFilter extends OncePerRequestFilter {
+
+    public static final String METER_NAME = "application.response-cache";
+    public static final String RESOURCE_DIMENSION = "resource";
+    public static final String RESULT_DIMENSION = "result";
+
+    private static final Pattern CACHEABLE_PATH = Pattern.compile("/api/(products|categories)(/\\d+)?");
+
+    private static final List<String> CACHED_HEADERS = List.of(
+        HttpHeaders.ETAG,
+        HttpHeaders.LAST_MODIFIED,
+        HttpHeaders.VARY,
+        HttpHeaders.LINK,
+        "X-Total-Count",
+        SlicePaginationUtil.HEADER_HAS_NEXT_PAGE,
+        SlicePaginationUtil.HEADER_TOTAL_COUNT_ESTIMATED,
+        KeysetPaginationUtil.HEADER_NEXT_CURSOR
+    );
+
+    private final EntityDependentCache<List<Object>, Entry> entries;
+
+    private final Map<String, KeysetQueryService<?>> queryServices;
+
+    private final Map<String, Counter> hits = new HashMap<>();
+
+    private final Map<String, Counter> misses = new HashMap<>();
+
+    private final boolean enabled;
+
+    private final long maxBodySize;
+
+    public ResponseCacheFilter(
+        ApplicationProperties applicationProperties,
+        MeterRegistry meterRegistry,
+        ProductQueryService productQueryService,
+        CategoryQueryService categoryQueryService
+    ) {
+        this.queryServices = Map.of("products", productQueryService, "categories", categoryQueryService);
+        for (String resource : queryServices.keySet()) {
+            hits.put(resource, counter(meterRegistry, resource, "hit"));
+            misses.put(resource, counter(meterRegistry, resource, "miss"));
+        }
+        ApplicationProperties.ResponseCache properties = applicationProperties.getResponseCache();
+        this.enabled = properties.isEnabled();
+        this.entries = new EntityDependentCache<>(properties.getMaxEntries(), properties.getTtl());
+        this.maxBodySize = properties.getMaxBodySize().toBytes();
+        Gauge
+            .builder(METER_NAME + ".entries", this, ResponseCacheFilter::size)
+            .description("Number of cached responses.")
+            .register(meterRegistry);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !enabled || !HttpMethod.GET.matches(request.getMethod()) || !CACHEABLE_PATH.matcher(path(request)).matches();
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+        throws ServletException, IOException {
+        String path = path(request);
+        Matcher matcher = CACHEABLE_PATH.matcher(path);
+        matcher.matches();
+        String resource = matcher.group(1);
+        MediaType representation = ConditionalGetUtil.representation(request);
+        if (representation == null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        List<Object> key = List.of(
+            request.getScheme(),
+            request.getServerName(),
+            request.getServerPort(),
+            path,
+            normalizedParameters(request),
+            representation
+        );
+        Entry entry = entries.get(key);
+        if (entry != null) {
+            hits.get(resource).increment();
+            entry.writeTo(request, response);
+            return;
+        }
+        misses.get(resource).increment();
+
+        // a write committed while the request runs may not be in its response, which must then not be cached
+        Set<Class<?>> dependencies = queryServices.get(resource).dependencies();
+        long generation = entries.generation(dependencies);
+        ContentCachingResponseWrapper wrapper = new ContentCachingResponseWrapper(response);
+        try {
+            filterChain.doFilter(request, wrapper);
+            if (
+                wrapper.getStatus() == HttpStatus.OK.value() &&
+                wrapper.getContentSize() <= maxBodySize &&
+                !wrapper.containsHeader(HttpHeaders.SET_COOKIE)
+            ) {
+                entries.put(key, new Entry(wrapper), dependencies, generation);
+            }
+        } finally {
+            wrapper.copyBodyToResponse();
+        }
+    }
+
+    /**
+     * Drop the cached responses which depend on the written entities.
+     *
+     * @param event the writes of a committed transaction.
+     */
+    @EventListener
+    public void onEntityChange(EntityChangeEvent event) {
+        entries.invalidate(event.getEntityTypes());
+    }
+
+    /**
+     * Drop all the cached responses.
+     */
+    public void clear() {
+        entries.clear();
+    }
+
+    private double size() {
+        return entries.size();
+    }
+
+    private static Counter counter(MeterRegistry meterRegistry, String resource, String result) {
+        return Counter
+            .builder(METER_NAME)
+            .description("Number of cached response lookups, by result: cache hit or cache miss.")
+            .tag(RESOURCE_DIMENSION, resource)
+            .tag(RESULT_DIMENSION, result)
+            .register(meterRegistry);
+    }
+
+    private static String path(HttpServletRequest request) {
+        return request.getRequestURI().substring(request.getContextPath().length());
+    }
+
+    /**
+     * The query parameters sorted by name, so that the same query with its parameters in another order shares the entry.
+     * The values of a parameter keep their order, which matters for {@code sort}.
+     */
+    private static Map<String, List<String>> normalizedParameters(HttpServletRequest request) {
+        Map<String, List<String>> parameters = new TreeMap<>();
+        request.getParameterMap().forEach((name, values) -> parameters.put(name, Arrays.asList(values)));
+        return parameters;
+    }
+
+    private static final class Entry {
+
+        private final byte[] body;
+
+        private final String contentType;
+
+        private final HttpHeaders headers = new HttpHeaders();
+
+        Entry(ContentCachingResponseWrapper response) {
+            this.body = response.getContentAsByteArray();
+            this.contentType = response.getContentType();
+            for (String name : CACHED_HEADERS) {
+                if (response.containsHeader(name)) {
+                    headers.put(name, new ArrayList<>(response.getHeaders(name)));
+                }
+            }
+        }
+
+        void writeTo(HttpServletRequest request, HttpServletResponse response) throws IOException {
+            headers.forEach((name, values) -> {
+                for (String value : values) {
+                    // the filters before this one may have set some of them, like Vary: Origin
+                    if (!response.getHeaders(name).contains(value)) {
+                        response.addHeader(name, value);
+                    }
+                }
+            });
+            if (new ServletWebRequest(request, response).checkNotModified(headers.getETag(), headers.getLastModified())) {
+                return;
+            }
+            response.setStatus(HttpStatus.OK.value());
+            response.setContentType(contentType);
+            response.setContentLength(body.length);
+            response.getOutputStream().write(body);
+        }
+    }
+}
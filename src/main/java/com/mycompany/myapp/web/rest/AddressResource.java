@@ -1,16 +1,32 @@
 package com.mycompany.myapp.web.rest;
 
 import com.mycompany.myapp.domain.Address;
+import com.mycompany.myapp.domain.Customer;
 import com.mycompany.myapp.repository.AddressRepository;
 import com.mycompany.myapp.service.AddressQueryService;
 import com.mycompany.myapp.service.AddressService;
+import com.mycompany.myapp.service.TableChangeCounter;
 import com.mycompany.myapp.service.criteria.AddressCriteria;
+import com.mycompany.myapp.service.dto.KeysetCursor;
+import com.mycompany.myapp.service.dto.KeysetSlice;
 import com.mycompany.myapp.web.rest.errors.BadRequestAlertException;
+import com.mycompany.myapp.web.rest.util.ConditionalGetUtil;
+import com.mycompany.myapp.web.rest.util.CountMode;
+import com.mycompany.myapp.web.rest.util.DataFormat;
+import com.mycompany.myapp.web.rest.util.EntityExportWriter;
+import com.mycompany.myapp.web.rest.util.KeysetPaginationUtil;
+import com.mycompany.myapp.web.rest.util.SlicePaginationUtil;
+import com.mycompany.myapp.web.rest.util.SparseFieldsUtil;
+import java.io.IOException;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
 import javax.validation.Valid;
 import javax.validation.constraints.NotNull;
 import org.slf4j.Logger;
@@ -18,6 +34,8 @@ import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.http.ContentDisposition;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -38,6 +56,15 @@ public class AddressResource {
 
     private static final String ENTITY_NAME = "address";
 
+    private static final EntityExportWriter<Address> EXPORT_WRITER = new EntityExportWriter<Address>()
+        .column("id", Address::getId)
+        .column("address1", Address::getAddress1)
+        .column("address2", Address::getAddress2)
+        .column("city", Address::getCity)
+        .column("postcode", Address::getPostcode)
+        .column("country", Address::getCountry)
+        .column("customerId", address -> address.getCustomer() == null ? null : address.getCustomer().getId());
+
     @Value("${jhipster.clientApp.name}")
     private String applicationName;
 
@@ -47,10 +74,18 @@ public class AddressResource {
 
     private final AddressQueryService addressQueryService;
 
-    public AddressResource(AddressService addressService, AddressRepository addressRepository, AddressQueryService addressQueryService) {
+    private final TableChangeCounter tableChangeCounter;
+
+    public AddressResource(
+        AddressService addressService,
+        AddressRepository addressRepository,
+        AddressQueryService addressQueryService,
+        TableChangeCounter tableChangeCounter
+    ) {
         this.addressService = addressService;
         this.addressRepository = addressRepository;
         this.addressQueryService = addressQueryService;
+        this.tableChangeCounter = tableChangeCounter;
     }
 
     /**
@@ -79,7 +114,8 @@ public class AddressResource {
      * @param id the id of the address to save.
      * @param address the address to update.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the updated address,
-     * or with status {@code 400 (Bad Request)} if the address is not valid,
+     * or with status {@code 400 (Bad Request)} if the address is not valid or has no version,
+     * or with status {@code 409 (Conflict)} if the address was updated since its version was read,
      * or with status {@code 500 (Internal Server Error)} if the address couldn't be updated.
      * @throws URISyntaxException if the Location URI syntax is incorrect.
      */
@@ -95,6 +131,9 @@ public class AddressResource {
         if (!Objects.equals(id, address.getId())) {
             throw new BadRequestAlertException("Invalid ID", ENTITY_NAME, "idinvalid");
         }
+        if (address.getVersion() == null) {
+            throw new BadRequestAlertException("The version is required to update a address", ENTITY_NAME, "versionnull");
+        }
 
         if (!addressRepository.existsById(id)) {
             throw new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound");
@@ -148,16 +187,158 @@ public class AddressResource {
      *
      * @param pageable the pagination information.
      * @param criteria the criteria which the requested entities should match.
-     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of addresses in body.
+     * @param request the current request.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of addresses in body,
+     * or with status {@code 304 (Not Modified)} if the listing did not change since the request's validators.
      */
     @GetMapping("/addresses")
-    public ResponseEntity<List<Address>> getAllAddresses(AddressCriteria criteria, Pageable pageable) {
+    public ResponseEntity<List<Address>> getAllAddresses(AddressCriteria criteria, Pageable pageable, HttpServletRequest request) {
         log.debug("REST request to get Addresses by criteria: {}", criteria);
+        HttpHeaders validators = listValidators(request);
+        if (ConditionalGetUtil.isNotModified(request, validators)) {
+            return ConditionalGetUtil.notModified(validators);
+        }
         Page<Address> page = addressQueryService.findByCriteria(criteria, pageable);
         HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
+        headers.addAll(validators);
         return ResponseEntity.ok().headers(headers).body(page.getContent());
     }
 
+    /**
+     * {@code GET  /addresses?fields=} : get a page of the given fields of the addresses.
+     * <p>
+     * Only the columns of the fields are read and written to the response; the id is always included.
+     *
+     * @param criteria the criteria which the requested entities should match.
+     * @param fields the names of the fields to return.
+     * @param pageable the pagination information.
+     * @param request the current request.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the fields of the addresses in body,
+     * or with status {@code 400 (Bad Request)} if a field is not a column of the address,
+     * or with status {@code 304 (Not Modified)} if the listing did not change since the request's validators.
+     */
+    @GetMapping(
+        value = "/addresses",
+        params = { SparseFieldsUtil.FIELDS_PARAM, "!" + KeysetPaginationUtil.CURSOR_PARAM, "!" + CountMode.COUNT_PARAM }
+    )
+    public ResponseEntity<List<Map<String, Object>>> getAllAddressesFields(
+        AddressCriteria criteria,
+        @RequestParam(SparseFieldsUtil.FIELDS_PARAM) String[] fields,
+        Pageable pageable,
+        HttpServletRequest request
+    ) {
+        List<String> fieldNames = SparseFieldsUtil.parseFields(fields);
+        log.debug("REST request to get the fields {} of Addresses by criteria: {}", fieldNames, criteria);
+        HttpHeaders validators = listValidators(request);
+        if (ConditionalGetUtil.isNotModified(request, validators)) {
+            return ConditionalGetUtil.notModified(validators);
+        }
+        Page<Map<String, Object>> page;
+        try {
+            page = addressQueryService.findFieldsByCriteria(criteria, fieldNames, pageable);
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestAlertException(e.getMessage(), ENTITY_NAME, "fieldsinvalid");
+        }
+        HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
+        headers.addAll(validators);
+        return ResponseEntity.ok().headers(headers).body(page.getContent());
+    }
+
+    /**
+     * {@code GET  /addresses?count=} : get a page of the addresses with an exact, estimated or no total.
+     *
+     * @param criteria the criteria which the requested entities should match.
+     * @param count the count mode: {@code exact}, {@code estimated} (cached count, or database statistics) or {@code none}.
+     * @param pageable the pagination information.
+     * @param request the current request.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of addresses in body,
+     * or with status {@code 400 (Bad Request)} if the count mode is unknown, or fields or a cursor are requested,
+     * or with status {@code 304 (Not Modified)} if the listing did not change since the request's validators.
+     */
+    @GetMapping(value = "/addresses", params = CountMode.COUNT_PARAM)
+    public ResponseEntity<List<Address>> getAllAddressesWithCountMode(
+        AddressCriteria criteria,
+        @RequestParam(CountMode.COUNT_PARAM) String count,
+        Pageable pageable,
+        HttpServletRequest request
+    ) {
+        log.debug("REST request to get Addresses by criteria: {}, count: {}", criteria, count);
+        if (SparseFieldsUtil.isRequested(request)) {
+            throw new BadRequestAlertException("The fields cannot be requested with a count", ENTITY_NAME, "fieldsunsupported");
+        }
+        if (request.getParameter(KeysetPaginationUtil.CURSOR_PARAM) != null) {
+            throw new BadRequestAlertException("A cursor cannot be requested with a count", ENTITY_NAME, "cursorunsupported");
+        }
+        CountMode countMode;
+        try {
+            countMode = CountMode.fromName(count);
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestAlertException("Unknown count mode: " + count, ENTITY_NAME, "countmodeinvalid");
+        }
+        HttpHeaders validators = listValidators(request);
+        if (ConditionalGetUtil.isNotModified(request, validators)) {
+            return ConditionalGetUtil.notModified(validators);
+        }
+        if (countMode == CountMode.NONE) {
+            Slice<Address> slice = addressQueryService.findSliceByCriteria(criteria, pageable);
+            HttpHeaders headers = SlicePaginationUtil.generateSlicePaginationHttpHeaders(
+                ServletUriComponentsBuilder.fromCurrentRequest(),
+                slice
+            );
+            headers.addAll(validators);
+            return ResponseEntity.ok().headers(headers).body(slice.getContent());
+        }
+        Page<Address> page = countMode == CountMode.ESTIMATED
+            ? addressQueryService.findByCriteriaWithEstimatedCount(criteria, pageable)
+            : addressQueryService.findByCriteria(criteria, pageable);
+        HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
+        if (countMode == CountMode.ESTIMATED) {
+            headers.add(SlicePaginationUtil.HEADER_TOTAL_COUNT_ESTIMATED, "true");
+        }
+        headers.addAll(validators);
+        return ResponseEntity.ok().headers(headers).body(page.getContent());
+    }
+
+    /**
+     * {@code GET  /addresses?cursor=} : get a slice of the addresses with keyset pagination.
+     *
+     * @param cursor the cursor returned with the previous slice, empty for the first slice.
+     * @param pageable the size and sort of the slice, the page number is ignored.
+     * @param criteria the criteria which the requested entities should match.
+     * @param request the current request.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of addresses in body,
+     * or with status {@code 400 (Bad Request)} if the cursor is not valid for the requested sort or fields are requested,
+     * or with status {@code 304 (Not Modified)} if the listing did not change since the request's validators.
+     */
+    @GetMapping(value = "/addresses", params = { KeysetPaginationUtil.CURSOR_PARAM, "!" + CountMode.COUNT_PARAM })
+    public ResponseEntity<List<Address>> getAllAddressesByCursor(
+        AddressCriteria criteria,
+        @RequestParam(KeysetPaginationUtil.CURSOR_PARAM) String cursor,
+        Pageable pageable,
+        HttpServletRequest request
+    ) {
+        log.debug("REST request to get Addresses by criteria: {}, cursor: {}", criteria, cursor);
+        if (SparseFieldsUtil.isRequested(request)) {
+            throw new BadRequestAlertException("The fields cannot be requested with a cursor", ENTITY_NAME, "fieldsunsupported");
+        }
+        HttpHeaders validators = listValidators(request);
+        if (ConditionalGetUtil.isNotModified(request, validators)) {
+            return ConditionalGetUtil.notModified(validators);
+        }
+        KeysetSlice<Address> slice;
+        try {
+            slice = addressQueryService.findByCriteria(criteria, KeysetCursor.of(cursor, pageable.getSort()), pageable.getPageSize());
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestAlertException(e.getMessage(), ENTITY_NAME, "cursorinvalid");
+        }
+        HttpHeaders headers = KeysetPaginationUtil.generateKeysetPaginationHttpHeaders(
+            ServletUriComponentsBuilder.fromCurrentRequest(),
+            slice
+        );
+        headers.addAll(validators);
+        return ResponseEntity.ok().headers(headers).body(slice.getContent());
+    }
+
     /**
      * {@code GET  /addresses/count} : count all the addresses.
      *
@@ -170,17 +351,55 @@ public class AddressResource {
         return ResponseEntity.ok().body(addressQueryService.countByCriteria(criteria));
     }
 
+    /**
+     * {@code GET  /addresses/_export} : export all the addresses, by ascending id, one per line.
+     * <p>
+     * The addresses are streamed from a database cursor straight to the response, so the export runs in constant memory.
+     *
+     * @param criteria the criteria which the exported entities should match.
+     * @param format the format of the export, {@code ndjson} (default) or {@code csv}.
+     * @param response the response to write the addresses to.
+     * @throws IOException if the response cannot be written.
+     */
+    @GetMapping("/addresses/_export")
+    public void exportAddresses(
+        AddressCriteria criteria,
+        @RequestParam(name = DataFormat.FORMAT_PARAM, defaultValue = "ndjson") String format,
+        HttpServletResponse response
+    ) throws IOException {
+        log.debug("REST request to export Addresses by criteria: {}, format: {}", criteria, format);
+        DataFormat dataFormat;
+        try {
+            dataFormat = DataFormat.fromName(format);
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestAlertException("Unknown export format", ENTITY_NAME, "formatinvalid");
+        }
+        response.setContentType(dataFormat.getContentType());
+        response.setCharacterEncoding("UTF-8");
+        response.setHeader(
+            HttpHeaders.CONTENT_DISPOSITION,
+            ContentDisposition.attachment().filename("addresses." + dataFormat.getExtension()).build().toString()
+        );
+        try (EntityExportWriter.Records<Address> records = EXPORT_WRITER.open(dataFormat, response.getOutputStream())) {
+            addressQueryService.streamByCriteria(criteria, records);
+        }
+    }
+
     /**
      * {@code GET  /addresses/:id} : get the "id" address.
      *
      * @param id the id of the address to retrieve.
-     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the address, or with status {@code 404 (Not Found)}.
+     * @param request the current request.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the address, or with status {@code 404 (Not Found)},
+     * or with status {@code 304 (Not Modified)} if the request's {@code If-None-Match} header matches its {@code ETag}.
      */
     @GetMapping("/addresses/{id}")
-    public ResponseEntity<Address> getAddress(@PathVariable Long id) {
+    public ResponseEntity<Address> getAddress(@PathVariable Long id, HttpServletRequest request) {
         log.debug("REST request to get Address : {}", id);
         Optional<Address> address = addressService.findOne(id);
-        return ResponseUtil.wrapOrNotFound(address);
+        HttpHeaders headers = ConditionalGetUtil.negotiatedHeaders();
+        address.ifPresent(found -> headers.setETag(entityTag(request, found)));
+        return ResponseUtil.wrapOrNotFound(address, headers);
     }
 
     /**
@@ -198,4 +417,16 @@ public class AddressResource {
             .headers(HeaderUtil.createEntityDeletionAlert(applicationName, true, ENTITY_NAME, id.toString()))
             .build();
     }
+
+    private HttpHeaders listValidators(HttpServletRequest request) {
+        Set<Class<?>> tables = addressQueryService.dependencies();
+        return ConditionalGetUtil.listValidators(request, tableChangeCounter.revision(tables), tableChangeCounter.lastModified(tables));
+    }
+
+    private static String entityTag(HttpServletRequest request, Address address) {
+        Customer customer = address.getCustomer();
+        return customer == null
+            ? ConditionalGetUtil.entityTag(request, address.getId(), address.getVersion())
+            : ConditionalGetUtil.entityTag(request, address.getId(), address.getVersion(), customer.getId(), customer.getVersion());
+    }
 }
@@ -1,16 +1,39 @@
 package com.mycompany.myapp.web.rest;
 
 import com.mycompany.myapp.domain.Category;
+import com.mycompany.myapp.domain.Product;
 import com.mycompany.myapp.repository.CategoryRepository;
+import com.mycompany.myapp.service.BulkImportService;
+import com.mycompany.myapp.service.CategoryHierarchyService;
 import com.mycompany.myapp.service.CategoryQueryService;
 import com.mycompany.myapp.service.CategoryService;
+import com.mycompany.myapp.service.TableChangeCounter;
 import com.mycompany.myapp.service.criteria.CategoryCriteria;
+import com.mycompany.myapp.service.criteria.ProductCriteria;
+import com.mycompany.myapp.service.dto.BulkImportResult;
+import com.mycompany.myapp.service.dto.KeysetCursor;
+import com.mycompany.myapp.service.dto.KeysetSlice;
 import com.mycompany.myapp.web.rest.errors.BadRequestAlertException;
+import com.mycompany.myapp.web.rest.util.ConditionalGetUtil;
+import com.mycompany.myapp.web.rest.util.CountMode;
+import com.mycompany.myapp.web.rest.util.DataFormat;
+import com.mycompany.myapp.web.rest.util.EntityExportWriter;
+import com.mycompany.myapp.web.rest.util.ImportRecordReader;
+import com.mycompany.myapp.web.rest.util.KeysetPaginationUtil;
+import com.mycompany.myapp.web.rest.util.SlicePaginationUtil;
+import com.mycompany.myapp.web.rest.util.SparseFieldsUtil;
+import java.io.IOException;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
 import javax.validation.Valid;
 import javax.validation.constraints.NotNull;
 import org.slf4j.Logger;
@@ -18,6 +41,8 @@ import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.http.ContentDisposition;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -38,6 +63,15 @@ public class CategoryResource {
 
     private static final String ENTITY_NAME = "category";
 
+    private static final EntityExportWriter<Category> EXPORT_WRITER = new EntityExportWriter<Category>()
+        .column("id", Category::getId)
+        .column("description", Category::getDescription)
+        .column("sortOrder", Category::getSortOrder)
+        .column("dateAdded", Category::getDateAdded)
+        .column("dateModified", Category::getDateModified)
+        .column("status", Category::getStatus)
+        .column("parentId", category -> category.getParent() == null ? null : category.getParent().getId());
+
     @Value("${jhipster.clientApp.name}")
     private String applicationName;
 
@@ -47,14 +81,26 @@ public class CategoryResource {
 
     private final CategoryQueryService categoryQueryService;
 
+    private final CategoryHierarchyService categoryHierarchyService;
+
+    private final BulkImportService bulkImportService;
+
+    private final TableChangeCounter tableChangeCounter;
+
     public CategoryResource(
         CategoryService categoryService,
         CategoryRepository categoryRepository,
-        CategoryQueryService categoryQueryService
+        CategoryQueryService categoryQueryService,
+        CategoryHierarchyService categoryHierarchyService,
+        BulkImportService bulkImportService,
+        TableChangeCounter tableChangeCounter
     ) {
         this.categoryService = categoryService;
         this.categoryRepository = categoryRepository;
         this.categoryQueryService = categoryQueryService;
+        this.categoryHierarchyService = categoryHierarchyService;
+        this.bulkImportService = bulkImportService;
+        this.tableChangeCounter = tableChangeCounter;
     }
 
     /**
@@ -83,7 +129,8 @@ public class CategoryResource {
      * @param id the id of the category to save.
      * @param category the category to update.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the updated category,
-     * or with status {@code 400 (Bad Request)} if the category is not valid,
+     * or with status {@code 400 (Bad Request)} if the category is not valid or has no version,
+     * or with status {@code 409 (Conflict)} if the category was updated since its version was read,
      * or with status {@code 500 (Internal Server Error)} if the category couldn't be updated.
      * @throws URISyntaxException if the Location URI syntax is incorrect.
      */
@@ -99,6 +146,9 @@ public class CategoryResource {
         if (!Objects.equals(id, category.getId())) {
             throw new BadRequestAlertException("Invalid ID", ENTITY_NAME, "idinvalid");
         }
+        if (category.getVersion() == null) {
+            throw new BadRequestAlertException("The version is required to update a category", ENTITY_NAME, "versionnull");
+        }
 
         if (!categoryRepository.existsById(id)) {
             throw new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound");
@@ -152,16 +202,158 @@ public class CategoryResource {
      *
      * @param pageable the pagination information.
      * @param criteria the criteria which the requested entities should match.
-     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of categories in body.
+     * @param request the current request.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of categories in body,
+     * or with status {@code 304 (Not Modified)} if the listing did not change since the request's validators.
      */
     @GetMapping("/categories")
-    public ResponseEntity<List<Category>> getAllCategories(CategoryCriteria criteria, Pageable pageable) {
+    public ResponseEntity<List<Category>> getAllCategories(CategoryCriteria criteria, Pageable pageable, HttpServletRequest request) {
         log.debug("REST request to get Categories by criteria: {}", criteria);
+        HttpHeaders validators = listValidators(request);
+        if (ConditionalGetUtil.isNotModified(request, validators)) {
+            return ConditionalGetUtil.notModified(validators);
+        }
         Page<Category> page = categoryQueryService.findByCriteria(criteria, pageable);
         HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
+        headers.addAll(validators);
         return ResponseEntity.ok().headers(headers).body(page.getContent());
     }
 
+    /**
+     * {@code GET  /categories?fields=} : get a page of the given fields of the categories.
+     * <p>
+     * Only the columns of the fields are read and written to the response; the id is always included.
+     *
+     * @param criteria the criteria which the requested entities should match.
+     * @param fields the names of the fields to return.
+     * @param pageable the pagination information.
+     * @param request the current request.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the fields of the categories in body,
+     * or with status {@code 400 (Bad Request)} if a field is not a column of the category,
+     * or with status {@code 304 (Not Modified)} if the listing did not change since the request's validators.
+     */
+    @GetMapping(
+        value = "/categories",
+        params = { SparseFieldsUtil.FIELDS_PARAM, "!" + KeysetPaginationUtil.CURSOR_PARAM, "!" + CountMode.COUNT_PARAM }
+    )
+    public ResponseEntity<List<Map<String, Object>>> getAllCategoriesFields(
+        CategoryCriteria criteria,
+        @RequestParam(SparseFieldsUtil.FIELDS_PARAM) String[] fields,
+        Pageable pageable,
+        HttpServletRequest request
+    ) {
+        List<String> fieldNames = SparseFieldsUtil.parseFields(fields);
+        log.debug("REST request to get the fields {} of Categories by criteria: {}", fieldNames, criteria);
+        HttpHeaders validators = listValidators(request);
+        if (ConditionalGetUtil.isNotModified(request, validators)) {
+            return ConditionalGetUtil.notModified(validators);
+        }
+        Page<Map<String, Object>> page;
+        try {
+            page = categoryQueryService.findFieldsByCriteria(criteria, fieldNames, pageable);
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestAlertException(e.getMessage(), ENTITY_NAME, "fieldsinvalid");
+        }
+        HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
+        headers.addAll(validators);
+        return ResponseEntity.ok().headers(headers).body(page.getContent());
+    }
+
+    /**
+     * {@code GET  /categories?count=} : get a page of the categories with an exact, estimated or no total.
+     *
+     * @param criteria the criteria which the requested entities should match.
+     * @param count the count mode: {@code exact}, {@code estimated} (cached count, or database statistics) or {@code none}.
+     * @param pageable the pagination information.
+     * @param request the current request.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of categories in body,
+     * or with status {@code 400 (Bad Request)} if the count mode is unknown, or fields or a cursor are requested,
+     * or with status {@code 304 (Not Modified)} if the listing did not change since the request's validators.
+     */
+    @GetMapping(value = "/categories", params = CountMode.COUNT_PARAM)
+    public ResponseEntity<List<Category>> getAllCategoriesWithCountMode(
+        CategoryCriteria criteria,
+        @RequestParam(CountMode.COUNT_PARAM) String count,
+        Pageable pageable,
+        HttpServletRequest request
+    ) {
+        log.debug("REST request to get Categories by criteria: {}, count: {}", criteria, count);
+        if (SparseFieldsUtil.isRequested(request)) {
+            throw new BadRequestAlertException("The fields cannot be requested with a count", ENTITY_NAME, "fieldsunsupported");
+        }
+        if (request.getParameter(KeysetPaginationUtil.CURSOR_PARAM) != null) {
+            throw new BadRequestAlertException("A cursor cannot be requested with a count", ENTITY_NAME, "cursorunsupported");
+        }
+        CountMode countMode;
+        try {
+            countMode = CountMode.fromName(count);
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestAlertException("Unknown count mode: " + count, ENTITY_NAME, "countmodeinvalid");
+        }
+        HttpHeaders validators = listValidators(request);
+        if (ConditionalGetUtil.isNotModified(request, validators)) {
+            return ConditionalGetUtil.notModified(validators);
+        }
+        if (countMode == CountMode.NONE) {
+            Slice<Category> slice = categoryQueryService.findSliceByCriteria(criteria, pageable);
+            HttpHeaders headers = SlicePaginationUtil.generateSlicePaginationHttpHeaders(
+                ServletUriComponentsBuilder.fromCurrentRequest(),
+                slice
+            );
+            headers.addAll(validators);
+            return ResponseEntity.ok().headers(headers).body(slice.getContent());
+        }
+        Page<Category> page = countMode == CountMode.ESTIMATED
+            ? categoryQueryService.findByCriteriaWithEstimatedCount(criteria, pageable)
+            : categoryQueryService.findByCriteria(criteria, pageable);
+        HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
+        if (countMode == CountMode.ESTIMATED) {
+            headers.add(SlicePaginationUtil.HEADER_TOTAL_COUNT_ESTIMATED, "true");
+        }
+        headers.addAll(validators);
+        return ResponseEntity.ok().headers(headers).body(page.getContent());
+    }
+
+    /**
+     * {@code GET  /categories?cursor=} : get a slice of the categories with keyset pagination.
+     *
+     * @param cursor the cursor returned with the previous slice, empty for the first slice.
+     * @param pageable the size and sort of the slice, the page number is ignored.
+     * @param criteria the criteria which the requested entities should match.
+     * @param request the current request.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of categories in body,
+     * or with status {@code 400 (Bad Request)} if the cursor is not valid for the requested sort or fields are requested,
+     * or with status {@code 304 (Not Modified)} if the listing did not change since the request's validators.
+     */
+    @GetMapping(value = "/categories", params = { KeysetPaginationUtil.CURSOR_PARAM, "!" + CountMode.COUNT_PARAM })
+    public ResponseEntity<List<Category>> getAllCategoriesByCursor(
+        CategoryCriteria criteria,
+        @RequestParam(KeysetPaginationUtil.CURSOR_PARAM) String cursor,
+        Pageable pageable,
+        HttpServletRequest request
+    ) {
+        log.debug("REST request to get Categories by criteria: {}, cursor: {}", criteria, cursor);
+        if (SparseFieldsUtil.isRequested(request)) {
+            throw new BadRequestAlertException("The fields cannot be requested with a cursor", ENTITY_NAME, "fieldsunsupported");
+        }
+        HttpHeaders validators = listValidators(request);
+        if (ConditionalGetUtil.isNotModified(request, validators)) {
+            return ConditionalGetUtil.notModified(validators);
+        }
+        KeysetSlice<Category> slice;
+        try {
+            slice = categoryQueryService.findByCriteria(criteria, KeysetCursor.of(cursor, pageable.getSort()), pageable.getPageSize());
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestAlertException(e.getMessage(), ENTITY_NAME, "cursorinvalid");
+        }
+        HttpHeaders headers = KeysetPaginationUtil.generateKeysetPaginationHttpHeaders(
+            ServletUriComponentsBuilder.fromCurrentRequest(),
+            slice
+        );
+        headers.addAll(validators);
+        return ResponseEntity.ok().headers(headers).body(slice.getContent());
+    }
+
     /**
      * {@code GET  /categories/count} : count all the categories.
      *
@@ -174,17 +366,129 @@ public class CategoryResource {
         return ResponseEntity.ok().body(categoryQueryService.countByCriteria(criteria));
     }
 
+    /**
+     * {@code GET  /categories/_export} : export all the categories, by ascending id, one per line.
+     * <p>
+     * The categories are streamed from a database cursor straight to the response, so the export runs in constant memory.
+     *
+     * @param criteria the criteria which the exported entities should match.
+     * @param format the format of the export, {@code ndjson} (default) or {@code csv}.
+     * @param response the response to write the categories to.
+     * @throws IOException if the response cannot be written.
+     */
+    @GetMapping("/categories/_export")
+    public void exportCategories(
+        CategoryCriteria criteria,
+        @RequestParam(name = DataFormat.FORMAT_PARAM, defaultValue = "ndjson") String format,
+        HttpServletResponse response
+    ) throws IOException {
+        log.debug("REST request to export Categories by criteria: {}, format: {}", criteria, format);
+        DataFormat dataFormat;
+        try {
+            dataFormat = DataFormat.fromName(format);
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestAlertException("Unknown export format", ENTITY_NAME, "formatinvalid");
+        }
+        response.setContentType(dataFormat.getContentType());
+        response.setCharacterEncoding("UTF-8");
+        response.setHeader(
+            HttpHeaders.CONTENT_DISPOSITION,
+            ContentDisposition.attachment().filename("categories." + dataFormat.getExtension()).build().toString()
+        );
+        try (EntityExportWriter.Records<Category> records = EXPORT_WRITER.open(dataFormat, response.getOutputStream())) {
+            categoryQueryService.streamByCriteria(criteria, records);
+        }
+    }
+
+    /**
+     * {@code POST  /categories/_import} : import new categories, one per line.
+     *
+     * @param format the format of the request body, {@code ndjson} (default) or {@code csv}.
+     * @param request the request to read the categories from.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the number of imported and rejected rows,
+     * with the errors of the first rejected rows.
+     * @throws IOException if the request cannot be read.
+     */
+    @PostMapping("/categories/_import")
+    public ResponseEntity<BulkImportResult> importCategories(
+        @RequestParam(name = DataFormat.FORMAT_PARAM, defaultValue = "ndjson") String format,
+        HttpServletRequest request
+    ) throws IOException {
+        log.debug("REST request to import Categories, format: {}", format);
+        DataFormat dataFormat;
+        try {
+            dataFormat = DataFormat.fromName(format);
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestAlertException("Unknown import format", ENTITY_NAME, "formatinvalid");
+        }
+        BulkImportResult result = bulkImportService.importCategories(ImportRecordReader.read(dataFormat, request.getInputStream()));
+        return ResponseEntity.ok().body(result);
+    }
+
     /**
      * {@code GET  /categories/:id} : get the "id" category.
      *
      * @param id the id of the category to retrieve.
-     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the category, or with status {@code 404 (Not Found)}.
+     * @param request the current request.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the category, or with status {@code 404 (Not Found)},
+     * or with status {@code 304 (Not Modified)} if the request's {@code If-None-Match} header matches its {@code ETag}.
      */
     @GetMapping("/categories/{id}")
-    public ResponseEntity<Category> getCategory(@PathVariable Long id) {
+    public ResponseEntity<Category> getCategory(@PathVariable Long id, HttpServletRequest request) {
         log.debug("REST request to get Category : {}", id);
         Optional<Category> category = categoryService.findOne(id);
-        return ResponseUtil.wrapOrNotFound(category);
+        HttpHeaders headers = ConditionalGetUtil.negotiatedHeaders();
+        category.ifPresent(found -> headers.setETag(entityTag(request, found)));
+        return ResponseUtil.wrapOrNotFound(category, headers);
+    }
+
+    /**
+     * {@code GET  /categories/:id/descendants} : get the descendants of the "id" category, in depth-first order.
+     *
+     * @param id the id of the category whose descendants to retrieve.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the descendants, or with status {@code 404 (Not Found)}.
+     */
+    @GetMapping("/categories/{id}/descendants")
+    public ResponseEntity<List<Category>> getCategoryDescendants(@PathVariable Long id) {
+        log.debug("REST request to get the descendants of Category : {}", id);
+        return ResponseUtil.wrapOrNotFound(categoryHierarchyService.findDescendants(id));
+    }
+
+    /**
+     * {@code GET  /categories/:id/ancestors} : get the ancestors of the "id" category, root first.
+     *
+     * @param id the id of the category whose ancestors to retrieve.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the ancestors, or with status {@code 404 (Not Found)}.
+     */
+    @GetMapping("/categories/{id}/ancestors")
+    public ResponseEntity<List<Category>> getCategoryAncestors(@PathVariable Long id) {
+        log.debug("REST request to get the ancestors of Category : {}", id);
+        return ResponseUtil.wrapOrNotFound(categoryHierarchyService.findAncestors(id));
+    }
+
+    /**
+     * {@code GET  /categories/:id/products} : get the products of the "id" category or of any of its descendants.
+     *
+     * @param id the id of the category whose products to retrieve.
+     * @param criteria the criteria which the products should match.
+     * @param pageable the pagination information.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of products in body, or with status {@code 404 (Not Found)}.
+     */
+    // not {id}, as the path variables are also bound to the criteria, whose id filter cannot be read from a single value
+    @GetMapping("/categories/{rootId}/products")
+    public ResponseEntity<List<Product>> getCategoryProducts(
+        @PathVariable("rootId") Long id,
+        ProductCriteria criteria,
+        Pageable pageable
+    ) {
+        log.debug("REST request to get the Products of Category : {} by criteria: {}", id, criteria);
+        return categoryHierarchyService
+            .findProducts(id, criteria, pageable)
+            .map(page -> {
+                HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
+                return ResponseEntity.ok().headers(headers).body(page.getContent());
+            })
+            .orElseGet(() -> ResponseEntity.notFound().build());
     }
 
     /**
@@ -202,4 +506,27 @@ public class CategoryResource {
             .headers(HeaderUtil.createEntityDeletionAlert(applicationName, true, ENTITY_NAME, id.toString()))
             .build();
     }
+
+    private HttpHeaders listValidators(HttpServletRequest request) {
+        Set<Class<?>> tables = categoryQueryService.dependencies();
+        return ConditionalGetUtil.listValidators(request, tableChangeCounter.revision(tables), tableChangeCounter.lastModified(tables));
+    }
+
+    private static String entityTag(HttpServletRequest request, Category category) {
+        List<Object> revision = new ArrayList<>(List.of(category.getId(), category.getVersion()));
+        Category parent = category.getParent();
+        if (parent != null) {
+            revision.add(parent.getId());
+            revision.add(parent.getVersion());
+        }
+        category
+            .getProducts()
+            .stream()
+            .sorted(Comparator.comparing(Product::getId))
+            .forEach(product -> {
+                revision.add(product.getId());
+                revision.add(product.getVersion());
+            });
+        return ConditionalGetUtil.entityTag(request, revision.toArray());
+    }
 }
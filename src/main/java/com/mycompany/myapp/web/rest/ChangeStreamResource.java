@@ -0,0 +1,144 @@
+package com.mycompany.myapp.web.rest;
+
+import com.mycompany.myapp.config.ApplicationProperties;
+import com.mycompany.myapp.domain.EntityChangeLog;
+import com.mycompany.myapp.service.ChangeStreamService;
+import com.mycompany.myapp.web.rest.errors.BadRequestAlertException;
+import com.mycompany.myapp.web.rest.errors.TooManyRequestsException;
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/**
+ * REST controller streaming the committed writes of the {@link com.mycompany.myapp.domain.Product},
+ * {@link com.mycompany.myapp.domain.Category}, {@link com.mycompany.myapp.domain.Customer} and
+ * {@link com.mycompany.myapp.domain.Address} entities as Server-Sent Events, see {@link ChangeStreamService}.
+ * <p>
+ * Each write is a {@code change} event, whose id is its offset and whose data is the {@link EntityChangeLog} in JSON.
+ * An {@code EventSource} reconnecting after the stream is closed sends the {@code Last-Event-ID} header, so it resumes
+ * after the last change it received. When the changes after the requested offset were purged, a {@code reset} event
+ * with the latest offset is sent first: the subscriber must re-read the tables, then apply the next changes.
+ */
+@RestController
+@RequestMapping("/api")
+public class ChangeStreamResource {
+
+    private static final String ENTITY_NAME = "entityChangeLog";
+
+    private static final String LAST_EVENT_ID_HEADER = "Last-Event-ID";
+
+    private final Logger log = LoggerFactory.getLogger(ChangeStreamResource.class);
+
+    private final ChangeStreamService changeStreamService;
+
+    private final AsyncTaskExecutor changeStreamExecutor;
+
+    private final ApplicationProperties.ChangeStream properties;
+
+    public ChangeStreamResource(
+        ChangeStreamService changeStreamService,
+        @Qualifier("changeStreamExecutor") AsyncTaskExecutor changeStreamExecutor,
+        ApplicationProperties applicationProperties
+    ) {
+        this.changeStreamService = changeStreamService;
+        this.changeStreamExecutor = changeStreamExecutor;
+        this.properties = applicationProperties.getChangeStream();
+    }
+
+    /**
+     * {@code GET  /changes} : stream the writes of the products, categories, customers and addresses.
+     *
+     * @param lastEventId the offset of the last change received before reconnecting, which takes precedence.
+     * @param offset the offset of the last change already read, {@code 0} for all the saved changes, or none for the
+     * changes committed from now on.
+     * @return the {@link SseEmitter} of the {@code text/event-stream} response, with status {@code 400 (Bad Request)}
+     * if the offset is negative or the stream is disabled, or with status {@code 429 (Too Many Requests)} if there are
+     * already {@code application.change-stream.max-subscribers} subscribers.
+     */
+    @GetMapping(value = "/changes", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamChanges(
+        @RequestHeader(value = LAST_EVENT_ID_HEADER, required = false) Long lastEventId,
+        @RequestParam(value = "offset", required = false) Long offset
+    ) {
+        log.debug("REST request to stream the changes after offset {}, last event {}", offset, lastEventId);
+        if (!properties.isEnabled()) {
+            throw new BadRequestAlertException("The change stream is disabled", ENTITY_NAME, "disabled");
+        }
+        long start = lastEventId != null ? lastEventId : offset != null ? offset : changeStreamService.latestOffset();
+        if (start < 0) {
+            throw new BadRequestAlertException("The offset cannot be negative", ENTITY_NAME, "offsetinvalid");
+        }
+        SseEmitter emitter = new SseEmitter(properties.getTimeout().toMillis());
+        try {
+            changeStreamExecutor.execute(new Subscription(emitter, start));
+        } catch (TaskRejectedException e) {
+            throw new TooManyRequestsException("Too many subscribers of the change stream, retry later");
+        }
+        return emitter;
+    }
+
+    /**
+     * Sends the changes to one subscriber, until it disconnects or the stream times out.
+     */
+    private final class Subscription implements Runnable {
+
+        private final SseEmitter emitter;
+
+        private final AtomicBoolean open = new AtomicBoolean(true);
+
+        private long position;
+
+        Subscription(SseEmitter emitter, long start) {
+            this.emitter = emitter;
+            this.position = start;
+            emitter.onCompletion(() -> open.set(false));
+            emitter.onTimeout(() -> open.set(false));
+            emitter.onError(e -> open.set(false));
+        }
+
+        @Override
+        public void run() {
+            try {
+                if (changeStreamService.isPurged(position)) {
+                    position = changeStreamService.latestOffset();
+                    Map<String, Long> reset = Map.of("offset", position);
+                    emitter.send(SseEmitter.event().id(String.valueOf(position)).name("reset").data(reset, MediaType.APPLICATION_JSON));
+                }
+                while (open.get()) {
+                    List<EntityChangeLog> changes = changeStreamService.read(position, properties.getBatchSize());
+                    for (EntityChangeLog change : changes) {
+                        emitter.send(
+                            SseEmitter.event().id(String.valueOf(change.getId())).name("change").data(change, MediaType.APPLICATION_JSON)
+                        );
+                        position = change.getId();
+                    }
+                    if (changes.isEmpty() && !changeStreamService.await(position, properties.getHeartbeat()) && open.get()) {
+                        // keeps the connection open through the proxies, and detects the subscribers which are gone
+                        emitter.send(SseEmitter.event().comment("heartbeat"));
+                    }
+                }
+            } catch (IOException | IllegalStateException e) {
+                log.debug("Subscriber of the change stream gone at offset {}: {}", position, e.getMessage());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                emitter.complete();
+            } catch (RuntimeException e) {
+                log.warn("Could not stream the changes after offset {}", position, e);
+                emitter.completeWithError(e);
+            }
+        }
+    }
+}
@@ -4,18 +4,35 @@ import com.mycompany.myapp.domain.Customer;
 import com.mycompany.myapp.repository.CustomerRepository;
 import com.mycompany.myapp.service.CustomerQueryService;
 import com.mycompany.myapp.service.CustomerService;
+import com.mycompany.myapp.service.TableChangeCounter;
 import com.mycompany.myapp.service.criteria.CustomerCriteria;
+import com.mycompany.myapp.service.dto.KeysetCursor;
+import com.mycompany.myapp.service.dto.KeysetSlice;
 import com.mycompany.myapp.web.rest.errors.BadRequestAlertException;
+import com.mycompany.myapp.web.rest.util.ConditionalGetUtil;
+import com.mycompany.myapp.web.rest.util.CountMode;
+import com.mycompany.myapp.web.rest.util.DataFormat;
+import com.mycompany.myapp.web.rest.util.EntityExportWriter;
+import com.mycompany.myapp.web.rest.util.KeysetPaginationUtil;
+import com.mycompany.myapp.web.rest.util.SlicePaginationUtil;
+import com.mycompany.myapp.web.rest.util.SparseFieldsUtil;
+import java.io.IOException;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.http.ContentDisposition;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -36,6 +53,13 @@ public class CustomerResource {
 
     private static final String ENTITY_NAME = "customer";
 
+    private static final EntityExportWriter<Customer> EXPORT_WRITER = new EntityExportWriter<Customer>()
+        .column("id", Customer::getId)
+        .column("firstName", Customer::getFirstName)
+        .column("lastName", Customer::getLastName)
+        .column("email", Customer::getEmail)
+        .column("telephone", Customer::getTelephone);
+
     @Value("${jhipster.clientApp.name}")
     private String applicationName;
 
@@ -45,14 +69,18 @@ public class CustomerResource {
 
     private final CustomerQueryService customerQueryService;
 
+    private final TableChangeCounter tableChangeCounter;
+
     public CustomerResource(
         CustomerService customerService,
         CustomerRepository customerRepository,
-        CustomerQueryService customerQueryService
+        CustomerQueryService customerQueryService,
+        TableChangeCounter tableChangeCounter
     ) {
         this.customerService = customerService;
         this.customerRepository = customerRepository;
         this.customerQueryService = customerQueryService;
+        this.tableChangeCounter = tableChangeCounter;
     }
 
     /**
@@ -81,7 +109,8 @@ public class CustomerResource {
      * @param id the id of the customer to save.
      * @param customer the customer to update.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the updated customer,
-     * or with status {@code 400 (Bad Request)} if the customer is not valid,
+     * or with status {@code 400 (Bad Request)} if the customer is not valid or has no version,
+     * or with status {@code 409 (Conflict)} if the customer was updated since its version was read,
      * or with status {@code 500 (Internal Server Error)} if the customer couldn't be updated.
      * @throws URISyntaxException if the Location URI syntax is incorrect.
      */
@@ -97,6 +126,9 @@ public class CustomerResource {
         if (!Objects.equals(id, customer.getId())) {
             throw new BadRequestAlertException("Invalid ID", ENTITY_NAME, "idinvalid");
         }
+        if (customer.getVersion() == null) {
+            throw new BadRequestAlertException("The version is required to update a customer", ENTITY_NAME, "versionnull");
+        }
 
         if (!customerRepository.existsById(id)) {
             throw new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound");
@@ -150,16 +182,158 @@ public class CustomerResource {
      *
      * @param pageable the pagination information.
      * @param criteria the criteria which the requested entities should match.
-     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of customers in body.
+     * @param request the current request.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of customers in body,
+     * or with status {@code 304 (Not Modified)} if the listing did not change since the request's validators.
      */
     @GetMapping("/customers")
-    public ResponseEntity<List<Customer>> getAllCustomers(CustomerCriteria criteria, Pageable pageable) {
+    public ResponseEntity<List<Customer>> getAllCustomers(CustomerCriteria criteria, Pageable pageable, HttpServletRequest request) {
         log.debug("REST request to get Customers by criteria: {}", criteria);
+        HttpHeaders validators = listValidators(request);
+        if (ConditionalGetUtil.isNotModified(request, validators)) {
+            return ConditionalGetUtil.notModified(validators);
+        }
         Page<Customer> page = customerQueryService.findByCriteria(criteria, pageable);
         HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
+        headers.addAll(validators);
+        return ResponseEntity.ok().headers(headers).body(page.getContent());
+    }
+
+    /**
+     * {@code GET  /customers?fields=} : get a page of the given fields of the customers.
+     * <p>
+     * Only the columns of the fields are read and written to the response; the id is always included.
+     *
+     * @param criteria the criteria which the requested entities should match.
+     * @param fields the names of the fields to return.
+     * @param pageable the pagination information.
+     * @param request the current request.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the fields of the customers in body,
+     * or with status {@code 400 (Bad Request)} if a field is not a column of the customer,
+     * or with status {@code 304 (Not Modified)} if the listing did not change since the request's validators.
+     */
+    @GetMapping(
+        value = "/customers",
+        params = { SparseFieldsUtil.FIELDS_PARAM, "!" + KeysetPaginationUtil.CURSOR_PARAM, "!" + CountMode.COUNT_PARAM }
+    )
+    public ResponseEntity<List<Map<String, Object>>> getAllCustomersFields(
+        CustomerCriteria criteria,
+        @RequestParam(SparseFieldsUtil.FIELDS_PARAM) String[] fields,
+        Pageable pageable,
+        HttpServletRequest request
+    ) {
+        List<String> fieldNames = SparseFieldsUtil.parseFields(fields);
+        log.debug("REST request to get the fields {} of Customers by criteria: {}", fieldNames, criteria);
+        HttpHeaders validators = listValidators(request);
+        if (ConditionalGetUtil.isNotModified(request, validators)) {
+            return ConditionalGetUtil.notModified(validators);
+        }
+        Page<Map<String, Object>> page;
+        try {
+            page = customerQueryService.findFieldsByCriteria(criteria, fieldNames, pageable);
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestAlertException(e.getMessage(), ENTITY_NAME, "fieldsinvalid");
+        }
+        HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
+        headers.addAll(validators);
+        return ResponseEntity.ok().headers(headers).body(page.getContent());
+    }
+
+    /**
+     * {@code GET  /customers?count=} : get a page of the customers with an exact, estimated or no total.
+     *
+     * @param criteria the criteria which the requested entities should match.
+     * @param count the count mode: {@code exact}, {@code estimated} (cached count, or database statistics) or {@code none}.
+     * @param pageable the pagination information.
+     * @param request the current request.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of customers in body,
+     * or with status {@code 400 (Bad Request)} if the count mode is unknown, or fields or a cursor are requested,
+     * or with status {@code 304 (Not Modified)} if the listing did not change since the request's validators.
+     */
+    @GetMapping(value = "/customers", params = CountMode.COUNT_PARAM)
+    public ResponseEntity<List<Customer>> getAllCustomersWithCountMode(
+        CustomerCriteria criteria,
+        @RequestParam(CountMode.COUNT_PARAM) String count,
+        Pageable pageable,
+        HttpServletRequest request
+    ) {
+        log.debug("REST request to get Customers by criteria: {}, count: {}", criteria, count);
+        if (SparseFieldsUtil.isRequested(request)) {
+            throw new BadRequestAlertException("The fields cannot be requested with a count", ENTITY_NAME, "fieldsunsupported");
+        }
+        if (request.getParameter(KeysetPaginationUtil.CURSOR_PARAM) != null) {
+            throw new BadRequestAlertException("A cursor cannot be requested with a count", ENTITY_NAME, "cursorunsupported");
+        }
+        CountMode countMode;
+        try {
+            countMode = CountMode.fromName(count);
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestAlertException("Unknown count mode: " + count, ENTITY_NAME, "countmodeinvalid");
+        }
+        HttpHeaders validators = listValidators(request);
+        if (ConditionalGetUtil.isNotModified(request, validators)) {
+            return ConditionalGetUtil.notModified(validators);
+        }
+        if (countMode == CountMode.NONE) {
+            Slice<Customer> slice = customerQueryService.findSliceByCriteria(criteria, pageable);
+            HttpHeaders headers = SlicePaginationUtil.generateSlicePaginationHttpHeaders(
+                ServletUriComponentsBuilder.fromCurrentRequest(),
+                slice
+            );
+            headers.addAll(validators);
+            return ResponseEntity.ok().headers(headers).body(slice.getContent());
+        }
+        Page<Customer> page = countMode == CountMode.ESTIMATED
+            ? customerQueryService.findByCriteriaWithEstimatedCount(criteria, pageable)
+            : customerQueryService.findByCriteria(criteria, pageable);
+        HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
+        if (countMode == CountMode.ESTIMATED) {
+            headers.add(SlicePaginationUtil.HEADER_TOTAL_COUNT_ESTIMATED, "true");
+        }
+        headers.addAll(validators);
         return ResponseEntity.ok().headers(headers).body(page.getContent());
     }
 
+    /**
+     * {@code GET  /customers?cursor=} : get a slice of the customers with keyset pagination.
+     *
+     * @param cursor the cursor returned with the previous slice, empty for the first slice.
+     * @param pageable the size and sort of the slice, the page number is ignored.
+     * @param criteria the criteria which the requested entities should match.
+     * @param request the current request.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of customers in body,
+     * or with status {@code 400 (Bad Request)} if the cursor is not valid for the requested sort or fields are requested,
+     * or with status {@code 304 (Not Modified)} if the listing did not change since the request's validators.
+     */
+    @GetMapping(value = "/customers", params = { KeysetPaginationUtil.CURSOR_PARAM, "!" + CountMode.COUNT_PARAM })
+    public ResponseEntity<List<Customer>> getAllCustomersByCursor(
+        CustomerCriteria criteria,
+        @RequestParam(KeysetPaginationUtil.CURSOR_PARAM) String cursor,
+        Pageable pageable,
+        HttpServletRequest request
+    ) {
+        log.debug("REST request to get Customers by criteria: {}, cursor: {}", criteria, cursor);
+        if (SparseFieldsUtil.isRequested(request)) {
+            throw new BadRequestAlertException("The fields cannot be requested with a cursor", ENTITY_NAME, "fieldsunsupported");
+        }
+        HttpHeaders validators = listValidators(request);
+        if (ConditionalGetUtil.isNotModified(request, validators)) {
+            return ConditionalGetUtil.notModified(validators);
+        }
+        KeysetSlice<Customer> slice;
+        try {
+            slice = customerQueryService.findByCriteria(criteria, KeysetCursor.of(cursor, pageable.getSort()), pageable.getPageSize());
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestAlertException(e.getMessage(), ENTITY_NAME, "cursorinvalid");
+        }
+        HttpHeaders headers = KeysetPaginationUtil.generateKeysetPaginationHttpHeaders(
+            ServletUriComponentsBuilder.fromCurrentRequest(),
+            slice
+        );
+        headers.addAll(validators);
+        return ResponseEntity.ok().headers(headers).body(slice.getContent());
+    }
+
     /**
      * {@code GET  /customers/count} : count all the customers.
      *
@@ -172,17 +346,55 @@ public class CustomerResource {
         return ResponseEntity.ok().body(customerQueryService.countByCriteria(criteria));
     }
 
+    /**
+     * {@code GET  /customers/_export} : export all the customers, by ascending id, one per line.
+     * <p>
+     * The customers are streamed from a database cursor straight to the response, so the export runs in constant memory.
+     *
+     * @param criteria the criteria which the exported entities should match.
+     * @param format the format of the export, {@code ndjson} (default) or {@code csv}.
+     * @param response the response to write the customers to.
+     * @throws IOException if the response cannot be written.
+     */
+    @GetMapping("/customers/_export")
+    public void exportCustomers(
+        CustomerCriteria criteria,
+        @RequestParam(name = DataFormat.FORMAT_PARAM, defaultValue = "ndjson") String format,
+        HttpServletResponse response
+    ) throws IOException {
+        log.debug("REST request to export Customers by criteria: {}, format: {}", criteria, format);
+        DataFormat dataFormat;
+        try {
+            dataFormat = DataFormat.fromName(format);
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestAlertException("Unknown export format", ENTITY_NAME, "formatinvalid");
+        }
+        response.setContentType(dataFormat.getContentType());
+        response.setCharacterEncoding("UTF-8");
+        response.setHeader(
+            HttpHeaders.CONTENT_DISPOSITION,
+            ContentDisposition.attachment().filename("customers." + dataFormat.getExtension()).build().toString()
+        );
+        try (EntityExportWriter.Records<Customer> records = EXPORT_WRITER.open(dataFormat, response.getOutputStream())) {
+            customerQueryService.streamByCriteria(criteria, records);
+        }
+    }
+
     /**
      * {@code GET  /customers/:id} : get the "id" customer.
      *
      * @param id the id of the customer to retrieve.
-     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the customer, or with status {@code 404 (Not Found)}.
+     * @param request the current request.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the customer, or with status {@code 404 (Not Found)},
+     * or with status {@code 304 (Not Modified)} if the request's {@code If-None-Match} header matches its {@code ETag}.
      */
     @GetMapping("/customers/{id}")
-    public ResponseEntity<Customer> getCustomer(@PathVariable Long id) {
+    public ResponseEntity<Customer> getCustomer(@PathVariable Long id, HttpServletRequest request) {
         log.debug("REST request to get Customer : {}", id);
         Optional<Customer> customer = customerService.findOne(id);
-        return ResponseUtil.wrapOrNotFound(customer);
+        HttpHeaders headers = ConditionalGetUtil.negotiatedHeaders();
+        customer.ifPresent(found -> headers.setETag(ConditionalGetUtil.entityTag(request, found.getId(), found.getVersion())));
+        return ResponseUtil.wrapOrNotFound(customer, headers);
     }
 
     /**
@@ -200,4 +412,9 @@ public class CustomerResource {
             .headers(HeaderUtil.createEntityDeletionAlert(applicationName, true, ENTITY_NAME, id.toString()))
             .build();
     }
+
+    private HttpHeaders listValidators(HttpServletRequest request) {
+        Set<Class<?>> tables = customerQueryService.dependencies();
+        return ConditionalGetUtil.listValidators(request, tableChangeCounter.revision(tables), tableChangeCounter.lastModified(tables));
+    }
 }
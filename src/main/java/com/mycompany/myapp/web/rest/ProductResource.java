@@ -2,15 +2,34 @@ package com.mycompany.myapp.web.rest;
 
 import com.mycompany.myapp.domain.Product;
 import com.mycompany.myapp.repository.ProductRepository;
+import com.mycompany.myapp.service.BulkImportService;
 import com.mycompany.myapp.service.ProductQueryService;
+import com.mycompany.myapp.service.ProductSearchService;
 import com.mycompany.myapp.service.ProductService;
+import com.mycompany.myapp.service.TableChangeCounter;
 import com.mycompany.myapp.service.criteria.ProductCriteria;
+import com.mycompany.myapp.service.dto.BulkImportResult;
+import com.mycompany.myapp.service.dto.KeysetCursor;
+import com.mycompany.myapp.service.dto.KeysetSlice;
 import com.mycompany.myapp.web.rest.errors.BadRequestAlertException;
+import com.mycompany.myapp.web.rest.util.ConditionalGetUtil;
+import com.mycompany.myapp.web.rest.util.CountMode;
+import com.mycompany.myapp.web.rest.util.DataFormat;
+import com.mycompany.myapp.web.rest.util.EntityExportWriter;
+import com.mycompany.myapp.web.rest.util.ImportRecordReader;
+import com.mycompany.myapp.web.rest.util.KeysetPaginationUtil;
+import com.mycompany.myapp.web.rest.util.SlicePaginationUtil;
+import com.mycompany.myapp.web.rest.util.SparseFieldsUtil;
+import java.io.IOException;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
 import javax.validation.Valid;
 import javax.validation.constraints.NotNull;
 import org.slf4j.Logger;
@@ -18,6 +37,8 @@ import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.http.ContentDisposition;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -38,6 +59,15 @@ public class ProductResource {
 
     private static final String ENTITY_NAME = "product";
 
+    private static final EntityExportWriter<Product> EXPORT_WRITER = new EntityExportWriter<Product>()
+        .column("id", Product::getId)
+        .column("title", Product::getTitle)
+        .column("keywords", Product::getKeywords)
+        .column("description", Product::getDescription)
+        .column("rating", Product::getRating)
+        .column("dateAdded", Product::getDateAdded)
+        .column("dateModified", Product::getDateModified);
+
     @Value("${jhipster.clientApp.name}")
     private String applicationName;
 
@@ -47,10 +77,26 @@ public class ProductResource {
 
     private final ProductQueryService productQueryService;
 
-    public ProductResource(ProductService productService, ProductRepository productRepository, ProductQueryService productQueryService) {
+    private final ProductSearchService productSearchService;
+
+    private final BulkImportService bulkImportService;
+
+    private final TableChangeCounter tableChangeCounter;
+
+    public ProductResource(
+        ProductService productService,
+        ProductRepository productRepository,
+        ProductQueryService productQueryService,
+        ProductSearchService productSearchService,
+        BulkImportService bulkImportService,
+        TableChangeCounter tableChangeCounter
+    ) {
         this.productService = productService;
         this.productRepository = productRepository;
         this.productQueryService = productQueryService;
+        this.productSearchService = productSearchService;
+        this.bulkImportService = bulkImportService;
+        this.tableChangeCounter = tableChangeCounter;
     }
 
     /**
@@ -79,7 +125,8 @@ public class ProductResource {
      * @param id the id of the product to save.
      * @param product the product to update.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the updated product,
-     * or with status {@code 400 (Bad Request)} if the product is not valid,
+     * or with status {@code 400 (Bad Request)} if the product is not valid or has no version,
+     * or with status {@code 409 (Conflict)} if the product was updated since its version was read,
      * or with status {@code 500 (Internal Server Error)} if the product couldn't be updated.
      * @throws URISyntaxException if the Location URI syntax is incorrect.
      */
@@ -95,6 +142,9 @@ public class ProductResource {
         if (!Objects.equals(id, product.getId())) {
             throw new BadRequestAlertException("Invalid ID", ENTITY_NAME, "idinvalid");
         }
+        if (product.getVersion() == null) {
+            throw new BadRequestAlertException("The version is required to update a product", ENTITY_NAME, "versionnull");
+        }
 
         if (!productRepository.existsById(id)) {
             throw new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound");
@@ -148,13 +198,171 @@ public class ProductResource {
      *
      * @param pageable the pagination information.
      * @param criteria the criteria which the requested entities should match.
-     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of products in body.
+     * @param request the current request.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of products in body,
+     * or with status {@code 304 (Not Modified)} if the listing did not change since the request's validators.
      */
     @GetMapping("/products")
-    public ResponseEntity<List<Product>> getAllProducts(ProductCriteria criteria, Pageable pageable) {
+    public ResponseEntity<List<Product>> getAllProducts(ProductCriteria criteria, Pageable pageable, HttpServletRequest request) {
         log.debug("REST request to get Products by criteria: {}", criteria);
+        HttpHeaders validators = listValidators(request);
+        if (ConditionalGetUtil.isNotModified(request, validators)) {
+            return ConditionalGetUtil.notModified(validators);
+        }
         Page<Product> page = productQueryService.findByCriteria(criteria, pageable);
         HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
+        headers.addAll(validators);
+        return ResponseEntity.ok().headers(headers).body(page.getContent());
+    }
+
+    /**
+     * {@code GET  /products?fields=} : get a page of the given fields of the products.
+     * <p>
+     * Only the columns of the fields are read and written to the response; the id is always included.
+     *
+     * @param criteria the criteria which the requested entities should match.
+     * @param fields the names of the fields to return.
+     * @param pageable the pagination information.
+     * @param request the current request.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the fields of the products in body,
+     * or with status {@code 400 (Bad Request)} if a field is not a column of the product,
+     * or with status {@code 304 (Not Modified)} if the listing did not change since the request's validators.
+     */
+    @GetMapping(
+        value = "/products",
+        params = { SparseFieldsUtil.FIELDS_PARAM, "!" + KeysetPaginationUtil.CURSOR_PARAM, "!" + CountMode.COUNT_PARAM }
+    )
+    public ResponseEntity<List<Map<String, Object>>> getAllProductsFields(
+        ProductCriteria criteria,
+        @RequestParam(SparseFieldsUtil.FIELDS_PARAM) String[] fields,
+        Pageable pageable,
+        HttpServletRequest request
+    ) {
+        List<String> fieldNames = SparseFieldsUtil.parseFields(fields);
+        log.debug("REST request to get the fields {} of Products by criteria: {}", fieldNames, criteria);
+        HttpHeaders validators = listValidators(request);
+        if (ConditionalGetUtil.isNotModified(request, validators)) {
+            return ConditionalGetUtil.notModified(validators);
+        }
+        Page<Map<String, Object>> page;
+        try {
+            page = productQueryService.findFieldsByCriteria(criteria, fieldNames, pageable);
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestAlertException(e.getMessage(), ENTITY_NAME, "fieldsinvalid");
+        }
+        HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
+        headers.addAll(validators);
+        return ResponseEntity.ok().headers(headers).body(page.getContent());
+    }
+
+    /**
+     * {@code GET  /products?count=} : get a page of the products with an exact, estimated or no total.
+     *
+     * @param criteria the criteria which the requested entities should match.
+     * @param count the count mode: {@code exact}, {@code estimated} (cached count, or database statistics) or {@code none}.
+     * @param pageable the pagination information.
+     * @param request the current request.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of products in body,
+     * or with status {@code 400 (Bad Request)} if the count mode is unknown, or fields or a cursor are requested,
+     * or with status {@code 304 (Not Modified)} if the listing did not change since the request's validators.
+     */
+    @GetMapping(value = "/products", params = CountMode.COUNT_PARAM)
+    public ResponseEntity<List<Product>> getAllProductsWithCountMode(
+        ProductCriteria criteria,
+        @RequestParam(CountMode.COUNT_PARAM) String count,
+        Pageable pageable,
+        HttpServletRequest request
+    ) {
+        log.debug("REST request to get Products by criteria: {}, count: {}", criteria, count);
+        if (SparseFieldsUtil.isRequested(request)) {
+            throw new BadRequestAlertException("The fields cannot be requested with a count", ENTITY_NAME, "fieldsunsupported");
+        }
+        if (request.getParameter(KeysetPaginationUtil.CURSOR_PARAM) != null) {
+            throw new BadRequestAlertException("A cursor cannot be requested with a count", ENTITY_NAME, "cursorunsupported");
+        }
+        CountMode countMode;
+        try {
+            countMode = CountMode.fromName(count);
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestAlertException("Unknown count mode: " + count, ENTITY_NAME, "countmodeinvalid");
+        }
+        HttpHeaders validators = listValidators(request);
+        if (ConditionalGetUtil.isNotModified(request, validators)) {
+            return ConditionalGetUtil.notModified(validators);
+        }
+        if (countMode == CountMode.NONE) {
+            Slice<Product> slice = productQueryService.findSliceByCriteria(criteria, pageable);
+            HttpHeaders headers = SlicePaginationUtil.generateSlicePaginationHttpHeaders(
+                ServletUriComponentsBuilder.fromCurrentRequest(),
+                slice
+            );
+            headers.addAll(validators);
+            return ResponseEntity.ok().headers(headers).body(slice.getContent());
+        }
+        Page<Product> page = countMode == CountMode.ESTIMATED
+            ? productQueryService.findByCriteriaWithEstimatedCount(criteria, pageable)
+            : productQueryService.findByCriteria(criteria, pageable);
+        HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
+        if (countMode == CountMode.ESTIMATED) {
+            headers.add(SlicePaginationUtil.HEADER_TOTAL_COUNT_ESTIMATED, "true");
+        }
+        headers.addAll(validators);
+        return ResponseEntity.ok().headers(headers).body(page.getContent());
+    }
+
+    /**
+     * {@code GET  /products?cursor=} : get a slice of the products with keyset pagination.
+     *
+     * @param cursor the cursor returned with the previous slice, empty for the first slice.
+     * @param pageable the size and sort of the slice, the page number is ignored.
+     * @param criteria the criteria which the requested entities should match.
+     * @param request the current request.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of products in body,
+     * or with status {@code 400 (Bad Request)} if the cursor is not valid for the requested sort or fields are requested,
+     * or with status {@code 304 (Not Modified)} if the listing did not change since the request's validators.
+     */
+    @GetMapping(value = "/products", params = { KeysetPaginationUtil.CURSOR_PARAM, "!" + CountMode.COUNT_PARAM })
+    public ResponseEntity<List<Product>> getAllProductsByCursor(
+        ProductCriteria criteria,
+        @RequestParam(KeysetPaginationUtil.CURSOR_PARAM) String cursor,
+        Pageable pageable,
+        HttpServletRequest request
+    ) {
+        log.debug("REST request to get Products by criteria: {}, cursor: {}", criteria, cursor);
+        if (SparseFieldsUtil.isRequested(request)) {
+            throw new BadRequestAlertException("The fields cannot be requested with a cursor", ENTITY_NAME, "fieldsunsupported");
+        }
+        HttpHeaders validators = listValidators(request);
+        if (ConditionalGetUtil.isNotModified(request, validators)) {
+            return ConditionalGetUtil.notModified(validators);
+        }
+        KeysetSlice<Product> slice;
+        try {
+            slice = productQueryService.findByCriteria(criteria, KeysetCursor.of(cursor, pageable.getSort()), pageable.getPageSize());
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestAlertException(e.getMessage(), ENTITY_NAME, "cursorinvalid");
+        }
+        HttpHeaders headers = KeysetPaginationUtil.generateKeysetPaginationHttpHeaders(
+            ServletUriComponentsBuilder.fromCurrentRequest(),
+            slice
+        );
+        headers.addAll(validators);
+        return ResponseEntity.ok().headers(headers).body(slice.getContent());
+    }
+
+    /**
+     * {@code GET  /products/_search?query=:query} : search the products matching all the terms of the query,
+     * in their title, keywords or description, best matches first.
+     *
+     * @param query the free text query.
+     * @param pageable the pagination information.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of matching products in body.
+     */
+    @GetMapping("/products/_search")
+    public ResponseEntity<List<Product>> searchProducts(@RequestParam String query, Pageable pageable) {
+        log.debug("REST request to search for a page of Products for query {}", query);
+        Page<Product> page = productSearchService.search(query, pageable);
+        HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
         return ResponseEntity.ok().headers(headers).body(page.getContent());
     }
 
@@ -170,17 +378,80 @@ public class ProductResource {
         return ResponseEntity.ok().body(productQueryService.countByCriteria(criteria));
     }
 
+    /**
+     * {@code GET  /products/_export} : export all the products, by ascending id, one per line.
+     * <p>
+     * The products are streamed from a database cursor straight to the response, so the export runs in constant memory.
+     *
+     * @param criteria the criteria which the exported entities should match.
+     * @param format the format of the export, {@code ndjson} (default) or {@code csv}.
+     * @param response the response to write the products to.
+     * @throws IOException if the response cannot be written.
+     */
+    @GetMapping("/products/_export")
+    public void exportProducts(
+        ProductCriteria criteria,
+        @RequestParam(name = DataFormat.FORMAT_PARAM, defaultValue = "ndjson") String format,
+        HttpServletResponse response
+    ) throws IOException {
+        log.debug("REST request to export Products by criteria: {}, format: {}", criteria, format);
+        DataFormat dataFormat;
+        try {
+            dataFormat = DataFormat.fromName(format);
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestAlertException("Unknown export format", ENTITY_NAME, "formatinvalid");
+        }
+        response.setContentType(dataFormat.getContentType());
+        response.setCharacterEncoding("UTF-8");
+        response.setHeader(
+            HttpHeaders.CONTENT_DISPOSITION,
+            ContentDisposition.attachment().filename("products." + dataFormat.getExtension()).build().toString()
+        );
+        try (EntityExportWriter.Records<Product> records = EXPORT_WRITER.open(dataFormat, response.getOutputStream())) {
+            productQueryService.streamByCriteria(criteria, records);
+        }
+    }
+
+    /**
+     * {@code POST  /products/_import} : import new products, one per line.
+     *
+     * @param format the format of the request body, {@code ndjson} (default) or {@code csv}.
+     * @param request the request to read the products from.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the number of imported and rejected rows,
+     * with the errors of the first rejected rows.
+     * @throws IOException if the request cannot be read.
+     */
+    @PostMapping("/products/_import")
+    public ResponseEntity<BulkImportResult> importProducts(
+        @RequestParam(name = DataFormat.FORMAT_PARAM, defaultValue = "ndjson") String format,
+        HttpServletRequest request
+    ) throws IOException {
+        log.debug("REST request to import Products, format: {}", format);
+        DataFormat dataFormat;
+        try {
+            dataFormat = DataFormat.fromName(format);
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestAlertException("Unknown import format", ENTITY_NAME, "formatinvalid");
+        }
+        BulkImportResult result = bulkImportService.importProducts(ImportRecordReader.read(dataFormat, request.getInputStream()));
+        return ResponseEntity.ok().body(result);
+    }
+
     /**
      * {@code GET  /products/:id} : get the "id" product.
      *
      * @param id the id of the product to retrieve.
-     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the product, or with status {@code 404 (Not Found)}.
+     * @param request the current request.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the product, or with status {@code 404 (Not Found)},
+     * or with status {@code 304 (Not Modified)} if the request's {@code If-None-Match} header matches its {@code ETag}.
      */
     @GetMapping("/products/{id}")
-    public ResponseEntity<Product> getProduct(@PathVariable Long id) {
+    public ResponseEntity<Product> getProduct(@PathVariable Long id, HttpServletRequest request) {
         log.debug("REST request to get Product : {}", id);
         Optional<Product> product = productService.findOne(id);
-        return ResponseUtil.wrapOrNotFound(product);
+        HttpHeaders headers = ConditionalGetUtil.negotiatedHeaders();
+        product.ifPresent(found -> headers.setETag(ConditionalGetUtil.entityTag(request, found.getId(), found.getVersion())));
+        return ResponseUtil.wrapOrNotFound(product, headers);
     }
 
     /**
@@ -198,4 +469,9 @@ public class ProductResource {
             .headers(HeaderUtil.createEntityDeletionAlert(applicationName, true, ENTITY_NAME, id.toString()))
             .build();
     }
+
+    private HttpHeaders listValidators(HttpServletRequest request) {
+        Set<Class<?>> tables = productQueryService.dependencies();
+        return ConditionalGetUtil.listValidators(request, tableChangeCounter.revision(tables), tableChangeCounter.lastModified(tables));
+    }
 }
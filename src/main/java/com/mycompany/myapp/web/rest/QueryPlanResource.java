@@ -0,0 +1,57 @@
+package com.mycompany.myapp.web.rest;
+
+import com.mycompany.myapp.security.AuthoritiesConstants;
+import com.mycompany.myapp.service.QueryPlanService;
+import com.mycompany.myapp.service.dto.QueryPlanDTO;
+import com.mycompany.myapp.web.rest.errors.BadRequestAlertException;
+import java.util.List;
+import java.util.stream.Collectors;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * REST controller reporting the plans of the listings by combination of Criteria filters.
+ */
+@RestController
+@RequestMapping("/api/admin")
+public class QueryPlanResource {
+
+    private static final String ENTITY_NAME = "queryPlan";
+
+    private final Logger log = LoggerFactory.getLogger(QueryPlanResource.class);
+
+    private final QueryPlanService queryPlanService;
+
+    public QueryPlanResource(QueryPlanService queryPlanService) {
+        this.queryPlanService = queryPlanService;
+    }
+
+    /**
+     * {@code GET  /query-plans} : get the plans of the combinations of filters the listings were read with.
+     *
+     * @param sequentialScansOnly whether to only return the plans with a sequential scan.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of plans in body, the most used
+     * combinations first, or with status {@code 400 (Bad Request)} if the database is not PostgreSQL.
+     */
+    @GetMapping("/query-plans")
+    @PreAuthorize("hasAuthority(\"" + AuthoritiesConstants.ADMIN + "\")")
+    public ResponseEntity<List<QueryPlanDTO>> getQueryPlans(
+        @RequestParam(name = "sequentialScansOnly", defaultValue = "false") boolean sequentialScansOnly
+    ) {
+        log.debug("REST request to get the query plans, sequential scans only: {}", sequentialScansOnly);
+        if (!queryPlanService.isSupported()) {
+            throw new BadRequestAlertException("Query plans are only available on PostgreSQL", ENTITY_NAME, "unsupporteddatabase");
+        }
+        List<QueryPlanDTO> plans = queryPlanService.explainAll();
+        if (sequentialScansOnly) {
+            plans = plans.stream().filter(plan -> !plan.getSequentialScans().isEmpty()).collect(Collectors.toList());
+        }
+        return ResponseEntity.ok(plans);
+    }
+}
@@ -0,0 +1,13 @@
+package com.mycompany.myapp.web.rest.errors;
+
+import org.zalando.problem.AbstractThrowableProblem;
+import org.zalando.problem.Status;
+
+public class TooManyRequestsException extends AbstractThrowableProblem {
+
+    private static final long serialVersionUID = 1L;
+
+    public TooManyRequestsException(String detail) {
+        super(ErrorConstants.TOO_MANY_REQUESTS_TYPE, "Too many requests", Status.TOO_MANY_REQUESTS, detail);
+    }
+}
@@ -0,0 +1,173 @@
+package com.mycompany.myapp.web.rest.util;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Collectors;
+import javax.servlet.http.HttpServletRequest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.util.DigestUtils;
+
+/**
+ * Utility class for handling conditional {@code GET} requests.
+ * <p>
+ * An entity is tagged with its {@code @Version}, and the versions of the associated entities its JSON includes: a
+ * {@code 200 OK} response with an {@code ETag} header is turned into a {@code 304 Not Modified} by Spring MVC when the
+ * {@code If-None-Match} header matches, without writing the body.
+ * <p>
+ * A listing is tagged with the revision of its tables, see {@code TableChangeCounter}, and its query string: the
+ * validators are checked with {@link #isNotModified} before running the query, so an unchanged listing is answered
+ * without reading its tables. The revisions come from the {@code entity_change_log} table shared by the instances, so
+ * they tag a listing alike, but an instance only sees the writes of the others once it reads the table again, within
+ * {@code application.conditional-get.refresh-interval}: until then it may answer {@code 304 Not Modified} for a
+ * listing they changed. When the change stream is disabled, each instance has its own revisions, which only change
+ * after its own writes and at the end of each {@code application.conditional-get.window}.
+ * <p>
+ * The tags also depend on the representation negotiated from the {@code Accept} header, see {@link #representation},
+ * so each representation, JSON, Smile or CBOR, has its own tag, and the responses carry a {@code Vary: Accept} header
+ * for the shared caches.
+ */
+public final class ConditionalGetUtil {
+
+    /**
+     * The representations of the entities and the listings, in the order Spring MVC prefers them.
+     */
+    private static final List<MediaType> REPRESENTATIONS = List.of(
+        MediaType.APPLICATION_JSON,
+        MediaType.valueOf("application/x-jackson-smile"),
+        MediaType.APPLICATION_CBOR
+    );
+
+    private ConditionalGetUtil() {}
+
+    /**
+     * Negotiate the representation of an entity or a listing from the {@code Accept} header, like Spring MVC: the most
+     * specific and preferred accepted type wins, and no header accepts all of them.
+     *
+     * @param request the current request.
+     * @return the media type of the representation, or {@code null} if the header is invalid or accepts none of them.
+     */
+    public static MediaType representation(HttpServletRequest request) {
+        List<MediaType> accepted;
+        try {
+            accepted = new ArrayList<>(MediaType.parseMediaTypes(request.getHeader(HttpHeaders.ACCEPT)));
+        } catch (InvalidMediaTypeException e) {
+            return null;
+        }
+        if (accepted.isEmpty()) {
+            accepted.add(MediaType.ALL);
+        }
+        MediaType.sortBySpecificityAndQuality(accepted);
+        for (MediaType type : accepted) {
+            if (type.getQualityValue() == 0) {
+                continue;
+            }
+            for (MediaType representation : REPRESENTATIONS) {
+                if (type.includes(representation)) {
+                    return representation;
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Generate the headers of a response whose body depends on the {@code Accept} header.
+     *
+     * @return the headers, with a {@code Vary: Accept} header.
+     */
+    public static HttpHeaders negotiatedHeaders() {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setVary(List.of(HttpHeaders.ACCEPT));
+        return headers;
+    }
+
+    /**
+     * Generate the strong entity tag of an entity.
+     *
+     * @param request the current request.
+     * @param revision the id and the version of the entity, then the ids and versions of the associated entities.
+     * @return the entity tag, quoted.
+     */
+    public static String entityTag(HttpServletRequest request, Object... revision) {
+        return tag(representationName(request), Arrays.toString(revision));
+    }
+
+    /**
+     * Generate the {@code ETag}, {@code Last-Modified} and {@code Vary} headers of a listing.
+     *
+     * @param request the current request.
+     * @param revision the revision of the tables of the listing.
+     * @param lastModified the time of the last write to the tables of the listing.
+     * @return the headers.
+     */
+    public static HttpHeaders listValidators(HttpServletRequest request, String revision, Instant lastModified) {
+        HttpHeaders headers = negotiatedHeaders();
+        headers.setETag(tag(representationName(request), revision, request.getRequestURI(), request.getQueryString()));
+        headers.setLastModified(lastModified);
+        return headers;
+    }
+
+    /**
+     * Check the {@code If-None-Match} header against the {@code ETag}, or when there is none, the
+     * {@code If-Modified-Since} header against the {@code Last-Modified} date.
+     *
+     * @param request the current request.
+     * @param validators the {@code ETag} and {@code Last-Modified} headers of the current representation.
+     * @return whether the client already has the current representation.
+     */
+    public static boolean isNotModified(HttpServletRequest request, HttpHeaders validators) {
+        Enumeration<String> ifNoneMatch = request.getHeaders(HttpHeaders.IF_NONE_MATCH);
+        if (ifNoneMatch != null && ifNoneMatch.hasMoreElements()) {
+            String etag = withoutWeakPrefix(validators.getETag());
+            while (ifNoneMatch.hasMoreElements()) {
+                for (String candidate : ifNoneMatch.nextElement().split(",")) {
+                    candidate = candidate.trim();
+                    if ("*".equals(candidate) || withoutWeakPrefix(candidate).equals(etag)) {
+                        return true;
+                    }
+                }
+            }
+            return false;
+        }
+        long ifModifiedSince;
+        try {
+            ifModifiedSince = request.getDateHeader(HttpHeaders.IF_MODIFIED_SINCE);
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+        long lastModified = validators.getLastModified();
+        return ifModifiedSince != -1 && lastModified != -1 && lastModified / 1000 * 1000 <= ifModifiedSince;
+    }
+
+    /**
+     * @param validators the {@code ETag} and {@code Last-Modified} headers of the current representation.
+     * @param <T> the type of the body.
+     * @return a {@code 304 Not Modified} response.
+     */
+    public static <T> ResponseEntity<T> notModified(HttpHeaders validators) {
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED).headers(validators).build();
+    }
+
+    private static String representationName(HttpServletRequest request) {
+        MediaType representation = representation(request);
+        return representation == null ? request.getHeader(HttpHeaders.ACCEPT) : representation.toString();
+    }
+
+    private static String tag(String... parts) {
+        String revision = Arrays.stream(parts).map(part -> Objects.toString(part, "")).collect(Collectors.joining("\n"));
+        return "\"" + DigestUtils.md5DigestAsHex(revision.getBytes(StandardCharsets.UTF_8)) + "\"";
+    }
+
+    private static String withoutWeakPrefix(String etag) {
+        return etag != null && etag.startsWith("W/") ? etag.substring(2) : String.valueOf(etag);
+    }
+}
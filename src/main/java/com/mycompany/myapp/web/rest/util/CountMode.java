@@ -0,0 +1,34 @@
+package com.mycompany.myapp.web.rest.util;
+
+import java.util.Locale;
+
+/**
+ * How the total of a paginated listing is computed, chosen with the {@code count} request parameter.
+ */
+public enum CountMode {
+    /**
+     * An exact {@code count(*)} query on each request, the default.
+     */
+    EXACT,
+    /**
+     * A count cached for a short while, or estimated from the database statistics.
+     */
+    ESTIMATED,
+    /**
+     * No count at all: only whether there is a next page.
+     */
+    NONE;
+
+    public static final String COUNT_PARAM = "count";
+
+    /**
+     * Resolve a mode from the value of the {@code count} request parameter.
+     *
+     * @param name the name of the mode, case insensitive.
+     * @return the mode.
+     * @throws IllegalArgumentException if the mode is unknown.
+     */
+    public static CountMode fromName(String name) {
+        return valueOf(name.toUpperCase(Locale.ROOT));
+    }
+}
@@ -0,0 +1,41 @@
+package com.mycompany.myapp.web.rest.util;
+
+import java.util.Locale;
+
+/**
+ * Formats of the bulk data endpoints: one record per line.
+ */
+public enum DataFormat {
+    NDJSON("application/x-ndjson", "ndjson"),
+    CSV("text/csv", "csv");
+
+    public static final String FORMAT_PARAM = "format";
+
+    private final String contentType;
+
+    private final String extension;
+
+    DataFormat(String contentType, String extension) {
+        this.contentType = contentType;
+        this.extension = extension;
+    }
+
+    /**
+     * Resolve a format from the value of the {@code format} request parameter.
+     *
+     * @param name the name of the format, case insensitive.
+     * @return the format.
+     * @throws IllegalArgumentException if the format is unknown.
+     */
+    public static DataFormat fromName(String name) {
+        return valueOf(name.toUpperCase(Locale.ROOT));
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public String getExtension() {
+        return extension;
+    }
+}
@@ -0,0 +1,174 @@
+package com.mycompany.myapp.web.rest.util;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Writes entities as flat records, one per line, in a {@link DataFormat}.
+ * <p>
+ * The columns are declared once with {@link #column(String, Function)}; associations should be exported by id, so
+ * writing an entity never initializes a lazy association. Records are written as they come to a buffered stream, so
+ * the memory used does not depend on the number of records.
+ *
+ * @param <T> the type of the exported entities.
+ */
+public final class EntityExportWriter<T> {
+
+    private static final JsonFactory JSON_FACTORY = new JsonFactory().disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+
+    private final List<String> names = new ArrayList<>();
+
+    private final List<Function<? super T, ?>> getters = new ArrayList<>();
+
+    /**
+     * Add a column.
+     *
+     * @param name the name of the column, used as JSON field name and CSV header.
+     * @param getter the getter of the value of the column, which may return {@code null}.
+     * @return this writer.
+     */
+    public EntityExportWriter<T> column(String name, Function<? super T, ?> getter) {
+        names.add(name);
+        getters.add(getter);
+        return this;
+    }
+
+    public List<String> getColumnNames() {
+        return Collections.unmodifiableList(names);
+    }
+
+    /**
+     * Open a stream of records.
+     *
+     * @param format the format of the records.
+     * @param out the stream to write to, which is flushed but not closed when the records are closed.
+     * @return the consumer of the entities to write, to be closed once all are written.
+     * @throws IOException if the stream cannot be written.
+     */
+    public Records<T> open(DataFormat format, OutputStream out) throws IOException {
+        return format == DataFormat.CSV ? new CsvRecords(out) : new NdjsonRecords(out);
+    }
+
+    /**
+     * Consumer of the entities to write; {@link IOException}s are rethrown as {@link UncheckedIOException}s.
+     */
+    public interface Records<T> extends Consumer<T>, AutoCloseable {
+        @Override
+        void close() throws IOException;
+    }
+
+    private final class NdjsonRecords implements Records<T> {
+
+        private final JsonGenerator generator;
+
+        NdjsonRecords(OutputStream out) throws IOException {
+            this.generator = JSON_FACTORY.createGenerator(out, JsonEncoding.UTF8);
+            generator.setRootValueSeparator(null);
+        }
+
+        @Override
+        public void accept(T entity) {
+            try {
+                generator.writeStartObject();
+                for (int i = 0; i < names.size(); i++) {
+                    generator.writeFieldName(names.get(i));
+                    writeValue(getters.get(i).apply(entity));
+                }
+                generator.writeEndObject();
+                generator.writeRaw('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        private void writeValue(Object value) throws IOException {
+            if (value == null) {
+                generator.writeNull();
+            } else if (value instanceof Integer || value instanceof Long) {
+                generator.writeNumber(((Number) value).longValue());
+            } else if (value instanceof Number) {
+                generator.writeNumber(value.toString());
+            } else if (value instanceof Boolean) {
+                generator.writeBoolean((Boolean) value);
+            } else {
+                generator.writeString(format(value));
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            generator.close();
+        }
+    }
+
+    private final class CsvRecords implements Records<T> {
+
+        private final Writer writer;
+
+        CsvRecords(OutputStream out) throws IOException {
+            this.writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+            writeLine(names);
+        }
+
+        @Override
+        public void accept(T entity) {
+            List<Object> values = new ArrayList<>(getters.size());
+            getters.forEach(getter -> values.add(getter.apply(entity)));
+            try {
+                writeLine(values);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        private void writeLine(List<?> values) throws IOException {
+            for (int i = 0; i < values.size(); i++) {
+                if (i > 0) {
+                    writer.write(',');
+                }
+                Object value = values.get(i);
+                if (value != null) {
+                    writer.write(escapeCsv(format(value)));
+                }
+            }
+            writer.write("\r\n");
+        }
+
+        @Override
+        public void close() throws IOException {
+            writer.flush();
+        }
+    }
+
+    private static String format(Object value) {
+        return value instanceof Enum ? ((Enum<?>) value).name() : value.toString();
+    }
+
+    /**
+     * Quote a CSV field if it contains a separator, a quote or a line break (RFC 4180).
+     *
+     * @param value the raw value.
+     * @return the value to write.
+     */
+    static String escapeCsv(String value) {
+        boolean quote = false;
+        for (int i = 0; i < value.length() && !quote; i++) {
+            char c = value.charAt(i);
+            quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+        return quote ? '"' + value.replace("\"", "\"\"") + '"' : value;
+    }
+}
@@ -0,0 +1,213 @@
+package com.mycompany.myapp.web.rest.util;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mycompany.myapp.service.dto.ImportRecord;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.StringJoiner;
+
+/**
+ * Reads the rows of a bulk import in a {@link DataFormat}, lazily, as {@link ImportRecord}s.
+ * <p>
+ * An NDJSON row is a JSON object, whose arrays of values are joined with {@code ;}. A CSV stream starts with a header
+ * row of column names; fields may be quoted as per RFC 4180. Blank lines are skipped. A row which cannot be parsed is
+ * returned as an invalid record, and reading goes on with the next one.
+ */
+public final class ImportRecordReader {
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    private ImportRecordReader() {}
+
+    /**
+     * @param format the format of the rows.
+     * @param in the stream to read, in UTF-8.
+     * @return the records; {@link IOException}s are rethrown as {@link UncheckedIOException}s while iterating.
+     */
+    public static Iterator<ImportRecord> read(DataFormat format, InputStream in) {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        return format == DataFormat.CSV ? new CsvIterator(reader) : new NdjsonIterator(reader);
+    }
+
+    private abstract static class RecordIterator implements Iterator<ImportRecord> {
+
+        protected final BufferedReader reader;
+
+        protected long row;
+
+        private ImportRecord next;
+
+        private boolean done;
+
+        RecordIterator(BufferedReader reader) {
+            this.reader = reader;
+        }
+
+        /**
+         * @return the next record, or {@code null} at the end of the stream.
+         */
+        protected abstract ImportRecord readNext() throws IOException;
+
+        @Override
+        public boolean hasNext() {
+            if (next == null && !done) {
+                try {
+                    next = readNext();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                done = next == null;
+            }
+            return next != null;
+        }
+
+        @Override
+        public ImportRecord next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            ImportRecord record = next;
+            next = null;
+            return record;
+        }
+    }
+
+    private static final class NdjsonIterator extends RecordIterator {
+
+        NdjsonIterator(BufferedReader reader) {
+            super(reader);
+        }
+
+        @Override
+        protected ImportRecord readNext() throws IOException {
+            String line;
+            do {
+                line = reader.readLine();
+                if (line == null) {
+                    return null;
+                }
+            } while (line.isBlank());
+            row++;
+
+            JsonNode node;
+            try {
+                node = OBJECT_MAPPER.readTree(line);
+            } catch (JsonProcessingException e) {
+                return ImportRecord.invalid(row, "Invalid JSON: " + e.getOriginalMessage());
+            }
+            if (!node.isObject()) {
+                return ImportRecord.invalid(row, "Invalid JSON: not an object");
+            }
+            Map<String, String> values = new HashMap<>();
+            node.fields().forEachRemaining(field -> values.put(field.getKey(), text(field.getValue())));
+            return ImportRecord.of(row, values);
+        }
+
+        private static String text(JsonNode value) {
+            if (value.isArray()) {
+                StringJoiner joiner = new StringJoiner(";");
+                value.forEach(item -> joiner.add(item.asText()));
+                return joiner.toString();
+            }
+            return value.isNull() || value.isContainerNode() ? null : value.asText();
+        }
+    }
+
+    private static final class CsvIterator extends RecordIterator {
+
+        private List<String> header;
+
+        CsvIterator(BufferedReader reader) {
+            super(reader);
+        }
+
+        @Override
+        protected ImportRecord readNext() throws IOException {
+            if (header == null) {
+                header = readFields();
+                if (header == null) {
+                    return null;
+                }
+            }
+            List<String> fields = readFields();
+            if (fields == null) {
+                return null;
+            }
+            row++;
+            if (fields.size() != header.size()) {
+                return ImportRecord.invalid(row, "Expected " + header.size() + " fields, got " + fields.size());
+            }
+            Map<String, String> values = new HashMap<>();
+            for (int i = 0; i < fields.size(); i++) {
+                values.put(header.get(i), fields.get(i));
+            }
+            return ImportRecord.of(row, values);
+        }
+
+        /**
+         * @return the fields of the next non-blank row, or {@code null} at the end of the stream.
+         */
+        private List<String> readFields() throws IOException {
+            String line;
+            do {
+                line = reader.readLine();
+                if (line == null) {
+                    return null;
+                }
+            } while (line.isBlank());
+
+            List<String> fields = new ArrayList<>();
+            StringBuilder field = new StringBuilder();
+            boolean quoted = false;
+            int i = 0;
+            while (true) {
+                if (i == line.length()) {
+                    if (!quoted) {
+                        break;
+                    }
+                    // a quoted field spans several lines
+                    String nextLine = reader.readLine();
+                    if (nextLine == null) {
+                        break;
+                    }
+                    field.append('\n');
+                    line = nextLine;
+                    i = 0;
+                    continue;
+                }
+                char c = line.charAt(i++);
+                if (quoted) {
+                    if (c != '"') {
+                        field.append(c);
+                    } else if (i < line.length() && line.charAt(i) == '"') {
+                        field.append('"');
+                        i++;
+                    } else {
+                        quoted = false;
+                    }
+                } else if (c == '"') {
+                    quoted = true;
+                } else if (c == ',') {
+                    fields.add(field.toString());
+                    field.setLength(0);
+                } else {
+                    field.append(c);
+                }
+            }
+            fields.add(field.toString());
+            return fields;
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package com.mycompany.myapp.web.rest.util;
+
+import com.mycompany.myapp.service.dto.KeysetSlice;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.util.UriComponentsBuilder;
+
+/**
+ * Utility class for handling keyset (seek) pagination.
+ * <p>
+ * Keyset pagination is opted in by sending the {@code cursor} request parameter, empty for the first slice. The cursor
+ * of the next slice is returned in the {@code X-Next-Cursor} header and as a {@code rel="next"} {@code Link}; there is
+ * no {@code X-Total-Count}, as no count query is run.
+ */
+public final class KeysetPaginationUtil {
+
+    public static final String CURSOR_PARAM = "cursor";
+
+    public static final String HEADER_NEXT_CURSOR = "X-Next-Cursor";
+
+    private KeysetPaginationUtil() {}
+
+    /**
+     * Generate keyset pagination headers for a Spring Data {@link KeysetSlice} object.
+     *
+     * @param uriBuilder The URI builder of the current request.
+     * @param slice The slice.
+     * @param <T> The type of object.
+     * @return http header.
+     */
+    public static <T> HttpHeaders generateKeysetPaginationHttpHeaders(UriComponentsBuilder uriBuilder, KeysetSlice<T> slice) {
+        HttpHeaders headers = new HttpHeaders();
+        if (slice.getNextCursor() != null) {
+            String token = slice.getNextCursor().encode();
+            headers.add(HEADER_NEXT_CURSOR, token);
+            String next = uriBuilder.replaceQueryParam(CURSOR_PARAM, token).replaceQueryParam("size", slice.getSize()).toUriString();
+            headers.add(HttpHeaders.LINK, "<" + next + ">; rel=\"next\"");
+        }
+        return headers;
+    }
+}
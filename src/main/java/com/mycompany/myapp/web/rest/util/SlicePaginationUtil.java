@@ -0,0 +1,54 @@
+package com.mycompany.myapp.web.rest.util;
+
+import java.text.MessageFormat;
+import org.springframework.data.domain.Slice;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.util.UriComponentsBuilder;
+
+/**
+ * Utility class for handling pagination without an exact count, see {@link CountMode}.
+ * <p>
+ * A {@link Slice} has no {@code X-Total-Count} nor {@code rel="last"} link: whether there is a next page is told by the
+ * {@code X-Has-Next-Page} header and the {@code rel="next"} link. An estimated total is flagged by the
+ * {@code X-Total-Count-Estimated} header.
+ */
+public final class SlicePaginationUtil {
+
+    public static final String HEADER_HAS_NEXT_PAGE = "X-Has-Next-Page";
+
+    public static final String HEADER_TOTAL_COUNT_ESTIMATED = "X-Total-Count-Estimated";
+
+    private static final String HEADER_LINK_FORMAT = "<{0}>; rel=\"{1}\"";
+
+    private SlicePaginationUtil() {}
+
+    /**
+     * Generate pagination headers for a Spring Data {@link Slice} object.
+     *
+     * @param uriBuilder The URI builder of the current request.
+     * @param slice The slice.
+     * @param <T> The type of object.
+     * @return http header.
+     */
+    public static <T> HttpHeaders generateSlicePaginationHttpHeaders(UriComponentsBuilder uriBuilder, Slice<T> slice) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.add(HEADER_HAS_NEXT_PAGE, Boolean.toString(slice.hasNext()));
+        int pageNumber = slice.getNumber();
+        int pageSize = slice.getSize();
+        StringBuilder link = new StringBuilder();
+        if (slice.hasNext()) {
+            link.append(prepareLink(uriBuilder, pageNumber + 1, pageSize, "next")).append(",");
+        }
+        if (slice.hasPrevious()) {
+            link.append(prepareLink(uriBuilder, pageNumber - 1, pageSize, "prev")).append(",");
+        }
+        link.append(prepareLink(uriBuilder, 0, pageSize, "first"));
+        headers.add(HttpHeaders.LINK, link.toString());
+        return headers;
+    }
+
+    private static String prepareLink(UriComponentsBuilder uriBuilder, int pageNumber, int pageSize, String relType) {
+        String uri = uriBuilder.replaceQueryParam("page", pageNumber).replaceQueryParam("size", pageSize).toUriString();
+        return MessageFormat.format(HEADER_LINK_FORMAT, uri.replace(",", "%2C").replace(";", "%3B"), relType);
+    }
+}
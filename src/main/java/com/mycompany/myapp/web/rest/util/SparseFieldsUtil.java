@@ -0,0 +1,47 @@
+package com.mycompany.myapp.web.rest.util;
+
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import javax.servlet.http.HttpServletRequest;
+
+/**
+ * Utility class for handling sparse fieldsets.
+ * <p>
+ * A sparse fieldset is opted in by sending the {@code fields} request parameter with the comma separated names of the
+ * fields to return, for instance {@code fields=title,rating}. The id is always returned. Only the columns of the fields
+ * are selected, so the fields must be columns of the entity: associations cannot be selected. The parameter cannot be
+ * combined with the {@code cursor} or {@code count} parameters, which return whole entities: such requests are rejected.
+ */
+public final class SparseFieldsUtil {
+
+    public static final String FIELDS_PARAM = "fields";
+
+    private SparseFieldsUtil() {}
+
+    /**
+     * @param request the current request.
+     * @return whether the request has the {@code fields} parameter, even empty.
+     */
+    public static boolean isRequested(HttpServletRequest request) {
+        return request.getParameter(FIELDS_PARAM) != null;
+    }
+
+    /**
+     * Parse the values of the {@code fields} parameter.
+     *
+     * @param values the values of the parameter, each a comma separated list of field names.
+     * @return the names of the fields, trimmed, without the blank ones and the duplicates, in the requested order.
+     */
+    public static List<String> parseFields(String... values) {
+        Set<String> fields = new LinkedHashSet<>();
+        for (String value : values) {
+            for (String field : value.split(",")) {
+                if (!field.isBlank()) {
+                    fields.add(field.trim());
+                }
+            }
+        }
+        return List.copyOf(fields);
+    }
+}
@@ -8,6 +8,7 @@ export interface IAddress {
   postcode?: string;
   country?: string;
   customer?: ICustomer | null;
+  version?: number;
 }
 
 export const defaultValue: Readonly<IAddress> = {};
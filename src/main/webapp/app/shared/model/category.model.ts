@@ -11,6 +11,7 @@ export interface ICategory {
   status?: CategoryStatus | null;
   parent?: ICategory | null;
   products?: IProduct[] | null;
+  version?: number;
 }
 
 export const defaultValue: Readonly<ICategory> = {};
@@ -7,6 +7,7 @@ export interface ICustomer {
   email?: string | null;
   telephone?: string | null;
   addresses?: IAddress[] | null;
+  version?: number;
 }
 
 export const defaultValue: Readonly<ICustomer> = {};
@@ -10,6 +10,7 @@ export interface IProduct {
   dateAdded?: string | null;
   dateModified?: string | null;
   categories?: ICategory[] | null;
+  version?: number;
 }
 
 export const defaultValue: Readonly<IProduct> = {};
@@ -0,0 +1,138 @@
+package com.mycompany.myapp.aop.timing;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
+import com.mycompany.myapp.repository.ProductRepository;
+import com.mycompany.myapp.service.ProductService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+import org.springframework.aop.framework.ProxyFactory;
+
+/**
+ * Unit tests for {@link MethodTimingInterceptor}.
+ */
+class MethodTimingInterceptorTest {
+
+    private MeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setup() {
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @Test
+    void recordsEverySampledCallByOutcome() {
+        Target target = proxy(new MethodTimingInterceptor(meterRegistry, 1.0, Duration.ZERO));
+
+        target.succeed();
+        target.succeed();
+        assertThatThrownBy(target::fail).isInstanceOf(IllegalStateException.class);
+
+        assertThat(timerCount("succeed", "success")).isEqualTo(2);
+        assertThat(timerCount("fail", "error")).isEqualTo(1);
+        assertThat(meterRegistry.get(MethodTimingInterceptor.METER_NAME).tag("method", "succeed").timer().getId().getTag("class"))
+            .isEqualTo("Target");
+    }
+
+    @Test
+    void logsTheFailedCallsWithTheirException() {
+        Logger logger = (Logger) LoggerFactory.getLogger(Target.class);
+        ListAppender<ILoggingEvent> appender = new ListAppender<>();
+        appender.start();
+        logger.addAppender(appender);
+        logger.setLevel(Level.DEBUG);
+        try {
+            Target target = proxy(new MethodTimingInterceptor(meterRegistry, 0.0, Duration.ZERO));
+
+            target.succeed();
+            assertThatThrownBy(target::fail).isInstanceOf(IllegalStateException.class);
+
+            assertThat(appender.list).hasSize(1);
+            ILoggingEvent event = appender.list.get(0);
+            assertThat(event.getLevel()).isEqualTo(Level.DEBUG);
+            assertThat(event.getFormattedMessage()).isEqualTo("Exception in Target.fail()");
+            assertThat(event.getThrowableProxy().getClassName()).isEqualTo(IllegalStateException.class.getName());
+        } finally {
+            logger.detachAppender(appender);
+            logger.setLevel(null);
+        }
+    }
+
+    @Test
+    void recordsNoCallWhenSamplingIsOff() {
+        Target target = proxy(new MethodTimingInterceptor(meterRegistry, 0.0, Duration.ZERO));
+
+        target.succeed();
+
+        assertThat(meterRegistry.find(MethodTimingInterceptor.METER_NAME).timers()).isEmpty();
+    }
+
+    @Test
+    void recordsAShareOfTheCalls() {
+        Target target = proxy(new MethodTimingInterceptor(meterRegistry, 0.5, Duration.ZERO));
+
+        for (int i = 0; i < 1000; i++) {
+            target.succeed();
+        }
+
+        assertThat(timerCount("succeed", "success")).isBetween(350L, 650L);
+    }
+
+    @Test
+    void reusesTheTimersOfAMethod() {
+        MethodTimingInterceptor interceptor = new MethodTimingInterceptor(meterRegistry, 1.0, Duration.ZERO);
+        Target target = proxy(interceptor);
+
+        target.succeed();
+        target.succeed();
+
+        assertThat(meterRegistry.find(MethodTimingInterceptor.METER_NAME).timers()).hasSize(2);
+    }
+
+    @Test
+    void namesTheApplicationClassAndLayer() {
+        assertThat(MethodTimingInterceptor.layer(ProductRepository.class)).isEqualTo("repository");
+        assertThat(MethodTimingInterceptor.layer(ProductService.class)).isEqualTo("service");
+        assertThat(MethodTimingInterceptor.layer(Target.class)).isEqualTo("other");
+
+        ProxyFactory factory = new ProxyFactory(new Target());
+        factory.addInterface(Operation.class);
+        assertThat(MethodTimingInterceptor.applicationClass(factory.getProxy().getClass())).isEqualTo(Operation.class);
+    }
+
+    private Target proxy(MethodTimingInterceptor interceptor) {
+        ProxyFactory factory = new ProxyFactory(new Target());
+        factory.setProxyTargetClass(true);
+        factory.addAdvice(interceptor);
+        return (Target) factory.getProxy();
+    }
+
+    private long timerCount(String method, String outcome) {
+        return meterRegistry.get(MethodTimingInterceptor.METER_NAME).tag("method", method).tag("outcome", outcome).timer().count();
+    }
+
+    public interface Operation {
+        void run();
+    }
+
+    public static class Target implements Operation {
+
+        public void succeed() {}
+
+        public void fail() {
+            throw new IllegalStateException("failed");
+        }
+
+        @Override
+        public void run() {}
+    }
+}
@@ -0,0 +1,49 @@
+package com.mycompany.myapp.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests of {@link LruCache}.
+ */
+class LruCacheTest {
+
+    @Test
+    void leastRecentlyUsedEntryIsEvictedOnceFull() {
+        LruCache<String, Integer> cache = new LruCache<>(2);
+        cache.put("a", 1);
+        cache.put("b", 2);
+        cache.get("a");
+        cache.put("c", 3);
+
+        assertThat(cache.get("a")).isEqualTo(1);
+        assertThat(cache.get("b")).isNull();
+        assertThat(cache.get("c")).isEqualTo(3);
+    }
+
+    @Test
+    void segmentsHoldAtMostTheMaximumNumberOfEntries() {
+        int maxEntries = LruCache.MAX_SEGMENTS * LruCache.MIN_SEGMENT_SIZE + 5;
+        LruCache<Integer, Integer> cache = new LruCache<>(maxEntries);
+        for (int i = 0; i < maxEntries * 4; i++) {
+            cache.put(i, i);
+        }
+
+        assertThat(cache.size()).isLessThanOrEqualTo(maxEntries).isGreaterThan(maxEntries - LruCache.MAX_SEGMENTS);
+    }
+
+    @Test
+    void removeKeepsAReplacedValue() {
+        LruCache<String, Integer> cache = new LruCache<>(10);
+        cache.put("a", 1);
+        cache.put("a", 2);
+        cache.remove("a", 1);
+
+        assertThat(cache.get("a")).isEqualTo(2);
+
+        cache.removeIf(value -> value == 2);
+
+        assertThat(cache.size()).isZero();
+    }
+}
@@ -0,0 +1,116 @@
+package com.mycompany.myapp.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.mycompany.myapp.domain.Category;
+import com.mycompany.myapp.domain.Product;
+import java.nio.file.Path;
+import javax.cache.CacheManager;
+import org.ehcache.config.CacheRuntimeConfiguration;
+import org.ehcache.config.ResourcePool;
+import org.ehcache.config.ResourcePools;
+import org.ehcache.config.ResourceType;
+import org.ehcache.config.SizedResourcePool;
+import org.ehcache.config.units.EntryUnit;
+import org.ehcache.config.units.MemoryUnit;
+import org.ehcache.jsr107.Eh107Configuration;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.boot.autoconfigure.AutoConfigurations;
+import org.springframework.boot.autoconfigure.cache.CacheAutoConfiguration;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.springframework.util.unit.DataSize;
+import tech.jhipster.config.JHipsterProperties;
+
+/**
+ * Unit tests for {@link CacheConfiguration}: the tiers of the regions configured under {@code application.cache}.
+ */
+class CacheConfigurationTest {
+
+    private static final String PRODUCTS = Product.class.getName();
+
+    private static final String CATEGORIES = Category.class.getName();
+
+    private final ApplicationContextRunner contextRunner = new ApplicationContextRunner()
+        .withConfiguration(AutoConfigurations.of(CacheAutoConfiguration.class))
+        .withUserConfiguration(CacheConfiguration.class, Properties.class)
+        .withBean(JHipsterProperties.class)
+        .withPropertyValues(
+            "application.cache.regions.[" + PRODUCTS + "].heap-entries=100",
+            "application.cache.regions.[" + PRODUCTS + "].off-heap-size=2MB",
+            "application.cache.regions.[" + PRODUCTS + "].time-to-live-seconds=60"
+        );
+
+    @Test
+    void regionsHaveTheirConfiguredTiers() {
+        contextRunner.run(context -> {
+            assertThat(context).doesNotHaveBean("diskPersistentCacheManager");
+            CacheManager cacheManager = context.getBean(CacheManager.class);
+
+            ResourcePools products = resourcePools(cacheManager, PRODUCTS);
+            assertThat(products.getResourceTypeSet()).containsExactlyInAnyOrder(ResourceType.Core.HEAP, ResourceType.Core.OFFHEAP);
+            assertSize(products.getPoolForResource(ResourceType.Core.HEAP), 100, EntryUnit.ENTRIES);
+            assertSize(products.getPoolForResource(ResourceType.Core.OFFHEAP), DataSize.ofMegabytes(2).toBytes(), MemoryUnit.B);
+
+            // the regions which are not configured only have the jhipster.cache.ehcache heap
+            ResourcePools categories = resourcePools(cacheManager, CATEGORIES);
+            assertThat(categories.getResourceTypeSet()).containsExactly(ResourceType.Core.HEAP);
+            assertSize(
+                categories.getPoolForResource(ResourceType.Core.HEAP),
+                new JHipsterProperties().getCache().getEhcache().getMaxEntries(),
+                EntryUnit.ENTRIES
+            );
+        });
+    }
+
+    @Test
+    void regionsWithADiskTierUseTheDiskPersistentCacheManager(@TempDir Path diskPath) {
+        contextRunner
+            .withPropertyValues(
+                "application.cache.disk-path=" + diskPath,
+                "application.cache.regions.[" + CATEGORIES + "].heap-entries=10",
+                "application.cache.regions.[" + CATEGORIES + "].off-heap-size=1MB",
+                "application.cache.regions.[" + CATEGORIES + "].disk-size=4MB"
+            )
+            .run(context -> {
+                assertThat(context).hasBean("diskPersistentCacheManager");
+                CacheManager cacheManager = context.getBean(CacheManager.class);
+
+                ResourcePools categories = resourcePools(cacheManager, CATEGORIES);
+                assertThat(categories.getResourceTypeSet())
+                    .containsExactlyInAnyOrder(ResourceType.Core.HEAP, ResourceType.Core.OFFHEAP, ResourceType.Core.DISK);
+                assertSize(categories.getPoolForResource(ResourceType.Core.DISK), DataSize.ofMegabytes(4).toBytes(), MemoryUnit.B);
+                assertThat(categories.getPoolForResource(ResourceType.Core.DISK).isPersistent()).isFalse();
+                assertThat(resourcePools(cacheManager, PRODUCTS).getResourceTypeSet()).doesNotContain(ResourceType.Core.DISK);
+            });
+    }
+
+    @Test
+    void diskTierWithoutDiskPathIsRejected() {
+        ApplicationProperties applicationProperties = new ApplicationProperties();
+        ApplicationProperties.Cache.Region region = new ApplicationProperties.Cache.Region();
+        region.setDiskSize(DataSize.ofMegabytes(4));
+        applicationProperties.getCache().getRegions().put(CATEGORIES, region);
+
+        assertThatThrownBy(() -> new CacheConfiguration(new JHipsterProperties(), applicationProperties))
+            .isInstanceOf(IllegalStateException.class)
+            .hasMessageContaining(CATEGORIES)
+            .hasMessageContaining("application.cache.disk-path");
+    }
+
+    @SuppressWarnings("unchecked")
+    private static ResourcePools resourcePools(CacheManager cacheManager, String cacheName) {
+        Eh107Configuration<Object, Object> configuration = cacheManager.getCache(cacheName).getConfiguration(Eh107Configuration.class);
+        return configuration.unwrap(CacheRuntimeConfiguration.class).getResourcePools();
+    }
+
+    private static void assertSize(ResourcePool pool, long size, Object unit) {
+        assertThat(((SizedResourcePool) pool).getSize()).isEqualTo(size);
+        assertThat(((SizedResourcePool) pool).getUnit()).isEqualTo(unit);
+    }
+
+    @EnableConfigurationProperties(ApplicationProperties.class)
+    static class Properties {}
+}
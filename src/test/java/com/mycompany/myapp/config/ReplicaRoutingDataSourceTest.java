@@ -0,0 +1,124 @@
+package com.mycompany.myapp.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import javax.sql.DataSource;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Unit tests for {@link ReplicaRoutingDataSource}, with in-memory H2 databases standing for the primary and the
+ * replicas.
+ */
+class ReplicaRoutingDataSourceTest {
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @AfterEach
+    void clearReadOnly() {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+    }
+
+    @Test
+    void sendsTheReadWriteTransactionsToThePrimary() throws SQLException {
+        ReplicaRoutingDataSource routing = routing("select 0", h2("replica1"));
+
+        assertThat(databaseOf(routing)).isEqualTo("PRIMARY");
+        assertThat(routeCount("primary")).isEqualTo(1);
+    }
+
+    @Test
+    void sendsTheReadOnlyTransactionsToTheReplicasInTurn() throws SQLException {
+        ReplicaRoutingDataSource routing = routing("select 0", h2("replica1"), h2("replica2"));
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        assertThat(databaseOf(routing)).isEqualTo("REPLICA1");
+        assertThat(databaseOf(routing)).isEqualTo("REPLICA2");
+        assertThat(databaseOf(routing)).isEqualTo("REPLICA1");
+        assertThat(routeCount("replica")).isEqualTo(3);
+    }
+
+    @Test
+    void fallsBackToThePrimaryWhenTheReplicasLag() throws SQLException {
+        ReplicaRoutingDataSource routing = routing("select 60", h2("replica1"));
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        routing.checkReplicas();
+
+        assertThat(databaseOf(routing)).isEqualTo("PRIMARY");
+        assertThat(routeCount("fallback")).isEqualTo(1);
+        assertThat(meterRegistry.get(ReplicaRoutingDataSource.REPLICA_LAG_METER_NAME).gauge().value()).isEqualTo(60);
+        assertThat(meterRegistry.get(ReplicaRoutingDataSource.REPLICA_AVAILABLE_METER_NAME).gauge().value()).isZero();
+    }
+
+    @Test
+    void fallsBackToThePrimaryWhenAReplicaIsUnreachable() throws SQLException {
+        JdbcDataSource unreachable = new JdbcDataSource();
+        unreachable.setURL("jdbc:h2:tcp://localhost:1/unreachable");
+        ReplicaRoutingDataSource routing = routing("select 0", unreachable, h2("replica2"));
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        assertThat(databaseOf(routing)).isEqualTo("REPLICA2");
+        assertThat(databaseOf(routing)).isEqualTo("REPLICA2");
+
+        routing.checkReplicas();
+        assertThat(meterRegistry.get(ReplicaRoutingDataSource.REPLICA_AVAILABLE_METER_NAME).tag("replica", "replica0").gauge().value())
+            .isZero();
+        assertThat(meterRegistry.get(ReplicaRoutingDataSource.REPLICA_AVAILABLE_METER_NAME).tag("replica", "replica1").gauge().value())
+            .isEqualTo(1);
+    }
+
+    @Test
+    void takesTheReplicasBackOnceInSync() throws SQLException {
+        JdbcDataSource replica = h2("replica1");
+        ReplicaRoutingDataSource routing = routing("select count(*) from lag", replica);
+        try (Connection connection = replica.getConnection()) {
+            connection.createStatement().execute("create table lag (id int)");
+            connection.createStatement().execute("insert into lag values (1), (2), (3), (4), (5), (6), (7), (8), (9), (10), (11)");
+        }
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        routing.checkReplicas();
+        assertThat(databaseOf(routing)).isEqualTo("PRIMARY");
+
+        try (Connection connection = replica.getConnection()) {
+            connection.createStatement().execute("delete from lag");
+        }
+        routing.checkReplicas();
+        assertThat(databaseOf(routing)).isEqualTo("REPLICA1");
+    }
+
+    private ReplicaRoutingDataSource routing(String lagQuery, DataSource... replicas) {
+        Map<String, DataSource> byName = new LinkedHashMap<>();
+        for (int i = 0; i < replicas.length; i++) {
+            byName.put("replica" + i, replicas[i]);
+        }
+        return new ReplicaRoutingDataSource(h2("primary"), byName, Duration.ofSeconds(10), lagQuery, meterRegistry);
+    }
+
+    private static JdbcDataSource h2(String name) {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:" + name + "-" + System.identityHashCode(dataSource) + ";DB_CLOSE_DELAY=-1");
+        dataSource.setUser("sa");
+        return dataSource;
+    }
+
+    private static String databaseOf(DataSource dataSource) throws SQLException {
+        try (Connection connection = dataSource.getConnection()) {
+            return connection.getCatalog().replaceAll("-\\d+$", "");
+        }
+    }
+
+    private double routeCount(String route) {
+        return meterRegistry.get(ReplicaRoutingDataSource.CONNECTIONS_METER_NAME).tag("route", route).counter().count();
+    }
+}
@@ -0,0 +1,100 @@
+package com.mycompany.myapp.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests of the bound of {@link VirtualThreadExecutor}, run on platform threads so they do not need Java 21.
+ */
+class VirtualThreadExecutorTest {
+
+    private static final int MAX_CONCURRENCY = 2;
+
+    private static final int TASKS = 5;
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    private final CountDownLatch done = new CountDownLatch(TASKS);
+
+    private final AtomicInteger running = new AtomicInteger();
+
+    private final AtomicInteger maxRunning = new AtomicInteger();
+
+    private final VirtualThreadExecutor executor = new VirtualThreadExecutor(
+        Executors.defaultThreadFactory(),
+        MAX_CONCURRENCY,
+        new ExecutorMeters(meterRegistry, "test", true)
+    );
+
+    @AfterEach
+    void releaseTasks() {
+        release.countDown();
+    }
+
+    @Test
+    void runsAtMostMaxConcurrencyTasksAtOnce() throws Exception {
+        for (int i = 0; i < TASKS; i++) {
+            // never blocks the caller, the tasks over the bound wait on their own thread
+            executor.execute(this::blockingTask);
+        }
+
+        awaitGauge(ExecutorMeters.ACTIVE_METER_NAME, MAX_CONCURRENCY);
+        awaitGauge(ExecutorMeters.WAITING_METER_NAME, TASKS - MAX_CONCURRENCY);
+        assertThat(running).hasValue(MAX_CONCURRENCY);
+
+        release.countDown();
+
+        assertThat(done.await(10, TimeUnit.SECONDS)).isTrue();
+        assertThat(maxRunning).hasValue(MAX_CONCURRENCY);
+        awaitGauge(ExecutorMeters.ACTIVE_METER_NAME, 0);
+        assertThat(meterRegistry.get(ExecutorMeters.EXECUTION_METER_NAME).timer().count()).isEqualTo(TASKS);
+    }
+
+    @Test
+    void releasesThePermitOfAFailingTask() throws Exception {
+        executor.execute(() -> {
+            throw new IllegalStateException("failing task");
+        });
+        executor.execute(() -> {
+            throw new IllegalStateException("failing task");
+        });
+        release.countDown();
+        for (int i = 0; i < TASKS; i++) {
+            executor.execute(this::blockingTask);
+        }
+
+        assertThat(done.await(10, TimeUnit.SECONDS)).isTrue();
+        awaitGauge(ExecutorMeters.ACTIVE_METER_NAME, 0);
+    }
+
+    private void blockingTask() {
+        int now = running.incrementAndGet();
+        maxRunning.accumulateAndGet(now, Math::max);
+        try {
+            release.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            running.decrementAndGet();
+            done.countDown();
+        }
+    }
+
+    private void awaitGauge(String name, double expected) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (meterRegistry.get(name).gauge().value() != expected && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(meterRegistry.get(name).gauge().value()).isEqualTo(expected);
+    }
+}
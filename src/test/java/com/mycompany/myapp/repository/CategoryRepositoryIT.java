@@ -0,0 +1,67 @@
+package com.mycompany.myapp.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.mycompany.myapp.IntegrationTest;
+import com.mycompany.myapp.domain.Category;
+import com.mycompany.myapp.domain.Product;
+import com.mycompany.myapp.domain.enumeration.CategoryStatus;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import javax.persistence.EntityManager;
+import org.hibernate.Hibernate;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Integration tests for {@link CategoryRepository}.
+ */
+@IntegrationTest
+@Transactional
+class CategoryRepositoryIT {
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private EntityManager em;
+
+    @Test
+    void findAllWithEagerRelationshipsReadsAPageOfCategoriesWithTheirProducts() {
+        long existing = categoryRepository.count();
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            Product first = product("first-" + i);
+            Product second = product("second-" + i);
+            em.persist(first);
+            em.persist(second);
+            ids.add(categoryRepository.save(category("category-" + i).addProduct(first).addProduct(second)).getId());
+        }
+        em.flush();
+        em.clear();
+
+        Page<Category> page = categoryRepository.findAllWithEagerRelationships(PageRequest.of(0, 2, Sort.by(Sort.Direction.DESC, "id")));
+
+        assertThat(page.getTotalElements()).isEqualTo(existing + 5);
+        assertThat(page.getContent().stream().map(Category::getId).collect(Collectors.toList())).containsExactly(ids.get(4), ids.get(3));
+        assertThat(page.getContent())
+            .allSatisfy(category -> {
+                assertThat(Hibernate.isInitialized(category.getProducts())).isTrue();
+                assertThat(category.getProducts()).hasSize(2);
+            });
+    }
+
+    private static Product product(String title) {
+        return new Product().title(title).dateAdded(LocalDate.ofEpochDay(0L));
+    }
+
+    private static Category category(String description) {
+        return new Category().description(description).sortOrder(1).dateAdded(LocalDate.ofEpochDay(0L)).status(CategoryStatus.AVAILABLE);
+    }
+}
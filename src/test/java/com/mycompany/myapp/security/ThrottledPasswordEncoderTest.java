@@ -0,0 +1,89 @@
+package com.mycompany.myapp.security;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+class ThrottledPasswordEncoderTest {
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    private ThreadPoolTaskExecutor executor;
+
+    @AfterEach
+    void shutdown() {
+        release.countDown();
+        if (executor != null) {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void encodesAndMatchesOnThePool() {
+        ThrottledPasswordEncoder encoder = encoder(1, 10, Duration.ofSeconds(10));
+
+        String encoded = encoder.encode("secret");
+
+        assertThat(encoded).startsWith("$2a$04$");
+        assertThat(encoder.matches("secret", encoded)).isTrue();
+        assertThat(encoder.matches("other", encoded)).isFalse();
+        assertThat(meterRegistry.get(ThrottledPasswordEncoder.HASH_METER_NAME).tag("operation", "matches").timer().count()).isEqualTo(2);
+    }
+
+    @Test
+    void upgradesTheHashesOfAnotherStrength() {
+        ThrottledPasswordEncoder encoder = encoder(1, 10, Duration.ofSeconds(10));
+
+        assertThat(encoder.upgradeEncoding(new BCryptPasswordEncoder(4).encode("secret"))).isFalse();
+        assertThat(encoder.upgradeEncoding(new BCryptPasswordEncoder(5).encode("secret"))).isTrue();
+        assertThat(encoder.upgradeEncoding("$2a$10$gSAhZrxMllrbgj/kkK9UceBPpChGWJA7SYIb1Mqo.n5aNLq1/oRrC")).isTrue();
+        assertThat(encoder.upgradeEncoding("not a bcrypt hash")).isFalse();
+        assertThat(ThrottledPasswordEncoder.cost("$2b$12$abc")).isEqualTo(12);
+        assertThat(ThrottledPasswordEncoder.cost(null)).isNull();
+    }
+
+    @Test
+    void rejectsWhenThePoolIsSaturated() {
+        ThrottledPasswordEncoder encoder = encoder(1, 0, Duration.ofSeconds(10));
+        executor.execute(this::awaitRelease);
+
+        assertThatExceptionOfType(TooManyAuthenticationsException.class).isThrownBy(() -> encoder.matches("secret", "$2a$04$x"));
+        assertThat(meterRegistry.get(ThrottledPasswordEncoder.REJECTED_METER_NAME).counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void rejectsWhenWaitingTooLong() {
+        ThrottledPasswordEncoder encoder = encoder(1, 1, Duration.ofMillis(50));
+        executor.execute(this::awaitRelease);
+
+        assertThatExceptionOfType(TooManyAuthenticationsException.class).isThrownBy(() -> encoder.encode("secret"));
+        assertThat(meterRegistry.get(ThrottledPasswordEncoder.REJECTED_METER_NAME).counter().count()).isEqualTo(1);
+    }
+
+    private ThrottledPasswordEncoder encoder(int threads, int queueCapacity, Duration maxWait) {
+        executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(queueCapacity);
+        executor.initialize();
+        return new ThrottledPasswordEncoder(4, executor, maxWait, meterRegistry);
+    }
+
+    private void awaitRelease() {
+        try {
+            release.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.mycompany.myapp.security.jwt;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+class TokenAuthenticationCacheTest {
+
+    private final List<GrantedAuthority> authorities = List.of(new SimpleGrantedAuthority("ROLE_USER"));
+
+    @Test
+    void entryIsReturnedUntilTheTokenExpires() {
+        TokenAuthenticationCache cache = new TokenAuthenticationCache(10);
+        cache.put("token", "user", authorities, 2000, 1000);
+
+        assertThat(cache.get("token", 1999).getName()).isEqualTo("user");
+        assertThat(cache.get("other-token", 1999)).isNull();
+        assertThat(cache.get("token", 2000)).isNull();
+        assertThat(cache.size()).isZero();
+    }
+
+    @Test
+    void eachHitGetsItsOwnAuthentication() {
+        TokenAuthenticationCache cache = new TokenAuthenticationCache(10);
+        cache.put("token", "user", authorities, 2000, 1000);
+
+        Authentication first = cache.get("token", 1500);
+        first.setAuthenticated(false);
+        Authentication second = cache.get("token", 1500);
+
+        assertThat(second).isNotSameAs(first);
+        assertThat(second.getPrincipal()).isNotSameAs(first.getPrincipal());
+        assertThat(second.isAuthenticated()).isTrue();
+        assertThat(second.getCredentials()).isEqualTo("token");
+        assertThat(second.getAuthorities()).extracting(GrantedAuthority::getAuthority).containsExactly("ROLE_USER");
+    }
+
+    @Test
+    void cacheIsBounded() {
+        TokenAuthenticationCache cache = new TokenAuthenticationCache(2);
+        cache.put("expired", "user", authorities, 1500, 1000);
+        cache.put("first", "user", authorities, 5000, 1000);
+        cache.put("second", "user", authorities, 5000, 2000);
+
+        assertThat(cache.size()).isEqualTo(2);
+        assertThat(cache.get("expired", 2000)).isNull();
+        assertThat(cache.get("second", 2000)).isNotNull();
+
+        cache.put("third", "user", authorities, 5000, 2000);
+        assertThat(cache.size()).isEqualTo(2);
+        assertThat(cache.get("third", 2000)).isNotNull();
+    }
+
+    @Test
+    void leastRecentlyUsedEntryIsEvicted() {
+        TokenAuthenticationCache cache = new TokenAuthenticationCache(2);
+        cache.put("first", "user", authorities, 5000, 1000);
+        cache.put("second", "user", authorities, 5000, 1000);
+        cache.get("first", 2000);
+
+        cache.put("third", "user", authorities, 5000, 2000);
+
+        assertThat(cache.size()).isEqualTo(2);
+        assertThat(cache.get("first", 2000)).isNotNull();
+        assertThat(cache.get("second", 2000)).isNull();
+        assertThat(cache.get("third", 2000)).isNotNull();
+    }
+}
@@ -0,0 +1,52 @@
+package com.mycompany.myapp.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.HashMap;
+import java.util.Map;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class CategoryTreeTest {
+
+    private CategoryTree tree;
+
+    @BeforeEach
+    public void setUp() {
+        Map<Long, Long> parentIds = new HashMap<>();
+        parentIds.put(1L, null);
+        parentIds.put(2L, 1L);
+        parentIds.put(3L, 2L);
+        parentIds.put(4L, 1L);
+        parentIds.put(5L, null);
+        // a category whose parent is gone is a root
+        parentIds.put(6L, 99L);
+        // categories caught in a cycle are left out
+        parentIds.put(7L, 8L);
+        parentIds.put(8L, 7L);
+        tree = CategoryTree.of(parentIds);
+    }
+
+    @Test
+    void subtreeIsInDepthFirstOrder() {
+        assertThat(tree.subtreeIds(1L)).containsExactly(1L, 2L, 3L, 4L);
+        assertThat(tree.descendantIds(1L)).containsExactly(2L, 3L, 4L);
+        assertThat(tree.descendantIds(3L)).isEmpty();
+        assertThat(tree.subtreeIds(6L)).containsExactly(6L);
+    }
+
+    @Test
+    void ancestorsAreRootFirst() {
+        assertThat(tree.ancestorIds(3L)).containsExactly(1L, 2L);
+        assertThat(tree.ancestorIds(1L)).isEmpty();
+    }
+
+    @Test
+    void unknownAndCyclicCategoriesAreNotInTheTree() {
+        assertThat(tree.size()).isEqualTo(6);
+        assertThat(tree.contains(7L)).isFalse();
+        assertThat(tree.contains(42L)).isFalse();
+        assertThat(tree.subtreeIds(42L)).isEmpty();
+        assertThat(tree.ancestorIds(42L)).isEmpty();
+    }
+}
@@ -0,0 +1,166 @@
+package com.mycompany.myapp.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+import com.mycompany.myapp.IntegrationTest;
+import com.mycompany.myapp.domain.Category;
+import com.mycompany.myapp.domain.EntityChangeLog;
+import com.mycompany.myapp.domain.Product;
+import com.mycompany.myapp.domain.enumeration.CategoryStatus;
+import com.mycompany.myapp.repository.EntityChangeLogRepository;
+import com.mycompany.myapp.repository.ProductRepository;
+import com.mycompany.myapp.service.dto.BulkImportResult;
+import com.mycompany.myapp.service.dto.ImportRecord;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Integration tests for {@link ChangeStreamService}: not transactional, as the changes are only streamed when the
+ * writes commit.
+ */
+@IntegrationTest
+class ChangeStreamServiceIT {
+
+    @Autowired
+    private ChangeStreamService changeStreamService;
+
+    @Autowired
+    private EntityChangeLogRepository entityChangeLogRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private BulkImportService bulkImportService;
+
+    @Autowired
+    private CategoryService categoryService;
+
+    @Autowired
+    private ProductService productService;
+
+    private long start;
+
+    @BeforeEach
+    void init() {
+        start = changeStreamService.latestOffset();
+    }
+
+    @AfterEach
+    void cleanup() {
+        entityChangeLogRepository.deleteAll(saved());
+    }
+
+    @Test
+    void committedWritesAreSavedAndStreamedInOrder() {
+        Product product = productRepository.save(product());
+        productRepository.deleteById(product.getId());
+
+        List<EntityChangeLog> changes = changeStreamService.read(start, 10);
+
+        assertThat(changes).extracting(EntityChangeLog::getEntityType).containsExactly("Product", "Product");
+        assertThat(changes).extracting(EntityChangeLog::getEntityId).containsOnly(product.getId());
+        assertThat(changes).extracting(EntityChangeLog::getOperation).containsExactly("CREATE", "DELETE");
+        assertThat(ids(saved())).isEqualTo(ids(changes));
+        assertThat(changeStreamService.latestOffset()).isEqualTo(changes.get(1).getId());
+        assertThat(changeStreamService.read(changes.get(0).getId(), 10)).containsExactly(changes.get(1));
+        assertThat(changeStreamService.read(changes.get(1).getId(), 10)).isEmpty();
+    }
+
+    @Test
+    void rolledBackWritesAreNeitherSavedNorStreamed() {
+        new TransactionTemplate(transactionManager)
+            .executeWithoutResult(status -> {
+                productRepository.saveAndFlush(product());
+                status.setRollbackOnly();
+            });
+
+        assertThat(changeStreamService.read(start, 10)).isEmpty();
+        assertThat(saved()).isEmpty();
+        assertThat(changeStreamService.latestOffset()).isEqualTo(start);
+    }
+
+    @Test
+    void awaitReturnsOnceAChangeIsCommitted() throws Exception {
+        assertThat(changeStreamService.await(start, Duration.ofMillis(50))).isFalse();
+
+        Thread writer = new Thread(() -> productRepository.save(product()));
+        writer.start();
+
+        assertThat(changeStreamService.await(start, Duration.ofSeconds(10))).isTrue();
+        writer.join();
+        productRepository.deleteById(changeStreamService.read(start, 1).get(0).getEntityId());
+    }
+
+    @Test
+    void bulkImportedLinksAreStreamedAsUpdatesOfTheirCategory() {
+        Category category = categoryService.save(
+            new Category().description("streamed").sortOrder(1).dateAdded(LocalDate.ofEpochDay(0L)).status(CategoryStatus.AVAILABLE)
+        );
+        long saved = changeStreamService.latestOffset();
+        Map<String, String> row = Map.of("title", "streamed", "dateAdded", "1970-01-01", "categoryIds", String.valueOf(category.getId()));
+
+        BulkImportResult result = bulkImportService.importProducts(List.of(ImportRecord.of(1, row)).iterator());
+
+        assertThat(result.getImported()).isEqualTo(1);
+        List<EntityChangeLog> changes = changeStreamService.read(saved, 10);
+        assertThat(changes)
+            .extracting(EntityChangeLog::getEntityType, EntityChangeLog::getOperation)
+            .containsExactlyInAnyOrder(tuple("Product", "CREATE"), tuple("Category", "UPDATE"));
+        assertThat(changes)
+            .filteredOn(change -> "Category".equals(change.getEntityType()))
+            .extracting(EntityChangeLog::getEntityId)
+            .containsExactly(category.getId());
+        // the category owns the links
+        categoryService.delete(category.getId());
+        changes
+            .stream()
+            .filter(change -> "Product".equals(change.getEntityType()))
+            .forEach(change -> productService.delete(change.getEntityId()));
+    }
+
+    @Test
+    void changesOlderThanTheRetentionArePurged() {
+        EntityChangeLog old = new EntityChangeLog();
+        old.setEntityType("Product");
+        old.setEntityId(1L);
+        old.setOperation("UPDATE");
+        old.setChangeDate(Instant.now().minus(Duration.ofDays(30)));
+        old = entityChangeLogRepository.save(old);
+        Product product = productRepository.save(product());
+        productRepository.deleteById(product.getId());
+
+        changeStreamService.purge();
+
+        assertThat(entityChangeLogRepository.existsById(old.getId())).isFalse();
+        assertThat(changeStreamService.isPurged(old.getId())).isTrue();
+        assertThat(changeStreamService.isPurged(changeStreamService.latestOffset())).isFalse();
+    }
+
+    private List<EntityChangeLog> saved() {
+        return entityChangeLogRepository.findByIdBetweenOrderByIdAsc(start + 1, Long.MAX_VALUE, Pageable.unpaged());
+    }
+
+    private static Product product() {
+        return new Product().title("streamed").dateAdded(LocalDate.ofEpochDay(0L));
+    }
+
+    private static List<Long> ids(List<EntityChangeLog> changes) {
+        return changes.stream().map(EntityChangeLog::getId).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,156 @@
+package com.mycompany.myapp.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.mycompany.myapp.config.ApplicationProperties;
+import com.mycompany.myapp.domain.Category;
+import com.mycompany.myapp.domain.Product;
+import com.mycompany.myapp.service.criteria.ProductCriteria;
+import com.mycompany.myapp.service.dto.EntityChange;
+import com.mycompany.myapp.service.dto.EntityChangeEvent;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Tests of {@link CountCache} with the cache enabled, unlike the integration tests which expect exact counts, within a
+ * read-only transaction.
+ */
+class CountCacheTest {
+
+    private static final Duration TTL = Duration.ofMillis(200);
+
+    private static final int MAX_ENTRIES = 2;
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final AtomicLong queries = new AtomicLong();
+
+    private CountCache countCache;
+
+    @BeforeEach
+    public void setUp() {
+        ApplicationProperties applicationProperties = new ApplicationProperties();
+        applicationProperties.getCount().setTtl(TTL);
+        applicationProperties.getCount().setMaxEntries(MAX_ENTRIES);
+        countCache = new CountCache(null, meterRegistry, applicationProperties);
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+    }
+
+    @Test
+    void countIsCachedUntilTheTtl() throws Exception {
+        ProductCriteria criteria = titled("phone");
+
+        assertThat(count(criteria)).isEqualTo(1L);
+        assertThat(count(titled("phone"))).isEqualTo(1L);
+        // the cached key is a copy of the criteria
+        criteria.title().setEquals("tablet");
+        assertThat(count(titled("phone"))).isEqualTo(1L);
+        assertThat(lookups("hit")).isEqualTo(2);
+        assertThat(lookups("miss")).isEqualTo(1);
+
+        Thread.sleep(TTL.toMillis() * 2);
+
+        assertThat(count(titled("phone"))).isEqualTo(2L);
+        assertThat(lookups("miss")).isEqualTo(2);
+    }
+
+    @Test
+    void equivalentCriteriaShareTheirCount() {
+        ProductCriteria criteria = new ProductCriteria();
+        criteria.id().setIn(List.of(2L, 1L));
+        count(criteria);
+
+        ProductCriteria equivalent = new ProductCriteria();
+        equivalent.id().setIn(List.of(1L, 2L));
+        // an empty filter filters nothing
+        equivalent.title();
+        count(equivalent);
+
+        assertThat(queries.get()).isEqualTo(1);
+    }
+
+    @Test
+    void leastRecentlyUsedCountIsEvictedOnceFull() {
+        count(titled("a"));
+        count(titled("b"));
+        count(titled("a"));
+        count(titled("c"));
+
+        long queried = queries.get();
+        count(titled("a"));
+        count(titled("c"));
+        assertThat(queries.get()).isEqualTo(queried);
+
+        count(titled("b"));
+        assertThat(queries.get()).isEqualTo(queried + 1);
+    }
+
+    @Test
+    void countsAreEvictedWhenTheirDependenciesAreWritten() {
+        count(titled("phone"));
+        countCache.count(Category.class, Set.of(Category.class), null, queries::incrementAndGet);
+
+        countCache.onEntityChange(new EntityChangeEvent(List.of(new EntityChange(Product.class, 1L, EntityChange.Operation.UPDATE))));
+
+        long queried = queries.get();
+        countCache.count(Category.class, Set.of(Category.class), null, queries::incrementAndGet);
+        assertThat(queries.get()).isEqualTo(queried);
+        count(titled("phone"));
+        assertThat(queries.get()).isEqualTo(queried + 1);
+    }
+
+    @Test
+    void countIsNotCachedWhenAWriteCommitsWhileCounting() {
+        EntityChangeEvent write = new EntityChangeEvent(List.of(new EntityChange(Category.class, 1L, EntityChange.Operation.UPDATE)));
+        countCache.count(
+            Product.class,
+            Set.of(Product.class, Category.class),
+            titled("phone"),
+            () -> {
+                countCache.onEntityChange(write);
+                return queries.incrementAndGet();
+            }
+        );
+
+        long queried = queries.get();
+        count(titled("phone"));
+        assertThat(queries.get()).isEqualTo(queried + 1);
+    }
+
+    @Test
+    void countIsNotCachedInAReadWriteTransaction() {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+
+        count(titled("phone"));
+        count(titled("phone"));
+
+        assertThat(queries.get()).isEqualTo(2);
+    }
+
+    private long count(ProductCriteria criteria) {
+        return countCache.count(Product.class, Set.of(Product.class, Category.class), criteria, queries::incrementAndGet);
+    }
+
+    private double lookups(String result) {
+        return meterRegistry.get(CountCache.METER_NAME).tag(CountCache.RESULT_DIMENSION, result).counter().count();
+    }
+
+    private static ProductCriteria titled(String title) {
+        ProductCriteria criteria = new ProductCriteria();
+        criteria.title().setEquals(title);
+        return criteria;
+    }
+}
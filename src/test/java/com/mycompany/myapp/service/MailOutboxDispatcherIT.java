@@ -0,0 +1,184 @@
+package com.mycompany.myapp.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.mycompany.myapp.IntegrationTest;
+import com.mycompany.myapp.config.ApplicationProperties;
+import com.mycompany.myapp.domain.MailOutboxMessage;
+import com.mycompany.myapp.domain.enumeration.MailStatus;
+import com.mycompany.myapp.repository.MailOutboxMessageRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.stream.Collectors;
+import javax.mail.internet.MimeMessage;
+import javax.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.MessageSource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.thymeleaf.spring5.SpringTemplateEngine;
+import tech.jhipster.config.JHipsterProperties;
+
+/**
+ * Integration tests for {@link MailOutboxDispatcher}, against a {@link FakeSmtpServer}.
+ */
+@IntegrationTest
+class MailOutboxDispatcherIT {
+
+    private static final String REJECTED = "rejected@example.com";
+
+    @Autowired
+    private JHipsterProperties jHipsterProperties;
+
+    @Autowired
+    private ApplicationProperties applicationProperties;
+
+    @Autowired
+    private MessageSource messageSource;
+
+    @Autowired
+    private SpringTemplateEngine templateEngine;
+
+    @Autowired
+    private MailOutboxMessageRepository mailOutboxMessageRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private FakeSmtpServer smtpServer;
+
+    private MailService mailService;
+
+    private MailOutboxDispatcher dispatcher;
+
+    @BeforeEach
+    void setup() throws Exception {
+        mailOutboxMessageRepository.deleteAll();
+        smtpServer = new FakeSmtpServer();
+        smtpServer.reject(REJECTED);
+        mailService = new MailService(jHipsterProperties, messageSource, templateEngine, mailOutboxMessageRepository, entityManager, true);
+        dispatcher =
+            new MailOutboxDispatcher(
+                jHipsterProperties,
+                smtpServer.mailSender(),
+                mailOutboxMessageRepository,
+                transactionManager,
+                meterRegistry,
+                applicationProperties
+            );
+    }
+
+    @AfterEach
+    void cleanup() throws Exception {
+        smtpServer.close();
+        mailOutboxMessageRepository.deleteAll();
+    }
+
+    @Test
+    void sendsTheBatchOverOneConnection() {
+        for (int i = 0; i < 5; i++) {
+            mailService.sendEmail("user" + i + "@example.com", "subject " + i, "content " + i, false, false);
+        }
+
+        dispatcher.dispatchAll();
+
+        assertThat(smtpServer.getConnections()).isEqualTo(1);
+        assertThat(smtpServer.getMessages().stream().map(this::subject).collect(Collectors.toList()))
+            .containsExactly("subject 0", "subject 1", "subject 2", "subject 3", "subject 4");
+        assertThat(mailOutboxMessageRepository.count()).isZero();
+        assertThat(count("sent")).isEqualTo(5);
+        assertThat(meterRegistry.get(MailOutboxDispatcher.METER_NAME + ".pending").gauge().value()).isZero();
+    }
+
+    @Test
+    void retriesTheRejectedMessagesLater() {
+        mailService.sendEmail("first@example.com", "first", "content", false, false);
+        mailService.sendEmail(REJECTED, "rejected", "content", false, false);
+        mailService.sendEmail("last@example.com", "last", "content", false, false);
+
+        dispatcher.dispatchAll();
+
+        assertThat(smtpServer.getConnections()).isEqualTo(1);
+        assertThat(smtpServer.getMessages()).hasSize(2);
+        MailOutboxMessage rejected = mailOutboxMessageRepository.findAll().get(0);
+        assertThat(mailOutboxMessageRepository.count()).isEqualTo(1);
+        assertThat(rejected.getRecipient()).isEqualTo(REJECTED);
+        assertThat(rejected.getStatus()).isEqualTo(MailStatus.PENDING);
+        assertThat(rejected.getAttempts()).isEqualTo(1);
+        assertThat(rejected.getLastError()).isNotBlank();
+        assertThat(rejected.getNextAttemptDate())
+            .isAfter(Instant.now().plus(applicationProperties.getMailOutbox().getInitialBackoff()).minusSeconds(5));
+        assertThat(count("retried")).isEqualTo(1);
+        assertThat(meterRegistry.get(MailOutboxDispatcher.METER_NAME + ".pending").gauge().value()).isEqualTo(1);
+
+        // Not due yet
+        dispatcher.dispatchAll();
+        assertThat(smtpServer.getConnections()).isEqualTo(1);
+    }
+
+    @Test
+    void keepsTheMessagesWhenTheServerIsDown() throws Exception {
+        mailService.sendEmail("first@example.com", "first", "content", false, false);
+        mailService.sendEmail("second@example.com", "second", "content", false, false);
+        smtpServer.close();
+
+        dispatcher.dispatchAll();
+
+        assertThat(mailOutboxMessageRepository.findAll())
+            .hasSize(2)
+            .allSatisfy(message -> {
+                assertThat(message.getStatus()).isEqualTo(MailStatus.PENDING);
+                assertThat(message.getAttempts()).isEqualTo(1);
+            });
+        assertThat(count("retried")).isEqualTo(2);
+    }
+
+    @Test
+    void givesUpAfterTheMaxAttempts() {
+        mailService.sendEmail(REJECTED, "rejected", "content", false, false);
+        MailOutboxMessage message = mailOutboxMessageRepository.findAll().get(0);
+        message.setAttempts(applicationProperties.getMailOutbox().getMaxAttempts() - 1);
+        mailOutboxMessageRepository.save(message);
+
+        dispatcher.dispatchAll();
+
+        message = mailOutboxMessageRepository.findById(message.getId()).orElseThrow();
+        assertThat(message.getStatus()).isEqualTo(MailStatus.FAILED);
+        assertThat(message.getAttempts()).isEqualTo(applicationProperties.getMailOutbox().getMaxAttempts());
+        assertThat(count("failed")).isEqualTo(1);
+
+        dispatcher.dispatchAll();
+        assertThat(smtpServer.getConnections()).isEqualTo(1);
+    }
+
+    @Test
+    void doublesTheBackoffUpToTheMax() {
+        Duration initial = applicationProperties.getMailOutbox().getInitialBackoff();
+
+        assertThat(dispatcher.backoff(1)).isEqualTo(initial);
+        assertThat(dispatcher.backoff(2)).isEqualTo(initial.multipliedBy(2));
+        assertThat(dispatcher.backoff(3)).isEqualTo(initial.multipliedBy(4));
+        assertThat(dispatcher.backoff(100)).isEqualTo(applicationProperties.getMailOutbox().getMaxBackoff());
+    }
+
+    private String subject(MimeMessage message) {
+        try {
+            return message.getSubject();
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private double count(String result) {
+        return meterRegistry.get(MailOutboxDispatcher.METER_NAME).tag(MailOutboxDispatcher.RESULT_DIMENSION, result).counter().count();
+    }
+}
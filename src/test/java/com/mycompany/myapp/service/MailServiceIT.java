@@ -1,19 +1,24 @@
 package com.mycompany.myapp.service;
 
 import static org.assertj.core.api.Assertions.*;
-import static org.mockito.ArgumentMatchers.any;
-import static org.mockito.Mockito.*;
 
 import com.mycompany.myapp.IntegrationTest;
+import com.mycompany.myapp.config.ApplicationProperties;
 import com.mycompany.myapp.config.Constants;
+import com.mycompany.myapp.domain.MailOutboxMessage;
 import com.mycompany.myapp.domain.User;
-import java.io.ByteArrayOutputStream;
+import com.mycompany.myapp.domain.User_;
+import com.mycompany.myapp.repository.MailOutboxMessageRepository;
+import com.mycompany.myapp.repository.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.InputStreamReader;
 import java.net.URI;
 import java.net.URL;
 import java.nio.charset.Charset;
+import java.util.List;
+import java.util.Locale;
 import java.util.Properties;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -21,21 +26,21 @@ import javax.mail.Multipart;
 import javax.mail.internet.MimeBodyPart;
 import javax.mail.internet.MimeMessage;
 import javax.mail.internet.MimeMultipart;
+import javax.persistence.EntityManager;
+import org.apache.commons.lang3.RandomStringUtils;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
-import org.mockito.ArgumentCaptor;
-import org.mockito.Captor;
-import org.mockito.MockitoAnnotations;
-import org.mockito.Spy;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.MessageSource;
-import org.springframework.mail.MailSendException;
-import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.thymeleaf.context.Context;
 import org.thymeleaf.spring5.SpringTemplateEngine;
 import tech.jhipster.config.JHipsterProperties;
 
 /**
- * Integration tests for {@link MailService}.
+ * Integration tests for {@link MailService}, the emails going through the outbox to a {@link FakeSmtpServer}.
  */
 @IntegrationTest
 class MailServiceIT {
@@ -56,78 +61,98 @@ class MailServiceIT {
     @Autowired
     private SpringTemplateEngine templateEngine;
 
-    @Spy
-    private JavaMailSenderImpl javaMailSender;
+    @Autowired
+    private ApplicationProperties applicationProperties;
+
+    @Autowired
+    private MailOutboxMessageRepository mailOutboxMessageRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private UserRepository userRepository;
 
-    @Captor
-    private ArgumentCaptor<MimeMessage> messageCaptor;
+    private FakeSmtpServer smtpServer;
+
+    private MailOutboxDispatcher dispatcher;
 
     private MailService mailService;
 
     @BeforeEach
-    public void setup() {
-        MockitoAnnotations.initMocks(this);
-        doNothing().when(javaMailSender).send(any(MimeMessage.class));
-        mailService = new MailService(jHipsterProperties, javaMailSender, messageSource, templateEngine);
+    public void setup() throws Exception {
+        mailOutboxMessageRepository.deleteAll();
+        smtpServer = new FakeSmtpServer();
+        dispatcher =
+            new MailOutboxDispatcher(
+                jHipsterProperties,
+                smtpServer.mailSender(),
+                mailOutboxMessageRepository,
+                transactionManager,
+                new SimpleMeterRegistry(),
+                applicationProperties
+            );
+        mailService = new MailService(jHipsterProperties, messageSource, templateEngine, mailOutboxMessageRepository, entityManager, true);
+    }
+
+    @AfterEach
+    public void cleanup() throws Exception {
+        smtpServer.close();
+        mailOutboxMessageRepository.deleteAll();
     }
 
     @Test
     void testSendEmail() throws Exception {
         mailService.sendEmail("john.doe@example.com", "testSubject", "testContent", false, false);
-        verify(javaMailSender).send(messageCaptor.capture());
-        MimeMessage message = messageCaptor.getValue();
+        MimeMessage message = sentMessage();
         assertThat(message.getSubject()).isEqualTo("testSubject");
         assertThat(message.getAllRecipients()[0]).hasToString("john.doe@example.com");
         assertThat(message.getFrom()[0]).hasToString(jHipsterProperties.getMail().getFrom());
         assertThat(message.getContent()).isInstanceOf(String.class);
-        assertThat(message.getContent()).hasToString("testContent");
+        assertThat(message.getContent()).hasToString("testContent\r\n");
         assertThat(message.getDataHandler().getContentType()).isEqualTo("text/plain; charset=UTF-8");
     }
 
     @Test
     void testSendHtmlEmail() throws Exception {
         mailService.sendEmail("john.doe@example.com", "testSubject", "testContent", false, true);
-        verify(javaMailSender).send(messageCaptor.capture());
-        MimeMessage message = messageCaptor.getValue();
+        MimeMessage message = sentMessage();
         assertThat(message.getSubject()).isEqualTo("testSubject");
         assertThat(message.getAllRecipients()[0]).hasToString("john.doe@example.com");
         assertThat(message.getFrom()[0]).hasToString(jHipsterProperties.getMail().getFrom());
         assertThat(message.getContent()).isInstanceOf(String.class);
-        assertThat(message.getContent()).hasToString("testContent");
+        assertThat(message.getContent()).hasToString("testContent\r\n");
         assertThat(message.getDataHandler().getContentType()).isEqualTo("text/html;charset=UTF-8");
     }
 
     @Test
     void testSendMultipartEmail() throws Exception {
         mailService.sendEmail("john.doe@example.com", "testSubject", "testContent", true, false);
-        verify(javaMailSender).send(messageCaptor.capture());
-        MimeMessage message = messageCaptor.getValue();
+        MimeMessage message = sentMessage();
         MimeMultipart mp = (MimeMultipart) message.getContent();
         MimeBodyPart part = (MimeBodyPart) ((MimeMultipart) mp.getBodyPart(0).getContent()).getBodyPart(0);
-        ByteArrayOutputStream aos = new ByteArrayOutputStream();
-        part.writeTo(aos);
         assertThat(message.getSubject()).isEqualTo("testSubject");
         assertThat(message.getAllRecipients()[0]).hasToString("john.doe@example.com");
         assertThat(message.getFrom()[0]).hasToString(jHipsterProperties.getMail().getFrom());
         assertThat(message.getContent()).isInstanceOf(Multipart.class);
-        assertThat(aos).hasToString("\r\ntestContent");
+        assertThat(part.getContent()).hasToString("testContent");
         assertThat(part.getDataHandler().getContentType()).isEqualTo("text/plain; charset=UTF-8");
     }
 
     @Test
     void testSendMultipartHtmlEmail() throws Exception {
         mailService.sendEmail("john.doe@example.com", "testSubject", "testContent", true, true);
-        verify(javaMailSender).send(messageCaptor.capture());
-        MimeMessage message = messageCaptor.getValue();
+        MimeMessage message = sentMessage();
         MimeMultipart mp = (MimeMultipart) message.getContent();
         MimeBodyPart part = (MimeBodyPart) ((MimeMultipart) mp.getBodyPart(0).getContent()).getBodyPart(0);
-        ByteArrayOutputStream aos = new ByteArrayOutputStream();
-        part.writeTo(aos);
         assertThat(message.getSubject()).isEqualTo("testSubject");
         assertThat(message.getAllRecipients()[0]).hasToString("john.doe@example.com");
         assertThat(message.getFrom()[0]).hasToString(jHipsterProperties.getMail().getFrom());
         assertThat(message.getContent()).isInstanceOf(Multipart.class);
-        assertThat(aos).hasToString("\r\ntestContent");
+        assertThat(part.getContent()).hasToString("testContent");
         assertThat(part.getDataHandler().getContentType()).isEqualTo("text/html;charset=UTF-8");
     }
 
@@ -138,8 +163,7 @@ class MailServiceIT {
         user.setEmail("john.doe@example.com");
         user.setLangKey("en");
         mailService.sendEmailFromTemplate(user, "mail/testEmail", "email.test.title");
-        verify(javaMailSender).send(messageCaptor.capture());
-        MimeMessage message = messageCaptor.getValue();
+        MimeMessage message = sentMessage();
         assertThat(message.getSubject()).isEqualTo("test title");
         assertThat(message.getAllRecipients()[0]).hasToString(user.getEmail());
         assertThat(message.getFrom()[0]).hasToString(jHipsterProperties.getMail().getFrom());
@@ -154,8 +178,7 @@ class MailServiceIT {
         user.setLogin("john");
         user.setEmail("john.doe@example.com");
         mailService.sendActivationEmail(user);
-        verify(javaMailSender).send(messageCaptor.capture());
-        MimeMessage message = messageCaptor.getValue();
+        MimeMessage message = sentMessage();
         assertThat(message.getAllRecipients()[0]).hasToString(user.getEmail());
         assertThat(message.getFrom()[0]).hasToString(jHipsterProperties.getMail().getFrom());
         assertThat(message.getContent().toString()).isNotEmpty();
@@ -169,8 +192,7 @@ class MailServiceIT {
         user.setLogin("john");
         user.setEmail("john.doe@example.com");
         mailService.sendCreationEmail(user);
-        verify(javaMailSender).send(messageCaptor.capture());
-        MimeMessage message = messageCaptor.getValue();
+        MimeMessage message = sentMessage();
         assertThat(message.getAllRecipients()[0]).hasToString(user.getEmail());
         assertThat(message.getFrom()[0]).hasToString(jHipsterProperties.getMail().getFrom());
         assertThat(message.getContent().toString()).isNotEmpty();
@@ -184,22 +206,75 @@ class MailServiceIT {
         user.setLogin("john");
         user.setEmail("john.doe@example.com");
         mailService.sendPasswordResetMail(user);
-        verify(javaMailSender).send(messageCaptor.capture());
-        MimeMessage message = messageCaptor.getValue();
+        MimeMessage message = sentMessage();
         assertThat(message.getAllRecipients()[0]).hasToString(user.getEmail());
         assertThat(message.getFrom()[0]).hasToString(jHipsterProperties.getMail().getFrom());
         assertThat(message.getContent().toString()).isNotEmpty();
         assertThat(message.getDataHandler().getContentType()).isEqualTo("text/html;charset=UTF-8");
     }
 
+    @Test
+    void testSendEmailFromCachedTemplateAsRenderedByThymeleaf() throws Exception {
+        User user = new User();
+        user.setLangKey(Constants.DEFAULT_LANGUAGE);
+        user.setLogin("john&<doe>");
+        user.setEmail("john.doe@example.com");
+        user.setActivationKey("12345678901234567890");
+        mailService.sendActivationEmail(user);
+        mailService.sendActivationEmail(user);
+
+        Context context = new Context(Locale.forLanguageTag(user.getLangKey()));
+        context.setVariable("user", user);
+        context.setVariable("baseUrl", jHipsterProperties.getMail().getBaseUrl());
+        String expected = templateEngine.process("mail/activationEmail", context);
+        assertThat(mailOutboxMessageRepository.findAll()).hasSize(2).extracting(MailOutboxMessage::getContent).containsOnly(expected);
+        assertThat(expected).contains("john&amp;&lt;doe&gt;").contains("key=12345678901234567890");
+    }
+
+    @Test
+    void testSendEmailsFromTemplate() throws Exception {
+        List<User> users = List.of(
+            newUser("bulk-1", "bulk-1@example.com"),
+            newUser("bulk-2", null),
+            newUser("bulk-3", "bulk-3@example.com")
+        );
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        try {
+            long queued = transactionTemplate.execute(status -> {
+                userRepository.saveAll(users);
+                return mailService.sendEmailsFromTemplate(
+                    (root, query, cb) -> root.get(User_.login).in("bulk-1", "bulk-2", "bulk-3"),
+                    "mail/testEmail",
+                    "email.test.title"
+                );
+            });
+            dispatcher.dispatchAll();
+
+            assertThat(queued).isEqualTo(2);
+            assertThat(smtpServer.getMessages()).hasSize(2);
+            MimeMessage message = smtpServer.getMessages().get(1);
+            assertThat(message.getAllRecipients()[0]).hasToString("bulk-3@example.com");
+            assertThat(message.getSubject()).isEqualTo("test title");
+            assertThat(message.getContent().toString())
+                .isEqualToNormalizingNewlines("<html>test title, http://127.0.0.1:8080, bulk-3</html>\n");
+        } finally {
+            userRepository.deleteAll(users);
+        }
+    }
+
     @Test
     void testSendEmailWithException() {
-        doThrow(MailSendException.class).when(javaMailSender).send(any(MimeMessage.class));
+        smtpServer.reject("john.doe@example.com");
         try {
             mailService.sendEmail("john.doe@example.com", "testSubject", "testContent", false, false);
+            dispatcher.dispatchAll();
         } catch (Exception e) {
             fail("Exception shouldn't have been thrown");
         }
+        assertThat(smtpServer.getMessages()).isEmpty();
+        assertThat(mailOutboxMessageRepository.findAll())
+            .singleElement()
+            .satisfies(message -> assertThat(message.getAttempts()).isEqualTo(1));
     }
 
     @Test
@@ -210,8 +285,7 @@ class MailServiceIT {
         for (String langKey : languages) {
             user.setLangKey(langKey);
             mailService.sendEmailFromTemplate(user, "mail/testEmail", "email.test.title");
-            verify(javaMailSender, atLeastOnce()).send(messageCaptor.capture());
-            MimeMessage message = messageCaptor.getValue();
+            MimeMessage message = sentMessage();
 
             String propertyFilePath = "i18n/messages_" + getJavaLocale(langKey) + ".properties";
             URL resource = this.getClass().getClassLoader().getResource(propertyFilePath);
@@ -226,6 +300,26 @@ class MailServiceIT {
         }
     }
 
+    private User newUser(String login, String email) {
+        User user = new User();
+        user.setLogin(login);
+        user.setEmail(email);
+        user.setPassword(RandomStringUtils.random(60));
+        user.setActivated(false);
+        user.setLangKey(Constants.DEFAULT_LANGUAGE);
+        return user;
+    }
+
+    /**
+     * Dispatch the outbox and return the last email received by the SMTP server.
+     */
+    private MimeMessage sentMessage() {
+        dispatcher.dispatchAll();
+        List<MimeMessage> messages = smtpServer.getMessages();
+        assertThat(messages).isNotEmpty();
+        return messages.get(messages.size() - 1);
+    }
+
     /**
      * Convert a lang key to the Java locale.
      */
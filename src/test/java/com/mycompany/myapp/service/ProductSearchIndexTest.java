@@ -0,0 +1,120 @@
+package com.mycompany.myapp.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class ProductSearchIndexTest {
+
+    private ProductSearchIndex index;
+
+    @BeforeEach
+    public void setUp() {
+        index = new ProductSearchIndex();
+        index.index(1L, "Red running shoes", "shoes, sport", "Light shoes for running");
+        index.index(2L, "Blue shirt", "shirt", "A shirt to wear with running shoes");
+        index.index(3L, "Green hat", "hat", null);
+    }
+
+    @Test
+    void tokenizeSplitsOnNonAlphanumericAndLowerCases() {
+        assertThat(ProductSearchIndex.tokenize("Hello, World-42 a")).containsExactly("hello", "world", "42");
+        assertThat(ProductSearchIndex.tokenize(null)).isEmpty();
+    }
+
+    @Test
+    void searchMatchesAllTermsAndRanksTitleFirst() {
+        ProductSearchIndex.Hits hits = index.search("Running SHOES", 0, 10);
+
+        assertThat(hits.getTotal()).isEqualTo(2);
+        assertThat(hits.getProductIds()).containsExactly(1L, 2L);
+        assertThat(index.search("running hat", 0, 10).getTotal()).isZero();
+        assertThat(index.search("unknown", 0, 10).getTotal()).isZero();
+    }
+
+    @Test
+    void searchIsPaginated() {
+        ProductSearchIndex.Hits hits = index.search("shoes", 1, 1);
+
+        assertThat(hits.getTotal()).isEqualTo(2);
+        assertThat(hits.getProductIds()).containsExactly(2L);
+    }
+
+    @Test
+    void updatedAndRemovedProductsAreReflected() {
+        index.index(3L, "Running hat", "hat", null);
+        assertThat(index.search("running hat", 0, 10).getProductIds()).containsExactly(3L);
+        assertThat(index.search("green", 0, 10).getTotal()).isZero();
+
+        index.remove(1L);
+        assertThat(index.search("shoes", 0, 10).getProductIds()).containsExactly(2L);
+        assertThat(index.size()).isEqualTo(2);
+    }
+
+    @Test
+    void documentFrequenciesLeaveTheDeletedDocumentsOut() {
+        assertThat(index.documentFrequency("shoes")).isEqualTo(2);
+
+        index.remove(1L);
+        assertThat(index.documentFrequency("shoes")).isEqualTo(1);
+        assertThat(index.documentFrequency("red")).isZero();
+
+        index.index(2L, "Blue shirt", "shirt", null);
+        assertThat(index.documentFrequency("shoes")).isZero();
+        assertThat(index.documentFrequency("shirt")).isEqualTo(1);
+        assertThat(index.search("shoes", 0, 10).getTotal()).isZero();
+    }
+
+    @Test
+    void rebuildKeepsTheProductsWrittenMeanwhile() {
+        index.startRebuild();
+        assertThat(index.size()).isZero();
+        // committed after the rebuild read the products
+        index.index(1L, "Red running shoes", "shoes", "Updated");
+        index.remove(2L);
+
+        index.rebuild(1L, "Red running shoes", "shoes, sport", "Light shoes for running");
+        index.rebuild(2L, "Blue shirt", "shirt", "A shirt to wear with running shoes");
+        index.rebuild(3L, "Green hat", "hat", null);
+        index.finishRebuild();
+
+        assertThat(index.size()).isEqualTo(2);
+        assertThat(index.search("updated", 0, 10).getProductIds()).containsExactly(1L);
+        assertThat(index.search("light", 0, 10).getTotal()).isZero();
+        assertThat(index.search("shirt", 0, 10).getTotal()).isZero();
+        assertThat(index.search("hat", 0, 10).getProductIds()).containsExactly(3L);
+
+        index.rebuild(2L, "Blue shirt", "shirt", null);
+        assertThat(index.search("shirt", 0, 10).getProductIds()).containsExactly(2L);
+    }
+
+    @Test
+    void deletedDocumentsAreCompacted() {
+        for (long id = 100; id < 3100; id++) {
+            index.index(id, "bulk product " + id, null, null);
+        }
+        for (long id = 100; id < 3000; id++) {
+            index.remove(id);
+        }
+
+        assertThat(index.size()).isEqualTo(103);
+        assertThat(index.search("bulk product", 0, 200).getTotal()).isEqualTo(100);
+        assertThat(index.search("shoes", 0, 10).getProductIds()).containsExactly(1L, 2L);
+    }
+
+    @Test
+    void reindexedDocumentsAreCompacted() {
+        for (String round : List.of("first", "second", "third")) {
+            for (long id = 100; id < 3100; id++) {
+                index.index(id, "bulk product " + id + " " + round, null, null);
+            }
+        }
+
+        assertThat(index.size()).isEqualTo(3003);
+        assertThat(index.documentCount()).isLessThanOrEqualTo(2 * index.size());
+        assertThat(index.search("bulk third", 0, 10).getTotal()).isEqualTo(3000);
+        assertThat(index.search("bulk second", 0, 10).getTotal()).isZero();
+    }
+}
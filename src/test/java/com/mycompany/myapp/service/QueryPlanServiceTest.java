@@ -0,0 +1,98 @@
+package com.mycompany.myapp.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.RETURNS_DEEP_STUBS;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mycompany.myapp.domain.Product;
+import com.mycompany.myapp.service.criteria.ProductCriteria;
+import com.mycompany.myapp.service.dto.QueryPlanDTO;
+import java.sql.SQLException;
+import java.util.List;
+import javax.sql.DataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class QueryPlanServiceTest {
+
+    private QueryPlanService queryPlanService;
+
+    @BeforeEach
+    void setup() throws SQLException {
+        queryPlanService = new QueryPlanService(null, dataSource("PostgreSQL"), new ObjectMapper());
+    }
+
+    @Test
+    void filtersListTheOperatorsOfTheFiltersSet() {
+        ProductCriteria criteria = new ProductCriteria();
+        criteria.title().setContains("phone");
+        criteria.rating().setGreaterThan(3);
+        criteria.rating().setLessThanOrEqual(5);
+        criteria.dateAdded();
+        criteria.id().setIn(List.of(1L, 2L));
+
+        assertThat(QueryPlanService.filters(criteria)).isEqualTo("id.in,rating.greaterThan,rating.lessThanOrEqual,title.contains");
+        assertThat(QueryPlanService.filters(new ProductCriteria())).isEmpty();
+        assertThat(QueryPlanService.filters(null)).isEmpty();
+    }
+
+    @Test
+    void recordGroupsTheCriteriaByFilterCombination() {
+        ProductCriteria first = new ProductCriteria();
+        first.title().setEquals("a");
+        ProductCriteria second = new ProductCriteria();
+        second.title().setEquals("b");
+        ProductCriteria third = new ProductCriteria();
+        third.title().setContains("c");
+
+        queryPlanService.record(Product.class, first, null, null);
+        queryPlanService.record(Product.class, second, null, null);
+        queryPlanService.record(Product.class, third, null, null);
+
+        assertThat(queryPlanService.recorded().get(Product.class)).containsExactlyInAnyOrder("title.equals", "title.contains");
+    }
+
+    @Test
+    void recordNothingWhenThePlansCannotBeRead() throws SQLException {
+        QueryPlanService h2QueryPlanService = new QueryPlanService(null, dataSource("H2"), new ObjectMapper());
+        ProductCriteria criteria = new ProductCriteria();
+        criteria.title().setEquals("a");
+
+        h2QueryPlanService.record(Product.class, criteria, null, null);
+
+        assertThat(h2QueryPlanService.recorded()).isEmpty();
+    }
+
+    @Test
+    void toQueryPlanCollectsTheSequentialScans() {
+        String json =
+            "[{\"Plan\": {\"Node Type\": \"Limit\", \"Total Cost\": 1234.5, \"Plans\": [" +
+            "{\"Node Type\": \"Hash Join\", \"Plans\": [" +
+            "{\"Node Type\": \"Seq Scan\", \"Relation Name\": \"product\", \"Plan Rows\": 5000}," +
+            "{\"Node Type\": \"Index Scan\", \"Relation Name\": \"rel_category__product\", \"Plan Rows\": 10}" +
+            "]}]}}]";
+
+        QueryPlanDTO plan = queryPlanService.toQueryPlan(json);
+
+        assertThat(plan.getTotalCost()).isEqualTo(1234.5);
+        assertThat(plan.getSequentialScans()).containsOnlyKeys("product").containsEntry("product", 5000L);
+    }
+
+    @Test
+    void toQueryPlanWithoutSequentialScan() {
+        QueryPlanDTO plan = queryPlanService.toQueryPlan(
+            "[{\"Plan\": {\"Node Type\": \"Index Scan\", \"Relation Name\": \"product\", \"Total Cost\": 8.3}}]"
+        );
+
+        assertThat(plan.getSequentialScans()).isEmpty();
+        assertThat(plan.getTotalCost()).isEqualTo(8.3);
+    }
+
+    private static DataSource dataSource(String databaseProductName) throws SQLException {
+        DataSource dataSource = mock(DataSource.class, RETURNS_DEEP_STUBS);
+        when(dataSource.getConnection().getMetaData().getDatabaseProductName()).thenReturn(databaseProductName);
+        return dataSource;
+    }
+}
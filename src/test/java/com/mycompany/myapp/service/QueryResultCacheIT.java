@@ -0,0 +1,176 @@
+package com.mycompany.myapp.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.mycompany.myapp.IntegrationTest;
+import com.mycompany.myapp.config.ApplicationProperties;
+import com.mycompany.myapp.domain.Category;
+import com.mycompany.myapp.domain.Product;
+import com.mycompany.myapp.domain.enumeration.CategoryStatus;
+import com.mycompany.myapp.repository.CategoryRepository;
+import com.mycompany.myapp.repository.ProductRepository;
+import com.mycompany.myapp.service.criteria.ProductCriteria;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntConsumer;
+import java.util.stream.Collectors;
+import javax.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Integration tests for {@link QueryResultCache}: not transactional, as the cached pages are only dropped when the
+ * writes commit.
+ */
+@IntegrationTest
+class QueryResultCacheIT {
+
+    private static final PageRequest PAGE = PageRequest.of(0, 10, Sort.by("id"));
+
+    @Autowired
+    private ProductQueryService productQueryService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private final List<Product> products = new ArrayList<>();
+
+    private Category category;
+
+    @AfterEach
+    void cleanup() {
+        if (category != null) {
+            categoryRepository.deleteById(category.getId());
+        }
+        products.forEach(product -> productRepository.deleteById(product.getId()));
+    }
+
+    @Test
+    void cachedPageIsDroppedWhenTheEntitiesAreWritten() {
+        String title = "cached-" + System.nanoTime();
+        products.add(productRepository.save(product(title)));
+        ProductCriteria criteria = new ProductCriteria();
+        criteria.title().setEquals(title);
+
+        assertThat(ids(criteria)).containsExactly(products.get(0).getId());
+        double hits = hits();
+        assertThat(ids(criteria)).containsExactly(products.get(0).getId());
+        assertThat(hits()).isEqualTo(hits + 1);
+
+        products.add(productRepository.save(product(title)));
+
+        assertThat(ids(criteria)).containsExactly(products.get(0).getId(), products.get(1).getId());
+    }
+
+    @Test
+    void cachedPageIsDroppedWhenTheEntitiesOfAnAssociationAreWritten() {
+        products.add(productRepository.save(product("cached")));
+        category = categoryRepository.save(category());
+        ProductCriteria criteria = new ProductCriteria();
+        criteria.categoryId().setEquals(category.getId());
+
+        assertThat(ids(criteria)).isEmpty();
+        assertThat(ids(criteria)).isEmpty();
+
+        category = categoryRepository.save(category.addProduct(products.get(0)));
+
+        assertThat(ids(criteria)).containsExactly(products.get(0).getId());
+    }
+
+    @Test
+    void equivalentCriteriaShareTheCachedPage() {
+        ProductCriteria criteria = new ProductCriteria();
+        criteria.id().setIn(List.of(3L, 1L, 2L, 1L));
+        criteria.title();
+        ProductCriteria equivalent = new ProductCriteria();
+        equivalent.id().setIn(List.of(1L, 2L, 3L));
+
+        productQueryService.findByCriteria(criteria, PAGE);
+        double hits = hits();
+        productQueryService.findByCriteria(equivalent, PAGE);
+
+        assertThat(hits()).isEqualTo(hits + 1);
+    }
+
+    @Test
+    void leastRecentlyUsedPageIsEvictedOnceFull() {
+        ApplicationProperties applicationProperties = new ApplicationProperties();
+        applicationProperties.getQueryCache().setMaxEntries(2);
+        QueryResultCache queryResultCache = new QueryResultCache(entityManager, new SimpleMeterRegistry(), applicationProperties);
+        AtomicInteger queries = new AtomicInteger();
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        IntConsumer read = page ->
+            readOnly.executeWithoutResult(status ->
+                queryResultCache.page(
+                    Product.class,
+                    Set.of(Product.class),
+                    null,
+                    PageRequest.of(page, 10),
+                    () -> {
+                        queries.incrementAndGet();
+                        return Page.empty(PageRequest.of(page, 10));
+                    }
+                )
+            );
+
+        read.accept(0);
+        read.accept(1);
+        read.accept(0);
+        read.accept(2);
+        assertThat(queries).hasValue(3);
+
+        read.accept(0);
+        read.accept(2);
+        assertThat(queries).hasValue(3);
+
+        read.accept(1);
+        assertThat(queries).hasValue(4);
+    }
+
+    private List<Long> ids(ProductCriteria criteria) {
+        return productQueryService.findByCriteria(criteria, PAGE).map(Product::getId).stream().collect(Collectors.toList());
+    }
+
+    private double hits() {
+        return meterRegistry
+            .find(QueryResultCache.METER_NAME)
+            .tag(QueryResultCache.ENTITY_DIMENSION, "Product")
+            .tag(QueryResultCache.RESULT_DIMENSION, "hit")
+            .counters()
+            .stream()
+            .mapToDouble(counter -> counter.count())
+            .sum();
+    }
+
+    private static Product product(String title) {
+        return new Product().title(title).dateAdded(LocalDate.ofEpochDay(0L));
+    }
+
+    private static Category category() {
+        return new Category().description("cached").sortOrder(1).dateAdded(LocalDate.ofEpochDay(0L)).status(CategoryStatus.AVAILABLE);
+    }
+}
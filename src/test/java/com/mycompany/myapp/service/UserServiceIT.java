@@ -5,7 +5,9 @@ import static org.mockito.Mockito.when;
 
 import com.mycompany.myapp.IntegrationTest;
 import com.mycompany.myapp.config.Constants;
+import com.mycompany.myapp.domain.MailOutboxMessage;
 import com.mycompany.myapp.domain.User;
+import com.mycompany.myapp.repository.MailOutboxMessageRepository;
 import com.mycompany.myapp.repository.UserRepository;
 import com.mycompany.myapp.service.dto.AdminUserDTO;
 import java.time.Instant;
@@ -22,7 +24,10 @@ import org.springframework.data.auditing.AuditingHandler;
 import org.springframework.data.auditing.DateTimeProvider;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import tech.jhipster.security.RandomUtil;
 
 /**
@@ -50,6 +55,12 @@ class UserServiceIT {
     @Autowired
     private UserService userService;
 
+    @Autowired
+    private MailOutboxMessageRepository mailOutboxMessageRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
     @Autowired
     private AuditingHandler auditingHandler;
 
@@ -182,4 +193,33 @@ class UserServiceIT {
         Optional<User> maybeDbUser = userRepository.findById(dbUser.getId());
         assertThat(maybeDbUser).contains(dbUser);
     }
+
+    @Test
+    @Transactional
+    void assertThatRegistrationQueuesTheActivationEmail() {
+        userService.registerUser(registration(), "password");
+
+        assertThat(mailOutboxMessageRepository.findAll()).extracting(MailOutboxMessage::getRecipient).contains(DEFAULT_EMAIL);
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    void assertThatRolledBackRegistrationQueuesNoEmail() {
+        new TransactionTemplate(transactionManager)
+            .executeWithoutResult(status -> {
+                userService.registerUser(registration(), "password");
+                status.setRollbackOnly();
+            });
+
+        assertThat(userRepository.findOneByLogin(DEFAULT_LOGIN)).isEmpty();
+        assertThat(mailOutboxMessageRepository.findAll()).extracting(MailOutboxMessage::getRecipient).doesNotContain(DEFAULT_EMAIL);
+    }
+
+    private AdminUserDTO registration() {
+        AdminUserDTO userDTO = new AdminUserDTO();
+        userDTO.setLogin(DEFAULT_LOGIN);
+        userDTO.setEmail(DEFAULT_EMAIL);
+        userDTO.setLangKey(Constants.DEFAULT_LANGUAGE);
+        return userDTO;
+    }
 }
@@ -0,0 +1,67 @@
+package com.mycompany.myapp.service.dto;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Sort;
+
+class KeysetCursorTest {
+
+    @Test
+    void unsortedRequestReadsByAscendingId() {
+        KeysetCursor cursor = KeysetCursor.of("", Sort.unsorted());
+
+        assertThat(cursor.isFirst()).isTrue();
+        assertThat(cursor.isIdOnly()).isTrue();
+        assertThat(cursor.getDirection()).isEqualTo(Sort.Direction.ASC);
+    }
+
+    @Test
+    void encodedCursorRoundTrips() {
+        KeysetCursor cursor = KeysetCursor.first(Sort.by(Sort.Direction.DESC, "title", "id")).next(42L, "a:b");
+
+        KeysetCursor decoded = KeysetCursor.of(cursor.encode(), Sort.by(Sort.Direction.DESC, "title"));
+
+        assertThat(decoded).isEqualTo(cursor);
+        assertThat(decoded.getLastValue()).isEqualTo("a:b");
+        assertThat(decoded.getLastId()).isEqualTo(42L);
+    }
+
+    @Test
+    void nullSortValueIsKeptApartFromEmptyString() {
+        KeysetCursor first = KeysetCursor.first(Sort.by("rating"));
+
+        assertThat(KeysetCursor.decode(first.next(1L, null).encode()).getLastValue()).isNull();
+        assertThat(KeysetCursor.decode(first.next(1L, "").encode()).getLastValue()).isEmpty();
+    }
+
+    @Test
+    void cursorIsRejectedForAnotherSort() {
+        String token = KeysetCursor.first(Sort.by("title")).next(1L, "x").encode();
+
+        assertThatThrownBy(() -> KeysetCursor.of(token, Sort.by("rating"))).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> KeysetCursor.of(token, Sort.by(Sort.Direction.DESC, "title"))).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void malformedCursorIsRejected() {
+        assertThatThrownBy(() -> KeysetCursor.decode("%%%")).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> KeysetCursor.decode("bm90LWEtY3Vyc29y")).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void onlyOneSortPropertyIsSupported() {
+        assertThatThrownBy(() -> KeysetCursor.first(Sort.by("title", "rating"))).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void idTieBreakerFollowsTheSortDirection() {
+        Sort mismatched = Sort.by(Sort.Order.desc("rating"), Sort.Order.asc("id"));
+        assertThatThrownBy(() -> KeysetCursor.first(mismatched)).isInstanceOf(IllegalArgumentException.class);
+
+        KeysetCursor cursor = KeysetCursor.first(Sort.by(Sort.Order.desc("rating"), Sort.Order.desc("id")));
+        assertThat(cursor.getProperty()).isEqualTo("rating");
+        assertThat(cursor.getDirection()).isEqualTo(Sort.Direction.DESC);
+    }
+}
@@ -0,0 +1,117 @@
+package com.mycompany.myapp.web.filter;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.hasItem;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+import com.mycompany.myapp.IntegrationTest;
+import com.mycompany.myapp.domain.Product;
+import com.mycompany.myapp.repository.EntityChangeLogRepository;
+import com.mycompany.myapp.repository.ProductRepository;
+import com.mycompany.myapp.service.ChangeStreamService;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.LocalDate;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+
+/**
+ * Integration tests for the {@link ResponseCacheFilter}: not transactional, as the cached responses are only evicted
+ * when the writes commit.
+ */
+@IntegrationTest
+@AutoConfigureMockMvc
+@WithMockUser
+@TestPropertySource(properties = "application.response-cache.enabled=true")
+class ResponseCacheFilterIT {
+
+    private static final String ENTITY_API_URL = "/api/products";
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private ChangeStreamService changeStreamService;
+
+    @Autowired
+    private EntityChangeLogRepository entityChangeLogRepository;
+
+    @Autowired
+    private ResponseCacheFilter responseCacheFilter;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private MockMvc restProductMockMvc;
+
+    private long start;
+
+    private Product product;
+
+    @BeforeEach
+    void init() {
+        start = changeStreamService.latestOffset();
+        product = productRepository.save(new Product().title("cached").dateAdded(LocalDate.ofEpochDay(0L)));
+    }
+
+    @AfterEach
+    void cleanup() {
+        productRepository.deleteById(product.getId());
+        responseCacheFilter.clear();
+        entityChangeLogRepository.deleteAll(
+            entityChangeLogRepository.findByIdBetweenOrderByIdAsc(start + 1, Long.MAX_VALUE, Pageable.unpaged())
+        );
+    }
+
+    @Test
+    void productWriteEvictsTheCachedListing() throws Exception {
+        String url = ENTITY_API_URL + "?id.equals=" + product.getId();
+        double hits = lookups("hit");
+        double misses = lookups("miss");
+
+        String first = restProductMockMvc
+            .perform(get(url).accept(MediaType.APPLICATION_JSON))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.[*].title").value(hasItem("cached")))
+            .andReturn()
+            .getResponse()
+            .getContentAsString();
+        String second = restProductMockMvc
+            .perform(get(url).accept(MediaType.APPLICATION_JSON))
+            .andExpect(status().isOk())
+            .andReturn()
+            .getResponse()
+            .getContentAsString();
+
+        assertThat(second).isEqualTo(first);
+        assertThat(lookups("miss")).isEqualTo(misses + 1);
+        assertThat(lookups("hit")).isEqualTo(hits + 1);
+
+        product = productRepository.save(product.title("updated"));
+
+        restProductMockMvc
+            .perform(get(url).accept(MediaType.APPLICATION_JSON))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.[*].title").value(hasItem("updated")));
+        assertThat(lookups("miss")).isEqualTo(misses + 2);
+        assertThat(lookups("hit")).isEqualTo(hits + 1);
+    }
+
+    private double lookups(String result) {
+        return meterRegistry
+            .get(ResponseCacheFilter.METER_NAME)
+            .tag(ResponseCacheFilter.RESOURCE_DIMENSION, "products")
+            .tag(ResponseCacheFilter.RESULT_DIMENSION, result)
+            .counter()
+            .count();
+    }
+}
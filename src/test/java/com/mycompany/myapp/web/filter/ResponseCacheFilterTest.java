@@ -0,0 +1,214 @@
+package com.mycompany.myapp.web.filter;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.mycompany.myapp.config.ApplicationProperties;
+import com.mycompany.myapp.domain.Category;
+import com.mycompany.myapp.domain.Customer;
+import com.mycompany.myapp.domain.Product;
+import com.mycompany.myapp.service.CategoryQueryService;
+import com.mycompany.myapp.service.ProductQueryService;
+import com.mycompany.myapp.service.dto.EntityChange;
+import com.mycompany.myapp.service.dto.EntityChangeEvent;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.servlet.FilterChain;
+import javax.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+class ResponseCacheFilterTest {
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final AtomicInteger calls = new AtomicInteger();
+
+    private final ProductQueryService productQueryService = mock(ProductQueryService.class);
+
+    private final CategoryQueryService categoryQueryService = mock(CategoryQueryService.class);
+
+    private ResponseCacheFilter filter;
+
+    private FilterChain chain;
+
+    @BeforeEach
+    void setup() {
+        when(productQueryService.dependencies()).thenReturn(Set.of(Product.class, Category.class));
+        when(categoryQueryService.dependencies()).thenReturn(Set.of(Category.class, Product.class));
+        filter = new ResponseCacheFilter(new ApplicationProperties(), meterRegistry, productQueryService, categoryQueryService);
+        chain = (request, response) -> {
+            HttpServletResponse httpResponse = (HttpServletResponse) response;
+            httpResponse.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            httpResponse.setHeader(HttpHeaders.ETAG, "\"tag\"");
+            httpResponse.setHeader("X-Total-Count", "1");
+            httpResponse.getOutputStream().write(("[{\"call\":" + calls.incrementAndGet() + "}]").getBytes(StandardCharsets.UTF_8));
+        };
+    }
+
+    @Test
+    void testServesRepeatedReadsFromTheCache() throws Exception {
+        MockHttpServletResponse first = get("/api/products", "sort=id,desc&page=0");
+        MockHttpServletResponse second = get("/api/products", "page=0&sort=id,desc");
+
+        assertThat(calls).hasValue(1);
+        assertThat(second.getStatus()).isEqualTo(200);
+        assertThat(second.getContentAsString()).isEqualTo(first.getContentAsString()).isEqualTo("[{\"call\":1}]");
+        assertThat(second.getContentType()).isEqualTo(MediaType.APPLICATION_JSON_VALUE);
+        assertThat(second.getHeader(HttpHeaders.ETAG)).isEqualTo("\"tag\"");
+        assertThat(second.getHeader("X-Total-Count")).isEqualTo("1");
+        assertThat(count("products", "miss")).isEqualTo(1);
+        assertThat(count("products", "hit")).isEqualTo(1);
+    }
+
+    @Test
+    void testKeysByQueryAndAccept() throws Exception {
+        get("/api/products", "page=0");
+        get("/api/products", "page=1");
+        MockHttpServletRequest smile = request("/api/products", "page=0");
+        smile.addHeader(HttpHeaders.ACCEPT, "application/x-jackson-smile");
+        filter.doFilter(smile, new MockHttpServletResponse(), chain);
+
+        assertThat(calls).hasValue(3);
+    }
+
+    @Test
+    void testKeysByNegotiatedRepresentation() throws Exception {
+        get("/api/products", "page=0");
+        for (String accept : List.of("application/json", "application/json, text/plain;q=0.5", "*/*")) {
+            MockHttpServletRequest json = request("/api/products", "page=0");
+            json.addHeader(HttpHeaders.ACCEPT, accept);
+            filter.doFilter(json, new MockHttpServletResponse(), chain);
+        }
+        assertThat(calls).hasValue(1);
+
+        MockHttpServletRequest html = request("/api/products", "page=0");
+        html.addHeader(HttpHeaders.ACCEPT, "text/html");
+        filter.doFilter(html, new MockHttpServletResponse(), chain);
+        filter.doFilter(html, new MockHttpServletResponse(), chain);
+        assertThat(calls).hasValue(3);
+    }
+
+    @Test
+    void testKeysByOrigin() throws Exception {
+        get("/api/products", "page=0");
+        MockHttpServletRequest forwarded = request("/api/products", "page=0");
+        forwarded.setScheme("https");
+        forwarded.setServerPort(443);
+        filter.doFilter(forwarded, new MockHttpServletResponse(), chain);
+        MockHttpServletRequest otherHost = request("/api/products", "page=0");
+        otherHost.setServerName("catalog.example.com");
+        filter.doFilter(otherHost, new MockHttpServletResponse(), chain);
+
+        assertThat(calls).hasValue(3);
+    }
+
+    @Test
+    void testAnswersMatchingConditionalReadsWithNotModified() throws Exception {
+        get("/api/categories/1", null);
+        MockHttpServletRequest request = request("/api/categories/1", null);
+        request.addHeader(HttpHeaders.IF_NONE_MATCH, "\"tag\"");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filter.doFilter(request, response, chain);
+
+        assertThat(calls).hasValue(1);
+        assertThat(response.getStatus()).isEqualTo(304);
+        assertThat(response.getContentLength()).isZero();
+    }
+
+    @Test
+    void testDropsTheResponsesDependingOnTheWrittenEntities() throws Exception {
+        get("/api/products/1", null);
+        get("/api/categories", null);
+
+        filter.onEntityChange(new EntityChangeEvent(List.of(new EntityChange(Customer.class, 1L, EntityChange.Operation.UPDATE))));
+        get("/api/products/1", null);
+        assertThat(calls).hasValue(2);
+
+        filter.onEntityChange(new EntityChangeEvent(List.of(new EntityChange(Product.class, 1L, EntityChange.Operation.UPDATE))));
+        get("/api/products/1", null);
+        get("/api/categories", null);
+        assertThat(calls).hasValue(4);
+    }
+
+    @Test
+    void testEvictsTheLeastRecentlyUsedResponseOnceFull() throws Exception {
+        ApplicationProperties applicationProperties = new ApplicationProperties();
+        applicationProperties.getResponseCache().setMaxEntries(2);
+        filter = new ResponseCacheFilter(applicationProperties, new SimpleMeterRegistry(), productQueryService, categoryQueryService);
+
+        get("/api/products/1", null);
+        get("/api/products/2", null);
+        get("/api/products/1", null);
+        get("/api/products/3", null);
+        assertThat(calls).hasValue(3);
+
+        get("/api/products/1", null);
+        get("/api/products/3", null);
+        assertThat(calls).hasValue(3);
+
+        get("/api/products/2", null);
+        assertThat(calls).hasValue(4);
+    }
+
+    @Test
+    void testOnlyCachesTheCatalogReads() throws Exception {
+        get("/api/products/_search", "query=a");
+        get("/api/products/_search", "query=a");
+        get("/api/customers", null);
+        get("/api/customers", null);
+
+        assertThat(calls).hasValue(4);
+    }
+
+    @Test
+    void testDoesNotCacheErrors() throws Exception {
+        chain = (request, response) -> {
+            calls.incrementAndGet();
+            ((HttpServletResponse) response).sendError(404);
+        };
+
+        get("/api/products/1", null);
+        MockHttpServletResponse response = get("/api/products/1", null);
+
+        assertThat(calls).hasValue(2);
+        assertThat(response.getStatus()).isEqualTo(404);
+    }
+
+    private MockHttpServletResponse get(String path, String query) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request(path, query), response, chain);
+        return response;
+    }
+
+    private static MockHttpServletRequest request(String path, String query) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", path);
+        if (query != null) {
+            request.setQueryString(query);
+            for (String parameter : query.split("&")) {
+                String[] nameAndValue = parameter.split("=", 2);
+                request.addParameter(nameAndValue[0], nameAndValue[1]);
+            }
+        }
+        return request;
+    }
+
+    private double count(String resource, String result) {
+        return meterRegistry
+            .get(ResponseCacheFilter.METER_NAME)
+            .tag(ResponseCacheFilter.RESOURCE_DIMENSION, resource)
+            .tag(ResponseCacheFilter.RESULT_DIMENSION, result)
+            .counter()
+            .count();
+    }
+}
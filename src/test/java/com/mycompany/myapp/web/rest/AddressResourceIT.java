@@ -10,10 +10,14 @@ import com.mycompany.myapp.domain.Address;
 import com.mycompany.myapp.domain.Customer;
 import com.mycompany.myapp.repository.AddressRepository;
 import com.mycompany.myapp.service.criteria.AddressCriteria;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Random;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
 import javax.persistence.EntityManager;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -21,6 +25,7 @@ import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMock
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.transaction.annotation.Transactional;
 
 /**
@@ -210,6 +215,45 @@ class AddressResourceIT {
             .andExpect(jsonPath("$.country").value(DEFAULT_COUNTRY));
     }
 
+    @Test
+    @Transactional
+    void exportAddressesWithBoundedStatementCount() throws Exception {
+        // Initialize the database with 3 addresses, each of its own customer
+        List<Address> addresses = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            Customer customer = CustomerResourceIT.createEntity(em);
+            em.persist(customer);
+            addresses.add(addressRepository.save(createEntity(em).customer(customer)));
+        }
+        em.flush();
+        em.clear();
+        em.getEntityManagerFactory().getCache().evictAll();
+        String filter = "&id.in=" + addresses.stream().map(a -> String.valueOf(a.getId())).collect(Collectors.joining(","));
+
+        Statistics statistics = em.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        boolean statisticsEnabled = statistics.isStatisticsEnabled();
+        statistics.setStatisticsEnabled(true);
+        try {
+            // The export fetches the customers with the addresses, whatever their number
+            statistics.clear();
+            MvcResult result = restAddressMockMvc
+                .perform(get(ENTITY_API_URL + "/_export?format=ndjson" + filter))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith("application/x-ndjson"))
+                .andReturn();
+            String[] lines = result.getResponse().getContentAsString().split("\n");
+            assertThat(lines).hasSize(3);
+            for (int i = 0; i < lines.length; i++) {
+                assertThat(lines[i])
+                    .startsWith("{\"id\":" + addresses.get(i).getId() + ",")
+                    .endsWith("\"customerId\":" + addresses.get(i).getCustomer().getId() + "}");
+            }
+            assertThat(statistics.getPrepareStatementCount()).isLessThanOrEqualTo(1);
+        } finally {
+            statistics.setStatisticsEnabled(statisticsEnabled);
+        }
+    }
+
     @Test
     @Transactional
     void getAddressesByIdFiltering() throws Exception {
@@ -1,6 +1,7 @@
 package com.mycompany.myapp.web.rest;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.contains;
 import static org.hamcrest.Matchers.hasItem;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
@@ -12,6 +13,7 @@ import com.mycompany.myapp.domain.Category;
 import com.mycompany.myapp.domain.Product;
 import com.mycompany.myapp.domain.enumeration.CategoryStatus;
 import com.mycompany.myapp.repository.CategoryRepository;
+import com.mycompany.myapp.service.CategoryHierarchyService;
 import com.mycompany.myapp.service.CategoryService;
 import com.mycompany.myapp.service.criteria.CategoryCriteria;
 import java.time.LocalDate;
@@ -20,7 +22,10 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.Random;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
 import javax.persistence.EntityManager;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -33,6 +38,7 @@ import org.springframework.data.domain.PageRequest;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.transaction.annotation.Transactional;
 
 /**
@@ -77,6 +83,9 @@ class CategoryResourceIT {
     @Mock
     private CategoryService categoryServiceMock;
 
+    @Autowired
+    private CategoryHierarchyService categoryHierarchyService;
+
     @Autowired
     private EntityManager em;
 
@@ -214,6 +223,167 @@ class CategoryResourceIT {
         verify(categoryServiceMock, times(1)).findAllWithEagerRelationships(any());
     }
 
+    @Test
+    @Transactional
+    void getCategoriesWithBoundedStatementCount() throws Exception {
+        // Initialize the database with 3 roots, each with 2 children holding a product
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            Category root = categoryRepository.save(createEntity(em));
+            ids.add(root.getId());
+            for (int j = 0; j < 2; j++) {
+                Product product = ProductResourceIT.createEntity(em);
+                em.persist(product);
+                ids.add(categoryRepository.save(createEntity(em).parent(root).addProduct(product)).getId());
+            }
+        }
+        em.flush();
+        em.clear();
+        String idIn = "id.in=" + ids.stream().map(String::valueOf).collect(Collectors.joining(","));
+        String filter = "?sort=id,asc&" + idIn;
+
+        Statistics statistics = em.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        boolean statisticsEnabled = statistics.isStatisticsEnabled();
+        statistics.setStatisticsEnabled(true);
+        try {
+            // The list fetches the parents with the categories, whatever their number
+            statistics.clear();
+            restCategoryMockMvc
+                .perform(get(ENTITY_API_URL + filter))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(9))
+                .andExpect(jsonPath("$.[1].parent.id").value(ids.get(0).intValue()));
+            assertThat(statistics.getPrepareStatementCount()).isLessThanOrEqualTo(2);
+            em.clear();
+
+            // The detail fetches the parent and the products with the category
+            statistics.clear();
+            restCategoryMockMvc
+                .perform(get(ENTITY_API_URL_ID, ids.get(1)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.parent.id").value(ids.get(0).intValue()))
+                .andExpect(jsonPath("$.products.length()").value(1));
+            assertThat(statistics.getPrepareStatementCount()).isLessThanOrEqualTo(1);
+            em.clear();
+            em.getEntityManagerFactory().getCache().evictAll();
+
+            // The export fetches the parents with the categories, whatever their number
+            statistics.clear();
+            MvcResult result = restCategoryMockMvc
+                .perform(get(ENTITY_API_URL + "/_export?format=ndjson&" + idIn))
+                .andExpect(status().isOk())
+                .andReturn();
+            assertThat(result.getResponse().getContentAsString().split("\n")).hasSize(9);
+            assertThat(statistics.getPrepareStatementCount()).isLessThanOrEqualTo(1);
+        } finally {
+            statistics.setStatisticsEnabled(statisticsEnabled);
+        }
+    }
+
+    @Test
+    @Transactional
+    void getCategoryHierarchy() throws Exception {
+        // Initialize the database with a root, a child and a grandchild holding a product
+        categoryRepository.saveAndFlush(category);
+        Category child = categoryRepository.saveAndFlush(createEntity(em).parent(category));
+        Product product = ProductResourceIT.createEntity(em);
+        em.persist(product);
+        Category grandchild = categoryRepository.saveAndFlush(createEntity(em).parent(child).addProduct(product));
+        categoryHierarchyService.reload();
+
+        restCategoryMockMvc
+            .perform(get(ENTITY_API_URL_ID + "/descendants", category.getId()))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.[*].id").value(contains(child.getId().intValue(), grandchild.getId().intValue())));
+
+        restCategoryMockMvc
+            .perform(get(ENTITY_API_URL_ID + "/ancestors", grandchild.getId()))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.[*].id").value(contains(category.getId().intValue(), child.getId().intValue())));
+
+        restCategoryMockMvc
+            .perform(get(ENTITY_API_URL_ID + "/products", category.getId()))
+            .andExpect(status().isOk())
+            .andExpect(header().string("X-Total-Count", "1"))
+            .andExpect(jsonPath("$.[*].id").value(contains(product.getId().intValue())));
+
+        restCategoryMockMvc.perform(get(ENTITY_API_URL_ID + "/descendants", Long.MAX_VALUE)).andExpect(status().isNotFound());
+    }
+
+    @Test
+    @Transactional
+    void getCategoryProductsByCriteriaStaysInTheSubtree() throws Exception {
+        // Initialize the database with a root and a child holding a product, and another root holding another product
+        categoryRepository.saveAndFlush(category);
+        Product product = ProductResourceIT.createEntity(em);
+        em.persist(product);
+        Category child = categoryRepository.saveAndFlush(createEntity(em).parent(category).addProduct(product));
+        Product otherProduct = ProductResourceIT.createEntity(em);
+        em.persist(otherProduct);
+        Category other = categoryRepository.saveAndFlush(createEntity(em).addProduct(otherProduct));
+        categoryHierarchyService.reload();
+
+        // a category filter outside the subtree does not widen it
+        restCategoryMockMvc
+            .perform(get(ENTITY_API_URL_ID + "/products?categoryId.equals=" + other.getId(), category.getId()))
+            .andExpect(status().isOk())
+            .andExpect(header().string("X-Total-Count", "0"));
+
+        restCategoryMockMvc
+            .perform(get(ENTITY_API_URL_ID + "/products?categoryId.in=" + child.getId() + "," + other.getId(), category.getId()))
+            .andExpect(status().isOk())
+            .andExpect(header().string("X-Total-Count", "1"))
+            .andExpect(jsonPath("$.[*].id").value(contains(product.getId().intValue())));
+
+        restCategoryMockMvc
+            .perform(get(ENTITY_API_URL_ID + "/products?categoryId.notIn=" + child.getId(), category.getId()))
+            .andExpect(status().isOk())
+            .andExpect(header().string("X-Total-Count", "0"));
+    }
+
+    @Test
+    @Transactional
+    void importCategories() throws Exception {
+        // Initialize the database with the parent and the product of the imported category
+        categoryRepository.saveAndFlush(category);
+        Product product = ProductResourceIT.createEntity(em);
+        em.persist(product);
+        em.flush();
+        String csv =
+            "description,sortOrder,status,parentId,productIds\n" +
+            "Imported,3,restricted," + category.getId() + "," + product.getId() + "\n" +
+            ",4,AVAILABLE,,\n" +
+            "\"Quoted, with a comma\",x,,,\n" +
+            "Orphan,5,,," + Long.MAX_VALUE + "\n";
+
+        restCategoryMockMvc
+            .perform(post(ENTITY_API_URL + "/_import?format=csv").contentType("text/csv").content(csv))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.imported").value(1))
+            .andExpect(jsonPath("$.failed").value(3))
+            .andExpect(jsonPath("$.errors.[*].row").value(contains(2, 3, 4)));
+
+        Category imported = em
+            .createQuery(
+                "select category from Category category left join fetch category.products where category.description = :description",
+                Category.class
+            )
+            .setParameter("description", "Imported")
+            .getSingleResult();
+        assertThat(imported.getSortOrder()).isEqualTo(3);
+        assertThat(imported.getStatus()).isEqualTo(CategoryStatus.RESTRICTED);
+        assertThat(imported.getParent().getId()).isEqualTo(category.getId());
+        assertThat(imported.getProducts()).extracting(Product::getId).containsExactly(product.getId());
+    }
+
+    @Test
+    @Transactional
+    void importCategoriesWithUnknownFormat() throws Exception {
+        restCategoryMockMvc
+            .perform(post(ENTITY_API_URL + "/_import?format=xml").contentType(MediaType.TEXT_PLAIN).content("description"))
+            .andExpect(status().isBadRequest());
+    }
+
     @Test
     @Transactional
     void getCategory() throws Exception {
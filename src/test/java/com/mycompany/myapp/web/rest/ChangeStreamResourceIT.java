@@ -0,0 +1,227 @@
+package com.mycompany.myapp.web.rest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+import com.mycompany.myapp.IntegrationTest;
+import com.mycompany.myapp.config.ApplicationProperties;
+import com.mycompany.myapp.domain.EntityChangeLog;
+import com.mycompany.myapp.domain.Product;
+import com.mycompany.myapp.repository.EntityChangeLogRepository;
+import com.mycompany.myapp.repository.ProductRepository;
+import com.mycompany.myapp.service.ChangeStreamService;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.RequestBuilder;
+
+/**
+ * Integration tests for the {@link ChangeStreamResource} REST controller: not transactional, as the changes are only
+ * streamed when the writes commit.
+ */
+@IntegrationTest
+@AutoConfigureMockMvc
+@WithMockUser
+class ChangeStreamResourceIT {
+
+    private static final String ENTITY_API_URL = "/api/changes";
+
+    @Autowired
+    private ChangeStreamService changeStreamService;
+
+    @Autowired
+    private EntityChangeLogRepository entityChangeLogRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private ApplicationProperties applicationProperties;
+
+    @Autowired
+    @Qualifier("changeStreamExecutor")
+    private ThreadPoolTaskExecutor changeStreamExecutor;
+
+    @Autowired
+    private MockMvc restChangeStreamMockMvc;
+
+    private final List<MvcResult> subscriptions = new ArrayList<>();
+
+    private long start;
+
+    @BeforeEach
+    void init() {
+        start = changeStreamService.latestOffset();
+    }
+
+    @AfterEach
+    void cleanup() {
+        // ends the subscriptions, at their next heartbeat
+        subscriptions.forEach(subscription -> subscription.getRequest().getAsyncContext().complete());
+        productRepository.deleteAll(
+            productRepository.findAllById(saved().stream().map(EntityChangeLog::getEntityId).collect(Collectors.toList()))
+        );
+        entityChangeLogRepository.deleteAll(saved());
+    }
+
+    @Test
+    void streamChangesAfterTheOffset() throws Exception {
+        Product product = productRepository.save(product());
+
+        MvcResult subscription = subscribe(ENTITY_API_URL + "?offset=" + start);
+
+        long offset = changeStreamService.latestOffset();
+        String content = awaitContent(subscription, "id:" + offset + "\n");
+        assertThat(content).contains("event:change\n");
+        assertThat(content).contains("\"entityType\":\"Product\"", "\"entityId\":" + product.getId(), "\"operation\":\"CREATE\"");
+
+        productRepository.deleteById(product.getId());
+
+        assertThat(awaitContent(subscription, "\"operation\":\"DELETE\"")).contains("id:" + changeStreamService.latestOffset() + "\n");
+    }
+
+    @Test
+    void streamChangesAfterTheLastEventId() throws Exception {
+        Product product = productRepository.save(product());
+        long created = changeStreamService.latestOffset();
+        productRepository.deleteById(product.getId());
+        long deleted = changeStreamService.latestOffset();
+
+        MvcResult subscription = subscribe(
+            get(ENTITY_API_URL + "?offset=" + start).header("Last-Event-ID", String.valueOf(created)).accept(MediaType.TEXT_EVENT_STREAM)
+        );
+
+        assertThat(awaitContent(subscription, "id:" + deleted + "\n")).doesNotContain("id:" + created + "\n");
+    }
+
+    @Test
+    void streamResetWhenTheChangesAfterTheOffsetArePurged() throws Exception {
+        EntityChangeLog old = new EntityChangeLog();
+        old.setEntityType("Product");
+        old.setEntityId(1L);
+        old.setOperation("UPDATE");
+        old.setChangeDate(Instant.now().minus(Duration.ofDays(30)));
+        old = entityChangeLogRepository.save(old);
+        productRepository.save(product());
+        entityChangeLogRepository.deleteById(old.getId());
+        long latest = changeStreamService.latestOffset();
+
+        MvcResult subscription = subscribe(ENTITY_API_URL + "?offset=" + old.getId());
+
+        String content = awaitContent(subscription, "event:reset\n");
+        assertThat(content).contains("id:" + latest + "\n", "\"offset\":" + latest);
+        assertThat(content).doesNotContain("event:change\n");
+    }
+
+    @Test
+    void streamChangesWithANegativeOffset() throws Exception {
+        restChangeStreamMockMvc
+            .perform(get(ENTITY_API_URL + "?offset=-1").accept(MediaType.TEXT_EVENT_STREAM))
+            .andExpect(status().isBadRequest())
+            .andExpect(header().string("X-jApp1App-error", "error.offsetinvalid"));
+    }
+
+    @Test
+    void streamChangesWhenDisabled() throws Exception {
+        applicationProperties.getChangeStream().setEnabled(false);
+        try {
+            restChangeStreamMockMvc
+                .perform(get(ENTITY_API_URL).accept(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(status().isBadRequest())
+                .andExpect(header().string("X-jApp1App-error", "error.disabled"));
+        } finally {
+            applicationProperties.getChangeStream().setEnabled(true);
+        }
+    }
+
+    @Test
+    void streamChangesWithTooManySubscribers() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        try {
+            occupy(release);
+
+            restChangeStreamMockMvc
+                .perform(get(ENTITY_API_URL).accept(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(status().isTooManyRequests());
+        } finally {
+            release.countDown();
+        }
+    }
+
+    /**
+     * Fill the executor of the subscriptions with tasks blocked until the latch is released.
+     */
+    private void occupy(CountDownLatch release) {
+        try {
+            for (int i = 0; i <= changeStreamExecutor.getMaxPoolSize(); i++) {
+                changeStreamExecutor.execute(() -> {
+                    try {
+                        release.await(10, TimeUnit.SECONDS);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                });
+            }
+        } catch (TaskRejectedException e) {
+            return;
+        }
+        throw new AssertionError("The executor of the subscriptions accepted more tasks than its pool size");
+    }
+
+    private MvcResult subscribe(String url) throws Exception {
+        return subscribe(get(url).accept(MediaType.TEXT_EVENT_STREAM));
+    }
+
+    private MvcResult subscribe(RequestBuilder request) throws Exception {
+        MvcResult subscription = restChangeStreamMockMvc.perform(request).andExpect(request().asyncStarted()).andReturn();
+        subscriptions.add(subscription);
+        return subscription;
+    }
+
+    /**
+     * @return the events received by the subscription, once the event containing the expected text is complete: its
+     * lines are written one at a time.
+     */
+    private static String awaitContent(MvcResult subscription, String expected) throws Exception {
+        long deadline = System.currentTimeMillis() + 10_000;
+        String content = subscription.getResponse().getContentAsString();
+        while (!isReceived(content, expected) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+            content = subscription.getResponse().getContentAsString();
+        }
+        assertThat(content).contains(expected);
+        return content;
+    }
+
+    private static boolean isReceived(String content, String expected) {
+        int index = content.indexOf(expected);
+        return index >= 0 && content.indexOf("\n\n", index) >= 0;
+    }
+
+    private List<EntityChangeLog> saved() {
+        return entityChangeLogRepository.findByIdBetweenOrderByIdAsc(start + 1, Long.MAX_VALUE, Pageable.unpaged());
+    }
+
+    private static Product product() {
+        return new Product().title("streamed").dateAdded(LocalDate.ofEpochDay(0L));
+    }
+}
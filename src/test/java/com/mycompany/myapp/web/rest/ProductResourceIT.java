@@ -5,24 +5,40 @@ import static org.hamcrest.Matchers.hasItem;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
 import com.mycompany.myapp.IntegrationTest;
+import com.mycompany.myapp.config.ApplicationProperties;
 import com.mycompany.myapp.domain.Category;
+import com.mycompany.myapp.domain.EntityChangeLog;
 import com.mycompany.myapp.domain.Product;
+import com.mycompany.myapp.repository.EntityChangeLogRepository;
 import com.mycompany.myapp.repository.ProductRepository;
+import com.mycompany.myapp.service.TableChangeCounter;
 import com.mycompany.myapp.service.criteria.ProductCriteria;
+import com.mycompany.myapp.service.dto.EntityChange;
+import com.mycompany.myapp.service.dto.EntityChangeEvent;
+import com.mycompany.myapp.web.rest.util.KeysetPaginationUtil;
+import com.mycompany.myapp.web.rest.util.SlicePaginationUtil;
 import java.time.LocalDate;
 import java.time.ZoneId;
 import java.util.List;
 import java.util.Random;
+import java.util.Set;
 import java.util.concurrent.atomic.AtomicLong;
 import javax.persistence.EntityManager;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
 
 /**
@@ -69,6 +85,18 @@ class ProductResourceIT {
     @Autowired
     private MockMvc restProductMockMvc;
 
+    @Autowired
+    private TableChangeCounter tableChangeCounter;
+
+    @Autowired
+    private EntityChangeLogRepository entityChangeLogRepository;
+
+    @Autowired
+    private ApplicationProperties applicationProperties;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
     private Product product;
 
     /**
@@ -206,6 +234,288 @@ class ProductResourceIT {
             .andExpect(jsonPath("$.dateModified").value(DEFAULT_DATE_MODIFIED.toString()));
     }
 
+    @Test
+    @Transactional
+    void getProductIfNoneMatch() throws Exception {
+        // Initialize the database
+        productRepository.saveAndFlush(product);
+
+        String etag = restProductMockMvc
+            .perform(get(ENTITY_API_URL_ID, product.getId()))
+            .andExpect(status().isOk())
+            .andExpect(header().exists(HttpHeaders.ETAG))
+            .andReturn()
+            .getResponse()
+            .getHeader(HttpHeaders.ETAG);
+
+        restProductMockMvc
+            .perform(get(ENTITY_API_URL_ID, product.getId()).header(HttpHeaders.IF_NONE_MATCH, etag))
+            .andExpect(status().isNotModified())
+            .andExpect(content().string(""));
+
+        // A new version has a new tag
+        product.setTitle(UPDATED_TITLE);
+        productRepository.saveAndFlush(product);
+        restProductMockMvc
+            .perform(get(ENTITY_API_URL_ID, product.getId()).header(HttpHeaders.IF_NONE_MATCH, etag))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.title").value(UPDATED_TITLE));
+    }
+
+    @Test
+    @Transactional
+    void getAllProductsIfNoneMatch() throws Exception {
+        // Initialize the database
+        productRepository.saveAndFlush(product);
+        String url = ENTITY_API_URL + "?sort=id,desc&id.equals=" + product.getId();
+
+        MvcResult result = restProductMockMvc
+            .perform(get(url))
+            .andExpect(status().isOk())
+            .andExpect(header().exists(HttpHeaders.ETAG))
+            .andExpect(header().exists(HttpHeaders.LAST_MODIFIED))
+            .andReturn();
+        String etag = result.getResponse().getHeader(HttpHeaders.ETAG);
+
+        restProductMockMvc
+            .perform(get(url).header(HttpHeaders.IF_NONE_MATCH, etag))
+            .andExpect(status().isNotModified())
+            .andExpect(header().string(HttpHeaders.ETAG, etag));
+        restProductMockMvc
+            .perform(get(url).header(HttpHeaders.IF_MODIFIED_SINCE, result.getResponse().getHeader(HttpHeaders.LAST_MODIFIED)))
+            .andExpect(status().isNotModified());
+
+        // Another query or representation has another tag
+        restProductMockMvc
+            .perform(get(url + "&page=1").header(HttpHeaders.IF_NONE_MATCH, etag))
+            .andExpect(status().isOk());
+        restProductMockMvc
+            .perform(get(url).accept(MediaType.APPLICATION_CBOR).header(HttpHeaders.IF_NONE_MATCH, etag))
+            .andExpect(status().isOk());
+        // but not another Accept header negotiating the same representation
+        restProductMockMvc
+            .perform(get(url).accept(MediaType.APPLICATION_XML, MediaType.APPLICATION_JSON).header(HttpHeaders.IF_NONE_MATCH, etag))
+            .andExpect(status().isNotModified());
+
+        // A committed write to the table changes the tag
+        EntityChangeLog change = new EntityChangeLog();
+        change.setEntityType(Product.class.getSimpleName());
+        change.setEntityId(product.getId());
+        change.setOperation(EntityChange.Operation.UPDATE.name());
+        entityChangeLogRepository.saveAndFlush(change);
+        tableChangeCounter.onEntityChange(
+            new EntityChangeEvent(List.of(new EntityChange(Product.class, product.getId(), EntityChange.Operation.UPDATE)))
+        );
+        result =
+            restProductMockMvc
+                .perform(get(url).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.[*].id").value(hasItem(product.getId().intValue())))
+                .andReturn();
+        assertThat(result.getResponse().getHeader(HttpHeaders.ETAG)).isNotEqualTo(etag);
+
+        // The other instances tag the listing alike
+        Set<Class<?>> tables = Set.of(Product.class, Category.class);
+        assertThat(new TableChangeCounter(applicationProperties, entityChangeLogRepository, transactionManager).revision(tables))
+            .isEqualTo(tableChangeCounter.revision(tables));
+    }
+
+    @Test
+    @Transactional
+    void getAllProductsAsSmileAndCbor() throws Exception {
+        // Initialize the database
+        productRepository.saveAndFlush(product);
+        String url = ENTITY_API_URL + "?sort=id,desc&id.equals=" + product.getId();
+        MediaType smile = MediaType.valueOf("application/x-jackson-smile");
+
+        byte[] body = restProductMockMvc
+            .perform(get(url).accept(smile))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(smile))
+            .andExpect(header().stringValues(HttpHeaders.VARY, hasItem(HttpHeaders.ACCEPT)))
+            .andReturn()
+            .getResponse()
+            .getContentAsByteArray();
+        JsonNode products = new ObjectMapper(new SmileFactory()).readTree(body);
+        assertThat(products.get(0).get("title").asText()).isEqualTo(DEFAULT_TITLE);
+        assertThat(products.get(0).get("dateAdded").asText()).isEqualTo(DEFAULT_DATE_ADDED.toString());
+
+        body =
+            restProductMockMvc
+                .perform(get(url).accept(MediaType.APPLICATION_CBOR))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_CBOR))
+                .andReturn()
+                .getResponse()
+                .getContentAsByteArray();
+        products = new ObjectMapper(new CBORFactory()).readTree(body);
+        assertThat(products.get(0).get("title").asText()).isEqualTo(DEFAULT_TITLE);
+
+        // JSON stays the default
+        restProductMockMvc.perform(get(url)).andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE));
+    }
+
+    @Test
+    @Transactional
+    void getAllProductsByCursor() throws Exception {
+        // Initialize the database
+        productRepository.saveAndFlush(product);
+        Product otherProduct = productRepository.saveAndFlush(createUpdatedEntity(em));
+        String filter = "&sort=title,asc&id.in=" + product.getId() + "," + otherProduct.getId();
+
+        // Get the first slice
+        MvcResult result = restProductMockMvc
+            .perform(get(ENTITY_API_URL + "?cursor=&size=1" + filter))
+            .andExpect(status().isOk())
+            .andExpect(header().doesNotExist("X-Total-Count"))
+            .andExpect(header().exists(KeysetPaginationUtil.HEADER_NEXT_CURSOR))
+            .andExpect(jsonPath("$.length()").value(1))
+            .andExpect(jsonPath("$.[0].id").value(product.getId().intValue()))
+            .andReturn();
+
+        // Get the second and last slice
+        String cursor = result.getResponse().getHeader(KeysetPaginationUtil.HEADER_NEXT_CURSOR);
+        restProductMockMvc
+            .perform(get(ENTITY_API_URL + "?cursor=" + cursor + "&size=1" + filter))
+            .andExpect(status().isOk())
+            .andExpect(header().doesNotExist(KeysetPaginationUtil.HEADER_NEXT_CURSOR))
+            .andExpect(jsonPath("$.length()").value(1))
+            .andExpect(jsonPath("$.[0].id").value(otherProduct.getId().intValue()));
+    }
+
+    @Test
+    @Transactional
+    void getAllProductsWithInvalidCursor() throws Exception {
+        restProductMockMvc.perform(get(ENTITY_API_URL + "?cursor=not-a-cursor&sort=title,asc")).andExpect(status().isBadRequest());
+        restProductMockMvc.perform(get(ENTITY_API_URL + "?cursor=&sort=categories,asc")).andExpect(status().isBadRequest());
+        restProductMockMvc.perform(get(ENTITY_API_URL + "?cursor=&sort=rating,desc&sort=id,asc")).andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @Transactional
+    void getAllProductsFields() throws Exception {
+        // Initialize the database
+        productRepository.saveAndFlush(product);
+
+        // Get the title and rating of all the products
+        restProductMockMvc
+            .perform(get(ENTITY_API_URL + "?fields=title,rating&sort=id,desc"))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
+            .andExpect(header().exists("X-Total-Count"))
+            .andExpect(jsonPath("$.[0].id").value(product.getId().intValue()))
+            .andExpect(jsonPath("$.[0].title").value(DEFAULT_TITLE))
+            .andExpect(jsonPath("$.[0].rating").value(DEFAULT_RATING))
+            .andExpect(jsonPath("$.[0].description").doesNotExist())
+            .andExpect(jsonPath("$.[0].categories").doesNotExist());
+    }
+
+    @Test
+    @Transactional
+    void getAllProductsWithInvalidFields() throws Exception {
+        restProductMockMvc.perform(get(ENTITY_API_URL + "?fields=unknown")).andExpect(status().isBadRequest());
+        restProductMockMvc.perform(get(ENTITY_API_URL + "?fields=categories")).andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @Transactional
+    void getAllProductsFieldsWithCursorOrCount() throws Exception {
+        restProductMockMvc
+            .perform(get(ENTITY_API_URL + "?fields=title&cursor=&sort=id,asc"))
+            .andExpect(status().isBadRequest())
+            .andExpect(header().string("X-jApp1App-error", "error.fieldsunsupported"));
+        restProductMockMvc
+            .perform(get(ENTITY_API_URL + "?fields=title&count=none"))
+            .andExpect(status().isBadRequest())
+            .andExpect(header().string("X-jApp1App-error", "error.fieldsunsupported"));
+    }
+
+    @Test
+    @Transactional
+    void getAllProductsWithCursorAndCount() throws Exception {
+        restProductMockMvc
+            .perform(get(ENTITY_API_URL + "?cursor=&count=none&sort=id,asc"))
+            .andExpect(status().isBadRequest())
+            .andExpect(header().string("X-jApp1App-error", "error.cursorunsupported"));
+    }
+
+    @Test
+    @Transactional
+    void getAllProductsWithCountMode() throws Exception {
+        // Initialize the database
+        productRepository.saveAndFlush(product);
+        Product otherProduct = productRepository.saveAndFlush(createUpdatedEntity(em));
+        String filter = "&sort=id,asc&id.in=" + product.getId() + "," + otherProduct.getId();
+
+        // Without a count, only whether there is a next page
+        restProductMockMvc
+            .perform(get(ENTITY_API_URL + "?count=none&size=1" + filter))
+            .andExpect(status().isOk())
+            .andExpect(header().doesNotExist("X-Total-Count"))
+            .andExpect(header().string(SlicePaginationUtil.HEADER_HAS_NEXT_PAGE, "true"))
+            .andExpect(jsonPath("$.length()").value(1))
+            .andExpect(jsonPath("$.[0].id").value(product.getId().intValue()));
+        restProductMockMvc
+            .perform(get(ENTITY_API_URL + "?count=none&size=1&page=1" + filter))
+            .andExpect(status().isOk())
+            .andExpect(header().string(SlicePaginationUtil.HEADER_HAS_NEXT_PAGE, "false"))
+            .andExpect(jsonPath("$.[0].id").value(otherProduct.getId().intValue()));
+
+        // With an estimated count, exact on the last page
+        restProductMockMvc
+            .perform(get(ENTITY_API_URL + "?count=estimated&size=1" + filter))
+            .andExpect(status().isOk())
+            .andExpect(header().string("X-Total-Count", "2"))
+            .andExpect(header().string(SlicePaginationUtil.HEADER_TOTAL_COUNT_ESTIMATED, "true"))
+            .andExpect(jsonPath("$.length()").value(1));
+        restProductMockMvc
+            .perform(get(ENTITY_API_URL + "?count=estimated&size=10" + filter))
+            .andExpect(status().isOk())
+            .andExpect(header().string("X-Total-Count", "2"))
+            .andExpect(jsonPath("$.length()").value(2));
+
+        restProductMockMvc.perform(get(ENTITY_API_URL + "?count=approximately" + filter)).andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @Transactional
+    void exportProducts() throws Exception {
+        // Initialize the database
+        productRepository.saveAndFlush(product);
+        Product otherProduct = productRepository.saveAndFlush(createUpdatedEntity(em));
+        String filter = "&id.in=" + product.getId() + "," + otherProduct.getId();
+
+        // Export as NDJSON, one product per line by ascending id
+        MvcResult result = restProductMockMvc
+            .perform(get(ENTITY_API_URL + "/_export?format=ndjson" + filter))
+            .andExpect(status().isOk())
+            .andExpect(content().contentTypeCompatibleWith("application/x-ndjson"))
+            .andReturn();
+        String[] lines = result.getResponse().getContentAsString().split("\n");
+        assertThat(lines).hasSize(2);
+        assertThat(lines[0]).startsWith("{\"id\":" + product.getId() + ",\"title\":\"" + DEFAULT_TITLE + "\"");
+        assertThat(lines[1]).startsWith("{\"id\":" + otherProduct.getId() + ",\"title\":\"" + UPDATED_TITLE + "\"");
+
+        // Export as CSV, with a header line
+        result =
+            restProductMockMvc
+                .perform(get(ENTITY_API_URL + "/_export?format=csv" + filter))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith("text/csv"))
+                .andReturn();
+        lines = result.getResponse().getContentAsString().split("\r\n");
+        assertThat(lines).hasSize(3);
+        assertThat(lines[0]).isEqualTo("id,title,keywords,description,rating,dateAdded,dateModified");
+        assertThat(lines[1]).startsWith(product.getId() + "," + DEFAULT_TITLE + ",");
+        assertThat(lines[2]).startsWith(otherProduct.getId() + "," + UPDATED_TITLE + ",");
+    }
+
+    @Test
+    @Transactional
+    void exportProductsWithUnknownFormat() throws Exception {
+        restProductMockMvc.perform(get(ENTITY_API_URL + "/_export?format=xml")).andExpect(status().isBadRequest());
+    }
+
     @Test
     @Transactional
     void getProductsByIdFiltering() throws Exception {
@@ -886,6 +1196,55 @@ class ProductResourceIT {
         assertThat(testProduct.getDateModified()).isEqualTo(UPDATED_DATE_MODIFIED);
     }
 
+    @Test
+    @Transactional
+    void putStaleProduct() throws Exception {
+        // Initialize the database
+        productRepository.saveAndFlush(product);
+
+        // Update the product from a version another client already updated
+        Product staleProduct = productRepository.findById(product.getId()).get();
+        em.detach(staleProduct);
+        product.setTitle(UPDATED_TITLE);
+        productRepository.saveAndFlush(product);
+        staleProduct.setKeywords(UPDATED_KEYWORDS);
+
+        restProductMockMvc
+            .perform(
+                put(ENTITY_API_URL_ID, staleProduct.getId())
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(TestUtil.convertObjectToJsonBytes(staleProduct))
+            )
+            .andExpect(status().isConflict());
+    }
+
+    @Test
+    @Transactional
+    void putProductWithoutVersion() throws Exception {
+        // Initialize the database
+        productRepository.saveAndFlush(product);
+        int databaseSizeBeforeUpdate = productRepository.findAll().size();
+
+        // Update the product without the version it was read with
+        Product updatedProduct = productRepository.findById(product.getId()).get();
+        em.detach(updatedProduct);
+        updatedProduct.title(UPDATED_TITLE).setVersion(null);
+
+        restProductMockMvc
+            .perform(
+                put(ENTITY_API_URL_ID, updatedProduct.getId())
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(TestUtil.convertObjectToJsonBytes(updatedProduct))
+            )
+            .andExpect(status().isBadRequest())
+            .andExpect(header().string("X-jApp1App-error", "error.versionnull"));
+
+        // Validate the Product in the database
+        List<Product> productList = productRepository.findAll();
+        assertThat(productList).hasSize(databaseSizeBeforeUpdate);
+        assertThat(productList.get(productList.size() - 1).getTitle()).isEqualTo(DEFAULT_TITLE);
+    }
+
     @Test
     @Transactional
     void putNonExistingProduct() throws Exception {
@@ -0,0 +1,98 @@
+package com.mycompany.myapp.web.rest.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Instant;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+class ConditionalGetUtilTest {
+
+    private static final Instant LAST_MODIFIED = Instant.parse("2026-10-18T10:15:30.250Z");
+
+    @Test
+    void testEntityTag() {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+
+        String etag = ConditionalGetUtil.entityTag(request, 1L, 0L);
+
+        assertThat(etag).startsWith("\"").endsWith("\"");
+        assertThat(ConditionalGetUtil.entityTag(request, 1L, 0L)).isEqualTo(etag);
+        assertThat(ConditionalGetUtil.entityTag(request, 1L, 1L)).isNotEqualTo(etag);
+        request.addHeader(HttpHeaders.ACCEPT, "application/xml");
+        assertThat(ConditionalGetUtil.entityTag(request, 1L, 0L)).isNotEqualTo(etag);
+    }
+
+    @Test
+    void testEntityTagDependsOnTheNegotiatedRepresentation() {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        String etag = ConditionalGetUtil.entityTag(request, 1L, 0L);
+
+        request.addHeader(HttpHeaders.ACCEPT, "application/json, text/plain;q=0.5");
+        assertThat(ConditionalGetUtil.entityTag(request, 1L, 0L)).isEqualTo(etag);
+
+        request = new MockHttpServletRequest();
+        request.addHeader(HttpHeaders.ACCEPT, "application/json;q=0.5, application/cbor");
+        assertThat(ConditionalGetUtil.entityTag(request, 1L, 0L)).isNotEqualTo(etag);
+    }
+
+    @Test
+    void testRepresentation() {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        assertThat(ConditionalGetUtil.representation(request)).isEqualTo(MediaType.APPLICATION_JSON);
+
+        request.addHeader(HttpHeaders.ACCEPT, "application/*;q=0.8, application/x-jackson-smile");
+        assertThat(ConditionalGetUtil.representation(request)).isEqualTo(MediaType.valueOf("application/x-jackson-smile"));
+
+        request = new MockHttpServletRequest();
+        request.addHeader(HttpHeaders.ACCEPT, "text/html");
+        assertThat(ConditionalGetUtil.representation(request)).isNull();
+    }
+
+    @Test
+    void testListValidatorsDependOnTheQuery() {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/products");
+        request.setQueryString("page=0");
+        HttpHeaders validators = ConditionalGetUtil.listValidators(request, "r1", LAST_MODIFIED);
+
+        request.setQueryString("page=1");
+
+        assertThat(ConditionalGetUtil.listValidators(request, "r1", LAST_MODIFIED).getETag()).isNotEqualTo(validators.getETag());
+        assertThat(validators.getLastModified()).isEqualTo(LAST_MODIFIED.toEpochMilli() / 1000 * 1000);
+    }
+
+    @Test
+    void testIsNotModifiedIfNoneMatch() {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/products");
+        HttpHeaders validators = ConditionalGetUtil.listValidators(request, "r1", LAST_MODIFIED);
+
+        assertThat(ConditionalGetUtil.isNotModified(request, validators)).isFalse();
+        request.addHeader(HttpHeaders.IF_NONE_MATCH, "\"other\", W/" + validators.getETag());
+        assertThat(ConditionalGetUtil.isNotModified(request, validators)).isTrue();
+
+        request = new MockHttpServletRequest("GET", "/api/products");
+        request.addHeader(HttpHeaders.IF_NONE_MATCH, "*");
+        assertThat(ConditionalGetUtil.isNotModified(request, validators)).isTrue();
+    }
+
+    @Test
+    void testIsNotModifiedIfModifiedSince() {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/products");
+        HttpHeaders validators = ConditionalGetUtil.listValidators(request, "r1", LAST_MODIFIED);
+
+        request.addHeader(HttpHeaders.IF_MODIFIED_SINCE, LAST_MODIFIED.toEpochMilli());
+        assertThat(ConditionalGetUtil.isNotModified(request, validators)).isTrue();
+
+        request = new MockHttpServletRequest("GET", "/api/products");
+        request.addHeader(HttpHeaders.IF_MODIFIED_SINCE, LAST_MODIFIED.minusSeconds(1).toEpochMilli());
+        assertThat(ConditionalGetUtil.isNotModified(request, validators)).isFalse();
+
+        // If-None-Match takes precedence
+        request = new MockHttpServletRequest("GET", "/api/products");
+        request.addHeader(HttpHeaders.IF_MODIFIED_SINCE, LAST_MODIFIED.toEpochMilli());
+        request.addHeader(HttpHeaders.IF_NONE_MATCH, "\"other\"");
+        assertThat(ConditionalGetUtil.isNotModified(request, validators)).isFalse();
+    }
+}
@@ -0,0 +1,49 @@
+package com.mycompany.myapp.web.rest.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.mycompany.myapp.domain.Address;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import org.junit.jupiter.api.Test;
+
+class EntityExportWriterTest {
+
+    private final EntityExportWriter<Address> writer = new EntityExportWriter<Address>()
+        .column("id", Address::getId)
+        .column("address1", Address::getAddress1)
+        .column("address2", Address::getAddress2);
+
+    @Test
+    void testEscapeCsv() {
+        assertThat(EntityExportWriter.escapeCsv("plain")).isEqualTo("plain");
+        assertThat(EntityExportWriter.escapeCsv("a,b")).isEqualTo("\"a,b\"");
+        assertThat(EntityExportWriter.escapeCsv("say \"hi\"")).isEqualTo("\"say \"\"hi\"\"\"");
+        assertThat(EntityExportWriter.escapeCsv("two\nlines")).isEqualTo("\"two\nlines\"");
+    }
+
+    @Test
+    void testWriteCsv() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (EntityExportWriter.Records<Address> records = writer.open(DataFormat.CSV, out)) {
+            records.accept(new Address().id(1L).address1("1, Main Street"));
+        }
+
+        assertThat(out.toString(StandardCharsets.UTF_8)).isEqualTo("id,address1,address2\r\n1,\"1, Main Street\",\r\n");
+    }
+
+    @Test
+    void testWriteNdjson() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (EntityExportWriter.Records<Address> records = writer.open(DataFormat.NDJSON, out)) {
+            records.accept(new Address().id(1L).address1("1 \"Main\" Street"));
+            records.accept(new Address().id(2L));
+        }
+
+        assertThat(out.toString(StandardCharsets.UTF_8))
+            .isEqualTo(
+                "{\"id\":1,\"address1\":\"1 \\\"Main\\\" Street\",\"address2\":null}\n" +
+                "{\"id\":2,\"address1\":null,\"address2\":null}\n"
+            );
+    }
+}
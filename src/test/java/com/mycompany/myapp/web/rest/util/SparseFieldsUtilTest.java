@@ -0,0 +1,15 @@
+package com.mycompany.myapp.web.rest.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+class SparseFieldsUtilTest {
+
+    @Test
+    void testParseFields() {
+        assertThat(SparseFieldsUtil.parseFields("title, rating,,title")).containsExactly("title", "rating");
+        assertThat(SparseFieldsUtil.parseFields("title", "id,rating")).containsExactly("title", "id", "rating");
+        assertThat(SparseFieldsUtil.parseFields("")).isEmpty();
+    }
+}